@@ -16,16 +16,19 @@
 package org.gradle.internal.service;
 
 import org.gradle.api.Action;
+import org.gradle.api.GradleException;
 import org.gradle.api.Nullable;
 import org.gradle.api.specs.Spec;
 import org.gradle.internal.Factory;
+import org.gradle.internal.UncheckedException;
 import org.gradle.internal.concurrent.CompositeStoppable;
 import org.gradle.internal.concurrent.Stoppable;
-import org.gradle.internal.reflect.JavaReflectionUtil;
 
 import java.io.Closeable;
 import java.lang.reflect.*;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * A hierarchical {@link ServiceRegistry} implementation.
@@ -54,14 +57,21 @@ import java.util.*;
  * reverse dependency order.</p>
  *
  * <p>Service registries are arranged in a hierarchy. If a service of a given type cannot be located, the registry uses its parent registry, if any, to locate the service.</p>
+ *
+ * <p>The factory, decorator and configure methods of a provider class are located once per class and shared by all registries that use the class. Once a service or
+ * factory of a given type has been located, subsequent lookups of that type do not take the registry lock.</p>
  */
 public class DefaultServiceRegistry implements ServiceRegistry, Closeable {
+    private static final ConcurrentMap<Class<?>, RelevantMethods> METHODS_CACHE = new ConcurrentHashMap<Class<?>, RelevantMethods>();
+
     private final Object lock = new Object();
     private final CompositeProvider allServices = new CompositeProvider();
     private final OwnServices ownServices;
     private final CompositeProvider parentServices;
     private final String displayName;
-    private boolean closed;
+    private final ConcurrentMap<Type, Object> resolvedServices = new ConcurrentHashMap<Type, Object>(16, 0.75f, 1);
+    private final ConcurrentMap<Class<?>, Factory<?>> resolvedFactories = new ConcurrentHashMap<Class<?>, Factory<?>>(16, 0.75f, 1);
+    private volatile boolean closed;
 
     public DefaultServiceRegistry() {
         this(null, Collections.<ServiceRegistry>emptyList());
@@ -111,82 +121,56 @@ public class DefaultServiceRegistry implements ServiceRegistry, Closeable {
     }
 
     private void findProviderMethods(Object target) {
-        Set<String> methods = new HashSet<String>();
-        for (Class<?> type = target.getClass(); type != Object.class; type = type.getSuperclass()) {
-            findDecoratorMethods(target, type, methods, ownServices);
-            findFactoryMethods(target, type, methods, ownServices);
-        }
-        findConfigureMethod(target);
-    }
-
-    private void findConfigureMethod(Object target) {
-        for (Class<?> type = target.getClass(); type != Object.class; type = type.getSuperclass()) {
-            for (Method method : type.getDeclaredMethods()) {
-                if (!method.getName().equals("configure")) {
-                    continue;
-                }
-                if (!method.getReturnType().equals(Void.TYPE)) {
-                    throw new ServiceLookupException(String.format("Method %s.%s() must return void.", type.getSimpleName(), method.getName()));
-                }
-                Object[] params = new Object[method.getGenericParameterTypes().length];
-                DefaultLookupContext context = new DefaultLookupContext();
-                for (int i = 0; i < method.getGenericParameterTypes().length; i++) {
-                    Type paramType = method.getGenericParameterTypes()[i];
-                    if (paramType.equals(ServiceRegistration.class)) {
-                        params[i] = newRegistration();
-                    } else {
-                        ServiceProvider paramProvider = context.find(paramType, allServices);
-                        if (paramProvider == null) {
-                            throw new ServiceLookupException(String.format("Cannot configure services using %s.%s() as required service of type %s is not available.",
-                                    method.getDeclaringClass().getSimpleName(),
-                                    method.getName(),
-                                    format(paramType)));
-                        }
-                        params[i] = paramProvider.get();
-                    }
-                }
-                try {
-                    invoke(method, target, params);
-                } catch (Exception e) {
-                    throw new ServiceLookupException(String.format("Could not configure services using %s.%s().",
-                            method.getDeclaringClass().getSimpleName(),
-                            method.getName()), e);
-                }
-                return;
+        RelevantMethods methods = getMethods(target.getClass());
+        for (ServiceMethod method : methods.decorators) {
+            if (parentServices == null) {
+                throw new ServiceLookupException(String.format("Cannot use decorator method %s.%s() when no parent registry is provided.", method.method.getDeclaringClass().getSimpleName(), method.method.getName()));
             }
+            ownServices.add(new DecoratorMethodService(target, method));
+        }
+        for (ServiceMethod method : methods.factories) {
+            ownServices.add(new FactoryMethodService(target, method));
+        }
+        if (methods.configurer != null) {
+            applyConfigureMethod(target, methods.configurer);
         }
     }
 
-    private void findFactoryMethods(Object target, Class<?> type, Set<String> factoryMethods, OwnServices ownServices) {
-        for (Method method : type.getDeclaredMethods()) {
-            if (method.getName().startsWith("create")
-                    && !Modifier.isStatic(method.getModifiers())) {
-                if (method.getReturnType().equals(Void.TYPE)) {
-                    throw new ServiceLookupException(String.format("Method %s.%s() must not return void.", type.getSimpleName(), method.getName()));
-                }
-                if (factoryMethods.add(method.getName())) {
-                    ownServices.add(new FactoryMethodService(target, method));
-                }
-            }
+    private static RelevantMethods getMethods(Class<?> type) {
+        RelevantMethods methods = METHODS_CACHE.get(type);
+        if (methods == null) {
+            methods = new RelevantMethods(type);
+            METHODS_CACHE.putIfAbsent(type, methods);
         }
+        return methods;
     }
 
-    private void findDecoratorMethods(Object target, Class<?> type, Set<String> decoratorMethods, OwnServices ownServices) {
-        for (Method method : type.getDeclaredMethods()) {
-            if (method.getName().startsWith("create")
-                    && method.getParameterTypes().length == 1
-                    && method.getParameterTypes()[0].equals(method.getReturnType())) {
-                if (parentServices == null) {
-                    throw new ServiceLookupException(String.format("Cannot use decorator method %s.%s() when no parent registry is provided.", type.getSimpleName(), method.getName()));
-                }
-                if (method.getReturnType().equals(Void.TYPE)) {
-                    throw new ServiceLookupException(String.format("Method %s.%s() must not return void.", type.getSimpleName(), method.getName()));
-                }
-                if (decoratorMethods.add(method.getName())) {
-                    ownServices.add(new DecoratorMethodService(target, method));
+    private void applyConfigureMethod(Object target, ServiceMethod configurer) {
+        Method method = configurer.method;
+        Object[] params = new Object[configurer.parameterTypes.length];
+        DefaultLookupContext context = new DefaultLookupContext();
+        for (int i = 0; i < configurer.parameterTypes.length; i++) {
+            Type paramType = configurer.parameterTypes[i];
+            if (paramType.equals(ServiceRegistration.class)) {
+                params[i] = newRegistration();
+            } else {
+                ServiceProvider paramProvider = context.find(paramType, allServices);
+                if (paramProvider == null) {
+                    throw new ServiceLookupException(String.format("Cannot configure services using %s.%s() as required service of type %s is not available.",
+                            method.getDeclaringClass().getSimpleName(),
+                            method.getName(),
+                            format(paramType)));
                 }
+                params[i] = paramProvider.get();
             }
         }
+        try {
+            configurer.invoke(target, params);
+        } catch (Exception e) {
+            throw new ServiceLookupException(String.format("Could not configure services using %s.%s().",
+                    method.getDeclaringClass().getSimpleName(),
+                    method.getName()), e);
+        }
     }
 
     /**
@@ -237,6 +221,8 @@ public class DefaultServiceRegistry implements ServiceRegistry, Closeable {
                 CompositeStoppable.stoppable(allServices).stop();
             } finally {
                 closed = true;
+                resolvedServices.clear();
+                resolvedFactories.clear();
             }
         }
     }
@@ -289,6 +275,12 @@ public class DefaultServiceRegistry implements ServiceRegistry, Closeable {
     }
 
     private Object doGet(Type serviceType) throws IllegalArgumentException {
+        if (!closed) {
+            Object service = resolvedServices.get(serviceType);
+            if (service != null) {
+                return service;
+            }
+        }
         synchronized (lock) {
             if (closed) {
                 throw new IllegalStateException(String.format("Cannot locate service of type %s, as %s has been closed.", format(serviceType), displayName));
@@ -297,7 +289,9 @@ public class DefaultServiceRegistry implements ServiceRegistry, Closeable {
             DefaultLookupContext context = new DefaultLookupContext();
             ServiceProvider provider = context.find(serviceType, allServices);
             if (provider != null) {
-                return provider.get();
+                Object service = provider.get();
+                resolvedServices.put(serviceType, service);
+                return service;
             }
 
             throw new UnknownServiceException(serviceType, String.format("No service of type %s available in %s.", format(serviceType), displayName));
@@ -305,15 +299,23 @@ public class DefaultServiceRegistry implements ServiceRegistry, Closeable {
     }
 
     public <T> Factory<T> getFactory(Class<T> type) {
+        if (!closed) {
+            Factory<?> factory = resolvedFactories.get(type);
+            if (factory != null) {
+                return (Factory<T>) factory;
+            }
+        }
         synchronized (lock) {
             if (closed) {
                 throw new IllegalStateException(String.format("Cannot locate factory for objects of type %s, as %s has been closed.", format(type), displayName));
             }
 
             DefaultLookupContext context = new DefaultLookupContext();
-            ServiceProvider factory = allServices.getFactory(context, type);
-            if (factory != null) {
-                return (Factory<T>) factory.get();
+            ServiceProvider provider = allServices.getFactory(context, type);
+            if (provider != null) {
+                Factory<T> factory = (Factory<T>) provider.get();
+                resolvedFactories.put(type, factory);
+                return factory;
             }
 
             throw new UnknownServiceException(type, String.format("No factory for objects of type %s available in %s.", format(type), displayName));
@@ -324,8 +326,76 @@ public class DefaultServiceRegistry implements ServiceRegistry, Closeable {
         return getFactory(type).create();
     }
 
-    private static Object invoke(Method method, Object target, Object... args) {
-        return JavaReflectionUtil.method(target, Object.class, method).invoke(target, args);
+    /**
+     * The factory, decorator and configure methods declared by a provider class and its superclasses.
+     */
+    private static class RelevantMethods {
+        final List<ServiceMethod> decorators = new ArrayList<ServiceMethod>();
+        final List<ServiceMethod> factories = new ArrayList<ServiceMethod>();
+        ServiceMethod configurer;
+
+        RelevantMethods(Class<?> target) {
+            Set<String> names = new HashSet<String>();
+            for (Class<?> type = target; type != Object.class; type = type.getSuperclass()) {
+                Method[] methods = type.getDeclaredMethods();
+                for (Method method : methods) {
+                    if (method.getName().startsWith("create")
+                            && method.getParameterTypes().length == 1
+                            && method.getParameterTypes()[0].equals(method.getReturnType())
+                            && names.add(method.getName())) {
+                        decorators.add(new ServiceMethod(method));
+                    }
+                }
+                for (Method method : methods) {
+                    if (method.getName().startsWith("create")
+                            && !Modifier.isStatic(method.getModifiers())) {
+                        if (method.getReturnType().equals(Void.TYPE)) {
+                            throw new ServiceLookupException(String.format("Method %s.%s() must not return void.", type.getSimpleName(), method.getName()));
+                        }
+                        if (names.add(method.getName())) {
+                            factories.add(new ServiceMethod(method));
+                        }
+                    }
+                }
+            }
+            for (Class<?> type = target; type != Object.class && configurer == null; type = type.getSuperclass()) {
+                for (Method method : type.getDeclaredMethods()) {
+                    if (method.getName().equals("configure")) {
+                        if (!method.getReturnType().equals(Void.TYPE)) {
+                            throw new ServiceLookupException(String.format("Method %s.%s() must return void.", type.getSimpleName(), method.getName()));
+                        }
+                        configurer = new ServiceMethod(method);
+                        break;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * A provider method, made accessible once and with its generic signature resolved once.
+     */
+    private static class ServiceMethod {
+        final Method method;
+        final Type serviceType;
+        final Type[] parameterTypes;
+
+        ServiceMethod(Method method) {
+            method.setAccessible(true);
+            this.method = method;
+            this.serviceType = method.getGenericReturnType();
+            this.parameterTypes = method.getGenericParameterTypes();
+        }
+
+        Object invoke(Object target, Object... args) {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw UncheckedException.throwAsUncheckedException(e.getCause());
+            } catch (Exception e) {
+                throw new GradleException(String.format("Could not call %s.%s() on %s", method.getDeclaringClass().getSimpleName(), method.getName(), target), e);
+            }
+        }
     }
 
     interface ServiceProvider {
@@ -423,6 +493,9 @@ public class DefaultServiceRegistry implements ServiceRegistry, Closeable {
 
         public void add(Provider provider) {
             this.providers.add(provider);
+            // The new provider may change the result of lookups that have already been made
+            resolvedServices.clear();
+            resolvedFactories.clear();
         }
     }
 
@@ -613,21 +686,23 @@ public class DefaultServiceRegistry implements ServiceRegistry, Closeable {
     }
 
     private class FactoryMethodService extends FactoryService {
+        private final ServiceMethod serviceMethod;
         private final Method method;
         private Object target;
 
-        public FactoryMethodService(Object target, Method method) {
-            super(method.getGenericReturnType());
+        public FactoryMethodService(Object target, ServiceMethod serviceMethod) {
+            super(serviceMethod.serviceType);
             this.target = target;
-            this.method = method;
+            this.serviceMethod = serviceMethod;
+            this.method = serviceMethod.method;
         }
 
         public String getDisplayName() {
-            return String.format("Service %s at %s.%s()", format(method.getGenericReturnType()), method.getDeclaringClass().getSimpleName(), method.getName());
+            return String.format("Service %s at %s.%s()", format(serviceType), method.getDeclaringClass().getSimpleName(), method.getName());
         }
 
         protected Type[] getParameterTypes() {
-            return method.getGenericParameterTypes();
+            return serviceMethod.parameterTypes;
         }
 
         @Override
@@ -638,7 +713,7 @@ public class DefaultServiceRegistry implements ServiceRegistry, Closeable {
         protected Object invokeMethod(Object[] params) {
             Object result;
             try {
-                result = invoke(method, target, params);
+                result = serviceMethod.invoke(target, params);
             } catch (Exception e) {
                 throw new ServiceCreationException(String.format("Could not create service of type %s using %s.%s().",
                         format(serviceType),
@@ -731,28 +806,30 @@ public class DefaultServiceRegistry implements ServiceRegistry, Closeable {
     }
 
     private class DecoratorMethodService extends SingletonService {
+        private final ServiceMethod serviceMethod;
         private final Method method;
         private Object target;
         private ServiceProvider paramProvider;
 
-        public DecoratorMethodService(Object target, Method method) {
-            super(method.getGenericReturnType());
+        public DecoratorMethodService(Object target, ServiceMethod serviceMethod) {
+            super(serviceMethod.serviceType);
             this.target = target;
-            this.method = method;
+            this.serviceMethod = serviceMethod;
+            this.method = serviceMethod.method;
         }
 
         public String getDisplayName() {
-            return String.format("Service %s at %s.%s()", format(method.getGenericReturnType()), method.getDeclaringClass().getSimpleName(), method.getName());
+            return String.format("Service %s at %s.%s()", format(serviceType), method.getDeclaringClass().getSimpleName(), method.getName());
         }
 
         @Override
         protected void bind(LookupContext context) {
-            Type paramType = method.getGenericParameterTypes()[0];
+            Type paramType = serviceMethod.parameterTypes[0];
             DefaultLookupContext parentLookupContext = new DefaultLookupContext();
             paramProvider = parentLookupContext.find(paramType, parentServices);
             if (paramProvider == null) {
                 throw new ServiceCreationException(String.format("Cannot create service of type %s using %s.%s() as required service of type %s is not available in parent registries.",
-                        format(method.getGenericReturnType()),
+                        format(serviceType),
                         method.getDeclaringClass().getSimpleName(),
                         method.getName(),
                         format(paramType)));
@@ -764,10 +841,10 @@ public class DefaultServiceRegistry implements ServiceRegistry, Closeable {
             Object param = paramProvider.get();
             Object result;
             try {
-                result = invoke(method, target, param);
+                result = serviceMethod.invoke(target, param);
             } catch (Exception e) {
                 throw new ServiceCreationException(String.format("Could not create service of type %s using %s.%s().",
-                        format(method.getGenericReturnType()),
+                        format(serviceType),
                         method.getDeclaringClass().getSimpleName(),
                         method.getName()),
                         e);
@@ -775,7 +852,7 @@ public class DefaultServiceRegistry implements ServiceRegistry, Closeable {
             try {
                 if (result == null) {
                     throw new ServiceCreationException(String.format("Could not create service of type %s using %s.%s() as this method returned null.",
-                            format(method.getGenericReturnType()),
+                            format(serviceType),
                             method.getDeclaringClass().getSimpleName(),
                             method.getName()));
                 }
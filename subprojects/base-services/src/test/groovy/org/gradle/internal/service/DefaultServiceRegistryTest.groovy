@@ -979,6 +979,67 @@ class DefaultServiceRegistryTest extends Specification {
         e.message == "Cannot locate factory for objects of type BigDecimal, as TestRegistry has been closed."
     }
 
+    def doesNotAskParentAgainForServiceThatHasAlreadyBeenLocated() {
+        def value = BigDecimal.TEN
+        def parent = Mock(ServiceRegistry)
+        def registry = new TestRegistry(parent)
+
+        when:
+        def first = registry.get(BigDecimal)
+        def second = registry.get(BigDecimal)
+
+        then:
+        first == value
+        second == value
+
+        and:
+        1 * parent.get(BigDecimal) >> value
+    }
+
+    def doesNotAskParentAgainForFactoryThatHasAlreadyBeenLocated() {
+        def factory = Mock(Factory)
+        def parent = Mock(ServiceRegistry)
+        def registry = new TestRegistry(parent)
+
+        when:
+        def first = registry.getFactory(Map)
+        def second = registry.getFactory(Map)
+
+        then:
+        first == factory
+        second == factory
+
+        and:
+        1 * parent.getFactory(Map) >> factory
+    }
+
+    def serviceAddedAfterLookupIsUsedForLaterLookups() {
+        def registry = new DefaultServiceRegistry()
+        registry.add(String, "a")
+
+        expect:
+        registry.get(String) == "a"
+
+        when:
+        registry.add(String, "b")
+        registry.get(String)
+
+        then:
+        ServiceLookupException e = thrown()
+        e.message.startsWith("Multiple services of type String available in DefaultServiceRegistry:")
+    }
+
+    def eachRegistryUsesItsOwnProviderInstance() {
+        def registry1 = new DefaultServiceRegistry()
+        def registry2 = new DefaultServiceRegistry()
+        registry1.addProvider(new StatefulProvider(value: 1))
+        registry2.addProvider(new StatefulProvider(value: 2))
+
+        expect:
+        registry1.get(Integer) == 1
+        registry2.get(Integer) == 2
+    }
+
     private Factory<Number> numberFactory
     private Factory<String> stringFactory
     private Factory<? super BigDecimal> superBigDecimalFactory
@@ -1078,6 +1139,14 @@ class DefaultServiceRegistryTest extends Specification {
         }
     }
 
+    private static class StatefulProvider {
+        int value
+
+        Integer createInteger() {
+            return value
+        }
+    }
+
     private static class ProviderWithCycle {
         String createString(Integer value) {
             return value.toString()
@@ -123,6 +123,42 @@ class CheckstylePluginIntegrationTest extends WellBehavedPluginTest {
         succeeds("checkstyleMain") && ":checkstyleMain" in nonSkippedTasks
     }
     
+    def "only checks source files without cached results"() {
+        given:
+        goodCode()
+        succeeds("checkstyleMain")
+
+        when:
+        file('src/main/java/org/gradle/Class1.java').text = 'package org.gradle; class Class1 { int x; }'
+        executer.withArgument("-i")
+
+        then:
+        succeeds("checkstyleMain")
+        output.contains("Checking 1 of 2 source files that have no cached Checkstyle results.")
+        file("build/reports/checkstyle/main.xml").assertContents(containsClass("org.gradle.Class1"))
+        file("build/reports/checkstyle/main.xml").assertContents(containsClass("org.gradle.Class2"))
+    }
+
+    def "reports cached violations"() {
+        given:
+        defaultLanguage('en')
+        badCode()
+        fails("checkstyleMain")
+
+        when:
+        file("build/reports/checkstyle/main.xml").delete()
+        defaultLanguage('en')
+        args("-i")
+
+        then:
+        fails("checkstyleMain")
+        output.contains("Using cached Checkstyle results for all 2 source files.")
+        !output.contains("source files that have no cached Checkstyle results")
+        failure.assertThatCause(startsWith("Checkstyle rule violations were found. See the report at:"))
+        failure.error.contains("Name 'class1' must match pattern")
+        file("build/reports/checkstyle/main.xml").assertContents(containsClass("org.gradle.class1"))
+    }
+
     def "can configure reporting"() {
         given:
         goodCode()
@@ -20,18 +20,31 @@ import org.gradle.api.Incubating
 import org.gradle.api.file.FileCollection
 import org.gradle.api.internal.project.IsolatedAntBuilder
 import org.gradle.api.plugins.quality.internal.CheckstyleReportsImpl
+import org.gradle.api.plugins.quality.internal.checkstyle.CheckstyleResultCache
+import org.gradle.api.plugins.quality.internal.checkstyle.CheckstyleViolation
+import org.gradle.api.plugins.quality.internal.checkstyle.CheckstyleXmlReport
 import org.gradle.api.reporting.Reporting
 import org.gradle.api.resources.TextResource
 import org.gradle.api.tasks.*
+import org.gradle.internal.hash.HashUtil
 import org.gradle.internal.reflect.Instantiator
 import org.gradle.logging.ConsoleRenderer
+import org.gradle.util.GFileUtils
 
 import javax.inject.Inject
+import java.util.regex.Pattern
 
 /**
  * Runs Checkstyle against some source files.
+ *
+ * <p>The results for each source file are cached, keyed by the content of the file and by the Checkstyle version and configuration. Only
+ * source files without a cached result are checked when the task runs. Results are not cached when the configuration contains checks
+ * whose result for a file depends on other files, such as {@code JavadocPackage} or {@code StrictDuplicateCode}.</p>
  */
 class Checkstyle extends SourceTask implements VerificationTask, Reporting<CheckstyleReports> {
+    private static final Pattern CROSS_FILE_CHECK = Pattern.compile('<module\\s+name\\s*=\\s*["\'](?:[\\w.]*\\.)?(JavadocPackage|PackageHtml|Translation|UniqueProperties|StrictDuplicateCode)(?:Check)?["\']')
+    private static final Pattern CONFIG_VALUE = Pattern.compile('value\\s*=\\s*["\']([^"\']*)["\']')
+
     /**
      * The class path containing the Checkstyle library to be used.
      */
@@ -92,6 +105,11 @@ class Checkstyle extends SourceTask implements VerificationTask, Reporting<Check
         throw new UnsupportedOperationException();
     }
 
+    @Inject
+    CheckstyleResultCache getResultCache() {
+        throw new UnsupportedOperationException();
+    }
+
     /**
      * The reports to be generated by this task.
      *
@@ -135,38 +153,161 @@ class Checkstyle extends SourceTask implements VerificationTask, Reporting<Check
 
     @TaskAction
     public void run() {
-        def propertyName = "org.gradle.checkstyle.violations"
+        def configText = getConfig().asString()
+        CheckstyleXmlReport report
+        if (CROSS_FILE_CHECK.matcher(configText).find()) {
+            logger.info("Not using cached Checkstyle results, as the configuration contains checks whose results depend on more than one source file.")
+            report = runCheckstyle(getSource().files)
+        } else {
+            report = runCheckstyleWithCache(configText)
+        }
+
+        if (reports.xml.enabled) {
+            GFileUtils.mkdirs(reports.xml.destination.parentFile)
+            report.writeTo(reports.xml.destination)
+        }
+        if (showViolations) {
+            report.violations.each { File file, List<CheckstyleViolation> fileViolations ->
+                fileViolations.each { CheckstyleViolation violation ->
+                    logger.error("[ant:checkstyle] {}", formatViolation(file, violation))
+                }
+            }
+        }
+
+        if (report.errorCount > 0) {
+            def message = "Checkstyle rule violations were found."
+            def reportFile = reports.firstEnabled
+            if (reportFile) {
+                def reportUrl = new ConsoleRenderer().asClickableFileUrl(reportFile.destination)
+                message += " See the report at: $reportUrl"
+            }
+            if (getIgnoreFailures()) {
+                logger.warn(message)
+            } else {
+                throw new GradleException(message)
+            }
+        }
+    }
+
+    private CheckstyleXmlReport runCheckstyleWithCache(String configText) {
+        def analysisKey = createAnalysisKey(configText)
+        Map<File, String> fileKeys = new LinkedHashMap<File, String>()
+        getSource().files.each { File file ->
+            fileKeys[file] = HashUtil.createHash(analysisKey + file.absolutePath + HashUtil.createHash(file, "MD5").asHexString(), "MD5").asHexString()
+        }
+
+        // Only the files whose results are not cached for this Checkstyle version and configuration need to be checked
+        def cachedViolations = resultCache.getAll(fileKeys.values())
+        def changedFiles = fileKeys.findAll { file, key -> !cachedViolations.containsKey(key) }.keySet()
+        CheckstyleXmlReport changedReport = null
+        if (!changedFiles.empty) {
+            logger.info("Checking {} of {} source files that have no cached Checkstyle results.", changedFiles.size(), fileKeys.size())
+            changedReport = runCheckstyle(changedFiles)
+            Map<String, List<CheckstyleViolation>> newResults = [:]
+            changedFiles.each { File file ->
+                if (!changedReport.filesWithExceptions.contains(file)) {
+                    newResults[fileKeys[file]] = changedReport.violations[file] ?: []
+                }
+            }
+            resultCache.putAll(newResults)
+        } else {
+            logger.info("Using cached Checkstyle results for all {} source files.", fileKeys.size())
+        }
+
+        Map<File, List<CheckstyleViolation>> violations = new LinkedHashMap<File, List<CheckstyleViolation>>()
+        fileKeys.each { File file, String key ->
+            violations[file] = cachedViolations[key] ?: changedReport?.violations?.get(file) ?: []
+        }
+        return new CheckstyleXmlReport(changedReport?.version ?: determineToolVersion(), violations, changedReport?.filesWithExceptions ?: [] as Set)
+    }
+
+    private CheckstyleXmlReport runCheckstyle(Collection<File> files) {
+        def reportFile = new File(temporaryDir, "checkstyle-result.xml")
         antBuilder.withClasspath(getCheckstyleClasspath()).execute {
             ant.taskdef(name: 'checkstyle', classname: 'com.puppycrawl.tools.checkstyle.CheckStyleTask')
 
-            ant.checkstyle(config: getConfig().asFile(), failOnViolation: false, failureProperty: propertyName) {
-                getSource().addToAntBuilder(ant, 'fileset', FileCollection.AntType.FileSet)
-                getClasspath().addToAntBuilder(ant, 'classpath')
-                if (showViolations) {
-                    formatter(type: 'plain', useFile: false)
-                }
-                if (reports.xml.enabled) {
-                    formatter(type: 'xml', toFile: reports.xml.destination)
+            ant.checkstyle(config: getConfig().asFile(), failOnViolation: false) {
+                files.each { File file ->
+                    fileset(file: file)
                 }
+                getClasspath().addToAntBuilder(ant, 'classpath')
+                formatter(type: 'xml', toFile: reportFile)
 
                 getConfigProperties().each { key, value ->
                     property(key: key, value: value.toString())
                 }
             }
+        }
+        return CheckstyleXmlReport.read(reportFile)
+    }
 
-            if (ant.project.properties[propertyName]) {
-                def message = "Checkstyle rule violations were found."
-                def report = reports.firstEnabled
-                if (report) {
-                    def reportUrl = new ConsoleRenderer().asClickableFileUrl(report.destination)
-                    message += " See the report at: $reportUrl"
-                }
-                if (getIgnoreFailures()) {
-                    logger.warn(message)
-                } else {
-                    throw new GradleException(message)
-                }
+    /**
+     * Identifies the Checkstyle implementation and configuration, including any files referenced by the configuration, such as suppressions,
+     * header and import control files.
+     */
+    private String createAnalysisKey(String configText) {
+        // Checkstyle messages are localized
+        def key = new StringBuilder(Locale.default.toString()).append(";")
+        getCheckstyleClasspath().each { File file ->
+            key << file.name << ":" << (file.file ? HashUtil.createHash(file, "MD5").asHexString() : "") << ";"
+        }
+        key << HashUtil.createHash(configText, "MD5").asHexString() << ";"
+        def configProperties = new TreeMap<String, Object>(getConfigProperties())
+        configProperties.each { String name, Object value ->
+            key << name << "=" << value << ";"
+        }
+        def referencedFiles = new TreeSet<File>()
+        configProperties.values().each { Object value ->
+            referencedFiles.addAll(resolveReferencedFiles(value.toString()))
+        }
+        def matcher = CONFIG_VALUE.matcher(configText)
+        while (matcher.find()) {
+            def value = matcher.group(1).replaceAll('\\$\\{([^}]+)\\}') { String match, String name ->
+                configProperties.containsKey(name) ? configProperties[name].toString() : match
             }
+            referencedFiles.addAll(resolveReferencedFiles(value))
+        }
+        referencedFiles.each { File file ->
+            key << file.absolutePath << ":" << HashUtil.createHash(file, "MD5").asHexString() << ";"
+        }
+        return key.toString()
+    }
+
+    /**
+     * Checkstyle resolves relative paths against the working directory, which may be the project directory or the directory of the configuration.
+     */
+    private Collection<File> resolveReferencedFiles(String path) {
+        if (path.empty || path.contains('${')) {
+            return []
+        }
+        def file = new File(path)
+        if (file.absolute) {
+            return file.file ? [file] : []
+        }
+        def candidates = [project.file(path)]
+        def configFile = getConfigFile()
+        if (configFile != null) {
+            candidates << new File(configFile.parentFile, path)
+        }
+        return candidates.findAll { it.file }
+    }
+
+    private String determineToolVersion() {
+        def jar = getCheckstyleClasspath().find { it.name ==~ /checkstyle-[0-9].*\.jar/ }
+        return jar == null ? null : (jar.name - "checkstyle-" - ".jar")
+    }
+
+    private static String formatViolation(File file, CheckstyleViolation violation) {
+        def result = new StringBuilder(file.path).append(':').append(violation.line)
+        if (violation.column > 0) {
+            result.append(':').append(violation.column)
+        }
+        if (violation.exception) {
+            return result.append(": Got an exception - ").append(violation.message).toString()
+        }
+        if (violation.severity == "warning") {
+            result.append(": warning")
         }
+        return result.append(": ").append(violation.message).toString()
     }
 }
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.plugins.quality.internal.checkstyle;
+
+import org.gradle.api.internal.cache.MinimalPersistentCache;
+import org.gradle.cache.CacheRepository;
+import org.gradle.internal.Factory;
+import org.gradle.messaging.serialize.Decoder;
+import org.gradle.messaging.serialize.Encoder;
+import org.gradle.messaging.serialize.Serializer;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.gradle.messaging.serialize.BaseSerializerFactory.STRING_SERIALIZER;
+
+/**
+ * Cross-process, global cache of the Checkstyle violations of individual source files. The key of an entry identifies both the content of
+ * the source file and the Checkstyle version and configuration it was checked with, so an entry can be used by any project whose source
+ * file and configuration match.
+ */
+public class CheckstyleResultCache extends MinimalPersistentCache<String, List<CheckstyleViolation>> {
+
+    public CheckstyleResultCache(CacheRepository cacheRepository) {
+        super(cacheRepository, "checkstyle results", STRING_SERIALIZER, new ViolationsSerializer());
+    }
+
+    /**
+     * Returns the cached violations for those of the given keys that are present in the cache.
+     */
+    public Map<String, List<CheckstyleViolation>> getAll(final Iterable<String> keys) {
+        return getCacheAccess().useCache("Loading checkstyle results", new Factory<Map<String, List<CheckstyleViolation>>>() {
+            public Map<String, List<CheckstyleViolation>> create() {
+                Map<String, List<CheckstyleViolation>> results = new HashMap<String, List<CheckstyleViolation>>();
+                for (String key : keys) {
+                    List<CheckstyleViolation> violations = getCache().get(key);
+                    if (violations != null) {
+                        results.put(key, violations);
+                    }
+                }
+                return results;
+            }
+        });
+    }
+
+    public void putAll(final Map<String, List<CheckstyleViolation>> results) {
+        getCacheAccess().useCache("Storing checkstyle results", new Runnable() {
+            public void run() {
+                for (Map.Entry<String, List<CheckstyleViolation>> entry : results.entrySet()) {
+                    getCache().put(entry.getKey(), entry.getValue());
+                }
+            }
+        });
+    }
+
+    private static class ViolationsSerializer implements Serializer<List<CheckstyleViolation>> {
+        public List<CheckstyleViolation> read(Decoder decoder) throws Exception {
+            int count = decoder.readSmallInt();
+            List<CheckstyleViolation> violations = new ArrayList<CheckstyleViolation>(count);
+            for (int i = 0; i < count; i++) {
+                int line = decoder.readSmallInt();
+                int column = decoder.readSmallInt();
+                String severity = decoder.readString();
+                String message = decoder.readString();
+                String source = decoder.readBoolean() ? decoder.readString() : null;
+                violations.add(new CheckstyleViolation(line, column, severity, message, source));
+            }
+            return violations;
+        }
+
+        public void write(Encoder encoder, List<CheckstyleViolation> violations) throws Exception {
+            encoder.writeSmallInt(violations.size());
+            for (CheckstyleViolation violation : violations) {
+                encoder.writeSmallInt(violation.getLine());
+                encoder.writeSmallInt(violation.getColumn());
+                encoder.writeString(violation.getSeverity());
+                encoder.writeString(violation.getMessage());
+                encoder.writeBoolean(violation.getSource() != null);
+                if (violation.getSource() != null) {
+                    encoder.writeString(violation.getSource());
+                }
+            }
+        }
+    }
+}
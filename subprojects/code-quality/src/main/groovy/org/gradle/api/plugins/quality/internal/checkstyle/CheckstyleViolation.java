@@ -0,0 +1,85 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.plugins.quality.internal.checkstyle;
+
+import org.gradle.api.Nullable;
+
+/**
+ * A single violation reported by Checkstyle for a source file, or an exception that Checkstyle reported instead of checking the file.
+ */
+public class CheckstyleViolation {
+    public static final String SEVERITY_ERROR = "error";
+
+    private final int line;
+    private final int column;
+    private final String severity;
+    private final String message;
+    private final String source;
+    private final boolean exception;
+
+    public CheckstyleViolation(int line, int column, String severity, String message, @Nullable String source) {
+        this(line, column, severity, message, source, false);
+    }
+
+    private CheckstyleViolation(int line, int column, String severity, String message, @Nullable String source, boolean exception) {
+        this.line = line;
+        this.column = column;
+        this.severity = severity;
+        this.message = message;
+        this.source = source;
+        this.exception = exception;
+    }
+
+    /**
+     * Creates an exception reported by Checkstyle, with the given stack trace as its message. An exception counts as an error.
+     */
+    public static CheckstyleViolation exception(String stackTrace) {
+        return new CheckstyleViolation(0, 0, SEVERITY_ERROR, stackTrace, null, true);
+    }
+
+    public int getLine() {
+        return line;
+    }
+
+    /**
+     * Returns the column of the violation, or 0 when the violation applies to the whole line.
+     */
+    public int getColumn() {
+        return column;
+    }
+
+    public String getSeverity() {
+        return severity;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    @Nullable
+    public String getSource() {
+        return source;
+    }
+
+    public boolean isError() {
+        return SEVERITY_ERROR.equals(severity);
+    }
+
+    public boolean isException() {
+        return exception;
+    }
+}
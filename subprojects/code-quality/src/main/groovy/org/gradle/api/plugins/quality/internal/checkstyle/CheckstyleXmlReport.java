@@ -0,0 +1,170 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.plugins.quality.internal.checkstyle;
+
+import org.gradle.api.Nullable;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.util.*;
+
+/**
+ * The violations of a set of source files, in the XML report format written by Checkstyle.
+ */
+public class CheckstyleXmlReport {
+    private final String version;
+    private final Map<File, List<CheckstyleViolation>> violations;
+    private final Set<File> filesWithExceptions;
+
+    public CheckstyleXmlReport(@Nullable String version, Map<File, List<CheckstyleViolation>> violations, Set<File> filesWithExceptions) {
+        this.version = version;
+        this.violations = violations;
+        this.filesWithExceptions = filesWithExceptions;
+    }
+
+    /**
+     * Reads a report written by Checkstyle. An exception that Checkstyle reports for a file is included as a violation of that file, so that
+     * it is written back as an exception.
+     */
+    public static CheckstyleXmlReport read(File reportFile) throws Exception {
+        Element root = DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(reportFile).getDocumentElement();
+        String version = root.hasAttribute("version") ? root.getAttribute("version") : null;
+        Map<File, List<CheckstyleViolation>> violations = new LinkedHashMap<File, List<CheckstyleViolation>>();
+        Set<File> filesWithExceptions = new HashSet<File>();
+        for (Element fileElement : children(root, "file")) {
+            File file = new File(fileElement.getAttribute("name"));
+            List<CheckstyleViolation> fileViolations = violations.get(file);
+            if (fileViolations == null) {
+                fileViolations = new ArrayList<CheckstyleViolation>();
+                violations.put(file, fileViolations);
+            }
+            for (Element error : children(fileElement, "error")) {
+                fileViolations.add(new CheckstyleViolation(intAttribute(error, "line"), intAttribute(error, "column"), error.getAttribute("severity"),
+                        error.getAttribute("message"), error.hasAttribute("source") ? error.getAttribute("source") : null));
+            }
+            for (Element exception : children(fileElement, "exception")) {
+                filesWithExceptions.add(file);
+                fileViolations.add(CheckstyleViolation.exception(exception.getTextContent().trim()));
+            }
+        }
+        return new CheckstyleXmlReport(version, violations, filesWithExceptions);
+    }
+
+    @Nullable
+    public String getVersion() {
+        return version;
+    }
+
+    /**
+     * Returns the violations of each file in the report, in the order the files were reported. Files without violations have an empty list.
+     */
+    public Map<File, List<CheckstyleViolation>> getViolations() {
+        return violations;
+    }
+
+    /**
+     * Returns the files for which Checkstyle reported an exception rather than completing its checks.
+     */
+    public Set<File> getFilesWithExceptions() {
+        return filesWithExceptions;
+    }
+
+    public int getErrorCount() {
+        int count = 0;
+        for (List<CheckstyleViolation> fileViolations : violations.values()) {
+            for (CheckstyleViolation violation : fileViolations) {
+                if (violation.isError()) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    public void writeTo(File destination) throws Exception {
+        OutputStream outputStream = new BufferedOutputStream(new FileOutputStream(destination));
+        try {
+            XMLStreamWriter writer = XMLOutputFactory.newInstance().createXMLStreamWriter(outputStream, "UTF-8");
+            writer.writeStartDocument("UTF-8", "1.0");
+            writer.writeCharacters("\n");
+            writer.writeStartElement("checkstyle");
+            if (version != null) {
+                writer.writeAttribute("version", version);
+            }
+            writer.writeCharacters("\n");
+            for (Map.Entry<File, List<CheckstyleViolation>> entry : violations.entrySet()) {
+                writer.writeStartElement("file");
+                writer.writeAttribute("name", entry.getKey().getPath());
+                writer.writeCharacters("\n");
+                for (CheckstyleViolation violation : entry.getValue()) {
+                    if (violation.isException()) {
+                        writer.writeStartElement("exception");
+                        writer.writeCharacters("\n");
+                        writer.writeCData(violation.getMessage());
+                        writer.writeCharacters("\n");
+                        writer.writeEndElement();
+                        writer.writeCharacters("\n");
+                        continue;
+                    }
+                    writer.writeEmptyElement("error");
+                    writer.writeAttribute("line", String.valueOf(violation.getLine()));
+                    if (violation.getColumn() > 0) {
+                        writer.writeAttribute("column", String.valueOf(violation.getColumn()));
+                    }
+                    writer.writeAttribute("severity", violation.getSeverity());
+                    writer.writeAttribute("message", violation.getMessage());
+                    if (violation.getSource() != null) {
+                        writer.writeAttribute("source", violation.getSource());
+                    }
+                    writer.writeCharacters("\n");
+                }
+                writer.writeEndElement();
+                writer.writeCharacters("\n");
+            }
+            writer.writeEndElement();
+            writer.writeEndDocument();
+            writer.close();
+        } finally {
+            outputStream.close();
+        }
+    }
+
+    private static int intAttribute(Element element, String name) {
+        String value = element.getAttribute(name);
+        return value.length() == 0 ? 0 : Integer.parseInt(value);
+    }
+
+    private static List<Element> children(Element parent, String name) {
+        List<Element> children = new ArrayList<Element>();
+        NodeList nodes = parent.getChildNodes();
+        for (int i = 0; i < nodes.getLength(); i++) {
+            Node node = nodes.item(i);
+            if (node instanceof Element && node.getNodeName().equals(name)) {
+                children.add((Element) node);
+            }
+        }
+        return children;
+    }
+}
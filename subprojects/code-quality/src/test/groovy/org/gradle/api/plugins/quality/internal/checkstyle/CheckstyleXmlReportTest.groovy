@@ -0,0 +1,116 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.plugins.quality.internal.checkstyle
+
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+class CheckstyleXmlReportTest extends Specification {
+    @Rule TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+
+    def "reads report written by checkstyle"() {
+        def reportFile = tmpDir.file("report.xml")
+        reportFile.text = """<?xml version="1.0" encoding="UTF-8"?>
+<checkstyle version="5.7">
+<file name="/src/Bad.java">
+<error line="1" column="21" severity="error" message="Name &apos;class1&apos; must match pattern." source="com.puppycrawl.tools.checkstyle.checks.naming.TypeNameCheck"/>
+<error line="3" severity="warning" message="Line is longer than 80 characters."/>
+</file>
+<file name="/src/Good.java">
+</file>
+<file name="/src/Broken.java">
+<exception>
+<![CDATA[java.lang.RuntimeException: broken]]>
+</exception>
+</file>
+</checkstyle>
+"""
+
+        when:
+        def report = CheckstyleXmlReport.read(reportFile)
+
+        then:
+        report.version == "5.7"
+        report.violations.keySet() as List == [new File("/src/Bad.java"), new File("/src/Good.java"), new File("/src/Broken.java")]
+        report.filesWithExceptions == [new File("/src/Broken.java")] as Set
+        report.errorCount == 2
+
+        def bad = report.violations[new File("/src/Bad.java")]
+        bad.size() == 2
+        with(bad[0]) {
+            line == 1
+            column == 21
+            error
+            message == "Name 'class1' must match pattern."
+            source == "com.puppycrawl.tools.checkstyle.checks.naming.TypeNameCheck"
+        }
+        with(bad[1]) {
+            line == 3
+            column == 0
+            !error
+            source == null
+        }
+        report.violations[new File("/src/Good.java")].empty
+        report.violations[new File("/src/Broken.java")][0].exception
+        report.violations[new File("/src/Broken.java")][0].message == "java.lang.RuntimeException: broken"
+    }
+
+    def "written report can be read back"() {
+        def violations = new LinkedHashMap<File, List<CheckstyleViolation>>()
+        violations[new File("/src/A.java")] = [new CheckstyleViolation(4, 2, "error", "Message with <markup> & 'quotes'", "some.Check")]
+        violations[new File("/src/B.java")] = []
+        def reportFile = tmpDir.file("report.xml")
+
+        when:
+        new CheckstyleXmlReport("5.7", violations, [] as Set).writeTo(reportFile)
+        def read = CheckstyleXmlReport.read(reportFile)
+
+        then:
+        read.version == "5.7"
+        read.violations.keySet() as List == [new File("/src/A.java"), new File("/src/B.java")]
+        with(read.violations[new File("/src/A.java")][0]) {
+            line == 4
+            column == 2
+            severity == "error"
+            message == "Message with <markup> & 'quotes'"
+            source == "some.Check"
+        }
+        read.violations[new File("/src/B.java")].empty
+    }
+
+    def "writes exceptions back as exceptions"() {
+        def violations = new LinkedHashMap<File, List<CheckstyleViolation>>()
+        violations[new File("/src/Broken.java")] = [CheckstyleViolation.exception("java.lang.RuntimeException: broken\n\tat Some.method(Some.java:12)")]
+        def reportFile = tmpDir.file("report.xml")
+
+        when:
+        new CheckstyleXmlReport("5.7", violations, [new File("/src/Broken.java")] as Set).writeTo(reportFile)
+        def xml = new XmlSlurper().parse(reportFile)
+        def read = CheckstyleXmlReport.read(reportFile)
+
+        then:
+        xml.file.error.size() == 0
+        xml.file.exception.text().trim() == "java.lang.RuntimeException: broken\n\tat Some.method(Some.java:12)"
+        read.filesWithExceptions == [new File("/src/Broken.java")] as Set
+        read.errorCount == 1
+        with(read.violations[new File("/src/Broken.java")][0]) {
+            exception
+            message == "java.lang.RuntimeException: broken\n\tat Some.method(Some.java:12)"
+        }
+    }
+}
@@ -15,6 +15,7 @@
  */
 package org.gradle.api.internal.changedetection.state;
 
+import org.gradle.api.Nullable;
 import org.gradle.api.internal.hash.Hasher;
 import org.gradle.cache.PersistentIndexedCache;
 import org.gradle.cache.PersistentStore;
@@ -28,13 +29,31 @@ public class CachingFileSnapshotter implements FileSnapshotter {
     private final PersistentIndexedCache<File, FileInfo> cache;
     private final Hasher hasher;
     private final FileInfoSerializer serializer = new FileInfoSerializer();
+    private final WatchedFileSnapshotCache watchedFiles;
 
     public CachingFileSnapshotter(Hasher hasher, PersistentStore store) {
+        this(hasher, store, null);
+    }
+
+    public CachingFileSnapshotter(Hasher hasher, PersistentStore store, @Nullable WatchedFileSnapshotCache watchedFiles) {
         this.hasher = hasher;
+        this.watchedFiles = watchedFiles;
         this.cache = store.createCache("fileHashes", File.class, serializer);
     }
 
     public FileInfo snapshot(File file) {
+        if (watchedFiles == null) {
+            return snapshotFile(file);
+        }
+        FileInfo info = watchedFiles.get(file);
+        if (info == null) {
+            info = snapshotFile(file);
+            watchedFiles.put(file, info);
+        }
+        return info;
+    }
+
+    private FileInfo snapshotFile(File file) {
         FileInfo info = cache.get(file);
 
         long length = file.length();
@@ -63,6 +82,14 @@ public class CachingFileSnapshotter implements FileSnapshotter {
         public byte[] getHash() {
             return hash;
         }
+
+        public long getLength() {
+            return length;
+        }
+
+        public long getTimestamp() {
+            return timestamp;
+        }
     }
 
     private static class FileInfoSerializer implements Serializer<FileInfo> {
@@ -0,0 +1,199 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.changedetection.state;
+
+import org.gradle.api.Nullable;
+import org.gradle.internal.concurrent.Stoppable;
+import org.gradle.internal.filewatch.FileWatchListener;
+import org.gradle.internal.filewatch.FileWatcher;
+
+import java.io.File;
+import java.util.*;
+
+/**
+ * Retains the {@link CachingFileSnapshotter.FileInfo} of files for the lifetime of the process, for files whose directory is being watched for
+ * changes. An entry is discarded as soon as the watcher reports a change to the file or to one of its ancestor directories, so a retained entry
+ * is used without looking at the file at all, not even its length and timestamp. All entries are discarded when the watcher reports that changes
+ * have been lost, and no entries are retained for directories that the watcher cannot watch, so snapshotting falls back to checking each file in
+ * these cases. The outputs of each task are discarded once it has run, see {@link WatchedOutputFilesInvalidator}, so that the changes made by the
+ * build itself do not depend on how quickly the watcher reports them.
+ *
+ * <p>The directory of a file is watched when the file is first looked up, before the file is read, so that a change made while the file is being
+ * snapshotted is reported. At most {@value #MAX_WATCHED_DIRECTORIES} directories are watched, so that the native watch limit of the platform is
+ * not used up. Directories that are not expected to change, such as the Gradle user home directory, are ignored.</p>
+ */
+public class WatchedFileSnapshotCache implements Stoppable {
+    private static final int MAX_ENTRIES = 250000;
+    private static final int MAX_WATCHED_DIRECTORIES = 4096;
+
+    private final Object lock = new Object();
+    private final FileWatcher watcher;
+    private final SortedMap<String, Map<String, CachingFileSnapshotter.FileInfo>> directories = new TreeMap<String, Map<String, CachingFileSnapshotter.FileInfo>>();
+    private final SortedSet<String> watched = new TreeSet<String>();
+    private final Set<String> unwatchable = new HashSet<String>();
+    // The directories registered with the watcher, which remain registered after their entries have been invalidated
+    private final Set<String> registered = new HashSet<String>();
+    private final Set<String> ignored = new HashSet<String>();
+    private final FileWatchListener listener = new FileWatchListener() {
+        public void changed(File file) {
+            invalidateLocked(file);
+        }
+
+        public void overflowed() {
+            directories.clear();
+            entries = 0;
+        }
+    };
+    private int entries;
+
+    public WatchedFileSnapshotCache(FileWatcher watcher) {
+        this.watcher = watcher;
+    }
+
+    /**
+     * Returns the retained snapshot of the given file, or null when the file has to be checked.
+     */
+    @Nullable
+    public CachingFileSnapshotter.FileInfo get(File file) {
+        File directory = file.getAbsoluteFile().getParentFile();
+        if (directory == null) {
+            return null;
+        }
+        String directoryPath = directory.getPath();
+        synchronized (lock) {
+            watcher.pollChanges(listener);
+            Map<String, CachingFileSnapshotter.FileInfo> directoryEntries = directories.get(directoryPath);
+            if (directoryEntries != null) {
+                CachingFileSnapshotter.FileInfo info = directoryEntries.get(file.getName());
+                if (info != null) {
+                    return info;
+                }
+            }
+            if (!watched.contains(directoryPath) && !unwatchable.contains(directoryPath)) {
+                watch(directory, directoryPath);
+            }
+            return null;
+        }
+    }
+
+    private void watch(File directory, String directoryPath) {
+        if (isIgnored(directoryPath) || !registered.contains(directoryPath) && registered.size() >= MAX_WATCHED_DIRECTORIES) {
+            unwatchable.add(directoryPath);
+            return;
+        }
+        if (watcher.watch(directory)) {
+            watched.add(directoryPath);
+            registered.add(directoryPath);
+        } else {
+            unwatchable.add(directoryPath);
+        }
+    }
+
+    private boolean isIgnored(String directoryPath) {
+        for (String ignoredPath : ignored) {
+            if (directoryPath.equals(ignoredPath) || directoryPath.startsWith(ignoredPath + File.separator)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Never watches the given directory or any of its descendants. Used for directories whose files are not expected to change, and which can
+     * contain many directories, such as the Gradle user home directory.
+     */
+    public void ignore(File directory) {
+        String path = directory.getAbsoluteFile().getPath();
+        synchronized (lock) {
+            ignored.add(path);
+        }
+    }
+
+    /**
+     * Retains the snapshot of the given file, if its directory is being watched.
+     */
+    public void put(File file, CachingFileSnapshotter.FileInfo info) {
+        File directory = file.getAbsoluteFile().getParentFile();
+        if (directory == null) {
+            return;
+        }
+        String directoryPath = directory.getPath();
+        synchronized (lock) {
+            if (!watched.contains(directoryPath)) {
+                return;
+            }
+            Map<String, CachingFileSnapshotter.FileInfo> directoryEntries = directories.get(directoryPath);
+            if (directoryEntries == null) {
+                if (entries >= MAX_ENTRIES) {
+                    return;
+                }
+                directoryEntries = new HashMap<String, CachingFileSnapshotter.FileInfo>();
+                directories.put(directoryPath, directoryEntries);
+            }
+            if (directoryEntries.put(file.getName(), info) == null) {
+                entries++;
+            }
+        }
+    }
+
+    /**
+     * Discards the snapshots of the given file, or of all the files under the given directory.
+     */
+    public void invalidate(File file) {
+        synchronized (lock) {
+            invalidateLocked(file);
+        }
+    }
+
+    private void invalidateLocked(File file) {
+        File absoluteFile = file.getAbsoluteFile();
+        String path = absoluteFile.getPath();
+        File directory = absoluteFile.getParentFile();
+        if (directory != null) {
+            Map<String, CachingFileSnapshotter.FileInfo> directoryEntries = directories.get(directory.getPath());
+            if (directoryEntries != null && directoryEntries.remove(absoluteFile.getName()) != null) {
+                entries--;
+            }
+        }
+
+        Map<String, CachingFileSnapshotter.FileInfo> removed = directories.remove(path);
+        if (removed != null) {
+            entries -= removed.size();
+        }
+        String prefix = path.endsWith(File.separator) ? path : path + File.separator;
+        SortedMap<String, Map<String, CachingFileSnapshotter.FileInfo>> nested = directories.subMap(prefix, prefix + Character.MAX_VALUE);
+        for (Map<String, CachingFileSnapshotter.FileInfo> nestedEntries : nested.values()) {
+            entries -= nestedEntries.size();
+        }
+        nested.clear();
+
+        // The directory may have been replaced, so watch it again when it is next used
+        watched.remove(path);
+        watched.subSet(prefix, prefix + Character.MAX_VALUE).clear();
+        unwatchable.remove(path);
+    }
+
+    public void stop() {
+        synchronized (lock) {
+            directories.clear();
+            watched.clear();
+            entries = 0;
+        }
+        watcher.stop();
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.changedetection.state;
+
+import org.gradle.api.Task;
+import org.gradle.api.execution.TaskActionListener;
+
+import java.io.File;
+
+/**
+ * Discards the retained snapshots of the outputs of each task once it has run, rather than waiting for the file watcher to report the changes
+ * the task made.
+ */
+public class WatchedOutputFilesInvalidator implements TaskActionListener {
+    private final WatchedFileSnapshotCache watchedFiles;
+
+    public WatchedOutputFilesInvalidator(WatchedFileSnapshotCache watchedFiles) {
+        this.watchedFiles = watchedFiles;
+    }
+
+    public void beforeActions(Task task) {
+    }
+
+    public void afterActions(Task task) {
+        for (File file : task.getOutputs().getFiles()) {
+            watchedFiles.invalidate(file);
+        }
+    }
+}
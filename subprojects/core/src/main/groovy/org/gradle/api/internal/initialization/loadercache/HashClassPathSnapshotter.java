@@ -16,6 +16,8 @@
 
 package org.gradle.api.internal.initialization.loadercache;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.primitives.Bytes;
 import org.gradle.api.internal.hash.DefaultHasher;
 import org.gradle.api.internal.hash.Hasher;
@@ -25,9 +27,24 @@ import org.gradle.util.GFileUtils;
 import java.io.File;
 import java.util.*;
 
+/**
+ * Snapshots a classpath by the hashes of its files. The hash of each file is kept along with the size and timestamp of the file, so a file that has
+ * not changed since it was last hashed is not hashed again. As the global class loader cache holds on to its snapshotter, this avoids hashing the
+ * jars of a build script classpath in every build.
+ */
 public class HashClassPathSnapshotter implements ClassPathSnapshotter {
+    private static final int MAX_CACHED_FILE_HASHES = 10000;
+
+    private final Hasher hasher;
+    private final Cache<File, FileHash> fileHashes = CacheBuilder.newBuilder().maximumSize(MAX_CACHED_FILE_HASHES).build();
+
+    public HashClassPathSnapshotter() {
+        this(new DefaultHasher());
+    }
 
-    private final Hasher hasher = new DefaultHasher();
+    HashClassPathSnapshotter(Hasher hasher) {
+        this.hasher = hasher;
+    }
 
     public ClassPathSnapshot snapshot(ClassPath classPath) {
         List<String> visitedFilePaths = new LinkedList<String>();
@@ -49,12 +66,35 @@ public class HashClassPathSnapshotter implements ClassPathSnapshotter {
                 }
             } else {
                 visitedFilePaths.add(file.getAbsolutePath());
-                combinedHash = Bytes.concat(combinedHash, hasher.hash(file));
+                combinedHash = Bytes.concat(combinedHash, hash(file));
             }
         }
         return combinedHash;
     }
 
+    private byte[] hash(File file) {
+        long length = file.length();
+        long lastModified = file.lastModified();
+        FileHash fileHash = fileHashes.getIfPresent(file);
+        if (fileHash == null || fileHash.length != length || fileHash.lastModified != lastModified) {
+            fileHash = new FileHash(length, lastModified, hasher.hash(file));
+            fileHashes.put(file, fileHash);
+        }
+        return fileHash.hash;
+    }
+
+    private static class FileHash {
+        private final long length;
+        private final long lastModified;
+        private final byte[] hash;
+
+        FileHash(long length, long lastModified, byte[] hash) {
+            this.length = length;
+            this.lastModified = lastModified;
+            this.hash = hash;
+        }
+    }
+
     private class ClassPathSnapshotImpl implements ClassPathSnapshot {
         private final List<String> files;
         private final byte[] combinedHash;
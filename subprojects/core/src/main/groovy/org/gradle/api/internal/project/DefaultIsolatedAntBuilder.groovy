@@ -25,14 +25,30 @@ import org.gradle.internal.classloader.MultiParentClassLoader
 import org.gradle.internal.classloader.MutableURLClassLoader
 import org.gradle.internal.classpath.ClassPath
 import org.gradle.internal.classpath.DefaultClassPath
+import org.gradle.internal.concurrent.CompositeStoppable
 import org.gradle.internal.jvm.Jvm
 import org.gradle.util.ConfigureUtil
+import org.slf4j.Logger
+import org.slf4j.LoggerFactory
 
-// TODO: should be threadsafe; is stateful and of build scope
-
+/**
+ * Runs Ant tasks in class loaders that are isolated from the Gradle runtime. This is a global service, so the class loaders created for a
+ * given implementation classpath are shared by all tasks and builds that run in the same process. This means the classes of tools such as
+ * Checkstyle, PMD and CodeNarc are loaded and compiled by the JIT once, rather than once per build.
+ *
+ * <p>The class loader for the Gradle and Groovy classes that drive Ant does not depend on the implementation classpath, so a single one is
+ * shared by all implementation classpaths. Only the class loader for each implementation classpath is cached.</p>
+ *
+ * <p>Class loaders are only kept for classpaths that do not contain directories. They are discarded when one of the classpath files changes.
+ * Discarded class loaders are closed once no task is using them any more, so that the jar files they hold open are released.</p>
+ */
 class DefaultIsolatedAntBuilder implements IsolatedAntBuilder {
+    private static final Logger LOGGER = LoggerFactory.getLogger(DefaultIsolatedAntBuilder)
+    private static final int MAX_CACHED_CLASSLOADERS = 16
 
     private final ClassLoader antClassloader
+    private final ClassLoader antAdapterParent
+    private final ClassLoader gradleLoader
     private final Map<ClassPath, ClassLoaderSet> classloaders
     private final ClassPathRegistry classPathRegistry
     private final ClassLoaderFactory classLoaderFactory
@@ -41,7 +57,16 @@ class DefaultIsolatedAntBuilder implements IsolatedAntBuilder {
     def DefaultIsolatedAntBuilder(ClassPathRegistry classPathRegistry, ClassLoaderFactory classLoaderFactory) {
         this.classPathRegistry = classPathRegistry
         this.classLoaderFactory = classLoaderFactory
-        this.classloaders = [:]
+        this.classloaders = new LinkedHashMap<ClassPath, ClassLoaderSet>(MAX_CACHED_CLASSLOADERS, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<ClassPath, ClassLoaderSet> eldest) {
+                if (size() > MAX_CACHED_CLASSLOADERS) {
+                    eldest.value.discard()
+                    return true
+                }
+                return false
+            }
+        }
         this.libClasspath = new DefaultClassPath()
 
         List<File> antClasspath = Lists.newArrayList(classPathRegistry.getClassPath("ANT").asFiles)
@@ -51,6 +76,20 @@ class DefaultIsolatedAntBuilder implements IsolatedAntBuilder {
             antClasspath += toolsJar
         }
         this.antClassloader = classLoaderFactory.createIsolatedClassLoader(new DefaultClassPath(antClasspath))
+
+        // Need gradle core to pick up ant logging adapter, AntBuilder and such
+        def gradleCoreUrls = classPathRegistry.getClassPath("GRADLE_CORE")
+        gradleCoreUrls += classPathRegistry.getClassPath("GROOVY")
+
+        // Need Transformer (part of AntBuilder API) from base services
+        gradleCoreUrls += classPathRegistry.getClassPath("GRADLE_BASE_SERVICES")
+
+        FilteringClassLoader loggingLoader = new FilteringClassLoader(getClass().classLoader)
+        loggingLoader.allowPackage('org.slf4j')
+        loggingLoader.allowPackage('org.apache.commons.logging')
+        loggingLoader.allowPackage('org.apache.log4j')
+        this.antAdapterParent = new MultiParentClassLoader(antClassloader, loggingLoader)
+        this.gradleLoader = new MutableURLClassLoader(antAdapterParent, gradleCoreUrls)
     }
 
     private DefaultIsolatedAntBuilder(DefaultIsolatedAntBuilder copy, Iterable<File> libClasspath) {
@@ -58,6 +97,8 @@ class DefaultIsolatedAntBuilder implements IsolatedAntBuilder {
         this.classLoaderFactory = copy.classLoaderFactory
         this.classloaders = copy.classloaders
         this.antClassloader = copy.antClassloader
+        this.antAdapterParent = copy.antAdapterParent
+        this.gradleLoader = copy.gradleLoader
         this.libClasspath = new DefaultClassPath(libClasspath)
     }
 
@@ -66,35 +107,14 @@ class DefaultIsolatedAntBuilder implements IsolatedAntBuilder {
     }
 
     void execute(Closure antClosure) {
-        def classLoadersForImpl = classloaders[libClasspath]
-
-        if (!classLoadersForImpl) {
-            // Need gradle core to pick up ant logging adapter, AntBuilder and such
-            def gradleCoreUrls = classPathRegistry.getClassPath("GRADLE_CORE")
-            gradleCoreUrls += classPathRegistry.getClassPath("GROOVY")
-
-            // Need Transformer (part of AntBuilder API) from base services
-            gradleCoreUrls += classPathRegistry.getClassPath("GRADLE_BASE_SERVICES")
-
-            FilteringClassLoader loggingLoader = new FilteringClassLoader(getClass().classLoader)
-            loggingLoader.allowPackage('org.slf4j')
-            loggingLoader.allowPackage('org.apache.commons.logging')
-            loggingLoader.allowPackage('org.apache.log4j')
-            ClassLoader parent = new MultiParentClassLoader(antClassloader, loggingLoader)
-
-            def antLoader = new URLClassLoader(libClasspath.asURLArray, parent)
-            def gradleLoader = new MutableURLClassLoader(parent, gradleCoreUrls)
-
-            classLoadersForImpl = new ClassLoaderSet(gradleLoader, antLoader)
-            classloaders[libClasspath] = classLoadersForImpl
-        }
+        def classLoadersForImpl = getClassLoaders()
 
         ClassLoader originalLoader = Thread.currentThread().contextClassLoader
         Thread.currentThread().contextClassLoader = classLoadersForImpl.ant
         try {
-            Object antBuilder = classLoadersForImpl.gradle.loadClass(BasicAntBuilder.class.name).newInstance()
+            Object antBuilder = gradleLoader.loadClass(BasicAntBuilder.class.name).newInstance()
 
-            Object antLogger = classLoadersForImpl.gradle.loadClass(AntLoggingAdapter.class.name).newInstance()
+            Object antLogger = gradleLoader.loadClass(AntLoggingAdapter.class.name).newInstance()
             antBuilder.project.removeBuildListener(antBuilder.project.getBuildListeners()[0])
             antBuilder.project.addBuildListener(antLogger)
 
@@ -105,16 +125,115 @@ class DefaultIsolatedAntBuilder implements IsolatedAntBuilder {
             ConfigureUtil.configure(antClosure, delegate)
         } finally {
             Thread.currentThread().contextClassLoader = originalLoader
+            classLoadersForImpl.release()
+        }
+    }
+
+    private ClassLoaderSet getClassLoaders() {
+        synchronized (classloaders) {
+            def classLoadersForImpl = classloaders[libClasspath]
+            if (classLoadersForImpl != null) {
+                if (classLoadersForImpl.isUpToDate()) {
+                    classLoadersForImpl.acquire()
+                    return classLoadersForImpl
+                }
+                LOGGER.debug("Discarding Ant class loaders for {}, as the classpath has changed.", libClasspath.asFiles)
+                classloaders.remove(libClasspath)
+                classLoadersForImpl.discard()
+            }
+        }
+
+        def classLoadersForImpl = createClassLoaders()
+        classLoadersForImpl.acquire()
+        if (classLoadersForImpl.isReusable()) {
+            synchronized (classloaders) {
+                // Another thread may have created class loaders for the same classpath meanwhile, either are fine to use
+                def replaced = classloaders.put(libClasspath, classLoadersForImpl)
+                if (replaced != null && !replaced.is(classLoadersForImpl)) {
+                    replaced.discard()
+                }
+            }
+        } else {
+            // Not cached, so close as soon as the task has finished with it
+            classLoadersForImpl.discard()
         }
+        return classLoadersForImpl
+    }
+
+    private ClassLoaderSet createClassLoaders() {
+        // Record the state of the classpath before loading from it, so that a concurrent change is detected on the next use
+        def fileStates = libClasspath.asFiles.collectEntries { File file -> [file, new FileState(file)] }
+        def antLoader = new URLClassLoader(libClasspath.asURLArray, antAdapterParent)
+        return new ClassLoaderSet(antLoader, fileStates)
     }
 
     private static class ClassLoaderSet {
-        final ClassLoader gradle
         final ClassLoader ant
+        final Map<File, FileState> fileStates
+        private int users
+        private boolean discarded
+        private boolean closed
 
-        ClassLoaderSet(ClassLoader gradle, ClassLoader ant) {
-            this.gradle = gradle
+        ClassLoaderSet(ClassLoader ant, Map<File, FileState> fileStates) {
             this.ant = ant
+            this.fileStates = fileStates
+        }
+
+        /**
+         * Class loaders can only be reused when the state of all the classpath entries can be checked cheaply, which is not the case for directories.
+         */
+        boolean isReusable() {
+            return !fileStates.values().any { it.directory }
+        }
+
+        boolean isUpToDate() {
+            return fileStates.every { File file, FileState state -> state.isUpToDate(file) }
+        }
+
+        synchronized void acquire() {
+            users++
+        }
+
+        synchronized void release() {
+            users--
+            closeIfUnused()
+        }
+
+        /**
+         * Marks these class loaders as no longer cached. They are closed immediately, or when the last task using them finishes.
+         */
+        synchronized void discard() {
+            discarded = true
+            closeIfUnused()
+        }
+
+        private void closeIfUnused() {
+            if (!discarded || users > 0 || closed) {
+                return
+            }
+            closed = true
+            try {
+                // URLClassLoader is only Closeable on Java 7 and later
+                CompositeStoppable.stoppable(ant).stop()
+            } catch (Exception e) {
+                LOGGER.debug("Could not close Ant class loader.", e)
+            }
+        }
+    }
+
+    private static class FileState {
+        final boolean directory
+        final long length
+        final long lastModified
+
+        FileState(File file) {
+            this.directory = file.isDirectory()
+            this.length = file.length()
+            this.lastModified = file.lastModified()
+        }
+
+        boolean isUpToDate(File file) {
+            return !file.isDirectory() && file.length() == length && file.lastModified() == lastModified
         }
     }
 }
@@ -16,32 +16,71 @@
 package org.gradle.groovy.scripts.internal;
 
 import groovy.lang.Script;
+import org.apache.commons.io.FileUtils;
 import org.codehaus.groovy.classgen.Verifier;
 import org.gradle.api.Action;
+import org.gradle.api.Nullable;
+import org.gradle.api.UncheckedIOException;
 import org.gradle.cache.CacheRepository;
 import org.gradle.cache.CacheValidator;
 import org.gradle.cache.PersistentCache;
+import org.gradle.cache.internal.FileLockManager;
 import org.gradle.groovy.scripts.ScriptSource;
 import org.gradle.groovy.scripts.Transformer;
-import org.gradle.internal.concurrent.CompositeStoppable;
+import org.gradle.internal.Factory;
+import org.gradle.internal.classloader.ClassLoaderVisitor;
 import org.gradle.internal.hash.HashUtil;
 import org.gradle.logging.ProgressLogger;
 import org.gradle.logging.ProgressLoggerFactory;
+import org.gradle.util.GFileUtils;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.commons.Remapper;
+import org.objectweb.asm.commons.RemappingClassAdapter;
 
 import java.io.Closeable;
 import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.net.URL;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import static org.gradle.cache.internal.filelock.LockOptionsBuilder.mode;
 
 /**
  * A {@link ScriptClassCompiler} which compiles scripts to a cache directory, and loads them from there.
+ *
+ * <p>Compiled classes are keyed by the content of the script and the class path of the class loader it is compiled against, rather than by the
+ * location of the script, so scripts with the same content are compiled once. The classes are compiled to a fixed class name and renamed for each
+ * script, so that each script still has its own class, and stack traces refer to the script's own file. All scripts share a single cache, which is
+ * locked on demand.</p>
+ *
+ * <p>Because the lock is not held while classes are loaded, classes are never deleted or rewritten while another build may still be loading them.
+ * Recompiling an entry writes a new generation of the entry, and later builds switch to it. Generations that have been superseded, and entries and
+ * renamed copies that have not been used for some time, are removed at most once a day when the compiler is closed.</p>
  */
 public class FileCacheBackedScriptClassCompiler implements ScriptClassCompiler, Closeable {
+    private static final int ENTRY_DEPTH = 4;
+    private static final long CLEANUP_INTERVAL = TimeUnit.DAYS.toMillis(1);
+    private static final long SUPERSEDED_RETENTION = TimeUnit.DAYS.toMillis(1);
+    private static final long UNUSED_RETENTION = TimeUnit.DAYS.toMillis(7);
+    private static final String CLEANUP_MARKER = "cleanup.complete";
+
     private final ScriptCompilationHandler scriptCompilationHandler;
     private ProgressLoggerFactory progressLoggerFactory;
     private final CacheRepository cacheRepository;
     private final CacheValidator validator;
-    private final CompositeStoppable caches = new CompositeStoppable();
+    private final Map<ClassLoader, String> classPathHashes = new HashMap<ClassLoader, String>();
+    private final Set<File> recompiledEntries = new HashSet<File>();
+    private PersistentCache cache;
 
     public FileCacheBackedScriptClassCompiler(CacheRepository cacheRepository, CacheValidator validator, ScriptCompilationHandler scriptCompilationHandler, ProgressLoggerFactory progressLoggerFactory) {
         this.cacheRepository = cacheRepository;
@@ -50,33 +89,266 @@ public class FileCacheBackedScriptClassCompiler implements ScriptClassCompiler,
         this.progressLoggerFactory = progressLoggerFactory;
     }
 
-    public <T extends Script> Class<? extends T> compile(ScriptSource source, ClassLoader classLoader, Transformer transformer, Class<T> scriptBaseClass, Verifier verifier) {
-        Map<String, Object> properties = new HashMap<String, Object>();
-        properties.put("source.filename", source.getFileName());
-        properties.put("source.hash", HashUtil.createCompactMD5(source.getResource().getText()));
+    public <T extends Script> Class<? extends T> compile(final ScriptSource source, final ClassLoader classLoader, final Transformer transformer, final Class<T> scriptBaseClass, final Verifier verifier) {
+        String sourceHash = HashUtil.createCompactMD5(source.getResource().getText());
+        String entryName = String.format("%s/%s/%s/%s", sourceHash, classPathHash(classLoader), scriptBaseClass.getSimpleName(), transformer.getId());
+        final PersistentCache cache = getCache();
+        final File entryDir = new File(cache.getBaseDir(), entryName);
 
-        String cacheName = String.format("scripts/%s/%s/%s", source.getClassName(), scriptBaseClass.getSimpleName(), transformer.getId());
-        PersistentCache cache = cacheRepository.cache(cacheName)
-                .withProperties(properties)
-                .withValidator(validator)
-                .withDisplayName(String.format("%s class cache for %s", transformer.getId(), source.getDisplayName()))
-                .withInitializer(new ProgressReportingInitializer(progressLoggerFactory, new CacheInitializer(source, classLoader, transformer, verifier, scriptBaseClass)))
-                .open();
-
-        // This isn't quite right. The cache will be closed at the end of the build, releasing the shared lock on the classes. Instead, the cache for a script should be
-        // closed once we no longer require the script classes. This may be earlier than the end of the current build, or it may used across multiple builds
-        caches.add(cache);
+        File scriptClassesDir = cache.useCache(String.format("Load %s classes", source.getDisplayName()), new Factory<File>() {
+            public File create() {
+                File generationDir = generationDir(entryDir, !validator.isValid() && recompiledEntries.add(entryDir));
+                File classesDir = new File(generationDir, "classes");
+                if (!isComplete(classesDir)) {
+                    // Left behind by a failed compilation, so never loaded
+                    GFileUtils.deleteDirectory(classesDir);
+                    new ProgressReportingInitializer(progressLoggerFactory, new CacheInitializer(new RemappingScriptSource(source), classLoader, transformer, verifier, scriptBaseClass, classesDir)).execute(cache);
+                    markComplete(classesDir);
+                }
+                File remappedClassesDir = new File(generationDir, "remapped/" + source.getClassName());
+                if (!isComplete(remappedClassesDir)) {
+                    remapClasses(classesDir, remappedClassesDir, source);
+                }
+                // Also records when the classes were last used
+                markComplete(remappedClassesDir);
+                return remappedClassesDir;
+            }
+        });
 
-        File classesDir = classesDir(cache);
-        return scriptCompilationHandler.loadFromDir(source, classLoader, classesDir, scriptBaseClass);
+        return scriptCompilationHandler.loadFromDir(source, classLoader, scriptClassesDir, scriptBaseClass);
     }
 
     public void close() {
-        caches.stop();
+        if (cache != null) {
+            try {
+                cleanUpIfDue(cache);
+            } finally {
+                cache.close();
+                cache = null;
+            }
+        }
+    }
+
+    private PersistentCache getCache() {
+        if (cache == null) {
+            cache = cacheRepository.cache("scripts")
+                    .withDisplayName("script class cache")
+                    .withLockOptions(mode(FileLockManager.LockMode.None))
+                    .open();
+        }
+        return cache;
+    }
+
+    /**
+     * Returns a hash of the class path visible through the given class loader, including the size and timestamp of each file on the class path.
+     */
+    private String classPathHash(ClassLoader classLoader) {
+        String hash = classPathHashes.get(classLoader);
+        if (hash == null) {
+            final StringBuilder classPath = new StringBuilder();
+            new ClassLoaderVisitor() {
+                @Override
+                public void visitClassPath(URL[] urls) {
+                    for (URL url : urls) {
+                        classPath.append(url);
+                        if (url.getProtocol().equals("file")) {
+                            try {
+                                File file = new File(url.toURI());
+                                classPath.append(' ').append(file.length()).append(' ').append(file.lastModified());
+                            } catch (URISyntaxException e) {
+                                // Use the URL only
+                            }
+                        }
+                        classPath.append('\n');
+                    }
+                }
+            }.visit(classLoader);
+            hash = HashUtil.createCompactMD5(classPath.toString());
+            classPathHashes.put(classLoader, hash);
+        }
+        return hash;
+    }
+
+    /**
+     * Returns the generation of the given entry to use. A new generation is started when the entry is to be recompiled. Otherwise, the latest
+     * complete generation is used, or the latest incomplete one when there is none.
+     */
+    private static File generationDir(File entryDir, boolean recompile) {
+        SortedMap<Integer, File> generations = generations(entryDir);
+        if (recompile) {
+            return new File(entryDir, String.valueOf(generations.isEmpty() ? 0 : generations.lastKey() + 1));
+        }
+        Integer latestComplete = latestCompleteGeneration(generations);
+        if (latestComplete != null) {
+            return generations.get(latestComplete);
+        }
+        return generations.isEmpty() ? new File(entryDir, "0") : generations.get(generations.lastKey());
+    }
+
+    private static SortedMap<Integer, File> generations(File entryDir) {
+        SortedMap<Integer, File> generations = new TreeMap<Integer, File>();
+        File[] files = entryDir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                try {
+                    generations.put(Integer.valueOf(file.getName()), file);
+                } catch (NumberFormatException e) {
+                    // Not a generation
+                }
+            }
+        }
+        return generations;
+    }
+
+    @Nullable
+    private static Integer latestCompleteGeneration(SortedMap<Integer, File> generations) {
+        Integer latestComplete = null;
+        for (Map.Entry<Integer, File> generation : generations.entrySet()) {
+            if (isComplete(new File(generation.getValue(), "classes"))) {
+                latestComplete = generation.getKey();
+            }
+        }
+        return latestComplete;
+    }
+
+    private static void cleanUpIfDue(final PersistentCache cache) {
+        final File marker = new File(cache.getBaseDir(), CLEANUP_MARKER);
+        if (System.currentTimeMillis() - marker.lastModified() < CLEANUP_INTERVAL) {
+            return;
+        }
+        cache.useCache("Clean up script class cache", new Runnable() {
+            public void run() {
+                // Another process may have cleaned up in the meantime
+                long now = System.currentTimeMillis();
+                if (now - marker.lastModified() < CLEANUP_INTERVAL) {
+                    return;
+                }
+                cleanUp(cache.getBaseDir(), ENTRY_DEPTH, now);
+                GFileUtils.touch(marker);
+            }
+        });
+    }
+
+    /**
+     * Cleans up the entries found the given number of levels below the given directory, removing directories that are left empty.
+     */
+    private static void cleanUp(File dir, int depth, long now) {
+        File[] files = dir.listFiles();
+        if (files == null) {
+            return;
+        }
+        for (File file : files) {
+            if (!file.isDirectory()) {
+                continue;
+            }
+            if (depth > 1) {
+                cleanUp(file, depth - 1, now);
+            } else {
+                cleanUpEntry(file, now);
+            }
+            String[] remaining = file.list();
+            if (remaining != null && remaining.length == 0) {
+                GFileUtils.deleteDirectory(file);
+            }
+        }
+    }
+
+    /**
+     * Removes the generations of the given entry that have been superseded or have not been used recently, and the renamed copies of the classes
+     * that have not been used recently.
+     */
+    private static void cleanUpEntry(File entryDir, long now) {
+        SortedMap<Integer, File> generations = generations(entryDir);
+        Integer latestComplete = latestCompleteGeneration(generations);
+        for (Map.Entry<Integer, File> generation : generations.entrySet()) {
+            File generationDir = generation.getValue();
+            File[] remappedDirs = new File(generationDir, "remapped").listFiles();
+            long lastUsed = lastUsed(new File(generationDir, "classes"));
+            if (remappedDirs != null) {
+                for (File remappedDir : remappedDirs) {
+                    if (remappedDir.isDirectory()) {
+                        lastUsed = Math.max(lastUsed, lastUsed(remappedDir));
+                    }
+                }
+            }
+            long retention = generation.getKey().equals(latestComplete) ? UNUSED_RETENTION : SUPERSEDED_RETENTION;
+            if (now - lastUsed > retention) {
+                GFileUtils.deleteDirectory(generationDir);
+                continue;
+            }
+            if (remappedDirs != null) {
+                for (File remappedDir : remappedDirs) {
+                    if (remappedDir.isDirectory() && now - lastUsed(remappedDir) > UNUSED_RETENTION) {
+                        GFileUtils.deleteQuietly(completeMarker(remappedDir));
+                        GFileUtils.deleteDirectory(remappedDir);
+                    }
+                }
+            }
+        }
     }
 
-    private File classesDir(PersistentCache cache) {
-        return new File(cache.getBaseDir(), "classes");
+    private static long lastUsed(File dir) {
+        File marker = completeMarker(dir);
+        return marker.isFile() ? marker.lastModified() : dir.lastModified();
+    }
+
+    private static File completeMarker(File dir) {
+        return new File(dir.getParentFile(), dir.getName() + ".complete");
+    }
+
+    private static boolean isComplete(File dir) {
+        return completeMarker(dir).isFile() && dir.isDirectory();
+    }
+
+    private static void markComplete(File dir) {
+        GFileUtils.touch(completeMarker(dir));
+    }
+
+    /**
+     * Copies the given compiled classes, renaming the script class and its closure classes to the class name of the given script, and setting
+     * their source file to the file of the script.
+     */
+    private static void remapClasses(File classesDir, File remappedClassesDir, final ScriptSource source) {
+        GFileUtils.deleteDirectory(remappedClassesDir);
+        GFileUtils.mkdirs(remappedClassesDir);
+        final String className = source.getClassName();
+        Remapper remapper = new Remapper() {
+            @Override
+            public String map(String typeName) {
+                return remapClassName(typeName, className);
+            }
+        };
+        File[] files = classesDir.listFiles();
+        if (files == null) {
+            throw new UncheckedIOException(String.format("Could not list compiled classes in %s.", classesDir));
+        }
+        try {
+            for (File file : files) {
+                if (!file.getName().endsWith(".class")) {
+                    FileUtils.copyFile(file, new File(remappedClassesDir, file.getName()));
+                    continue;
+                }
+                String remappedName = remapClassName(file.getName().substring(0, file.getName().length() - ".class".length()), className);
+                ClassWriter classWriter = new ClassWriter(0);
+                ClassVisitor sourceFileVisitor = new ClassVisitor(Opcodes.ASM5, classWriter) {
+                    @Override
+                    public void visitSource(String sourceFile, String debug) {
+                        super.visitSource(source.getFileName(), debug);
+                    }
+                };
+                new ClassReader(FileUtils.readFileToByteArray(file)).accept(new RemappingClassAdapter(sourceFileVisitor, remapper), 0);
+                FileUtils.writeByteArrayToFile(new File(remappedClassesDir, remappedName + ".class"), classWriter.toByteArray());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(String.format("Could not copy compiled classes for %s.", source.getDisplayName()), e);
+        }
+    }
+
+    private static String remapClassName(String name, String className) {
+        if (name.equals(RemappingScriptSource.MAPPED_SCRIPT) || name.startsWith(RemappingScriptSource.MAPPED_SCRIPT + "$")) {
+            return className + name.substring(RemappingScriptSource.MAPPED_SCRIPT.length());
+        }
+        return name;
     }
 
     private class CacheInitializer implements Action<PersistentCache> {
@@ -85,17 +357,18 @@ public class FileCacheBackedScriptClassCompiler implements ScriptClassCompiler,
         private final ClassLoader classLoader;
         private final Transformer transformer;
         private final ScriptSource source;
+        private final File classesDir;
 
-        private CacheInitializer(ScriptSource source, ClassLoader classLoader, Transformer transformer, Verifier verifier, Class<? extends Script> scriptBaseClass) {
+        private CacheInitializer(ScriptSource source, ClassLoader classLoader, Transformer transformer, Verifier verifier, Class<? extends Script> scriptBaseClass, File classesDir) {
             this.source = source;
             this.classLoader = classLoader;
             this.transformer = transformer;
             this.verifier = verifier;
             this.scriptBaseClass = scriptBaseClass;
+            this.classesDir = classesDir;
         }
 
         public void execute(PersistentCache cache) {
-            File classesDir = classesDir(cache);
             scriptCompilationHandler.compileToDir(source, classLoader, classesDir, transformer, scriptBaseClass, verifier);
         }
     }
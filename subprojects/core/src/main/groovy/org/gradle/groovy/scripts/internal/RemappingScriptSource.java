@@ -0,0 +1,38 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.groovy.scripts.internal;
+
+import org.gradle.groovy.scripts.DelegatingScriptSource;
+import org.gradle.groovy.scripts.ScriptSource;
+
+/**
+ * A script source that compiles to a class name that does not depend on the location of the script, so that the compiled classes can be
+ * shared by all scripts with the same content. The classes are renamed for each script when they are loaded.
+ */
+public class RemappingScriptSource extends DelegatingScriptSource {
+    public static final String MAPPED_SCRIPT = "_BuildScript_";
+
+    public RemappingScriptSource(ScriptSource source) {
+        super(source);
+    }
+
+    @Override
+    public String getClassName() {
+        return MAPPED_SCRIPT;
+    }
+}
@@ -27,6 +27,7 @@ import org.gradle.cache.CacheRepository;
 import org.gradle.configuration.BuildConfigurer;
 import org.gradle.execution.BuildExecuter;
 import org.gradle.initialization.buildsrc.BuildSourceBuilder;
+import org.gradle.initialization.fingerprint.BuildSrcClasspathCache;
 import org.gradle.initialization.layout.BuildLayoutFactory;
 import org.gradle.internal.featurelifecycle.ScriptUsageLocationReporter;
 import org.gradle.internal.progress.BuildProgressFilter;
@@ -125,7 +126,8 @@ public class DefaultGradleLauncherFactory implements GradleLauncherFactory {
                                 this,
                                 cancellationToken,
                                 serviceRegistry.get(ClassLoaderScopeRegistry.class).getCoreAndPluginsScope(),
-                                serviceRegistry.get(CacheRepository.class))
+                                serviceRegistry.get(CacheRepository.class),
+                                serviceRegistry.get(BuildSrcClasspathCache.class))
                 ),
                 serviceRegistry.get(BuildLoader.class),
                 serviceRegistry.get(BuildConfigurer.class),
@@ -24,6 +24,8 @@ import org.gradle.cache.internal.FileLockManager;
 import org.gradle.initialization.BuildCancellationToken;
 import org.gradle.initialization.GradleLauncher;
 import org.gradle.initialization.GradleLauncherFactory;
+import org.gradle.initialization.fingerprint.BuildSrcClasspathCache;
+import org.gradle.internal.Factory;
 import org.gradle.internal.classpath.ClassPath;
 import org.gradle.internal.classpath.DefaultClassPath;
 import org.gradle.util.GradleVersion;
@@ -42,13 +44,15 @@ public class BuildSourceBuilder {
     private final BuildCancellationToken cancellationToken;
     private final ClassLoaderScope classLoaderScope;
     private final CacheRepository cacheRepository;
+    private final BuildSrcClasspathCache classpathCache;
 
     public BuildSourceBuilder(GradleLauncherFactory gradleLauncherFactory, BuildCancellationToken cancellationToken,
-                              ClassLoaderScope classLoaderScope, CacheRepository cacheRepository) {
+                              ClassLoaderScope classLoaderScope, CacheRepository cacheRepository, BuildSrcClasspathCache classpathCache) {
         this.gradleLauncherFactory = gradleLauncherFactory;
         this.cancellationToken = cancellationToken;
         this.classLoaderScope = classLoaderScope;
         this.cacheRepository = cacheRepository;
+        this.classpathCache = classpathCache;
     }
 
     public ClassLoaderScope buildAndCreateClassLoader(StartParameter startParameter) {
@@ -59,7 +63,7 @@ public class BuildSourceBuilder {
         return childScope;
     }
 
-    ClassPath createBuildSourceClasspath(StartParameter startParameter) {
+    ClassPath createBuildSourceClasspath(final StartParameter startParameter) {
         assert startParameter.getCurrentDir() != null && startParameter.getBuildFile() == null;
 
         LOGGER.debug("Starting to build the build sources.");
@@ -67,6 +71,15 @@ public class BuildSourceBuilder {
             LOGGER.debug("Gradle source dir does not exist. We leave.");
             return new DefaultClassPath();
         }
+
+        return classpathCache.getClasspath(startParameter, new Factory<ClassPath>() {
+            public ClassPath create() {
+                return buildClasspath(startParameter);
+            }
+        });
+    }
+
+    private ClassPath buildClasspath(StartParameter startParameter) {
         LOGGER.info("================================================" + " Start building buildSrc");
 
         // If we were not the most recent version of Gradle to build the buildSrc dir, then do a clean build
@@ -0,0 +1,198 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.initialization.fingerprint;
+
+import org.gradle.api.Nullable;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.hash.HashUtil;
+import org.gradle.internal.hash.HashValue;
+
+import java.io.File;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+
+/**
+ * The inputs that were used to configure a build. Files record their state at the time they were used, and are checked against their current
+ * state. Values, such as the requested tasks or the environment, are compared with the values of the build being checked.
+ */
+public class BuildConfigurationFingerprint {
+    private final Map<String, String> values;
+    private final List<FileInput> files;
+    private final String notCacheableReason;
+
+    private BuildConfigurationFingerprint(Map<String, String> values, List<FileInput> files, @Nullable String notCacheableReason) {
+        this.values = values;
+        this.files = files;
+        this.notCacheableReason = notCacheableReason;
+    }
+
+    /**
+     * Returns a description of the first input that is different for a build with the given values, or null when all inputs are unchanged.
+     */
+    @Nullable
+    public String findChange(Map<String, String> currentValues) {
+        if (notCacheableReason != null) {
+            return notCacheableReason;
+        }
+        for (Map.Entry<String, String> entry : values.entrySet()) {
+            if (!entry.getValue().equals(currentValues.get(entry.getKey()))) {
+                return entry.getKey() + " changed";
+            }
+        }
+        for (String name : currentValues.keySet()) {
+            if (!values.containsKey(name)) {
+                return name + " changed";
+            }
+        }
+        for (FileInput file : files) {
+            if (!file.state.equals(file.currentState())) {
+                return file.displayName + " changed";
+            }
+        }
+        return null;
+    }
+
+    public static class Builder {
+        private final Map<String, String> values = new LinkedHashMap<String, String>();
+        private final Map<String, FileInput> files = new LinkedHashMap<String, FileInput>();
+        private String notCacheableReason;
+
+        public Builder(Map<String, String> values) {
+            this.values.putAll(values);
+        }
+
+        /**
+         * Records the content of the given file, which may not exist.
+         */
+        public void fileContent(String displayName, File file) {
+            add(new FileContentInput(displayName, file));
+        }
+
+        /**
+         * Records the length and timestamp of the given file, which may not exist.
+         */
+        public void fileState(String displayName, File file) {
+            add(new FileStateInput(displayName, file));
+        }
+
+        /**
+         * Records the names, lengths and timestamps of the files under the given directory, other than those in the given top-level directories.
+         */
+        public void directoryState(String displayName, File dir, Set<String> excludedDirs) {
+            add(new DirectoryStateInput(displayName, dir, excludedDirs));
+        }
+
+        /**
+         * Marks the build as using an input that cannot be checked.
+         */
+        public void notCacheable(String reason) {
+            if (notCacheableReason == null) {
+                notCacheableReason = reason;
+            }
+        }
+
+        private void add(FileInput input) {
+            if (!files.containsKey(input.displayName)) {
+                input.state = input.currentState();
+                files.put(input.displayName, input);
+            }
+        }
+
+        public BuildConfigurationFingerprint build() {
+            return new BuildConfigurationFingerprint(new LinkedHashMap<String, String>(values), new ArrayList<FileInput>(files.values()), notCacheableReason);
+        }
+    }
+
+    private static abstract class FileInput {
+        final String displayName;
+        final File file;
+        String state;
+
+        FileInput(String displayName, File file) {
+            this.displayName = displayName;
+            this.file = file;
+        }
+
+        abstract String currentState();
+    }
+
+    private static class FileContentInput extends FileInput {
+        FileContentInput(String displayName, File file) {
+            super(displayName, file);
+        }
+
+        String currentState() {
+            return file.isFile() ? HashUtil.createHash(file, "MD5").asHexString() : "missing";
+        }
+    }
+
+    private static class FileStateInput extends FileInput {
+        FileStateInput(String displayName, File file) {
+            super(displayName, file);
+        }
+
+        String currentState() {
+            return file.exists() ? file.length() + ":" + file.lastModified() : "missing";
+        }
+    }
+
+    private static class DirectoryStateInput extends FileInput {
+        private final Set<String> excludedDirs;
+
+        DirectoryStateInput(String displayName, File dir, Set<String> excludedDirs) {
+            super(displayName, dir);
+            this.excludedDirs = excludedDirs;
+        }
+
+        String currentState() {
+            if (!file.isDirectory()) {
+                return "missing";
+            }
+            MessageDigest digest;
+            try {
+                digest = MessageDigest.getInstance("MD5");
+            } catch (NoSuchAlgorithmException e) {
+                throw UncheckedException.throwAsUncheckedException(e);
+            }
+            visit(file, "", digest);
+            return new HashValue(digest.digest()).asCompactString();
+        }
+
+        private void visit(File dir, String path, MessageDigest digest) {
+            File[] children = dir.listFiles();
+            if (children == null) {
+                return;
+            }
+            // Sort the entries, as the order in which they are listed is not defined
+            Arrays.sort(children);
+            for (File child : children) {
+                String childPath = path + "/" + child.getName();
+                if (child.isDirectory()) {
+                    if (path.length() == 0 && excludedDirs.contains(child.getName())) {
+                        continue;
+                    }
+                    digest.update(childPath.getBytes());
+                    visit(child, childPath, digest);
+                } else {
+                    digest.update((childPath + ":" + child.length() + ":" + child.lastModified()).getBytes());
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.initialization.fingerprint;
+
+import org.gradle.StartParameter;
+import org.gradle.api.Project;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.internal.Factory;
+import org.gradle.internal.classpath.ClassPath;
+import org.gradle.internal.hash.HashUtil;
+import org.gradle.util.GFileUtils;
+
+import java.io.File;
+import java.util.*;
+
+/**
+ * Retains the classpath built from each buildSrc directory for the lifetime of the process, along with the inputs of the buildSrc build, so that
+ * a later build can use the classpath without running the buildSrc build again when none of these inputs have changed. The inputs are the
+ * content of the buildSrc directory, other than its build output, the files of the classpath, the initialization scripts and user
+ * {@code gradle.properties} file, the build options, the project properties, the system properties and the environment. Only the inputs of the
+ * buildSrc build are checked, not those of the build that uses it.
+ */
+public class BuildSrcClasspathCache {
+    /**
+     * The system property that enables the reuse of buildSrc classpaths.
+     */
+    public static final String ENABLED_PROPERTY = "org.gradle.buildSrc.reuseClasspath";
+
+    private static final Logger LOGGER = Logging.getLogger(BuildSrcClasspathCache.class);
+    private static final int MAX_ENTRIES = 16;
+    private static final Set<String> BUILD_SRC_OUTPUT_DIRS = new HashSet<String>(Arrays.asList("build", ".gradle"));
+
+    private final Object lock = new Object();
+    private final Map<String, CachedClasspath> classpaths = new LinkedHashMap<String, CachedClasspath>(MAX_ENTRIES, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CachedClasspath> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+
+    /**
+     * Returns the classpath built from the buildSrc directory of the given start parameter. Uses the retained classpath when its inputs are
+     * unchanged, and otherwise runs the given action to build it.
+     */
+    public ClassPath getClasspath(StartParameter startParameter, Factory<ClassPath> buildAction) {
+        if (!Boolean.getBoolean(ENABLED_PROPERTY)) {
+            return buildAction.create();
+        }
+
+        String key = GFileUtils.canonicalise(startParameter.getCurrentDir()).getPath();
+        Map<String, String> values = currentValues(startParameter);
+        CachedClasspath previous;
+        synchronized (lock) {
+            previous = classpaths.remove(key);
+        }
+        if (previous != null) {
+            String change = previous.fingerprint.findChange(values);
+            if (change == null) {
+                LOGGER.info("Reusing the buildSrc classpath of the previous build, as the buildSrc inputs are unchanged.");
+                put(key, previous);
+                return previous.classpath;
+            }
+            LOGGER.info("Not reusing the buildSrc classpath of the previous build: {}.", change);
+        }
+
+        // Record the state of the inputs before building, so that a change made during the build is noticed by the next build
+        BuildConfigurationFingerprint.Builder fingerprint = new BuildConfigurationFingerprint.Builder(values);
+        fingerprint.directoryState(String.format("buildSrc directory '%s'", startParameter.getCurrentDir()), startParameter.getCurrentDir(), BUILD_SRC_OUTPUT_DIRS);
+        for (File initScript : startParameter.getAllInitScripts()) {
+            fingerprint.fileContent(String.format("initialization script '%s'", initScript), initScript);
+        }
+        File userPropertiesFile = new File(startParameter.getGradleUserHomeDir(), Project.GRADLE_PROPERTIES);
+        fingerprint.fileContent(String.format("properties file '%s'", userPropertiesFile), userPropertiesFile);
+
+        ClassPath classpath = buildAction.create();
+        for (File file : classpath.getAsFiles()) {
+            fingerprint.fileState(String.format("buildSrc classpath entry '%s'", file), file);
+        }
+        put(key, new CachedClasspath(fingerprint.build(), classpath));
+        return classpath;
+    }
+
+    private void put(String key, CachedClasspath classpath) {
+        synchronized (lock) {
+            classpaths.put(key, classpath);
+        }
+    }
+
+    private static Map<String, String> currentValues(StartParameter startParameter) {
+        Map<String, String> values = new LinkedHashMap<String, String>();
+        values.put("project properties", new TreeMap<String, String>(startParameter.getProjectProperties()).toString());
+        values.put("build options", Arrays.asList(
+                startParameter.isOffline(), startParameter.isRefreshDependencies(), startParameter.getGradleUserHomeDir(),
+                startParameter.getAllInitScripts()).toString());
+        values.put("system properties", HashUtil.createCompactMD5(new TreeMap<Object, Object>(System.getProperties()).toString()));
+        values.put("environment variables", HashUtil.createCompactMD5(new TreeMap<String, String>(System.getenv()).toString()));
+        return values;
+    }
+
+    private static class CachedClasspath {
+        private final BuildConfigurationFingerprint fingerprint;
+        private final ClassPath classpath;
+
+        CachedClasspath(BuildConfigurationFingerprint fingerprint, ClassPath classpath) {
+            this.fingerprint = fingerprint;
+            this.classpath = classpath;
+        }
+    }
+}
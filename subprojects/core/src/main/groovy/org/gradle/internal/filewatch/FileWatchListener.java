@@ -0,0 +1,35 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.internal.filewatch;
+
+import java.io.File;
+
+/**
+ * Receives the changes reported by a {@link FileWatcher}.
+ */
+public interface FileWatchListener {
+    /**
+     * Called when the given file or directory has been created, modified or deleted, or when a watched directory can no longer be watched.
+     */
+    void changed(File file);
+
+    /**
+     * Called when changes have been lost, so that any state derived from the watched directories should be discarded.
+     */
+    void overflowed();
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.internal.filewatch;
+
+import org.gradle.internal.concurrent.Stoppable;
+
+import java.io.File;
+
+/**
+ * Watches directories for changes to their entries. Changes are collected by the watcher and reported when {@link #pollChanges(FileWatchListener)}
+ * is called, so the caller decides when to process them.
+ */
+public interface FileWatcher extends Stoppable {
+    /**
+     * Starts watching the entries of the given directory, if not already watched. Subdirectories are not watched.
+     *
+     * @return true if the directory is being watched, false if changes to the directory cannot be reported.
+     */
+    boolean watch(File directory);
+
+    /**
+     * Reports the changes that have happened since the last call to the given listener. Does not block.
+     */
+    void pollChanges(FileWatchListener listener);
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.internal.filewatch;
+
+import org.gradle.api.JavaVersion;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class FileWatcherFactory {
+    private static final Logger LOGGER = LoggerFactory.getLogger(FileWatcherFactory.class);
+    private static final String JDK7_WATCHER = "org.gradle.internal.filewatch.jdk7.WatchServiceFileWatcher";
+
+    /**
+     * Creates a watcher backed by the JDK 7 watch service, if available, otherwise a watcher that does not watch anything.
+     */
+    public FileWatcher create() {
+        Class<?> watcherClass = null;
+        if (JavaVersion.current().isJava7()) {
+            try {
+                watcherClass = FileWatcherFactory.class.getClassLoader().loadClass(JDK7_WATCHER);
+                LOGGER.debug("Using JDK 7 file watcher {}", JDK7_WATCHER);
+            } catch (ClassNotFoundException e) {
+                // Ignore
+            }
+        }
+        if (watcherClass == null) {
+            LOGGER.debug("Unable to load {}. Continuing with fallback {}.", JDK7_WATCHER, UnsupportedFileWatcher.class.getName());
+            return new UnsupportedFileWatcher();
+        }
+        try {
+            return (FileWatcher) watcherClass.newInstance();
+        } catch (Exception e) {
+            LOGGER.debug("Unable to create {}. Continuing with fallback {}.", JDK7_WATCHER, UnsupportedFileWatcher.class.getName(), e);
+            return new UnsupportedFileWatcher();
+        }
+    }
+}
@@ -0,0 +1,35 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.internal.filewatch;
+
+import java.io.File;
+
+/**
+ * A {@link FileWatcher} used when file system changes cannot be watched. No directory is ever watched.
+ */
+public class UnsupportedFileWatcher implements FileWatcher {
+    public boolean watch(File directory) {
+        return false;
+    }
+
+    public void pollChanges(FileWatchListener listener) {
+    }
+
+    public void stop() {
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.internal.filewatch.jdk7;
+
+import org.gradle.internal.filewatch.FileWatchListener;
+import org.gradle.internal.filewatch.FileWatcher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static java.nio.file.StandardWatchEventKinds.*;
+
+/**
+ * A {@link FileWatcher} backed by the JDK 7 {@link WatchService}, which uses inotify on Linux.
+ */
+public class WatchServiceFileWatcher implements FileWatcher {
+    private static final Logger LOGGER = LoggerFactory.getLogger(WatchServiceFileWatcher.class);
+
+    private final Object lock = new Object();
+    private final WatchService watchService;
+    private final Map<WatchKey, Path> directories = new HashMap<WatchKey, Path>();
+    private final Set<Path> watched = new HashSet<Path>();
+
+    public WatchServiceFileWatcher() throws IOException {
+        watchService = FileSystems.getDefault().newWatchService();
+        // The polling implementation only notices a change some seconds after it happens, so cannot be used to decide that a file is unchanged
+        if (watchService.getClass().getSimpleName().equals("PollingWatchService")) {
+            watchService.close();
+            throw new UnsupportedOperationException("The watch service for this platform does not use native file system notifications.");
+        }
+    }
+
+    public boolean watch(File directory) {
+        Path path = directory.toPath();
+        synchronized (lock) {
+            if (watched.contains(path)) {
+                return true;
+            }
+            try {
+                WatchKey key = path.register(watchService, ENTRY_CREATE, ENTRY_DELETE, ENTRY_MODIFY);
+                directories.put(key, path);
+                watched.add(path);
+                return true;
+            } catch (IOException e) {
+                LOGGER.debug("Could not watch directory {}.", directory, e);
+                return false;
+            } catch (ClosedWatchServiceException e) {
+                return false;
+            }
+        }
+    }
+
+    public void pollChanges(FileWatchListener listener) {
+        synchronized (lock) {
+            WatchKey key;
+            try {
+                key = watchService.poll();
+            } catch (ClosedWatchServiceException e) {
+                return;
+            }
+            while (key != null) {
+                Path directory = directories.get(key);
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == OVERFLOW) {
+                        listener.overflowed();
+                    } else if (directory != null) {
+                        listener.changed(directory.resolve((Path) event.context()).toFile());
+                    }
+                }
+                if (!key.reset()) {
+                    // The directory has been deleted or can no longer be accessed
+                    directories.remove(key);
+                    if (directory != null) {
+                        watched.remove(directory);
+                        listener.changed(directory.toFile());
+                    }
+                }
+                key = watchService.poll();
+            }
+        }
+    }
+
+    public void stop() {
+        synchronized (lock) {
+            try {
+                watchService.close();
+            } catch (IOException e) {
+                LOGGER.debug("Could not close watch service.", e);
+            }
+            directories.clear();
+            watched.clear();
+        }
+    }
+}
@@ -19,11 +19,14 @@ package org.gradle.internal.service.scopes;
 import org.gradle.StartParameter;
 import org.gradle.api.internal.*;
 import org.gradle.api.internal.changedetection.state.InMemoryTaskArtifactCache;
+import org.gradle.api.internal.changedetection.state.WatchedFileSnapshotCache;
 import org.gradle.api.internal.classpath.DefaultModuleRegistry;
 import org.gradle.api.internal.classpath.DefaultPluginModuleRegistry;
 import org.gradle.api.internal.classpath.ModuleRegistry;
 import org.gradle.api.internal.classpath.PluginModuleRegistry;
 import org.gradle.api.internal.file.*;
+import org.gradle.api.internal.project.DefaultIsolatedAntBuilder;
+import org.gradle.api.internal.project.IsolatedAntBuilder;
 import org.gradle.api.internal.initialization.loadercache.ClassLoaderCacheFactory;
 import org.gradle.cache.internal.*;
 import org.gradle.cache.internal.locklistener.DefaultFileLockContentionHandler;
@@ -33,11 +36,14 @@ import org.gradle.initialization.ClassLoaderRegistry;
 import org.gradle.initialization.DefaultClassLoaderRegistry;
 import org.gradle.initialization.DefaultCommandLineConverter;
 import org.gradle.initialization.DefaultGradleLauncherFactory;
+import org.gradle.initialization.fingerprint.BuildSrcClasspathCache;
 import org.gradle.internal.classloader.ClassLoaderFactory;
 import org.gradle.internal.classloader.DefaultClassLoaderFactory;
 import org.gradle.internal.concurrent.DefaultExecutorFactory;
 import org.gradle.internal.concurrent.ExecutorFactory;
 import org.gradle.internal.environment.GradleBuildEnvironment;
+import org.gradle.internal.filewatch.FileWatcherFactory;
+import org.gradle.internal.filewatch.UnsupportedFileWatcher;
 import org.gradle.internal.nativeintegration.ProcessEnvironment;
 import org.gradle.internal.nativeintegration.filesystem.FileSystem;
 import org.gradle.internal.reflect.DirectInstantiator;
@@ -127,6 +133,10 @@ public class GlobalScopeServices {
         return new DefaultClassLoaderFactory();
     }
 
+    IsolatedAntBuilder createIsolatedAntBuilder(ClassPathRegistry classPathRegistry, ClassLoaderFactory classLoaderFactory) {
+        return new DefaultIsolatedAntBuilder(classPathRegistry, classLoaderFactory);
+    }
+
     MessagingServices createMessagingServices(ClassLoaderRegistry classLoaderRegistry) {
         return new MessagingServices(classLoaderRegistry.getPluginsClassLoader());
     }
@@ -158,6 +168,18 @@ public class GlobalScopeServices {
         return new InMemoryTaskArtifactCache();
     }
 
+    BuildSrcClasspathCache createBuildSrcClasspathCache() {
+        return new BuildSrcClasspathCache();
+    }
+
+    WatchedFileSnapshotCache createWatchedFileSnapshotCache() {
+        // Only worth watching files when the process is reused for later builds
+        if (environment.isLongLivingProcess()) {
+            return new WatchedFileSnapshotCache(new FileWatcherFactory().create());
+        }
+        return new WatchedFileSnapshotCache(new UnsupportedFileWatcher());
+    }
+
     DefaultFileLockContentionHandler createFileLockContentionHandler(ExecutorFactory executorFactory, MessagingServices messagingServices) {
         return new DefaultFileLockContentionHandler(
                 executorFactory,
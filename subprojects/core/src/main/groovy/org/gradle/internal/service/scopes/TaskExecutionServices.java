@@ -61,8 +61,11 @@ public class TaskExecutionServices {
         return new DefaultTaskArtifactStateCacheAccess(gradle, cacheRepository, decorator);
     }
 
-    FileSnapshotter createFileSnapshotter(TaskArtifactStateCacheAccess cacheAccess) {
-        return new CachingFileSnapshotter(new DefaultHasher(), cacheAccess);
+    FileSnapshotter createFileSnapshotter(TaskArtifactStateCacheAccess cacheAccess, WatchedFileSnapshotCache watchedFiles, ListenerManager listenerManager, StartParameter startParameter) {
+        // The Gradle user home directory holds the caches, whose files do not change and would use up many watches
+        watchedFiles.ignore(startParameter.getGradleUserHomeDir());
+        listenerManager.addListener(new WatchedOutputFilesInvalidator(watchedFiles));
+        return new CachingFileSnapshotter(new DefaultHasher(), cacheAccess, watchedFiles);
     }
 
     TaskArtifactStateRepository createTaskArtifactStateRepository(Instantiator instantiator, TaskArtifactStateCacheAccess cacheAccess, StartParameter startParameter, FileSnapshotter fileSnapshotter) {
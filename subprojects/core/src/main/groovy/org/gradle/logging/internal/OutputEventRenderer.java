@@ -23,17 +23,40 @@ import org.gradle.internal.nativeintegration.console.ConsoleMetaData;
 import org.gradle.listener.ListenerBroadcast;
 
 import java.io.OutputStream;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * A {@link org.gradle.logging.internal.OutputEventListener} implementation which renders output events to various
  * destinations. This implementation is thread-safe.
+ *
+ * <p>Events are added to a queue and rendered in the order they were queued. The thread that adds an event renders the queued events when no other
+ * thread is currently rendering. A thread that starts rendering only renders the events that were queued before it started, so no thread keeps
+ * rendering the events of other threads indefinitely. A thread whose event was queued while another thread is rendering returns immediately when that
+ * thread is going to render the event, otherwise it waits and renders the event itself. Progress events that are superseded by a later progress event
+ * for the same operation in the same batch are discarded.</p>
+ *
+ * <p>Queued events are rendered before any listener or console is added or removed, so a listener that is removed at the end of a build receives all
+ * events of the build.</p>
  */
 @ThreadSafe
 public class OutputEventRenderer implements OutputEventListener, LoggingConfigurer, LoggingOutputInternal {
+    private static final int MAX_BATCH_SIZE = 500;
+
     private final ListenerBroadcast<OutputEventListener> formatters = new ListenerBroadcast<OutputEventListener>(OutputEventListener.class);
     private final ListenerBroadcast<StandardOutputListener> stdoutListeners = new ListenerBroadcast<StandardOutputListener>(StandardOutputListener.class);
     private final ListenerBroadcast<StandardOutputListener> stderrListeners = new ListenerBroadcast<StandardOutputListener>(StandardOutputListener.class);
-    private final Object lock = new Object();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Queue<OutputEvent> queue = new ConcurrentLinkedQueue<OutputEvent>();
+    private final Object queueLock = new Object();
+    // The number of events ever added to the queue, guarded by queueLock
+    private long queuedCount;
+    // The number of events ever taken from the queue, updated while holding the lock
+    private final AtomicLong takenCount = new AtomicLong();
+    // The number of events that the thread holding the lock renders up to, only ever increases
+    private volatile long renderTarget;
     private final DefaultColorMap colourMap = new DefaultColorMap();
     private LogLevel logLevel = LogLevel.LIFECYCLE;
     private final Action<? super OutputEventRenderer> consoleConfigureAction;
@@ -63,29 +86,45 @@ public class OutputEventRenderer implements OutputEventListener, LoggingConfigur
     }
 
     public void attachConsole(boolean colorOutput) {
-        synchronized (lock) {
+        acquireLock();
+        try {
             colourMap.setUseColor(colorOutput);
             consoleConfigureAction.execute(this);
+        } finally {
+            releaseLock();
         }
     }
 
     public void addStandardOutputAndError() {
-        synchronized (lock) {
+        acquireLock();
+        try {
             originalStdOut = System.out;
             originalStdErr = System.err;
             stdOutListener = new StreamBackedStandardOutputListener((Appendable) System.out);
             stdErrListener = new StreamBackedStandardOutputListener((Appendable) System.err);
             addStandardOutputListener(stdOutListener);
             addStandardErrorListener(stdErrListener);
+        } finally {
+            releaseLock();
         }
     }
 
     public void addOutputEventListener(OutputEventListener listener) {
-        formatters.add(listener);
+        acquireLock();
+        try {
+            formatters.add(listener);
+        } finally {
+            releaseLock();
+        }
     }
 
     public void removeOutputEventListener(OutputEventListener listener) {
-        formatters.remove(listener);
+        acquireLock();
+        try {
+            formatters.remove(listener);
+        } finally {
+            releaseLock();
+        }
     }
 
     public OutputEventRenderer addConsole(Console console, boolean stdout, boolean stderr, ConsoleMetaData consoleMetaData) {
@@ -94,7 +133,8 @@ public class OutputEventRenderer implements OutputEventListener, LoggingConfigur
                         new StyledTextOutputBackedRenderer(console.getMainArea()), true),
                 console,
                 new DefaultStatusBarFormatter(consoleMetaData));
-        synchronized (lock) {
+        acquireLock();
+        try {
             if (stdout && stderr) {
                 formatters.add(consoleChain);
                 stdoutListeners.remove(this.stdOutListener);
@@ -107,6 +147,8 @@ public class OutputEventRenderer implements OutputEventListener, LoggingConfigur
                 stderrListeners.remove(this.stdErrListener);
             }
             consoleChain.onOutput(new LogLevelChangeEvent(logLevel));
+        } finally {
+            releaseLock();
         }
         return this;
     }
@@ -132,26 +174,38 @@ public class OutputEventRenderer implements OutputEventListener, LoggingConfigur
     }
 
     public void addStandardErrorListener(StandardOutputListener listener) {
-        synchronized (lock) {
+        acquireLock();
+        try {
             stderrListeners.add(listener);
+        } finally {
+            releaseLock();
         }
     }
 
     public void addStandardOutputListener(StandardOutputListener listener) {
-        synchronized (lock) {
+        acquireLock();
+        try {
             stdoutListeners.add(listener);
+        } finally {
+            releaseLock();
         }
     }
 
     public void removeStandardOutputListener(StandardOutputListener listener) {
-        synchronized (lock) {
+        acquireLock();
+        try {
             stdoutListeners.remove(listener);
+        } finally {
+            releaseLock();
         }
     }
 
     public void removeStandardErrorListener(StandardOutputListener listener) {
-        synchronized (lock) {
+        acquireLock();
+        try {
             stderrListeners.remove(listener);
+        } finally {
+            releaseLock();
         }
     }
 
@@ -160,19 +214,117 @@ public class OutputEventRenderer implements OutputEventListener, LoggingConfigur
     }
 
     public void onOutput(OutputEvent event) {
-        synchronized (lock) {
-            if (event.getLogLevel() != null && event.getLogLevel().compareTo(logLevel) < 0) {
+        long sequence;
+        synchronized (queueLock) {
+            queue.add(event);
+            sequence = ++queuedCount;
+        }
+        if (takenCount.get() >= sequence) {
+            return;
+        }
+        if (!lock.tryLock()) {
+            if (renderTarget >= sequence) {
+                // The thread that is rendering will render this event
                 return;
             }
-            if (event instanceof LogLevelChangeEvent) {
-                LogLevelChangeEvent changeEvent = (LogLevelChangeEvent) event;
-                LogLevel newLogLevel = changeEvent.getNewLogLevel();
-                if (newLogLevel == this.logLevel) {
-                    return;
+            // The thread that is rendering stops before this event
+            lock.lock();
+        }
+        try {
+            renderQueuedEvents();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Takes the lock, once the events queued so far have been rendered.
+     */
+    private void acquireLock() {
+        lock.lock();
+        try {
+            renderQueuedEvents();
+        } catch (RuntimeException e) {
+            lock.unlock();
+            throw e;
+        }
+    }
+
+    private void releaseLock() {
+        // Threads that queued events while the lock was held wait for the lock and render their events
+        lock.unlock();
+    }
+
+    /**
+     * Renders the events queued before this method was called. Must be called while holding the lock.
+     */
+    private void renderQueuedEvents() {
+        long target;
+        synchronized (queueLock) {
+            target = queuedCount;
+        }
+        if (target > renderTarget) {
+            renderTarget = target;
+        }
+        RuntimeException failure = null;
+        List<OutputEvent> batch = new ArrayList<OutputEvent>();
+        while (takenCount.get() < target) {
+            long remaining = target - takenCount.get();
+            while (batch.size() < MAX_BATCH_SIZE && batch.size() < remaining) {
+                batch.add(queue.poll());
+            }
+            takenCount.addAndGet(batch.size());
+            discardSupersededProgressEvents(batch);
+            for (OutputEvent queuedEvent : batch) {
+                if (queuedEvent == null) {
+                    continue;
+                }
+                try {
+                    render(queuedEvent);
+                } catch (RuntimeException e) {
+                    // Render the remaining events, which may have been queued by other threads
+                    if (failure == null) {
+                        failure = e;
+                    }
+                }
+            }
+            batch.clear();
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Only the most recent status of an operation is shown, so a progress event can be discarded when it is followed by another progress event
+     * for the same operation. Events that start or complete an operation or change the log level are kept in place, along with the progress events before them.
+     */
+    static void discardSupersededProgressEvents(List<OutputEvent> batch) {
+        Set<Long> updatedOperations = new HashSet<Long>();
+        for (int i = batch.size() - 1; i >= 0; i--) {
+            OutputEvent event = batch.get(i);
+            if (event instanceof ProgressEvent) {
+                if (!updatedOperations.add(((ProgressEvent) event).getOperationId())) {
+                    batch.set(i, null);
                 }
-                this.logLevel = newLogLevel;
+            } else if (event instanceof ProgressStartEvent || event instanceof ProgressCompleteEvent || event instanceof LogLevelChangeEvent) {
+                updatedOperations.clear();
+            }
+        }
+    }
+
+    private void render(OutputEvent event) {
+        if (event.getLogLevel() != null && event.getLogLevel().compareTo(logLevel) < 0) {
+            return;
+        }
+        if (event instanceof LogLevelChangeEvent) {
+            LogLevelChangeEvent changeEvent = (LogLevelChangeEvent) event;
+            LogLevel newLogLevel = changeEvent.getNewLogLevel();
+            if (newLogLevel == this.logLevel) {
+                return;
             }
-            formatters.getSource().onOutput(event);
+            this.logLevel = newLogLevel;
         }
+        formatters.getSource().onOutput(event);
     }
 }
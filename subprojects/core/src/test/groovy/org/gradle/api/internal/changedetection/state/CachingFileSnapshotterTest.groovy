@@ -103,4 +103,39 @@ class CachingFileSnapshotterTest extends Specification {
         1 * cache.get(file) >> new CachingFileSnapshotter.FileInfo(hash, file.length(), file.lastModified())
         0 * _._
     }
+
+    def usesSnapshotRetainedForWatchedFile() {
+        def watchedFiles = Mock(WatchedFileSnapshotCache)
+        def info = new CachingFileSnapshotter.FileInfo(hash, 1024, 124)
+        1 * cacheAccess.createCache("fileHashes", _, _) >> cache
+        def watchingHasher = new CachingFileSnapshotter(target, cacheAccess, watchedFiles)
+
+        when:
+        def result = watchingHasher.snapshot(file)
+
+        then:
+        result.is(info)
+
+        and:
+        1 * watchedFiles.get(file) >> info
+        0 * _._
+    }
+
+    def retainsSnapshotOfFileThatIsNotWatchedYet() {
+        def watchedFiles = Mock(WatchedFileSnapshotCache)
+        1 * cacheAccess.createCache("fileHashes", _, _) >> cache
+        def watchingHasher = new CachingFileSnapshotter(target, cacheAccess, watchedFiles)
+
+        when:
+        def result = watchingHasher.snapshot(file)
+
+        then:
+        result.hash == hash
+
+        and:
+        1 * watchedFiles.get(file) >> null
+        1 * cache.get(file) >> new CachingFileSnapshotter.FileInfo(hash, file.length(), file.lastModified())
+        1 * watchedFiles.put(file, { it.hash == hash })
+        0 * _._
+    }
 }
@@ -0,0 +1,231 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.changedetection.state
+
+import org.gradle.internal.filewatch.FileWatchListener
+import org.gradle.internal.filewatch.FileWatcher
+import org.gradle.test.fixtures.file.TestFile
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+class WatchedFileSnapshotCacheTest extends Specification {
+    @Rule TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+    def watcher = Mock(FileWatcher)
+    def cache = new WatchedFileSnapshotCache(watcher)
+    def infos = [:]
+    def pendingChanges = []
+
+    def setup() {
+        _ * watcher.pollChanges(_) >> { FileWatchListener listener ->
+            pendingChanges.each { it.call(listener) }
+            pendingChanges.clear()
+        }
+    }
+
+    def "watches directory of file when file is first looked up"() {
+        def file = tmpDir.file("dir/file")
+
+        when:
+        def result = cache.get(file)
+
+        then:
+        result == null
+        1 * watcher.pollChanges(_)
+        1 * watcher.watch(file.parentFile) >> true
+        0 * _._
+
+        when:
+        cache.put(file, snapshot(file))
+        def retained = cache.get(file)
+
+        then:
+        retained.is(snapshot(file))
+        0 * watcher.watch(_)
+    }
+
+    def "does not retain snapshot of file whose directory cannot be watched"() {
+        def file = tmpDir.file("dir/file")
+
+        when:
+        cache.get(file)
+        cache.put(file, snapshot(file))
+
+        then:
+        1 * watcher.watch(file.parentFile) >> false
+
+        when:
+        def result = cache.get(file)
+
+        then:
+        result == null
+        0 * watcher.watch(_)
+    }
+
+    def "does not retain snapshot of file that has not been looked up"() {
+        def file = tmpDir.file("dir/file")
+
+        when:
+        cache.put(file, snapshot(file))
+
+        then:
+        0 * watcher._
+
+        when:
+        def result = cache.get(file)
+
+        then:
+        result == null
+    }
+
+    def "discards snapshot of file when a change to the file is reported"() {
+        def file = tmpDir.file("dir/file")
+        def other = tmpDir.file("dir/other")
+        watcher.watch(_) >> true
+        retain(file)
+        retain(other)
+        pendingChanges << { FileWatchListener listener -> listener.changed(file) }
+
+        when:
+        def result = cache.get(file)
+        def otherResult = cache.get(other)
+
+        then:
+        result == null
+        otherResult.is(snapshot(other))
+    }
+
+    def "discards snapshots of files under directory when a change to the directory is reported"() {
+        def dir = tmpDir.file("dir")
+        def file = dir.file("file")
+        def nested = dir.file("a/b/file")
+        def sibling = tmpDir.file("dir2/file")
+        watcher.watch(_) >> true
+        retain(file)
+        retain(nested)
+        retain(sibling)
+        pendingChanges << { FileWatchListener listener -> listener.changed(dir) }
+
+        when:
+        def result = cache.get(file)
+        def nestedResult = cache.get(nested)
+        def siblingResult = cache.get(sibling)
+
+        then:
+        result == null
+        nestedResult == null
+        siblingResult.is(snapshot(sibling))
+    }
+
+    def "discards all snapshots when changes have been lost"() {
+        def file = tmpDir.file("dir/file")
+        def other = tmpDir.file("dir2/other")
+        watcher.watch(_) >> true
+        retain(file)
+        retain(other)
+        pendingChanges << { FileWatchListener listener -> listener.overflowed() }
+
+        when:
+        def result = cache.get(file)
+        def otherResult = cache.get(other)
+
+        then:
+        result == null
+        otherResult == null
+    }
+
+    def "discards snapshots of invalidated files"() {
+        def dir = tmpDir.file("build")
+        def file = dir.file("classes/Thing.class")
+        def other = tmpDir.file("src/Thing.java")
+        watcher.watch(_) >> true
+        retain(file)
+        retain(other)
+
+        when:
+        cache.invalidate(dir)
+
+        then:
+        cache.get(file) == null
+        cache.get(other).is(snapshot(other))
+    }
+
+    def "uses retained snapshot without checking the file until a change is reported"() {
+        def file = tmpDir.file("dir/file")
+        watcher.watch(_) >> true
+        retain(file)
+
+        when:
+        file.delete()
+
+        then:
+        cache.get(file).is(snapshot(file))
+
+        when:
+        pendingChanges << { FileWatchListener listener -> listener.changed(file) }
+
+        then:
+        cache.get(file) == null
+    }
+
+    def "does not watch ignored directories"() {
+        def ignoredDir = tmpDir.file("user-home")
+        def file = ignoredDir.file("caches/file")
+        cache.ignore(ignoredDir)
+
+        when:
+        cache.get(file)
+        cache.put(file, snapshot(file))
+        def result = cache.get(file)
+
+        then:
+        result == null
+        0 * watcher.watch(_)
+    }
+
+    def "stops watching more directories once the limit is reached"() {
+        when:
+        4096.times { cache.get(tmpDir.file("dir$it/file")) }
+        cache.get(tmpDir.file("other/file"))
+
+        then:
+        4096 * watcher.watch(_) >> true
+        0 * watcher.watch(tmpDir.file("other"))
+    }
+
+    def "stops watcher"() {
+        when:
+        cache.stop()
+
+        then:
+        1 * watcher.stop()
+    }
+
+    def snapshot(TestFile file) {
+        if (!infos.containsKey(file)) {
+            infos[file] = new CachingFileSnapshotter.FileInfo(file.path.bytes, file.length(), file.lastModified())
+        }
+        return infos[file]
+    }
+
+    def retain(TestFile file) {
+        assert cache.get(file) == null
+        cache.put(file, snapshot(file))
+        assert cache.get(file).is(snapshot(file))
+    }
+}
@@ -16,6 +16,7 @@
 
 package org.gradle.api.internal.initialization.loadercache
 
+import org.gradle.api.internal.hash.Hasher
 import org.gradle.internal.classpath.DefaultClassPath
 import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
 import org.junit.Rule
@@ -100,4 +101,39 @@ class HashClassPathSnapshotterTest extends Specification {
         a == b
         a.hashCode() == b.hashCode()
     }
-}
\ No newline at end of file
+
+    def "does not hash files again when they have not changed"() {
+        def hasher = Mock(Hasher)
+        def snapshotter = new HashClassPathSnapshotter(hasher)
+        def file = temp.file("a.jar") << "a"
+
+        when:
+        def a = snapshotter.snapshot(new DefaultClassPath(file))
+        def b = snapshotter.snapshot(new DefaultClassPath(file))
+
+        then:
+        1 * hasher.hash(file) >> ([1] as byte[])
+        0 * hasher._
+
+        and:
+        a == b
+    }
+
+    def "hashes files again when their size or timestamp has changed"() {
+        def hasher = Mock(Hasher)
+        def snapshotter = new HashClassPathSnapshotter(hasher)
+        def file = temp.file("a.jar") << "a"
+
+        when:
+        def a = snapshotter.snapshot(new DefaultClassPath(file))
+        file << "b"
+        def b = snapshotter.snapshot(new DefaultClassPath(file))
+
+        then:
+        1 * hasher.hash(file) >> ([1] as byte[])
+        1 * hasher.hash(file) >> ([2] as byte[])
+
+        and:
+        a != b
+    }
+}
@@ -28,6 +28,7 @@ import org.gradle.internal.classloader.ClasspathUtil
 import org.gradle.internal.classloader.DefaultClassLoaderFactory
 import org.gradle.logging.ConfigureLogging
 import org.gradle.logging.TestAppender
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
 import org.junit.Before
 import org.junit.Rule
 import org.junit.Test
@@ -43,6 +44,8 @@ class DefaultIsolatedAntBuilderTest {
     private final TestAppender appender = new TestAppender()
     @Rule
     public final ConfigureLogging logging = new ConfigureLogging(appender)
+    @Rule
+    public final TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
     private Collection<File> classpath
 
     @Before
@@ -128,23 +131,70 @@ class DefaultIsolatedAntBuilderTest {
         ClassLoader loader1 = null
         def classpath = [new File("no-existo.jar")]
         builder.withClasspath(classpath).execute {
-            loader1 = delegate.builder.getClass().classLoader
+            loader1 = delegate.antlibClassLoader
         }
         ClassLoader loader2 = null
         builder.withClasspath(classpath).execute {
-            loader2 = delegate.builder.getClass().classLoader
+            loader2 = delegate.antlibClassLoader
         }
 
         assertThat(loader1, sameInstance(loader2))
 
         ClassLoader loader3 = null
         builder.withClasspath(classpath + [new File("unknown.jar")]).execute {
-            loader3 = delegate.builder.getClass().classLoader
+            loader3 = delegate.antlibClassLoader
         }
 
         assertThat(loader1, not(sameInstance(loader3)))
     }
 
+    @Test
+    public void sharesGradleClassloaderBetweenImplementations() {
+        ClassLoader loader1 = null
+        builder.withClasspath([new File("no-existo.jar")]).execute {
+            loader1 = delegate.builder.getClass().classLoader
+        }
+        ClassLoader loader2 = null
+        builder.withClasspath([new File("unknown.jar")]).execute {
+            loader2 = delegate.builder.getClass().classLoader
+        }
+
+        assertThat(loader1, sameInstance(loader2))
+    }
+
+    @Test
+    public void discardsClassloaderForImplementationWhenClasspathFileChanges() {
+        def jar = tmpDir.file("lib.jar")
+        jar.text = "content"
+        ClassLoader loader1 = null
+        builder.withClasspath([jar]).execute {
+            loader1 = delegate.antlibClassLoader
+        }
+
+        jar.text = "changed content"
+        ClassLoader loader2 = null
+        builder.withClasspath([jar]).execute {
+            loader2 = delegate.antlibClassLoader
+        }
+
+        assertThat(loader1, not(sameInstance(loader2)))
+    }
+
+    @Test
+    public void doesNotReuseClassloaderForImplementationWhenClasspathContainsDirectory() {
+        def classpath = [tmpDir.createDir("classes")]
+        ClassLoader loader1 = null
+        builder.withClasspath(classpath).execute {
+            loader1 = delegate.antlibClassLoader
+        }
+        ClassLoader loader2 = null
+        builder.withClasspath(classpath).execute {
+            loader2 = delegate.antlibClassLoader
+        }
+
+        assertThat(loader1, not(sameInstance(loader2)))
+    }
+
     @Test
     public void setsContextClassLoader() {
         ClassLoader originalLoader = Thread.currentThread().contextClassLoader
@@ -17,7 +17,6 @@ package org.gradle.groovy.scripts.internal
 
 import org.codehaus.groovy.classgen.Verifier
 import org.gradle.api.Action
-import org.gradle.internal.resource.Resource
 import org.gradle.cache.CacheBuilder
 import org.gradle.cache.CacheRepository
 import org.gradle.cache.CacheValidator
@@ -25,89 +24,230 @@ import org.gradle.cache.PersistentCache
 import org.gradle.groovy.scripts.Script
 import org.gradle.groovy.scripts.ScriptSource
 import org.gradle.groovy.scripts.Transformer
+import org.gradle.internal.Factory
+import org.gradle.internal.resource.Resource
 import org.gradle.logging.ProgressLogger
 import org.gradle.logging.ProgressLoggerFactory
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import org.objectweb.asm.ClassReader
+import org.objectweb.asm.ClassVisitor
+import org.objectweb.asm.ClassWriter
+import org.objectweb.asm.Opcodes
 import spock.lang.Specification
 
+import java.util.concurrent.TimeUnit
+
 class FileCacheBackedScriptClassCompilerTest extends Specification {
+    @Rule TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
     final ScriptCompilationHandler scriptCompilationHandler = Mock()
     final CacheRepository cacheRepository = Mock()
     final CacheBuilder cacheBuilder = Mock()
     final CacheValidator validator = Mock()
     final PersistentCache cache = Mock()
-    final ScriptSource source = Mock()
-    final ClassLoader classLoader = Mock()
+    final ClassLoader classLoader = new URLClassLoader(new URL[0], null)
     final Transformer transformer = Mock()
-    final File cacheDir = new File("base-dir")
     final FileCacheBackedScriptClassCompiler compiler = new FileCacheBackedScriptClassCompiler(cacheRepository, validator, scriptCompilationHandler, Stub(ProgressLoggerFactory))
     private Verifier verifier = new Verifier()
+    private boolean valid = true
 
     def setup() {
-        Resource resource = Mock()
-        _ * source.resource >> resource
-        _ * resource.text >> 'this is the script'
-        _ * source.className >> 'ScriptClassName'
-        _ * source.fileName >> 'ScriptFileName'
         _ * transformer.id >> 'TransformerId'
-        _ * cache.baseDir >> cacheDir
-        _ * validator.isValid() >> true
+        _ * validator.isValid() >> { valid }
+        _ * cacheRepository.cache("scripts") >> cacheBuilder
+        _ * cacheBuilder.withDisplayName(_) >> cacheBuilder
+        _ * cacheBuilder.withLockOptions(_) >> cacheBuilder
+        _ * cache.baseDir >> tmpDir.testDirectory
+        _ * cache.useCache(_, _ as Factory) >> { args -> args[1].create() }
+        _ * cache.useCache(_, _ as Runnable) >> { args -> args[1].run() }
     }
 
-    def "loads classes from cache directory"() {
+    def cleanup() {
+        compiler.close()
+    }
+
+    def "compiles script once and loads classes renamed for the script"() {
+        def source = script('ScriptClassName', 'ScriptFileName', 'this is the script')
+        File loadedFrom
+
         when:
         def result = compiler.compile(source, classLoader, transformer, Script, verifier)
 
         then:
         result == Script
-        1 * cacheRepository.cache("scripts/ScriptClassName/Script/TransformerId") >> cacheBuilder
-        1 * cacheBuilder.withProperties(!null) >> { args ->
-            assert args[0].get('source.filename') == 'ScriptFileName'
-            assert args[0].containsKey('source.hash')
-            return cacheBuilder
-        }
-        1 * cacheBuilder.withInitializer(!null) >> cacheBuilder
-        1 * cacheBuilder.withDisplayName(!null) >> cacheBuilder
-        1 * cacheBuilder.withValidator(!null) >> cacheBuilder
         1 * cacheBuilder.open() >> cache
-        1 * scriptCompilationHandler.loadFromDir(source, classLoader, new File(cacheDir, "classes"), Script) >> Script
+        1 * scriptCompilationHandler.compileToDir({ it.className == RemappingScriptSource.MAPPED_SCRIPT }, classLoader, _, transformer, Script, verifier) >> { args -> writeScriptClasses(args[2]) }
+        1 * scriptCompilationHandler.loadFromDir(source, classLoader, _, Script) >> { args -> loadedFrom = args[2]; Script }
         0 * scriptCompilationHandler._
+
+        and:
+        loadedFrom.list() as Set == ['ScriptClassName.class', 'ScriptClassName$_run_closure1.class'] as Set
+        className(new File(loadedFrom, 'ScriptClassName.class')) == 'ScriptClassName'
+        sourceFile(new File(loadedFrom, 'ScriptClassName.class')) == 'ScriptFileName'
+        className(new File(loadedFrom, 'ScriptClassName$_run_closure1.class')) == 'ScriptClassName$_run_closure1'
     }
 
-    def "passes CacheValidator to cacheBuilder"() {
-        setup:
-        cacheRepository.cache("scripts/ScriptClassName/Script/TransformerId") >> cacheBuilder
-        cacheBuilder.withProperties(!null) >> cacheBuilder
-        cacheBuilder.withInitializer(!null) >> cacheBuilder
-        cacheBuilder.withDisplayName(!null) >> cacheBuilder
+    def "reuses compiled classes for scripts with the same content"() {
+        def source1 = script('Script1', 'script1.gradle', 'the same script')
+        def source2 = script('Script2', 'script2.gradle', 'the same script')
+        File loadedFrom
+
+        when:
+        compiler.compile(source1, classLoader, transformer, Script, verifier)
+        compiler.compile(source2, classLoader, transformer, Script, verifier)
+        compiler.compile(source2, classLoader, transformer, Script, verifier)
+
+        then:
+        1 * cacheBuilder.open() >> cache
+        1 * scriptCompilationHandler.compileToDir(_, classLoader, _, transformer, Script, verifier) >> { args -> writeScriptClasses(args[2]) }
+        1 * scriptCompilationHandler.loadFromDir(source1, classLoader, _, Script) >> Script
+        2 * scriptCompilationHandler.loadFromDir(source2, classLoader, _, Script) >> { args -> loadedFrom = args[2]; Script }
+        0 * scriptCompilationHandler._
+
+        and:
+        className(new File(loadedFrom, 'Script2.class')) == 'Script2'
+        sourceFile(new File(loadedFrom, 'Script2.class')) == 'script2.gradle'
+    }
+
+    def "compiles scripts with different content or class path separately"() {
+        def source1 = script('Script1', 'script1.gradle', 'some script')
+        def source2 = script('Script2', 'script2.gradle', 'some other script')
+        def otherClassLoader = new URLClassLoader([tmpDir.createDir("lib").toURI().toURL()] as URL[], null)
+
+        when:
+        compiler.compile(source1, classLoader, transformer, Script, verifier)
+        compiler.compile(source2, classLoader, transformer, Script, verifier)
+        compiler.compile(source1, otherClassLoader, transformer, Script, verifier)
+
+        then:
+        1 * cacheBuilder.open() >> cache
+        3 * scriptCompilationHandler.compileToDir(_, _, _, transformer, Script, verifier) >> { args -> writeScriptClasses(args[2]) }
+        3 * scriptCompilationHandler.loadFromDir(_, _, _, Script) >> Script
+    }
+
+    def "loads empty script marker from cache directory"() {
+        def source = script('ScriptClassName', 'ScriptFileName', '')
+        File loadedFrom
+
+        when:
+        compiler.compile(source, classLoader, transformer, Script, verifier)
+
+        then:
+        1 * cacheBuilder.open() >> cache
+        1 * scriptCompilationHandler.compileToDir(_, classLoader, _, transformer, Script, verifier) >> { args -> new File(args[2], "emptyScript.txt").with { parentFile.mkdirs(); createNewFile() } }
+        1 * scriptCompilationHandler.loadFromDir(source, classLoader, _, Script) >> { args -> loadedFrom = args[2]; Script }
+
+        and:
+        loadedFrom.list() as List == ['emptyScript.txt']
+    }
+
+    def "recompiles each script once when cache is invalid"() {
+        def source = script('ScriptClassName', 'ScriptFileName', 'this is the script')
         cacheBuilder.open() >> cache
-        scriptCompilationHandler.loadFromDir(source, classLoader, new File(cacheDir, "classes"), Script) >> Script
+        File originalDir
+        def loadedFrom = []
+
+        given:
+        scriptCompilationHandler.compileToDir(_, _, _, _, _, _) >> { args -> writeScriptClasses(args[2]) }
+        scriptCompilationHandler.loadFromDir(_, _, _, _) >> { args -> originalDir = args[2]; Script }
+        compiler.compile(source, classLoader, transformer, Script, verifier)
+        valid = false
 
         when:
         compiler.compile(source, classLoader, transformer, Script, verifier)
+        compiler.compile(source, classLoader, transformer, Script, verifier)
+
+        then:
+        1 * scriptCompilationHandler.compileToDir(_, classLoader, _, transformer, Script, verifier) >> { args -> writeScriptClasses(args[2]) }
+        2 * scriptCompilationHandler.loadFromDir(source, classLoader, _, Script) >> { args -> loadedFrom << args[2]; Script }
+
+        and:
+        loadedFrom[0] == loadedFrom[1]
+        loadedFrom[0] != originalDir
+        originalDir.list() as Set == ['ScriptClassName.class', 'ScriptClassName$_run_closure1.class'] as Set
+    }
+
+    def "removes superseded generations and unused classes when closed"() {
+        def source = script('ScriptClassName', 'ScriptFileName', 'this is the script')
+        def unused = script('UnusedScript', 'unused.gradle', 'some other script')
+        cacheBuilder.open() >> cache
+        scriptCompilationHandler.compileToDir(_, _, _, _, _, _) >> { args -> writeScriptClasses(args[2]) }
+        def loadedFrom = []
+        scriptCompilationHandler.loadFromDir(_, _, _, _) >> { args -> loadedFrom << args[2]; Script }
+
+        given:
+        compiler.compile(source, classLoader, transformer, Script, verifier)
+        compiler.compile(unused, classLoader, transformer, Script, verifier)
+        valid = false
+        compiler.compile(source, classLoader, transformer, Script, verifier)
+        def (superseded, unusedClasses, current) = loadedFrom
+        lastUsed(superseded.parentFile.parentFile, 2)
+        lastUsed(unusedClasses.parentFile.parentFile.parentFile, 8)
+
+        when:
+        compiler.close()
 
         then:
-        1 * cacheBuilder.withValidator(validator) >> cacheBuilder
+        !superseded.exists()
+        !unusedClasses.exists()
+        current.directory
+        new File(tmpDir.testDirectory, "cleanup.complete").file
+    }
+
+    def "removes renamed copies that have not been used recently"() {
+        def source1 = script('Script1', 'script1.gradle', 'the same script')
+        def source2 = script('Script2', 'script2.gradle', 'the same script')
+        cacheBuilder.open() >> cache
+        scriptCompilationHandler.compileToDir(_, _, _, _, _, _) >> { args -> writeScriptClasses(args[2]) }
+        def loadedFrom = []
+        scriptCompilationHandler.loadFromDir(_, _, _, _) >> { args -> loadedFrom << args[2]; Script }
 
+        given:
+        compiler.compile(source1, classLoader, transformer, Script, verifier)
+        compiler.compile(source2, classLoader, transformer, Script, verifier)
+        def (used, unused) = loadedFrom
+        lastUsed(unused, 8)
+        lastUsed(new File(unused.parentFile, "Script2.complete"), 8)
+
+        when:
+        compiler.close()
 
+        then:
+        used.directory
+        !unused.exists()
     }
 
-    def "compiles classes to cache directory when cache is invalid"() {
-        def initializer
+    def "cleans up at most once a day"() {
+        def source = script('ScriptClassName', 'ScriptFileName', 'this is the script')
+        cacheBuilder.open() >> cache
+        scriptCompilationHandler.compileToDir(_, _, _, _, _, _) >> { args -> writeScriptClasses(args[2]) }
+        File loadedFrom
+        scriptCompilationHandler.loadFromDir(_, _, _, _) >> { args -> loadedFrom = args[2]; Script }
+        tmpDir.file("cleanup.complete").createFile()
+
+        given:
+        compiler.compile(source, classLoader, transformer, Script, verifier)
+        lastUsed(loadedFrom.parentFile.parentFile.parentFile, 8)
 
         when:
-        def result = compiler.compile(source, classLoader, transformer, Script, verifier)
+        compiler.close()
 
         then:
-        result == Script
-        1 * cacheRepository.cache("scripts/ScriptClassName/Script/TransformerId") >> cacheBuilder
-        1 * cacheBuilder.withProperties(!null) >> cacheBuilder
-        1 * cacheBuilder.withDisplayName(!null) >> cacheBuilder
-        1 * cacheBuilder.withValidator(!null) >> cacheBuilder
-        1 * cacheBuilder.withInitializer(!null) >> {args -> initializer = args[0]; return cacheBuilder}
-        1 * cacheBuilder.open() >> {initializer.execute(cache); return cache}
-        1 * scriptCompilationHandler.compileToDir(source, classLoader, new File(cacheDir, "classes"), transformer, Script, verifier)
-        1 * scriptCompilationHandler.loadFromDir(source, classLoader, new File(cacheDir, "classes"), Script) >> Script
-        0 * scriptCompilationHandler._
+        0 * cache.useCache(_, _ as Runnable)
+        loadedFrom.directory
+    }
+
+    def "closes cache"() {
+        def source = script('ScriptClassName', 'ScriptFileName', 'this is the script')
+        cacheBuilder.open() >> cache
+        scriptCompilationHandler.compileToDir(_, _, _, _, _, _) >> { args -> writeScriptClasses(args[2]) }
+        compiler.compile(source, classLoader, transformer, Script, verifier)
+
+        when:
+        compiler.close()
+
+        then:
+        1 * cache.close()
     }
 
     def "reports compilation progress even in case of a failure"() {
@@ -134,4 +274,53 @@ class FileCacheBackedScriptClassCompilerTest extends Specification {
         then:
         1 * logger.completed()
     }
+
+    private ScriptSource script(String className, String fileName, String text) {
+        def resource = Stub(Resource) {
+            getText() >> text
+        }
+        return Stub(ScriptSource) {
+            getClassName() >> className
+            getFileName() >> fileName
+            getDisplayName() >> fileName
+            getResource() >> resource
+        }
+    }
+
+    private static void lastUsed(File file, int daysAgo) {
+        def timestamp = System.currentTimeMillis() - TimeUnit.DAYS.toMillis(daysAgo)
+        if (file.directory) {
+            file.eachFileRecurse { it.lastModified = timestamp }
+        }
+        file.lastModified = timestamp
+    }
+
+    private static void writeScriptClasses(File classesDir) {
+        classesDir.mkdirs()
+        writeClass(new File(classesDir, '_BuildScript_.class'), '_BuildScript_')
+        writeClass(new File(classesDir, '_BuildScript_$_run_closure1.class'), '_BuildScript_$_run_closure1')
+    }
+
+    private static void writeClass(File file, String name) {
+        def writer = new ClassWriter(0)
+        writer.visit(Opcodes.V1_6, Opcodes.ACC_PUBLIC, name, null, "java/lang/Object", null)
+        writer.visitSource('_BuildScript_', null)
+        writer.visitEnd()
+        file.bytes = writer.toByteArray()
+    }
+
+    private static String className(File file) {
+        return new ClassReader(file.bytes).className
+    }
+
+    private static String sourceFile(File file) {
+        String sourceFile = null
+        new ClassReader(file.bytes).accept(new ClassVisitor(Opcodes.ASM5) {
+            @Override
+            void visitSource(String source, String debug) {
+                sourceFile = source
+            }
+        }, 0)
+        return sourceFile
+    }
 }
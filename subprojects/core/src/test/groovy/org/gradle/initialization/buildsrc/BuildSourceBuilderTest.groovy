@@ -22,6 +22,8 @@ import org.gradle.api.internal.initialization.ClassLoaderScope
 import org.gradle.cache.CacheRepository
 import org.gradle.cache.PersistentCache
 import org.gradle.initialization.GradleLauncherFactory
+import org.gradle.initialization.fingerprint.BuildSrcClasspathCache
+import org.gradle.internal.Factory
 import org.gradle.internal.classpath.ClassPath
 import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
 import org.junit.Rule
@@ -35,7 +37,8 @@ class BuildSourceBuilderTest extends Specification {
     BuildCancellationToken cancellationToken = Mock()
     ClassLoaderScope classLoaderScope = Mock()
     CacheRepository cacheRepository = Mock()
-    BuildSourceBuilder buildSourceBuilder = Spy(BuildSourceBuilder, constructorArgs: [launcherFactory, cancellationToken, classLoaderScope,  cacheRepository])
+    BuildSrcClasspathCache classpathCache = Mock()
+    BuildSourceBuilder buildSourceBuilder = Spy(BuildSourceBuilder, constructorArgs: [launcherFactory, cancellationToken, classLoaderScope,  cacheRepository, classpathCache])
 
     StartParameter parameter = new StartParameter()
 
@@ -47,6 +50,7 @@ class BuildSourceBuilderTest extends Specification {
     }
 
     void "creates classpath when build src exists"() {
+        classpathCache.getClasspath(parameter, _) >> { StartParameter startParameter, Factory<ClassPath> buildAction -> buildAction.create() }
         def cache = Mock(PersistentCache)
         def classpath = Mock(ClassPath)
         def launcher = Mock(GradleLauncher)
@@ -60,4 +64,18 @@ class BuildSourceBuilderTest extends Specification {
         then:
         buildSourceBuilder.createBuildSourceClasspath(parameter) == classpath
     }
+
+    void "uses retained classpath when buildSrc inputs are unchanged"() {
+        def classpath = Mock(ClassPath)
+
+        when:
+        parameter.setCurrentDir(tmpDir.createDir("someDir"));
+        def result = buildSourceBuilder.createBuildSourceClasspath(parameter)
+
+        then:
+        result == classpath
+        1 * classpathCache.getClasspath(parameter, _) >> classpath
+        0 * launcherFactory._
+        0 * cacheRepository._
+    }
 }
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.initialization.fingerprint
+
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+class BuildConfigurationFingerprintTest extends Specification {
+    @Rule TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+    def values = ["requested tasks": "[build]"]
+    def builder = new BuildConfigurationFingerprint.Builder(values)
+
+    def "reports no change when inputs are unchanged"() {
+        def script = tmpDir.file("build.gradle") << "apply plugin: 'java'"
+        def jar = tmpDir.file("lib.jar") << "content"
+        def dir = tmpDir.createDir("buildSrc")
+        dir.file("src/main/groovy/Thing.groovy") << "class Thing {}"
+        builder.fileContent("build file", script)
+        builder.fileState("classpath entry", jar)
+        builder.directoryState("buildSrc", dir, ["build"] as Set)
+
+        expect:
+        builder.build().findChange(values) == null
+    }
+
+    def "reports change to value"() {
+        expect:
+        builder.build().findChange(["requested tasks": "[clean, build]"]) == "requested tasks changed"
+        builder.build().findChange(["requested tasks": "[build]", "environment variables": "1234"]) == "environment variables changed"
+    }
+
+    def "reports change to file content"() {
+        def script = tmpDir.file("build.gradle") << "apply plugin: 'java'"
+        builder.fileContent("build file", script)
+        def fingerprint = builder.build()
+
+        when:
+        script << "\napply plugin: 'groovy'"
+
+        then:
+        fingerprint.findChange(values) == "build file changed"
+    }
+
+    def "reports creation of file that was missing"() {
+        def properties = tmpDir.file("gradle.properties")
+        builder.fileContent("properties file", properties)
+        def fingerprint = builder.build()
+
+        when:
+        properties << "someProp=value"
+
+        then:
+        fingerprint.findChange(values) == "properties file changed"
+    }
+
+    def "reports change to file under directory"() {
+        def dir = tmpDir.createDir("buildSrc")
+        def source = dir.file("src/main/groovy/Thing.groovy") << "class Thing {}"
+        builder.directoryState("buildSrc", dir, ["build"] as Set)
+        def fingerprint = builder.build()
+
+        when:
+        source << "\n"
+
+        then:
+        fingerprint.findChange(values) == "buildSrc changed"
+    }
+
+    def "ignores change to file in excluded directory"() {
+        def dir = tmpDir.createDir("buildSrc")
+        dir.file("src/main/groovy/Thing.groovy") << "class Thing {}"
+        builder.directoryState("buildSrc", dir, ["build"] as Set)
+        def fingerprint = builder.build()
+
+        when:
+        dir.file("build/classes/Thing.class") << "class"
+
+        then:
+        fingerprint.findChange(values) == null
+    }
+
+    def "reports input that cannot be checked"() {
+        builder.notCacheable("script 'http://server/script.gradle' is not a local file")
+
+        expect:
+        builder.build().findChange(values) == "script 'http://server/script.gradle' is not a local file"
+    }
+}
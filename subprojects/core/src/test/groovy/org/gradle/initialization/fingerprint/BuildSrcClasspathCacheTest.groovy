@@ -0,0 +1,137 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.initialization.fingerprint
+
+import org.gradle.StartParameter
+import org.gradle.internal.Factory
+import org.gradle.internal.classpath.ClassPath
+import org.gradle.internal.classpath.DefaultClassPath
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.gradle.util.SetSystemProperties
+import org.junit.Rule
+import spock.lang.Specification
+
+class BuildSrcClasspathCacheTest extends Specification {
+    @Rule TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+    @Rule SetSystemProperties systemProperties = new SetSystemProperties((BuildSrcClasspathCache.ENABLED_PROPERTY): "true")
+    def cache = new BuildSrcClasspathCache()
+    def startParameter = new StartParameter()
+    def buildSrcDir = tmpDir.createDir("buildSrc")
+    def buildFile = buildSrcDir.file("build.gradle") << "apply plugin: 'groovy'"
+    def buildSrcJar = buildSrcDir.file("build/libs/buildSrc.jar") << "jar"
+    def classpath = new DefaultClassPath(buildSrcJar)
+    def buildAction = Mock(Factory)
+
+    def setup() {
+        startParameter.currentDir = buildSrcDir
+        startParameter.gradleUserHomeDir = tmpDir.createDir("user-home")
+    }
+
+    def "reuses classpath when buildSrc inputs are unchanged"() {
+        when:
+        def first = cache.getClasspath(startParameter, buildAction)
+        def second = cache.getClasspath(startParameter, buildAction)
+
+        then:
+        1 * buildAction.create() >> classpath
+        first == classpath
+        second == classpath
+    }
+
+    def "builds classpath again when buildSrc source has changed"() {
+        given:
+        build()
+        buildFile << "\napply plugin: 'java'"
+
+        when:
+        def result = cache.getClasspath(startParameter, buildAction)
+
+        then:
+        1 * buildAction.create() >> classpath
+        result == classpath
+    }
+
+    def "ignores changes to buildSrc output directories other than the classpath"() {
+        given:
+        build()
+        buildSrcDir.file("build/tmp/file.txt") << "content"
+
+        when:
+        cache.getClasspath(startParameter, buildAction)
+
+        then:
+        0 * buildAction._
+    }
+
+    def "builds classpath again when classpath entry has changed"() {
+        given:
+        build()
+        buildSrcJar << "more"
+
+        when:
+        cache.getClasspath(startParameter, buildAction)
+
+        then:
+        1 * buildAction.create() >> classpath
+    }
+
+    def "builds classpath again when build options have changed"() {
+        given:
+        build()
+        startParameter.offline = true
+
+        when:
+        cache.getClasspath(startParameter, buildAction)
+
+        then:
+        1 * buildAction.create() >> classpath
+    }
+
+    def "does not retain classpath when build fails"() {
+        def failure = new RuntimeException()
+
+        when:
+        cache.getClasspath(startParameter, buildAction)
+
+        then:
+        1 * buildAction.create() >> { throw failure }
+        def e = thrown(RuntimeException)
+        e.is(failure)
+
+        when:
+        cache.getClasspath(startParameter, buildAction)
+
+        then:
+        1 * buildAction.create() >> classpath
+    }
+
+    def "always builds classpath when not enabled"() {
+        System.clearProperty(BuildSrcClasspathCache.ENABLED_PROPERTY)
+
+        when:
+        cache.getClasspath(startParameter, buildAction)
+        cache.getClasspath(startParameter, buildAction)
+
+        then:
+        2 * buildAction.create() >> classpath
+    }
+
+    private void build() {
+        def action = { classpath } as Factory<ClassPath>
+        assert cache.getClasspath(startParameter, action) == classpath
+    }
+}
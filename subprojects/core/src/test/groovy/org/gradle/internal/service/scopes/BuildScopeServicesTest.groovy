@@ -37,7 +37,6 @@ import org.gradle.groovy.scripts.DefaultScriptCompilerFactory
 import org.gradle.groovy.scripts.ScriptCompilerFactory
 import org.gradle.initialization.*
 import org.gradle.internal.Factory
-import org.gradle.internal.classloader.ClassLoaderFactory
 import org.gradle.internal.reflect.Instantiator
 import org.gradle.internal.service.ServiceRegistry
 import org.gradle.listener.DefaultListenerManager
@@ -220,15 +219,6 @@ public class BuildScopeServicesTest extends Specification {
         assertThat(registry.getFactory(WorkerProcessBuilder), instanceOf(DefaultWorkerProcessFactory))
     }
 
-    def providesAnIsolatedAntBuilder() {
-        setup:
-        expectParentServiceLocated(ClassLoaderFactory)
-        expect:
-
-        assertThat(registry.get(IsolatedAntBuilder), instanceOf(DefaultIsolatedAntBuilder))
-        assertThat(registry.get(IsolatedAntBuilder), sameInstance(registry.get(IsolatedAntBuilder)))
-    }
-
     def providesAProjectFactory() {
         setup:
         expectParentServiceLocated(Instantiator)
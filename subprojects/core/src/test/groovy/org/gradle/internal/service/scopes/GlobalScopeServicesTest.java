@@ -25,6 +25,8 @@ import org.gradle.api.internal.file.DefaultFileLookup;
 import org.gradle.api.internal.file.FileLookup;
 import org.gradle.api.internal.file.FileResolver;
 import org.gradle.api.internal.file.IdentityFileResolver;
+import org.gradle.api.internal.project.DefaultIsolatedAntBuilder;
+import org.gradle.api.internal.project.IsolatedAntBuilder;
 import org.gradle.cache.internal.CacheFactory;
 import org.gradle.cache.internal.DefaultCacheFactory;
 import org.gradle.cache.internal.DefaultFileLockManager;
@@ -53,6 +55,7 @@ import spock.lang.Shared;
 
 import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.Assert.assertThat;
 
 public class GlobalScopeServicesTest {
@@ -120,6 +123,12 @@ public class GlobalScopeServicesTest {
         assertThat(registry.get(ClassLoaderFactory.class), instanceOf(DefaultClassLoaderFactory.class));
     }
 
+    @Test
+    public void providesAnIsolatedAntBuilder() {
+        assertThat(registry.get(IsolatedAntBuilder.class), instanceOf(DefaultIsolatedAntBuilder.class));
+        assertThat(registry.get(IsolatedAntBuilder.class), sameInstance(registry.get(IsolatedAntBuilder.class)));
+    }
+
     @Test
     public void providesAMessagingServer() {
         assertThat(registry.get(MessagingServer.class), instanceOf(MessagingServer.class));
@@ -18,6 +18,7 @@ package org.gradle.logging.internal
 import org.gradle.api.Action
 import org.gradle.api.logging.LogLevel
 import org.gradle.api.logging.StandardOutputListener
+import org.gradle.test.fixtures.ConcurrentTestUtil
 import org.gradle.util.RedirectStdOutAndErr
 import org.junit.Rule
 import org.gradle.internal.nativeintegration.console.ConsoleMetaData
@@ -294,6 +295,66 @@ class OutputEventRendererTest extends OutputSpecification {
         outputs.stdOut.readLines() == ['info']
         outputs.stdErr == ''
     }
+
+    def renderingThreadDoesNotRenderEventsQueuedByOtherThreadsAfterItStarted() {
+        def renderingThreads = [:]
+        def first = event('first', LogLevel.INFO)
+        def second = event('second', LogLevel.INFO)
+        def other
+        renderer.addOutputEventListener({ OutputEvent event ->
+            renderingThreads[event] = Thread.currentThread()
+            if (event == first) {
+                // Another thread logs while this thread is rendering, and waits to render its own event
+                other = Thread.start {
+                    renderer.onOutput(second)
+                }
+                ConcurrentTestUtil.poll { assert other.state == Thread.State.WAITING }
+            }
+        } as OutputEventListener)
+
+        when:
+        renderer.onOutput(first)
+        other.join()
+
+        then:
+        renderingThreads[first] == Thread.currentThread()
+        renderingThreads[second] == other
+    }
+
+    def discardsProgressEventsSupersededInTheSameBatch() {
+        def startEvent = start('op')
+        def progress1 = progress('one')
+        def progress2 = progress('two')
+        def logEvent = event('log', LogLevel.INFO)
+        def progress3 = progress('three')
+        def completeEvent = complete('done')
+        def batch = [startEvent, progress1, progress2, logEvent, progress3, completeEvent]
+
+        when:
+        OutputEventRenderer.discardSupersededProgressEvents(batch)
+
+        then:
+        batch == [startEvent, null, null, logEvent, progress3, completeEvent]
+    }
+
+    def rendersAllEventsFromMultipleThreadsInOrder() {
+        def received = Collections.synchronizedList([])
+        renderer.addOutputEventListener({ OutputEvent event -> received << event } as OutputEventListener)
+        def events = (0..<4).collect { thread -> (0..<1000).collect { event("${thread}-${it}", LogLevel.INFO) } }
+
+        when:
+        events.collect { threadEvents ->
+            Thread.start {
+                threadEvents.each { renderer.onOutput(it) }
+            }
+        }*.join()
+
+        then:
+        received.size() == 4000
+        events.eachWithIndex { threadEvents, thread ->
+            assert received.findAll { it.message.startsWith("${thread}-") } == threadEvents
+        }
+    }
 }
 
 class TestListener implements StandardOutputListener {
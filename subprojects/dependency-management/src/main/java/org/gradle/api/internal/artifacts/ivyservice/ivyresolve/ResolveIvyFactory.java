@@ -16,6 +16,7 @@
 package org.gradle.api.internal.artifacts.ivyservice.ivyresolve;
 
 import org.gradle.api.artifacts.cache.ResolutionRules;
+import org.gradle.api.artifacts.component.ComponentIdentifier;
 import org.gradle.api.internal.artifacts.ComponentMetadataProcessor;
 import org.gradle.api.internal.artifacts.configurations.ConfigurationInternal;
 import org.gradle.api.internal.artifacts.configurations.ResolutionStrategyInternal;
@@ -37,6 +38,7 @@ import org.gradle.internal.resolve.resolver.DependencyToComponentIdResolver;
 import org.gradle.internal.resolve.resolver.DependencyToComponentResolver;
 import org.gradle.internal.resolve.result.BuildableArtifactResolveResult;
 import org.gradle.internal.resolve.result.BuildableArtifactSetResolveResult;
+import org.gradle.internal.resolve.result.BuildableComponentIdResolveResult;
 import org.gradle.internal.resolve.result.BuildableComponentResolveResult;
 import org.gradle.internal.resource.cached.CachedArtifactIndex;
 import org.gradle.util.BuildCommencedTimeProvider;
@@ -85,13 +87,13 @@ public class ResolveIvyFactory {
         startParameterResolutionOverride.addResolutionRules(resolutionRules);
 
         UserResolverChain userResolverChain = new UserResolverChain(versionMatcher, latestStrategy, resolutionStrategy.getComponentSelection());
-        RepositoryChain parentLookupResolver = new ParentModuleLookupResolver(userResolverChain, cacheLockingManager);
+        RepositoryChain lockingChain = new CacheLockingRepositoryChain(userResolverChain, cacheLockingManager);
 
         for (ResolutionAwareRepository repository : repositories) {
             ConfiguredModuleComponentRepository baseRepository = repository.createResolver();
 
             if (baseRepository instanceof ExternalResourceResolver) {
-                ((ExternalResourceResolver) baseRepository).setRepositoryChain(parentLookupResolver);
+                ((ExternalResourceResolver) baseRepository).setRepositoryChain(lockingChain);
             }
 
             // TODO:DAZ In theory we could update this so that _all_ repositories are wrapped in a cache:
@@ -114,29 +116,36 @@ public class ResolveIvyFactory {
             userResolverChain.add(moduleComponentRepository);
         }
 
-        return userResolverChain;
+        return lockingChain;
     }
 
     /**
-     * Provides access to the top-level resolver chain for looking up parent modules when parsing module descriptor files.
+     * Provides access to the top-level resolver chain, holding the artifact cache lock only for the duration of each call into the repositories.
+     * This allows the resolution of different configurations to proceed concurrently, with only the access to the caches serialized.
+     *
+     * <p>This chain is also used for looking up parent modules when parsing module descriptor files.</p>
      */
-    private static class ParentModuleLookupResolver implements RepositoryChain, DependencyToComponentResolver, ArtifactResolver {
+    private static class CacheLockingRepositoryChain implements RepositoryChain, DependencyToComponentIdResolver, ComponentMetaDataResolver, DependencyToComponentResolver, ArtifactResolver {
+        private final DependencyToComponentIdResolver componentIdResolver;
+        private final ComponentMetaDataResolver componentMetaDataResolver;
         private final DependencyToComponentResolver dependencyResolver;
         private final ArtifactResolver artifactResolver;
         private final CacheLockingManager cacheLockingManager;
 
-        public ParentModuleLookupResolver(RepositoryChain repositoryChain, CacheLockingManager cacheLockingManager) {
+        public CacheLockingRepositoryChain(RepositoryChain repositoryChain, CacheLockingManager cacheLockingManager) {
+            this.componentIdResolver = repositoryChain.getComponentIdResolver();
+            this.componentMetaDataResolver = repositoryChain.getComponentMetaDataResolver();
             this.dependencyResolver = repositoryChain.getDependencyResolver();
             this.artifactResolver = repositoryChain.getArtifactResolver();
             this.cacheLockingManager = cacheLockingManager;
         }
 
-        public ComponentMetaDataResolver getComponentMetaDataResolver() {
-            throw new UnsupportedOperationException();
+        public DependencyToComponentIdResolver getComponentIdResolver() {
+            return this;
         }
 
-        public DependencyToComponentIdResolver getComponentIdResolver() {
-            throw new UnsupportedOperationException();
+        public ComponentMetaDataResolver getComponentMetaDataResolver() {
+            return this;
         }
 
         public ArtifactResolver getArtifactResolver() {
@@ -147,6 +156,22 @@ public class ResolveIvyFactory {
             return this;
         }
 
+        public void resolve(final DependencyMetaData dependency, final BuildableComponentIdResolveResult result) {
+            cacheLockingManager.useCache(String.format("Resolve %s", dependency), new Runnable() {
+                public void run() {
+                    componentIdResolver.resolve(dependency, result);
+                }
+            });
+        }
+
+        public void resolve(final DependencyMetaData dependency, final ComponentIdentifier identifier, final BuildableComponentResolveResult result) {
+            cacheLockingManager.useCache(String.format("Resolve %s", identifier), new Runnable() {
+                public void run() {
+                    componentMetaDataResolver.resolve(dependency, identifier, result);
+                }
+            });
+        }
+
         public void resolve(final DependencyMetaData dependency, final BuildableComponentResolveResult result) {
             cacheLockingManager.useCache(String.format("Resolve %s", dependency), new Runnable() {
                 public void run() {
@@ -36,27 +36,34 @@ public class InMemoryCachedRepositoryFactory implements Stoppable {
     Map<String, InMemoryModuleComponentRepositoryCaches> cachePerRepo = new MapMaker().makeMap();
 
     final InMemoryCacheStats stats = new InMemoryCacheStats();
+    private final Object lock = new Object();
 
     public ModuleComponentRepository cached(ModuleComponentRepository input) {
         if ("false".equalsIgnoreCase(System.getProperty(TOGGLE_PROPERTY))) {
             return input;
         }
 
-        InMemoryModuleComponentRepositoryCaches caches = cachePerRepo.get(input.getId());
-        stats.reposWrapped++;
-        if (caches == null) {
-            LOG.debug("Creating new in-memory cache for repo '{}' [{}].", input.getName(), input.getId());
-            caches = new InMemoryModuleComponentRepositoryCaches(stats);
-            stats.cacheInstances++;
-            cachePerRepo.put(input.getId(), caches);
-        } else {
-            LOG.debug("Reusing in-memory cache for repo '{}' [{}].", input.getName(), input.getId());
+        InMemoryModuleComponentRepositoryCaches caches;
+        // Configurations may be resolved concurrently, so create each cache and update the stats while holding the lock
+        synchronized (lock) {
+            caches = cachePerRepo.get(input.getId());
+            stats.reposWrapped++;
+            if (caches == null) {
+                LOG.debug("Creating new in-memory cache for repo '{}' [{}].", input.getName(), input.getId());
+                caches = new InMemoryModuleComponentRepositoryCaches(stats);
+                stats.cacheInstances++;
+                cachePerRepo.put(input.getId(), caches);
+            } else {
+                LOG.debug("Reusing in-memory cache for repo '{}' [{}].", input.getName(), input.getId());
+            }
         }
         return new InMemoryCachedModuleComponentRepository(caches, input);
     }
 
     public void stop() {
-        cachePerRepo.clear();
+        synchronized (lock) {
+            cachePerRepo.clear();
+        }
         LOG.debug("In-memory dependency metadata cache closed. {}", stats);
     }
 }
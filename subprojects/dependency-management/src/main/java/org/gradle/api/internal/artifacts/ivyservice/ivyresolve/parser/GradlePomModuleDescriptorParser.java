@@ -33,6 +33,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.xml.sax.SAXException;
 
+import java.io.File;
 import java.io.IOException;
 import java.text.ParseException;
 import java.util.Collection;
@@ -42,11 +43,19 @@ import java.util.Map;
 /**
  * This a straight copy of org.apache.ivy.plugins.parser.m2.PomModuleDescriptorParser, with one change: we do NOT attempt to retrieve source and javadoc artifacts when parsing the POM. This cuts the
  * number of remote call in half to resolve a module.
+ *
+ * Parent and imported POMs are parsed once and then reused from a {@link ParsedPomCache} by every POM that references them.
  */
 public final class GradlePomModuleDescriptorParser extends AbstractModuleDescriptorParser {
     private static final Logger LOGGER = LoggerFactory.getLogger(GradlePomModuleDescriptorParser.class);
     private static final String DEPENDENCY_IMPORT_SCOPE = "import";
 
+    private final ParsedPomCache parsedPomCache;
+
+    public GradlePomModuleDescriptorParser(ParsedPomCache parsedPomCache) {
+        this.parsedPomCache = parsedPomCache;
+    }
+
     @Override
     protected String getTypeName() {
         return "POM";
@@ -192,7 +201,7 @@ public final class GradlePomModuleDescriptorParser extends AbstractModuleDescrip
     }
 
     /**
-     * Parses other POM.
+     * Parses other POM, or reuses the result of a previous parse of the same POM file.
      *
      * @param parseContext Parse context
      * @param parentId Parent module revision ID
@@ -202,9 +211,21 @@ public final class GradlePomModuleDescriptorParser extends AbstractModuleDescrip
      */
     private PomReader parseOtherPom(DescriptorParseContext parseContext, ModuleVersionIdentifier parentId) throws IOException, SAXException {
         LocallyAvailableExternalResource localResource = parseContext.getMetaDataArtifact(parentId, ArtifactType.MAVEN_POM);
-        PomReader pomReader = new PomReader(localResource);
+        File pomFile = localResource.getLocalResource().getFile();
+        PomReader pomReader = parsedPomCache.get(pomFile);
+        if (pomReader != null) {
+            LOGGER.debug("Using previously parsed POM for {}.", parentId);
+            return pomReader;
+        }
+
+        pomReader = new PomReader(localResource);
         GradlePomModuleDescriptorBuilder mdBuilder = new GradlePomModuleDescriptorBuilder(pomReader);
         doParsePom(parseContext, mdBuilder, pomReader);
+
+        // Resolve the lazily calculated state up front, so the cached reader is not modified when it is shared
+        pomReader.getDependencies();
+        pomReader.getDependencyMgt();
+        parsedPomCache.put(pomFile, pomReader);
         return pomReader;
     }
 }
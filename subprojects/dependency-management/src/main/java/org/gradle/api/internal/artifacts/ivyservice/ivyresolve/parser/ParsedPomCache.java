@@ -0,0 +1,99 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.ivyresolve.parser;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.gradle.api.Nullable;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.internal.concurrent.Stoppable;
+
+import java.io.File;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Caches fully parsed and interpolated parent and imported POMs, keyed by the local POM file. A parent or BOM that is shared by many modules
+ * is then only parsed once for all configurations resolved in the build.
+ *
+ * <p>Entries are invalidated when the length or modification time of the POM file changes, and are softly referenced so that they can be
+ * reclaimed under memory pressure.</p>
+ */
+public class ParsedPomCache implements Stoppable {
+    private final static Logger LOG = Logging.getLogger(ParsedPomCache.class);
+
+    private final Cache<File, CachedPom> cache = CacheBuilder.newBuilder().softValues().build();
+    private final Stats stats = new Stats();
+
+    @Nullable
+    public PomReader get(File pomFile) {
+        CachedPom cachedPom = cache.getIfPresent(pomFile);
+        if (cachedPom == null || !cachedPom.isUpToDate(pomFile)) {
+            stats.misses.incrementAndGet();
+            return null;
+        }
+        stats.hits.incrementAndGet();
+        return cachedPom.pomReader;
+    }
+
+    public void put(File pomFile, PomReader pomReader) {
+        cache.put(pomFile, new CachedPom(pomFile, pomReader));
+    }
+
+    public void stop() {
+        cache.invalidateAll();
+        LOG.debug("Parsed POM cache closed. {}", stats);
+    }
+
+    public Stats getStats() {
+        return stats;
+    }
+
+    private static class CachedPom {
+        private final long length;
+        private final long lastModified;
+        private final PomReader pomReader;
+
+        CachedPom(File pomFile, PomReader pomReader) {
+            this.length = pomFile.length();
+            this.lastModified = pomFile.lastModified();
+            this.pomReader = pomReader;
+        }
+
+        boolean isUpToDate(File pomFile) {
+            return pomFile.length() == length && pomFile.lastModified() == lastModified;
+        }
+    }
+
+    public static class Stats {
+        private final AtomicInteger hits = new AtomicInteger();
+        private final AtomicInteger misses = new AtomicInteger();
+
+        public int getHits() {
+            return hits.get();
+        }
+
+        public int getMisses() {
+            return misses.get();
+        }
+
+        @Override
+        public String toString() {
+            return String.format("POMs served from cache: %s, POMs parsed: %s", hits.get(), misses.get());
+        }
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.resolveengine;
+
+import org.gradle.api.artifacts.ModuleIdentifier;
+import org.gradle.api.internal.artifacts.DefaultModuleIdentifier;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Assigns a small integer id to each distinct module seen during a resolve, and holds a single canonical {@link ModuleIdentifier} instance
+ * for each. The ids are dense, starting at 0, so that resolution state can be held in arrays indexed by module id.
+ *
+ * <p>An instance is used by a single resolve, so is not thread-safe.</p>
+ */
+public class ModuleIdentifierInterner {
+    private final Map<String, Map<String, Integer>> idsByGroupAndName = new HashMap<String, Map<String, Integer>>();
+    private final List<ModuleIdentifier> modules = new ArrayList<ModuleIdentifier>();
+
+    public int getModuleId(String group, String name) {
+        Map<String, Integer> idsByName = idsByGroupAndName.get(group);
+        if (idsByName == null) {
+            idsByName = new HashMap<String, Integer>();
+            idsByGroupAndName.put(group, idsByName);
+        }
+        Integer id = idsByName.get(name);
+        if (id == null) {
+            id = modules.size();
+            modules.add(new DefaultModuleIdentifier(group, name));
+            idsByName.put(name, id);
+        }
+        return id;
+    }
+
+    public int getModuleId(ModuleIdentifier module) {
+        return getModuleId(module.getGroup(), module.getName());
+    }
+
+    /**
+     * Returns the canonical identifier for the given module id.
+     */
+    public ModuleIdentifier getModule(int id) {
+        return modules.get(id);
+    }
+
+    public int size() {
+        return modules.size();
+    }
+}
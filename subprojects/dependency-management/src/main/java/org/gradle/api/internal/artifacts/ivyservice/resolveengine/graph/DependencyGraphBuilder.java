@@ -22,11 +22,11 @@ import org.gradle.api.artifacts.*;
 import org.gradle.api.artifacts.component.ComponentIdentifier;
 import org.gradle.api.artifacts.component.ComponentSelector;
 import org.gradle.api.artifacts.result.ComponentSelectionReason;
-import org.gradle.api.internal.artifacts.DefaultModuleIdentifier;
 import org.gradle.api.internal.artifacts.ResolvedConfigurationIdentifier;
 import org.gradle.api.internal.artifacts.configurations.ConfigurationInternal;
 import org.gradle.api.internal.artifacts.ivyservice.resolveengine.DependencyToConfigurationResolver;
 import org.gradle.api.internal.artifacts.ivyservice.resolveengine.ModuleConflictResolver;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.ModuleIdentifierInterner;
 import org.gradle.api.internal.artifacts.ivyservice.resolveengine.ModuleRevisionResolveState;
 import org.gradle.api.internal.artifacts.ivyservice.resolveengine.ModuleVersionSpec;
 import org.gradle.api.internal.artifacts.ivyservice.resolveengine.graph.conflicts.CandidateModule;
@@ -322,8 +322,12 @@ public class DependencyGraphBuilder {
      * Global resolution state.
      */
     private static class ResolveState {
-        private final Map<ModuleIdentifier, ModuleResolveState> modules = new LinkedHashMap<ModuleIdentifier, ModuleResolveState>();
-        private final Map<ResolvedConfigurationIdentifier, ConfigurationNode> nodes = new LinkedHashMap<ResolvedConfigurationIdentifier, ConfigurationNode>();
+        // Module ids are assigned per resolve, so that the module table is sized by this graph and needs no locking
+        private final ModuleIdentifierInterner moduleIdentifierInterner = new ModuleIdentifierInterner();
+        // Indexed by module id
+        private ModuleResolveState[] modules = new ModuleResolveState[16];
+        private final List<ConfigurationNode> nodes = new ArrayList<ConfigurationNode>();
+        // Keyed by the requested selector held by the dependency metadata, so no key is allocated per edge. Interning selectors as well would add a lookup without saving an allocation
         private final Map<ModuleVersionSelector, ModuleVersionSelectorResolveState> selectors = new LinkedHashMap<ModuleVersionSelector, ModuleVersionSelectorResolveState>();
         private final RootConfigurationNode root;
         private final DependencyToComponentIdResolver idResolver;
@@ -343,15 +347,28 @@ public class DependencyGraphBuilder {
             ModuleVersionResolveState rootVersion = getRevision(rootResult.getId());
             rootVersion.setMetaData(rootResult.getMetaData());
             root = new RootConfigurationNode(rootVersion, new ResolvedConfigurationIdentifier(rootVersion.id, rootConfigurationName), this);
-            nodes.put(root.id, root);
+            nodes.add(root);
             root.moduleRevision.module.select(root.moduleRevision);
         }
 
         public ModuleResolveState getModule(ModuleIdentifier id) {
-            ModuleResolveState module = modules.get(id);
+            return getModule(moduleIdentifierInterner.getModuleId(id));
+        }
+
+        public ModuleResolveState getModule(String group, String name) {
+            return getModule(moduleIdentifierInterner.getModuleId(group, name));
+        }
+
+        private ModuleResolveState getModule(int moduleId) {
+            if (moduleId >= modules.length) {
+                ModuleResolveState[] newModules = new ModuleResolveState[Math.max(modules.length * 2, moduleId + 1)];
+                System.arraycopy(modules, 0, newModules, 0, modules.length);
+                modules = newModules;
+            }
+            ModuleResolveState module = modules[moduleId];
             if (module == null) {
-                module = new ModuleResolveState(id, this, metaDataResolver);
-                modules.put(id, module);
+                module = new ModuleResolveState(moduleIdentifierInterner.getModule(moduleId), this, metaDataResolver);
+                modules[moduleId] = module;
             }
             return module;
         }
@@ -361,16 +378,18 @@ public class DependencyGraphBuilder {
         }
 
         public Collection<ConfigurationNode> getConfigurationNodes() {
-            return nodes.values();
+            return nodes;
         }
 
         public ConfigurationNode getConfigurationNode(ModuleVersionResolveState module, String configurationName) {
-            ResolvedConfigurationIdentifier id = new ResolvedConfigurationIdentifier(module.id, configurationName);
-            ConfigurationNode configuration = nodes.get(id);
-            if (configuration == null) {
-                configuration = new ConfigurationNode(module, id, this);
-                nodes.put(id, configuration);
+            // A module version has only a handful of configurations, so search them rather than allocating a key for each edge
+            for (ConfigurationNode configuration : module.configurations) {
+                if (configuration.id.getConfiguration().equals(configurationName)) {
+                    return configuration;
+                }
             }
+            ConfigurationNode configuration = new ConfigurationNode(module, new ResolvedConfigurationIdentifier(module.id, configurationName), this);
+            nodes.add(configuration);
             return configuration;
         }
 
@@ -430,6 +449,7 @@ public class DependencyGraphBuilder {
         final ComponentMetaDataResolver metaDataResolver;
         final ModuleIdentifier id;
         final Set<DependencyEdge> unattachedDependencies = new LinkedHashSet<DependencyEdge>();
+        // A module has only a few candidate versions, so an id-indexed table would not be any cheaper
         final Map<ModuleVersionIdentifier, ModuleVersionResolveState> versions = new LinkedHashMap<ModuleVersionIdentifier, ModuleVersionResolveState>();
         final Set<ModuleVersionSelectorResolveState> selectors = new HashSet<ModuleVersionSelectorResolveState>();
         final ResolveState resolveState;
@@ -821,7 +841,7 @@ public class DependencyGraphBuilder {
             this.dependencyMetaData = dependencyMetaData;
             this.resolver = resolver;
             this.resolveState = resolveState;
-            targetModule = resolveState.getModule(new DefaultModuleIdentifier(dependencyMetaData.getRequested().getGroup(), dependencyMetaData.getRequested().getName()));
+            targetModule = resolveState.getModule(dependencyMetaData.getRequested().getGroup(), dependencyMetaData.getRequested().getName());
         }
 
         @Override
@@ -58,7 +58,7 @@ public class ResolutionResultsStoreFactory implements Closeable {
     private final Map<String, DefaultBinaryStore> stores = new HashMap<String, DefaultBinaryStore>();
     private final CompositeStoppable cleanUpLater = new CompositeStoppable();
 
-    private DefaultBinaryStore createBinaryStore(String storeKey) {
+    private synchronized DefaultBinaryStore createBinaryStore(String storeKey) {
         DefaultBinaryStore store = stores.get(storeKey);
         if (store == null || isFull(store)) {
             File storeFile = temp.createTemporaryFile("gradle", ".bin");
@@ -72,7 +72,7 @@ public class ResolutionResultsStoreFactory implements Closeable {
 
     public StoreSet createStoreSet() {
         return new StoreSet() {
-            int storeSetId = storeSetBaseId++;
+            int storeSetId = nextStoreSetId();
             int binaryStoreId;
             public DefaultBinaryStore nextBinaryStore() {
                 //one binary store per id+threadId
@@ -81,23 +81,37 @@ public class ResolutionResultsStoreFactory implements Closeable {
             }
 
             public Store<ResolvedComponentResult> oldModelStore() {
-                if (oldModelCache == null) {
-                    oldModelCache = new CachedStoreFactory("Resolution result");
-                    cleanUpLater.add(oldModelCache);
-                }
-                return oldModelCache.createCachedStore(storeSetId);
+                return getOldModelCache().createCachedStore(storeSetId);
             }
 
             public Store<TransientConfigurationResults> newModelStore() {
-                if (newModelCache == null) {
-                    newModelCache = new CachedStoreFactory("Resolved configuration");
-                    cleanUpLater.add(newModelCache);
-                }
-                return newModelCache.createCachedStore(storeSetId);
+                return getNewModelCache().createCachedStore(storeSetId);
             }
         };
     }
 
+    // Configurations may be resolved concurrently, so access to the shared stores is synchronized
+
+    private synchronized int nextStoreSetId() {
+        return storeSetBaseId++;
+    }
+
+    private synchronized CachedStoreFactory getOldModelCache() {
+        if (oldModelCache == null) {
+            oldModelCache = new CachedStoreFactory("Resolution result");
+            cleanUpLater.add(oldModelCache);
+        }
+        return oldModelCache;
+    }
+
+    private synchronized CachedStoreFactory getNewModelCache() {
+        if (newModelCache == null) {
+            newModelCache = new CachedStoreFactory("Resolved configuration");
+            cleanUpLater.add(newModelCache);
+        }
+        return newModelCache;
+    }
+
     //offset based implementation is only safe up to certain figure
     //because of the int max value
     //for large streams/files (huge builds), we need to roll the file
@@ -106,7 +120,7 @@ public class ResolutionResultsStoreFactory implements Closeable {
         return store.getSize() > maxSize;
     }
 
-    public void close() {
+    public synchronized void close() {
         try {
             Clock clock = new Clock();
             cleanUpLater.stop();
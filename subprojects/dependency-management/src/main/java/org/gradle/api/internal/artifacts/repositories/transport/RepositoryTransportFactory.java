@@ -20,6 +20,9 @@ import org.gradle.api.artifacts.repositories.PasswordCredentials;
 import org.gradle.api.internal.artifacts.ivyservice.CacheLockingManager;
 import org.gradle.internal.resource.cached.CachedExternalResourceIndex;
 import org.gradle.internal.resource.transport.file.FileTransport;
+import org.gradle.internal.resource.transport.http.DefaultHttpSettings;
+import org.gradle.internal.resource.transport.http.HttpConnectionPool;
+import org.gradle.internal.resource.transport.http.HttpSettings;
 import org.gradle.internal.resource.transport.http.HttpTransport;
 import org.gradle.internal.resource.transport.sftp.SftpClientFactory;
 import org.gradle.internal.resource.transport.sftp.SftpTransport;
@@ -38,23 +41,28 @@ public class RepositoryTransportFactory {
     private final BuildCommencedTimeProvider timeProvider;
     private final SftpClientFactory sftpClientFactory;
     private final CacheLockingManager cacheLockingManager;
+    private final HttpConnectionPool httpConnectionPool;
 
     public RepositoryTransportFactory(ProgressLoggerFactory progressLoggerFactory,
                                       TemporaryFileProvider temporaryFileProvider,
                                       CachedExternalResourceIndex<String> cachedExternalResourceIndex,
                                       BuildCommencedTimeProvider timeProvider,
                                       SftpClientFactory sftpClientFactory,
-                                      CacheLockingManager cacheLockingManager) {
+                                      CacheLockingManager cacheLockingManager,
+                                      HttpConnectionPool httpConnectionPool) {
         this.progressLoggerFactory = progressLoggerFactory;
         this.temporaryFileProvider = temporaryFileProvider;
         this.cachedExternalResourceIndex = cachedExternalResourceIndex;
         this.timeProvider = timeProvider;
         this.sftpClientFactory = sftpClientFactory;
         this.cacheLockingManager = cacheLockingManager;
+        this.httpConnectionPool = httpConnectionPool;
     }
 
     private RepositoryTransport createHttpTransport(String name, PasswordCredentials credentials) {
-        return new HttpTransport(name, convertPasswordCredentials(credentials), progressLoggerFactory, temporaryFileProvider, cachedExternalResourceIndex, timeProvider, cacheLockingManager);
+        HttpSettings httpSettings = new DefaultHttpSettings(convertPasswordCredentials(credentials));
+        // All HTTP transports share the connection pool of the build, so that connections to a repository are kept alive across resolves
+        return new HttpTransport(name, httpSettings, httpConnectionPool, progressLoggerFactory, temporaryFileProvider, cachedExternalResourceIndex, timeProvider, cacheLockingManager);
     }
 
     private RepositoryTransport createFileTransport(String name) {
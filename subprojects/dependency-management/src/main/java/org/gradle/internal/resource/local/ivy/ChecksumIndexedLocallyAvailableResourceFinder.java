@@ -0,0 +1,78 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.resource.local.ivy;
+
+import org.gradle.internal.hash.HashValue;
+import org.gradle.internal.resource.local.DefaultLocallyAvailableResource;
+import org.gradle.internal.resource.local.LocallyAvailableResource;
+import org.gradle.internal.resource.local.LocallyAvailableResourceCandidates;
+import org.gradle.internal.resource.local.LocallyAvailableResourceFinder;
+
+import java.io.File;
+
+/**
+ * Decorates a finder so that candidates are matched by checksum through a {@link LocalArtifactChecksumIndex}. A checksum
+ * that has been matched before is found with a single index lookup, and a criterion that has been matched before is known to have
+ * candidates. The candidates of the decorated finder are only searched and hashed on an index miss.
+ */
+public class ChecksumIndexedLocallyAvailableResourceFinder<C> implements LocallyAvailableResourceFinder<C> {
+    private final LocallyAvailableResourceFinder<C> delegate;
+    private final LocalArtifactChecksumIndex checksumIndex;
+
+    public ChecksumIndexedLocallyAvailableResourceFinder(LocallyAvailableResourceFinder<C> delegate, LocalArtifactChecksumIndex checksumIndex) {
+        this.delegate = delegate;
+        this.checksumIndex = checksumIndex;
+    }
+
+    public LocallyAvailableResourceCandidates findCandidates(C criterion) {
+        return new IndexedCandidates(criterion);
+    }
+
+    private class IndexedCandidates implements LocallyAvailableResourceCandidates {
+        private final C criterion;
+        private LocallyAvailableResourceCandidates candidates;
+
+        public IndexedCandidates(C criterion) {
+            this.criterion = criterion;
+        }
+
+        private LocallyAvailableResourceCandidates getCandidates() {
+            if (candidates == null) {
+                candidates = delegate.findCandidates(criterion);
+            }
+            return candidates;
+        }
+
+        public boolean isNone() {
+            return !checksumIndex.hasCandidate(criterion.toString()) && getCandidates().isNone();
+        }
+
+        public LocallyAvailableResource findByHashValue(HashValue hashValue) {
+            File indexed = checksumIndex.findBySha1(hashValue);
+            if (indexed != null) {
+                checksumIndex.recordCandidate(criterion.toString(), indexed);
+                return new DefaultLocallyAvailableResource(indexed, hashValue);
+            }
+            LocallyAvailableResource match = getCandidates().findByHashValue(hashValue);
+            if (match != null) {
+                checksumIndex.record(match.getFile(), hashValue);
+                checksumIndex.recordCandidate(criterion.toString(), match.getFile());
+            }
+            return match;
+        }
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.resource.local.ivy;
+
+import org.gradle.api.Nullable;
+import org.gradle.api.internal.artifacts.ivyservice.CacheLockingManager;
+import org.gradle.cache.PersistentIndexedCache;
+import org.gradle.internal.Factory;
+import org.gradle.internal.hash.HashValue;
+import org.gradle.messaging.serialize.BaseSerializerFactory;
+import org.gradle.messaging.serialize.Decoder;
+import org.gradle.messaging.serialize.Encoder;
+import org.gradle.messaging.serialize.Serializer;
+
+import java.io.File;
+
+/**
+ * A persistent index of the SHA1 checksums of local files that are candidates for reuse, such as artifacts in the Maven local repository
+ * or in the caches of older Gradle versions.
+ *
+ * <p>The index is maintained incrementally: every local file that is found to match a published checksum is recorded, so that a later
+ * lookup for the same checksum can locate it without scanning or hashing any candidates. Entries are ignored once the file is removed
+ * or its length or modification time changes.</p>
+ */
+public class LocalArtifactChecksumIndex {
+    private final CacheLockingManager cacheLockingManager;
+    private PersistentIndexedCache<String, ChecksumEntry> checksumsByPath;
+    private PersistentIndexedCache<String, String> pathsByChecksum;
+    private PersistentIndexedCache<String, String> pathsByCriterion;
+
+    public LocalArtifactChecksumIndex(CacheLockingManager cacheLockingManager) {
+        this.cacheLockingManager = cacheLockingManager;
+    }
+
+    private PersistentIndexedCache<String, ChecksumEntry> getChecksumsByPath() {
+        if (checksumsByPath == null) {
+            checksumsByPath = cacheLockingManager.createCache("local-artifact-checksums", BaseSerializerFactory.STRING_SERIALIZER, new ChecksumEntrySerializer());
+        }
+        return checksumsByPath;
+    }
+
+    private PersistentIndexedCache<String, String> getPathsByChecksum() {
+        if (pathsByChecksum == null) {
+            pathsByChecksum = cacheLockingManager.createCache("local-artifact-locations", BaseSerializerFactory.STRING_SERIALIZER, BaseSerializerFactory.STRING_SERIALIZER);
+        }
+        return pathsByChecksum;
+    }
+
+    private PersistentIndexedCache<String, String> getPathsByCriterion() {
+        if (pathsByCriterion == null) {
+            pathsByCriterion = cacheLockingManager.createCache("local-artifact-candidates", BaseSerializerFactory.STRING_SERIALIZER, BaseSerializerFactory.STRING_SERIALIZER);
+        }
+        return pathsByCriterion;
+    }
+
+    /**
+     * Records the SHA1 checksum of the given file, which has been hashed by the caller.
+     */
+    public void record(File file, HashValue sha1) {
+        final String path = file.getAbsolutePath();
+        final ChecksumEntry entry = new ChecksumEntry(file.length(), file.lastModified(), sha1);
+        cacheLockingManager.useCache(String.format("store checksum of %s", path), new Runnable() {
+            public void run() {
+                getChecksumsByPath().put(path, entry);
+                getPathsByChecksum().put(entry.sha1.asHexString(), path);
+            }
+        });
+    }
+
+    /**
+     * Records that the given indexed file was a candidate matching the given search criterion.
+     */
+    public void recordCandidate(final String criterion, File file) {
+        final String path = file.getAbsolutePath();
+        cacheLockingManager.useCache(String.format("store local candidate for %s", criterion), new Runnable() {
+            public void run() {
+                getPathsByCriterion().put(criterion, path);
+            }
+        });
+    }
+
+    /**
+     * Returns true if a file that matched the given search criterion is known, and has not since been removed or modified.
+     */
+    public boolean hasCandidate(final String criterion) {
+        return cacheLockingManager.useCache(String.format("lookup local candidate for %s", criterion), new Factory<Boolean>() {
+            public Boolean create() {
+                String path = getPathsByCriterion().get(criterion);
+                if (path == null) {
+                    return false;
+                }
+                ChecksumEntry entry = getChecksumsByPath().get(path);
+                if (entry != null && entry.isUpToDate(new File(path))) {
+                    return true;
+                }
+                getPathsByCriterion().remove(criterion);
+                return false;
+            }
+        });
+    }
+
+    /**
+     * Locates an indexed file with the given SHA1 checksum. Returns null if no such file is known, or if the file has since been
+     * removed or modified.
+     */
+    @Nullable
+    public File findBySha1(final HashValue sha1) {
+        return cacheLockingManager.useCache(String.format("lookup local artifact with checksum %s", sha1.asHexString()), new Factory<File>() {
+            public File create() {
+                String path = getPathsByChecksum().get(sha1.asHexString());
+                if (path == null) {
+                    return null;
+                }
+                File file = new File(path);
+                ChecksumEntry entry = getChecksumsByPath().get(path);
+                if (entry != null && entry.sha1.equals(sha1) && entry.isUpToDate(file)) {
+                    return file;
+                }
+                getPathsByChecksum().remove(sha1.asHexString());
+                return null;
+            }
+        });
+    }
+
+    private static class ChecksumEntry {
+        private final long length;
+        private final long lastModified;
+        private final HashValue sha1;
+
+        ChecksumEntry(long length, long lastModified, HashValue sha1) {
+            this.length = length;
+            this.lastModified = lastModified;
+            this.sha1 = sha1;
+        }
+
+        boolean isUpToDate(File file) {
+            return file.isFile() && file.length() == length && file.lastModified() == lastModified;
+        }
+    }
+
+    private static class ChecksumEntrySerializer implements Serializer<ChecksumEntry> {
+        public ChecksumEntry read(Decoder decoder) throws Exception {
+            long length = decoder.readLong();
+            long lastModified = decoder.readLong();
+            HashValue sha1 = new HashValue(decoder.readBinary());
+            return new ChecksumEntry(length, lastModified, sha1);
+        }
+
+        public void write(Encoder encoder, ChecksumEntry value) throws Exception {
+            encoder.writeLong(value.length);
+            encoder.writeLong(value.lastModified);
+            encoder.writeBinary(value.sha1.asByteArray());
+        }
+    }
+}
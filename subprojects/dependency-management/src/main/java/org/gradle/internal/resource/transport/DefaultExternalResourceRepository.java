@@ -61,6 +61,10 @@ public class DefaultExternalResourceRepository implements ExternalResourceReposi
         putChecksum("SHA1", 40, source, destination);
     }
 
+    public void putWithoutChecksum(File source, URI destination) throws IOException {
+        doPut(source, destination);
+    }
+
     private void putChecksum(String algorithm, int checksumlength, File source, URI destination) throws IOException {
         byte[] checksumFile = createChecksumFile(source, algorithm, checksumlength);
         URI checksumDestination = URI.create(destination + "." + algorithm.toLowerCase());
@@ -42,6 +42,15 @@ public interface ExternalResourceRepository {
      */
     void put(File source, URI destination) throws IOException;
 
+    /**
+     * Transfer a resource to the repository, without transferring a checksum for it. The caller is responsible for publishing any checksums.
+     *
+     * @param source The local file to be transferred.
+     * @param destination Where to transfer the resource.
+     * @throws IOException On publication failure.
+     */
+    void putWithoutChecksum(File source, URI destination) throws IOException;
+
     /**
      * Fetches only the metadata for the result.
      *
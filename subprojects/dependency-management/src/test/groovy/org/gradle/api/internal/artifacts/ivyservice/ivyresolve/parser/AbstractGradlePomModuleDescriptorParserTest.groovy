@@ -30,7 +30,8 @@ import spock.lang.Specification
 abstract class AbstractGradlePomModuleDescriptorParserTest extends Specification {
     @Rule
     public final TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
-    final GradlePomModuleDescriptorParser parser = new GradlePomModuleDescriptorParser()
+    final ParsedPomCache parsedPomCache = new ParsedPomCache()
+    final GradlePomModuleDescriptorParser parser = new GradlePomModuleDescriptorParser(parsedPomCache)
     final parseContext = Mock(DescriptorParseContext)
     TestFile pomFile
 
@@ -151,6 +151,75 @@ class GradlePomModuleDescriptorParserTest extends AbstractGradlePomModuleDescrip
         inheritedDep.moduleConfigurations == ['compile', 'runtime']
     }
 
+    def "reuses parsed parent pom for all poms that reference it"() {
+        given:
+        def parent = tmpDir.file("parent.xml") << """
+<project>
+    <modelVersion>4.0.0</modelVersion>
+    <groupId>group-one</groupId>
+    <artifactId>parent</artifactId>
+    <version>version-one</version>
+
+    <properties>
+        <two.version>1.2</two.version>
+    </properties>
+
+    <dependencyManagement>
+        <dependencies>
+            <dependency>
+                <groupId>group-two</groupId>
+                <artifactId>artifact-two</artifactId>
+                <version>\${two.version}</version>
+            </dependency>
+        </dependencies>
+    </dependencyManagement>
+</project>
+"""
+        def childPom = { String artifactId ->
+            """
+<project>
+    <modelVersion>4.0.0</modelVersion>
+    <artifactId>${artifactId}</artifactId>
+
+    <parent>
+        <groupId>group-one</groupId>
+        <artifactId>parent</artifactId>
+        <version>version-one</version>
+    </parent>
+
+    <dependencies>
+        <dependency>
+            <groupId>group-two</groupId>
+            <artifactId>artifact-two</artifactId>
+        </dependency>
+    </dependencies>
+</project>
+"""
+        }
+        pomFile << childPom('artifact-one')
+        def otherPomFile = tmpDir.file("other.xml") << childPom('artifact-three')
+
+        and:
+        parseContext.getMetaDataArtifact({ it.name == 'parent' }, MAVEN_POM) >> { new DefaultLocallyAvailableExternalResource(parent.toURI(), new DefaultLocallyAvailableResource(parent)) }
+
+        when:
+        def descriptor = parsePom()
+        def otherDescriptor = parser.parseMetaData(parseContext, otherPomFile, true).descriptor
+
+        then:
+        descriptor.moduleRevisionId == moduleId('group-one', 'artifact-one', 'version-one')
+        descriptor.dependencies.length == 1
+        descriptor.dependencies.first().dependencyRevisionId == moduleId('group-two', 'artifact-two', '1.2')
+
+        otherDescriptor.moduleRevisionId == moduleId('group-one', 'artifact-three', 'version-one')
+        otherDescriptor.dependencies.length == 1
+        otherDescriptor.dependencies.first().dependencyRevisionId == moduleId('group-two', 'artifact-two', '1.2')
+
+        and:
+        parsedPomCache.stats.misses == 1
+        parsedPomCache.stats.hits == 1
+    }
+
     def "uses dependency management section to provide default values for a dependency"() {
         given:
         pomFile << """
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.ivyresolve.parser
+
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+class ParsedPomCacheTest extends Specification {
+    @Rule
+    public final TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+    final cache = new ParsedPomCache()
+    final pomReader = Stub(PomReader)
+
+    def "returns null for pom that has not been cached"() {
+        expect:
+        cache.get(tmpDir.createFile("parent.pom")) == null
+        cache.stats.misses == 1
+    }
+
+    def "returns cached pom while pom file is unchanged"() {
+        def pomFile = tmpDir.file("parent.pom") << "<project/>"
+
+        when:
+        cache.put(pomFile, pomReader)
+
+        then:
+        cache.get(pomFile) == pomReader
+        cache.get(pomFile) == pomReader
+        cache.stats.hits == 2
+    }
+
+    def "discards cached pom when pom file changes"() {
+        def pomFile = tmpDir.file("parent.pom") << "<project/>"
+        cache.put(pomFile, pomReader)
+
+        when:
+        pomFile << "<!-- changed -->"
+
+        then:
+        cache.get(pomFile) == null
+    }
+
+    def "discards all cached poms on stop"() {
+        def pomFile = tmpDir.file("parent.pom") << "<project/>"
+        cache.put(pomFile, pomReader)
+
+        when:
+        cache.stop()
+
+        then:
+        cache.get(pomFile) == null
+    }
+}
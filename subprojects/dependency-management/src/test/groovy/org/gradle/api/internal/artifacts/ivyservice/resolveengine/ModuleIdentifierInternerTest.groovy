@@ -0,0 +1,51 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.resolveengine
+
+import org.gradle.api.internal.artifacts.DefaultModuleIdentifier
+import spock.lang.Specification
+
+class ModuleIdentifierInternerTest extends Specification {
+    def interner = new ModuleIdentifierInterner()
+
+    def "assigns dense ids in order of first use"() {
+        expect:
+        interner.getModuleId("org", "a") == 0
+        interner.getModuleId("org", "b") == 1
+        interner.getModuleId("other", "a") == 2
+        interner.getModuleId("org", "a") == 0
+        interner.size() == 3
+    }
+
+    def "returns same id for equal module identifiers"() {
+        when:
+        def id = interner.getModuleId(new DefaultModuleIdentifier("org", "a"))
+
+        then:
+        interner.getModuleId(new DefaultModuleIdentifier("org", "a")) == id
+        interner.getModuleId("org", "a") == id
+    }
+
+    def "returns canonical identifier for id"() {
+        when:
+        def id = interner.getModuleId("org", "a")
+
+        then:
+        interner.getModule(id) == new DefaultModuleIdentifier("org", "a")
+        interner.getModule(id).is(interner.getModule(interner.getModuleId(new DefaultModuleIdentifier("org", "a"))))
+    }
+}
@@ -90,4 +90,22 @@ class ResolutionResultsStoreFactoryTest extends Specification {
         set1.oldModelStore().load({"2"} as org.gradle.internal.Factory) == "1"
         set2.oldModelStore().load({"3"} as org.gradle.internal.Factory) == "3"
     }
+
+    def "provides separate stores to store sets created concurrently"() {
+        def sets = Collections.synchronizedList([])
+
+        when:
+        def threads = (1..10).collect {
+            Thread.start {
+                10.times { sets << f.createStoreSet() }
+            }
+        }
+        threads*.join()
+
+        then:
+        sets.size() == 100
+        sets.eachWithIndex { set, i ->
+            assert set.newModelStore().load({ i } as org.gradle.internal.Factory) == i
+        }
+    }
 }
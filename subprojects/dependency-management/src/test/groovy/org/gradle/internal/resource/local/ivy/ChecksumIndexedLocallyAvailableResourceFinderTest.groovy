@@ -0,0 +1,125 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.resource.local.ivy
+
+import org.gradle.internal.hash.HashUtil
+import org.gradle.internal.resource.local.LocallyAvailableResource
+import org.gradle.internal.resource.local.LocallyAvailableResourceCandidates
+import org.gradle.internal.resource.local.LocallyAvailableResourceFinder
+import spock.lang.Specification
+
+class ChecksumIndexedLocallyAvailableResourceFinderTest extends Specification {
+    def delegate = Mock(LocallyAvailableResourceFinder)
+    def delegateCandidates = Mock(LocallyAvailableResourceCandidates)
+    def index = Mock(LocalArtifactChecksumIndex)
+    def finder = new ChecksumIndexedLocallyAvailableResourceFinder<String>(delegate, index)
+    def hash = HashUtil.sha1("abc".bytes)
+
+    def "uses indexed file without searching candidates"() {
+        def file = new File("indexed.jar")
+
+        when:
+        def candidates = finder.findCandidates("criterion")
+        def match = candidates.findByHashValue(hash)
+
+        then:
+        1 * index.findBySha1(hash) >> file
+        1 * index.recordCandidate("criterion", file)
+        0 * delegate._
+        0 * index._
+
+        and:
+        match.file == file
+        match.sha1 == hash
+    }
+
+    def "records match found by searching candidates"() {
+        def file = new File("found.jar")
+        def resource = Stub(LocallyAvailableResource) {
+            getFile() >> file
+        }
+
+        when:
+        def candidates = finder.findCandidates("criterion")
+        def match = candidates.findByHashValue(hash)
+
+        then:
+        1 * delegate.findCandidates("criterion") >> delegateCandidates
+        1 * index.findBySha1(hash) >> null
+        1 * delegateCandidates.findByHashValue(hash) >> resource
+        1 * index.record(file, hash)
+        1 * index.recordCandidate("criterion", file)
+
+        and:
+        match == resource
+    }
+
+    def "records nothing when no candidate matches"() {
+        when:
+        def candidates = finder.findCandidates("criterion")
+        def match = candidates.findByHashValue(hash)
+
+        then:
+        1 * delegate.findCandidates("criterion") >> delegateCandidates
+        1 * index.findBySha1(hash) >> null
+        1 * delegateCandidates.findByHashValue(hash) >> null
+        0 * index.record(_, _)
+        0 * index.recordCandidate(_, _)
+
+        and:
+        match == null
+    }
+
+    def "has candidates without searching when criterion is indexed"() {
+        when:
+        def none = finder.findCandidates("criterion").isNone()
+
+        then:
+        1 * index.hasCandidate("criterion") >> true
+        0 * delegate._
+
+        and:
+        !none
+    }
+
+    def "delegates isNone to candidates when criterion is not indexed"() {
+        given:
+        index.hasCandidate("criterion") >> false
+        delegate.findCandidates("criterion") >> delegateCandidates
+        delegateCandidates.isNone() >> none
+
+        expect:
+        finder.findCandidates("criterion").isNone() == none
+
+        where:
+        none << [true, false]
+    }
+
+    def "searches candidates once"() {
+        when:
+        def candidates = finder.findCandidates("criterion")
+        candidates.isNone()
+        candidates.findByHashValue(hash)
+
+        then:
+        1 * delegate.findCandidates("criterion") >> delegateCandidates
+        1 * index.hasCandidate("criterion") >> false
+        1 * delegateCandidates.isNone() >> false
+        1 * index.findBySha1(hash) >> null
+        1 * delegateCandidates.findByHashValue(hash) >> null
+    }
+}
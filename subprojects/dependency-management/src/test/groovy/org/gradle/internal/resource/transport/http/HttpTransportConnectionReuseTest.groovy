@@ -0,0 +1,96 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.internal.resource.transport.http
+
+import org.gradle.api.Transformer
+import org.gradle.api.artifacts.repositories.PasswordCredentials
+import org.gradle.api.internal.artifacts.repositories.transport.RepositoryTransportFactory
+import org.gradle.internal.resource.transport.ExternalResourceRepository
+import org.gradle.logging.ProgressLoggerFactory
+import org.gradle.test.fixtures.server.http.HttpServer
+import org.junit.Rule
+import spock.lang.Specification
+
+import javax.servlet.http.HttpServletRequest
+import javax.servlet.http.HttpServletResponse
+
+class HttpTransportConnectionReuseTest extends Specification {
+    @Rule HttpServer server = new HttpServer()
+    def connectionPool = new HttpConnectionPool(new DefaultHttpSettings(new org.gradle.internal.resource.PasswordCredentials()))
+    def transportFactory = new RepositoryTransportFactory(Stub(ProgressLoggerFactory), null, null, null, null, null, connectionPool)
+    def clientPorts = []
+
+    def setup() {
+        server.start()
+    }
+
+    def cleanup() {
+        connectionPool.stop()
+    }
+
+    def "reuses connection for requests made by a transport"() {
+        expectGet("/first")
+        expectGet("/second")
+        def repository = repository("repo")
+
+        when:
+        get(repository, "/first")
+        get(repository, "/second")
+
+        then:
+        clientPorts.size() == 2
+        clientPorts[0] == clientPorts[1]
+    }
+
+    def "reuses connection for requests made by different transports"() {
+        expectGet("/first")
+        expectGet("/second")
+
+        when:
+        get(repository("repo1"), "/first")
+        get(repository("repo2"), "/second")
+
+        then:
+        clientPorts.size() == 2
+        clientPorts[0] == clientPorts[1]
+    }
+
+    private ExternalResourceRepository repository(String name) {
+        return transportFactory.createTransport("http", name, Stub(PasswordCredentials)).repository
+    }
+
+    private void get(ExternalResourceRepository repository, String path) {
+        def resource = repository.getResource(new URI("${server.address}${path}"))
+        try {
+            assert resource.withContent({ it.text } as Transformer) == "content of ${path}"
+        } finally {
+            resource.close()
+        }
+    }
+
+    private void expectGet(String path) {
+        server.expect(path, ["GET"], new HttpServer.ActionSupport("record client port for GET ${path}") {
+            void handle(HttpServletRequest request, HttpServletResponse response) {
+                clientPorts << request.remotePort
+                def content = "content of ${path}".bytes
+                response.contentLength = content.length
+                response.outputStream.write(content)
+            }
+        })
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.plugins.ide.internal.tooling;
+
+import org.gradle.api.Nullable;
+import org.gradle.groovy.scripts.Script;
+import org.gradle.groovy.scripts.ScriptExecutionListener;
+import org.gradle.groovy.scripts.ScriptSource;
+import org.gradle.internal.hash.HashUtil;
+import org.gradle.internal.resource.Resource;
+
+import java.io.File;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Records the scripts run by a build: the initialization scripts, the settings script, the build scripts and the scripts applied using
+ * {@code apply from}. Any of these may change the dependencies of any project.
+ */
+public class AppliedScripts implements ScriptExecutionListener {
+    private final Set<File> files = new LinkedHashSet<File>();
+    private boolean remoteScriptUsed;
+    private String hash;
+
+    public void beforeScript(Script script) {
+        ScriptSource source = script.getScriptSource();
+        Resource resource = source.getResource();
+        synchronized (this) {
+            if (resource.getFile() != null) {
+                if (files.add(resource.getFile())) {
+                    hash = null;
+                }
+            } else if (resource.getURI() != null) {
+                remoteScriptUsed = true;
+            }
+        }
+    }
+
+    public void afterScript(Script script, Throwable result) {
+    }
+
+    /**
+     * Returns a hash of the content of the scripts run so far, or null when a script was loaded from a remote location and so may change without
+     * any local file changing.
+     */
+    @Nullable
+    public synchronized String getHash() {
+        if (remoteScriptUsed) {
+            return null;
+        }
+        if (hash == null) {
+            StringBuilder content = new StringBuilder();
+            for (File file : files) {
+                content.append(file.getAbsolutePath());
+                if (file.isFile()) {
+                    content.append(' ').append(HashUtil.createHash(file, "MD5").asCompactString());
+                }
+                content.append('\n');
+            }
+            hash = HashUtil.createCompactMD5(content.toString());
+        }
+        return hash;
+    }
+}
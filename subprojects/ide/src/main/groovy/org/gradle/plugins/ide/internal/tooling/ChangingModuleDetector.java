@@ -0,0 +1,56 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.plugins.ide.internal.tooling;
+
+import org.gradle.api.Action;
+import org.gradle.api.artifacts.ComponentMetadataDetails;
+import org.gradle.api.artifacts.ModuleVersionIdentifier;
+
+import java.util.HashSet;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * A component metadata rule that records the metadata of each module resolved by a build, so that the modules that are marked as changing, either
+ * by their descriptor or by another rule, can be found once resolution is complete.
+ */
+public class ChangingModuleDetector implements Action<ComponentMetadataDetails> {
+    private final Queue<ComponentMetadataDetails> modules = new ConcurrentLinkedQueue<ComponentMetadataDetails>();
+
+    public void execute(ComponentMetadataDetails details) {
+        modules.add(details);
+    }
+
+    /**
+     * Returns the changing modules, as 'group:name:version'. Rules that run after this one may still change the metadata, so it is only checked when this method is called.
+     */
+    public Set<String> getChangingModules() {
+        Set<String> changingModules = new HashSet<String>();
+        for (ComponentMetadataDetails module : modules) {
+            if (module.isChanging()) {
+                changingModules.add(key(module.getId()));
+            }
+        }
+        return changingModules;
+    }
+
+    static String key(ModuleVersionIdentifier id) {
+        return id.getGroup() + ":" + id.getName() + ":" + id.getVersion();
+    }
+}
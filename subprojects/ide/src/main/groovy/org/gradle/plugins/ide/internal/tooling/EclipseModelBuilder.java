@@ -19,6 +19,7 @@ package org.gradle.plugins.ide.internal.tooling;
 import org.apache.commons.lang.StringUtils;
 import org.gradle.api.Project;
 import org.gradle.api.Task;
+import org.gradle.api.tasks.SourceSet;
 import org.gradle.plugins.ide.eclipse.EclipsePlugin;
 import org.gradle.plugins.ide.eclipse.model.*;
 import org.gradle.plugins.ide.internal.tooling.eclipse.*;
@@ -31,6 +32,7 @@ import java.util.*;
 
 public class EclipseModelBuilder implements ToolingModelBuilder {
     private final GradleProjectBuilder gradleProjectBuilder;
+    private final IdeProjectDependenciesResolver dependenciesResolver;
 
     private boolean projectDependenciesOnly;
     private DefaultEclipseProject result;
@@ -38,9 +40,11 @@ public class EclipseModelBuilder implements ToolingModelBuilder {
     private TasksFactory tasksFactory;
     private DefaultGradleProject<?> rootGradleProject;
     private Project currentProject;
+    private Map<Project, List<ClasspathEntry>> classpathEntries;
 
-    public EclipseModelBuilder(GradleProjectBuilder gradleProjectBuilder) {
+    public EclipseModelBuilder(GradleProjectBuilder gradleProjectBuilder, IdeProjectDependenciesResolver dependenciesResolver) {
         this.gradleProjectBuilder = gradleProjectBuilder;
+        this.dependenciesResolver = dependenciesResolver;
     }
 
     public boolean canBuild(String modelName) {
@@ -58,10 +62,68 @@ public class EclipseModelBuilder implements ToolingModelBuilder {
         tasksFactory.collectTasks(root);
         applyEclipsePlugin(root);
         buildHierarchy(root);
+        classpathEntries = resolveClasspaths(root);
         populate(root);
         return result;
     }
 
+    private Map<Project, List<ClasspathEntry>> resolveClasspaths(Project root) {
+        final Set<String> projectNames = new TreeSet<String>();
+        for (Map.Entry<String, DefaultEclipseProject> entry : projectMapping.entrySet()) {
+            projectNames.add(entry.getKey() + "=" + entry.getValue().getName());
+        }
+        for (Project project : root.getAllprojects()) {
+            project.getPlugins().getPlugin(EclipsePlugin.class).getModel().getClasspath().setProjectDependenciesOnly(projectDependenciesOnly);
+        }
+        return dependenciesResolver.resolveAll(root.getAllprojects(), new IdeProjectDependenciesResolver.ProjectResolver<List<ClasspathEntry>>() {
+            public String getDisplayName() {
+                return projectDependenciesOnly ? "Eclipse project dependencies" : "Eclipse classpath";
+            }
+
+            public String getInputs(Project project) {
+                EclipseClasspath classpath = classpath(project);
+                StringBuilder inputs = new StringBuilder();
+                inputs.append(String.format("sources=%s javadoc=%s projects=%s containers=%s classFolders=%s output=%s", classpath.isDownloadSources(), classpath.isDownloadJavadoc(),
+                        projectNames, classpath.getContainers(), classpath.getClassFolders(), classpath.getDefaultOutputDir()));
+                inputs.append(String.format(" plus=%s minus=%s noExport=%s pathVariables=%s", IdeModelInputs.describeConfigurations(classpath.getPlusConfigurations()),
+                        IdeModelInputs.describeConfigurations(classpath.getMinusConfigurations()), IdeModelInputs.describeConfigurations(classpath.getNoExportConfigurations()),
+                        new TreeMap<String, File>(classpath.getPathVariables())));
+                // Only existing source directories are added to the classpath
+                if (classpath.getSourceSets() != null) {
+                    for (SourceSet sourceSet : classpath.getSourceSets()) {
+                        for (File dir : sourceSet.getAllSource().getSrcDirs()) {
+                            inputs.append(' ').append(dir).append('=').append(dir.isDirectory());
+                        }
+                    }
+                }
+                return inputs.toString();
+            }
+
+            public List<ClasspathEntry> resolve(Project project) {
+                return classpath(project).resolveDependencies();
+            }
+
+            public Iterable<File> getFiles(List<ClasspathEntry> entries) {
+                List<File> files = new ArrayList<File>();
+                for (ClasspathEntry entry : entries) {
+                    if (entry instanceof AbstractLibrary) {
+                        AbstractLibrary library = (AbstractLibrary) entry;
+                        for (FileReference reference : Arrays.asList(library.getLibrary(), library.getSourcePath(), library.getJavadocPath())) {
+                            if (reference != null && reference.getFile() != null) {
+                                files.add(reference.getFile());
+                            }
+                        }
+                    }
+                }
+                return files;
+            }
+
+            private EclipseClasspath classpath(Project project) {
+                return project.getPlugins().getPlugin(EclipsePlugin.class).getModel().getClasspath();
+            }
+        });
+    }
+
     private void applyEclipsePlugin(Project root) {
         Set<Project> allProjects = root.getAllprojects();
         for (Project p : allProjects) {
@@ -79,10 +141,7 @@ public class EclipseModelBuilder implements ToolingModelBuilder {
 
     private void populate(Project project) {
         EclipseModel eclipseModel = project.getPlugins().getPlugin(EclipsePlugin.class).getModel();
-        EclipseClasspath classpath = eclipseModel.getClasspath();
-
-        classpath.setProjectDependenciesOnly(projectDependenciesOnly);
-        List<ClasspathEntry> entries = classpath.resolveDependencies();
+        List<ClasspathEntry> entries = classpathEntries.get(project);
 
         final List<DefaultEclipseExternalDependency> externalDependencies = new LinkedList<DefaultEclipseExternalDependency>();
         final List<DefaultEclipseProjectDependency> projectDependencies = new LinkedList<DefaultEclipseProjectDependency>();
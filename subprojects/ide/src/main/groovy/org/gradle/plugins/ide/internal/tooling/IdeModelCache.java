@@ -0,0 +1,140 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.plugins.ide.internal.tooling;
+
+import org.gradle.api.Nullable;
+
+import java.io.File;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Retains the resolved dependencies of the IDE model of each project for the lifetime of the process, so that a later IDE sync in the same daemon can
+ * reuse them when the dependency inputs of the project are unchanged. An entry is discarded when any of the files it refers to has changed.
+ *
+ * <p>The results are grouped by build, which is the kind of model together with the root directory of the build. All projects of a build are
+ * retained, however many there are, and memory is bounded by only retaining the builds that have been used most recently.</p>
+ */
+public class IdeModelCache {
+    /**
+     * The system property that enables reuse of resolved dependencies across builds.
+     */
+    public static final String ENABLED_PROPERTY = "org.gradle.ide.modelcache";
+
+    private static final int MAX_BUILDS = 8;
+
+    private final Object lock = new Object();
+    private final Map<String, Map<String, CachedResult>> builds = new LinkedHashMap<String, Map<String, CachedResult>>(MAX_BUILDS, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Map<String, CachedResult>> eldest) {
+            return size() > MAX_BUILDS;
+        }
+    };
+
+    public static boolean isEnabled() {
+        return Boolean.getBoolean(ENABLED_PROPERTY);
+    }
+
+    /**
+     * Returns the result cached for the given project of the given build, when it was recorded with the given inputs and the files it refers to
+     * are unchanged.
+     */
+    @Nullable
+    public Object get(String buildKey, String projectPath, String inputs) {
+        CachedResult result;
+        synchronized (lock) {
+            Map<String, CachedResult> projects = builds.get(buildKey);
+            result = projects == null ? null : projects.get(projectPath);
+        }
+        if (result == null || !result.inputs.equals(inputs)) {
+            return null;
+        }
+        for (Map.Entry<File, FileState> entry : result.files.entrySet()) {
+            if (!entry.getValue().isUpToDate(entry.getKey())) {
+                remove(buildKey, projectPath);
+                return null;
+            }
+        }
+        return result.value;
+    }
+
+    public void put(String buildKey, String projectPath, String inputs, Object value, Iterable<File> files) {
+        Map<File, FileState> fileStates = new HashMap<File, FileState>();
+        for (File file : files) {
+            fileStates.put(file, new FileState(file));
+        }
+        synchronized (lock) {
+            Map<String, CachedResult> projects = builds.get(buildKey);
+            if (projects == null) {
+                projects = new HashMap<String, CachedResult>();
+                builds.put(buildKey, projects);
+            }
+            projects.put(projectPath, new CachedResult(inputs, value, fileStates));
+        }
+    }
+
+    public void remove(String buildKey, String projectPath) {
+        synchronized (lock) {
+            Map<String, CachedResult> projects = builds.get(buildKey);
+            if (projects != null) {
+                projects.remove(projectPath);
+            }
+        }
+    }
+
+    /**
+     * Discards the results of the projects of the given build other than the given projects, for example those that have been removed from the build.
+     */
+    public void retainProjects(String buildKey, Collection<String> projectPaths) {
+        synchronized (lock) {
+            Map<String, CachedResult> projects = builds.get(buildKey);
+            if (projects != null) {
+                projects.keySet().retainAll(projectPaths);
+            }
+        }
+    }
+    private static class CachedResult {
+        private final String inputs;
+        private final Object value;
+        private final Map<File, FileState> files;
+
+        CachedResult(String inputs, Object value, Map<File, FileState> files) {
+            this.inputs = inputs;
+            this.value = value;
+            this.files = files;
+        }
+    }
+
+    private static class FileState {
+        private final boolean exists;
+        private final long length;
+        private final long lastModified;
+
+        FileState(File file) {
+            this.exists = file.exists();
+            this.length = file.length();
+            this.lastModified = file.lastModified();
+        }
+
+        boolean isUpToDate(File file) {
+            return file.exists() == exists && file.length() == length && file.lastModified() == lastModified;
+        }
+    }
+}
@@ -0,0 +1,266 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.plugins.ide.internal.tooling;
+
+import org.gradle.api.Nullable;
+import org.gradle.api.Project;
+import org.gradle.api.artifacts.*;
+import org.gradle.api.artifacts.component.ComponentSelector;
+import org.gradle.api.artifacts.component.ModuleComponentIdentifier;
+import org.gradle.api.artifacts.component.ModuleComponentSelector;
+import org.gradle.api.artifacts.repositories.ArtifactRepository;
+import org.gradle.api.artifacts.repositories.FlatDirectoryArtifactRepository;
+import org.gradle.api.artifacts.repositories.IvyArtifactRepository;
+import org.gradle.api.artifacts.repositories.MavenArtifactRepository;
+import org.gradle.api.artifacts.result.DependencyResult;
+import org.gradle.api.artifacts.result.ResolvedComponentResult;
+import org.gradle.api.artifacts.result.ResolvedDependencyResult;
+import org.gradle.api.initialization.dsl.ScriptHandler;
+import org.gradle.api.internal.artifacts.configurations.ConfigurationInternal;
+import org.gradle.api.internal.artifacts.configurations.ResolutionStrategyInternal;
+import org.gradle.initialization.BaseSettings;
+import org.gradle.internal.hash.HashUtil;
+
+import java.io.File;
+import java.util.*;
+
+/**
+ * Describes the inputs that determine the resolved dependencies of a project: the dependencies declared by the project and by every project it
+ * depends on, their repositories and resolution strategies, the build script classpaths of these projects, and the scripts and buildSrc sources
+ * of the build. Returns null when the resolved dependencies may change without any of these inputs changing, for example when a dynamic version
+ * or a changing module is used.
+ */
+public class IdeModelInputs {
+    private static final Set<String> BUILD_SRC_OUTPUT_DIRS = new HashSet<String>(Arrays.asList("build", ".gradle"));
+
+    private final Set<Project> visited = new HashSet<Project>();
+    private final Set<Project> buildscripts = new HashSet<Project>();
+    private final LinkedList<Project> queue = new LinkedList<Project>();
+    private final StringBuilder inputs = new StringBuilder();
+
+    private IdeModelInputs() {
+    }
+
+    /**
+     * Describes the inputs shared by all projects of the build: the scripts that have run and the buildSrc sources.
+     */
+    @Nullable
+    public static String describeBuild(Project rootProject, AppliedScripts appliedScripts) {
+        String scriptsHash = appliedScripts.getHash();
+        if (scriptsHash == null) {
+            return null;
+        }
+        StringBuilder inputs = new StringBuilder("scripts ").append(scriptsHash).append('\n');
+        File buildSrcDir = new File(rootProject.getRootDir(), BaseSettings.DEFAULT_BUILD_SRC_DIR);
+        File[] files = buildSrcDir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                if (!BUILD_SRC_OUTPUT_DIRS.contains(file.getName())) {
+                    fileState(file, inputs);
+                }
+            }
+        }
+        return HashUtil.createCompactMD5(inputs.toString());
+    }
+
+    @Nullable
+    public static String describe(Project project) {
+        return new IdeModelInputs().visitAll(project);
+    }
+
+    /**
+     * Checks the resolved configurations of the given project, once its dependencies have been resolved. Returns false when the result depends on
+     * something other than the inputs, for example when a module was selected using a dynamic version, a dependency resolve rule or a changing
+     * module, or when a dependency could not be resolved.
+     *
+     * @param changingModules the changing modules, as returned by {@link ChangingModuleDetector#getChangingModules()}
+     */
+    public static boolean isReproducible(Project project, Set<String> changingModules) {
+        for (Configuration configuration : project.getConfigurations()) {
+            if (configuration.getState() != Configuration.State.RESOLVED) {
+                continue;
+            }
+            for (DependencyResult dependency : configuration.getIncoming().getResolutionResult().getAllDependencies()) {
+                ComponentSelector requested = dependency.getRequested();
+                if (requested instanceof ModuleComponentSelector && !isFixedVersion(((ModuleComponentSelector) requested).getVersion())) {
+                    return false;
+                }
+                if (!(dependency instanceof ResolvedDependencyResult)) {
+                    return false;
+                }
+                ResolvedComponentResult selected = ((ResolvedDependencyResult) dependency).getSelected();
+                if (selected.getSelectionReason().isSelectedByRule()) {
+                    return false;
+                }
+                if (selected.getId() instanceof ModuleComponentIdentifier
+                        && (!isFixedVersion(((ModuleComponentIdentifier) selected.getId()).getVersion())
+                        || changingModules.contains(ChangingModuleDetector.key(selected.getModuleVersion())))) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Describes the given configurations, for use in the inputs of a resolver that maps them to the IDE model.
+     */
+    public static String describeConfigurations(@Nullable Collection<Configuration> configurations) {
+        List<String> paths = new ArrayList<String>();
+        if (configurations != null) {
+            for (Configuration configuration : configurations) {
+                paths.add(configuration instanceof ConfigurationInternal ? ((ConfigurationInternal) configuration).getPath() : configuration.getName());
+            }
+        }
+        return paths.toString();
+    }
+
+    @Nullable
+    private String visitAll(Project project) {
+        queue.add(project);
+        visited.add(project);
+        while (!queue.isEmpty()) {
+            if (!visit(queue.removeFirst())) {
+                return null;
+            }
+        }
+        return HashUtil.createCompactMD5(inputs.toString());
+    }
+
+    private boolean visit(Project project) {
+        inputs.append("project ").append(project.getPath()).append('\n');
+        // Plugins and classes from the build script classpath of parent projects may configure their children
+        for (Project p = project; p != null; p = p.getParent()) {
+            buildscriptClasspath(p);
+        }
+        for (ArtifactRepository repository : project.getRepositories()) {
+            repository(repository);
+        }
+        for (Configuration configuration : project.getConfigurations()) {
+            inputs.append("configuration ").append(configuration.getName()).append(' ').append(configuration.isTransitive());
+            for (Configuration superConfiguration : configuration.getExtendsFrom()) {
+                inputs.append(' ').append(superConfiguration.getName());
+            }
+            inputs.append('\n');
+            excludeRules(configuration.getExcludeRules());
+            resolutionStrategy(configuration.getResolutionStrategy());
+            for (Dependency dependency : configuration.getDependencies()) {
+                if (!dependency(dependency)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private boolean dependency(Dependency dependency) {
+        if (dependency instanceof ProjectDependency) {
+            ProjectDependency projectDependency = (ProjectDependency) dependency;
+            Project target = projectDependency.getDependencyProject();
+            inputs.append("project dependency ").append(target.getPath()).append(' ').append(projectDependency.getConfiguration()).append(' ').append(projectDependency.isTransitive()).append('\n');
+            excludeRules(projectDependency.getExcludeRules());
+            if (visited.add(target)) {
+                queue.add(target);
+            }
+            return true;
+        }
+        if (dependency instanceof ExternalModuleDependency) {
+            ExternalModuleDependency moduleDependency = (ExternalModuleDependency) dependency;
+            if (moduleDependency.isChanging() || !isFixedVersion(moduleDependency.getVersion())) {
+                return false;
+            }
+            inputs.append("module dependency ").append(moduleDependency.getGroup()).append(':').append(moduleDependency.getName()).append(':').append(moduleDependency.getVersion())
+                    .append(' ').append(moduleDependency.getConfiguration()).append(' ').append(moduleDependency.isTransitive()).append(' ').append(moduleDependency.isForce()).append('\n');
+            for (DependencyArtifact artifact : moduleDependency.getArtifacts()) {
+                inputs.append("artifact ").append(artifact.getName()).append(' ').append(artifact.getType()).append(' ').append(artifact.getExtension()).append(' ').append(artifact.getClassifier()).append('\n');
+            }
+            excludeRules(moduleDependency.getExcludeRules());
+            return true;
+        }
+        if (dependency instanceof SelfResolvingDependency) {
+            inputs.append("file dependency\n");
+            for (File file : ((SelfResolvingDependency) dependency).resolve()) {
+                inputs.append(file.getAbsolutePath()).append(' ').append(file.length()).append(' ').append(file.lastModified()).append('\n');
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private void repository(ArtifactRepository repository) {
+        inputs.append("repository ").append(repository.getClass().getName()).append(' ').append(repository.getName());
+        if (repository instanceof MavenArtifactRepository) {
+            inputs.append(' ').append(((MavenArtifactRepository) repository).getUrl()).append(' ').append(((MavenArtifactRepository) repository).getArtifactUrls());
+        } else if (repository instanceof IvyArtifactRepository) {
+            inputs.append(' ').append(((IvyArtifactRepository) repository).getUrl());
+        } else if (repository instanceof FlatDirectoryArtifactRepository) {
+            inputs.append(' ').append(((FlatDirectoryArtifactRepository) repository).getDirs());
+        }
+        inputs.append('\n');
+    }
+
+    private void excludeRules(Set<ExcludeRule> excludeRules) {
+        for (ExcludeRule excludeRule : excludeRules) {
+            inputs.append("exclude ").append(excludeRule.getGroup()).append(':').append(excludeRule.getModule()).append('\n');
+        }
+    }
+
+    private void resolutionStrategy(ResolutionStrategy resolutionStrategy) {
+        for (ModuleVersionSelector forcedModule : resolutionStrategy.getForcedModules()) {
+            inputs.append("force ").append(forcedModule.getGroup()).append(':').append(forcedModule.getName()).append(':').append(forcedModule.getVersion()).append('\n');
+        }
+        if (resolutionStrategy instanceof ResolutionStrategyInternal) {
+            // The dependency resolve rules are checked once resolved, as they may select a different module on each run
+            ResolutionStrategyInternal resolutionStrategyInternal = (ResolutionStrategyInternal) resolutionStrategy;
+            inputs.append("conflict resolution ").append(resolutionStrategyInternal.getConflictResolution().getClass().getName())
+                    .append(" component selection rules ").append(resolutionStrategyInternal.getComponentSelection().getRules().size()).append('\n');
+        }
+    }
+
+    private void buildscriptClasspath(Project project) {
+        if (!buildscripts.add(project)) {
+            return;
+        }
+        Configuration classpath = project.getBuildscript().getConfigurations().findByName(ScriptHandler.CLASSPATH_CONFIGURATION);
+        if (classpath == null || classpath.getState() != Configuration.State.RESOLVED) {
+            return;
+        }
+        inputs.append("build script classpath ").append(project.getPath()).append('\n');
+        for (File file : classpath.getFiles()) {
+            fileState(file, inputs);
+        }
+    }
+
+    private static void fileState(File file, StringBuilder inputs) {
+        inputs.append(file.getAbsolutePath()).append(' ').append(file.length()).append(' ').append(file.lastModified()).append('\n');
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                fileState(child, inputs);
+            }
+        }
+    }
+
+    private static boolean isFixedVersion(@Nullable String version) {
+        if (version == null || version.length() == 0) {
+            return false;
+        }
+        return !version.endsWith("+") && !version.startsWith("latest.") && !version.endsWith("-SNAPSHOT")
+                && version.indexOf('[') < 0 && version.indexOf(']') < 0 && version.indexOf('(') < 0 && version.indexOf(')') < 0;
+    }
+}
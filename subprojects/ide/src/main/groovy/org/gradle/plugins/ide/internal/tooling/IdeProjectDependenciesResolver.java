@@ -0,0 +1,170 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.plugins.ide.internal.tooling;
+
+import org.gradle.StartParameter;
+import org.gradle.api.Project;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.concurrent.StoppableExecutor;
+
+import java.io.File;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Resolves the dependencies of the IDE model of each project of a build.
+ *
+ * <p>When parallel project execution is enabled, the projects are resolved concurrently, using at most one worker per parallel thread. When
+ * {@link IdeModelCache#isEnabled()}, the result for a project is reused from a previous build in this process if the inputs of the project, as
+ * described by {@link IdeModelInputs}, are unchanged. A result is only retained when the resolved configurations of the project show that it does not
+ * depend on anything else, such as a dynamic version or a changing module.</p>
+ */
+public class IdeProjectDependenciesResolver {
+    private static final Logger LOGGER = Logging.getLogger(IdeProjectDependenciesResolver.class);
+
+    private final ExecutorFactory executorFactory;
+    private final StartParameter startParameter;
+    private final IdeModelCache cache;
+    private final AppliedScripts appliedScripts;
+    private final ChangingModuleDetector changingModuleDetector;
+
+    public IdeProjectDependenciesResolver(ExecutorFactory executorFactory, StartParameter startParameter, IdeModelCache cache, AppliedScripts appliedScripts,
+                                          ChangingModuleDetector changingModuleDetector) {
+        this.executorFactory = executorFactory;
+        this.startParameter = startParameter;
+        this.cache = cache;
+        this.appliedScripts = appliedScripts;
+        this.changingModuleDetector = changingModuleDetector;
+    }
+
+    /**
+     * Resolves the given projects, returning the results in the order of the projects.
+     */
+    public <T> Map<Project, T> resolveAll(Collection<? extends Project> projects, final ProjectResolver<T> resolver) {
+        final Map<Project, T> results = new ConcurrentHashMap<Project, T>();
+        final Map<Project, String> inputs = new HashMap<Project, String>();
+        final List<Project> unresolved = new ArrayList<Project>();
+        String buildInputs = null;
+        String buildKey = null;
+        if (IdeModelCache.isEnabled() && !projects.isEmpty()) {
+            Project rootProject = projects.iterator().next().getRootProject();
+            buildInputs = IdeModelInputs.describeBuild(rootProject, appliedScripts);
+            buildKey = resolver.getDisplayName() + " " + rootProject.getProjectDir().getAbsolutePath();
+        }
+        for (Project project : projects) {
+            if (buildInputs != null) {
+                String projectInputs = IdeModelInputs.describe(project);
+                if (projectInputs != null) {
+                    projectInputs = buildInputs + " " + projectInputs + " " + resolver.getInputs(project);
+                    inputs.put(project, projectInputs);
+                    Object cached = startParameter.isRefreshDependencies() ? null : cache.get(buildKey, project.getPath(), projectInputs);
+                    if (cached != null) {
+                        LOGGER.info("Reusing {} of {}, as its inputs are unchanged.", resolver.getDisplayName(), project);
+                        @SuppressWarnings("unchecked") T result = (T) cached;
+                        results.put(project, result);
+                        continue;
+                    }
+                }
+            }
+            unresolved.add(project);
+        }
+
+        int workerCount = Math.min(getMaxWorkers(), unresolved.size());
+        if (workerCount <= 1) {
+            for (Project project : unresolved) {
+                results.put(project, resolver.resolve(project));
+            }
+        } else {
+            final AtomicInteger nextProject = new AtomicInteger();
+            StoppableExecutor executor = executorFactory.create("IDE dependency resolver");
+            try {
+                for (int worker = 0; worker < workerCount; worker++) {
+                    executor.execute(new Runnable() {
+                        public void run() {
+                            int i;
+                            while ((i = nextProject.getAndIncrement()) < unresolved.size()) {
+                                Project project = unresolved.get(i);
+                                results.put(project, resolver.resolve(project));
+                            }
+                        }
+                    });
+                }
+            } finally {
+                // Waits for the workers and rethrows the first failure
+                executor.stop();
+            }
+        }
+
+        if (buildKey != null) {
+            Set<String> changingModules = inputs.isEmpty() ? Collections.<String>emptySet() : changingModuleDetector.getChangingModules();
+            List<String> projectPaths = new ArrayList<String>();
+            for (Project project : projects) {
+                projectPaths.add(project.getPath());
+            }
+            cache.retainProjects(buildKey, projectPaths);
+            for (Project project : unresolved) {
+                String projectInputs = inputs.get(project);
+                if (projectInputs != null && IdeModelInputs.isReproducible(project, changingModules)) {
+                    T result = results.get(project);
+                    cache.put(buildKey, project.getPath(), projectInputs, result, resolver.getFiles(result));
+                } else {
+                    cache.remove(buildKey, project.getPath());
+                }
+            }
+        }
+
+        Map<Project, T> orderedResults = new LinkedHashMap<Project, T>();
+        for (Project project : projects) {
+            orderedResults.put(project, results.get(project));
+        }
+        return orderedResults;
+    }
+
+    private int getMaxWorkers() {
+        int parallelThreadCount = startParameter.getParallelThreadCount();
+        if (parallelThreadCount < 0) {
+            return Runtime.getRuntime().availableProcessors();
+        }
+        return Math.max(1, parallelThreadCount);
+    }
+
+    public interface ProjectResolver<T> {
+        /**
+         * Returns a name for the results of this resolver, for example "Eclipse classpath".
+         */
+        String getDisplayName();
+
+        /**
+         * Returns the inputs specific to this resolver, such as the resolution options and the names of the other projects in the build.
+         */
+        String getInputs(Project project);
+
+        /**
+         * Resolves the given project. May be called concurrently for different projects.
+         */
+        T resolve(Project project);
+
+        /**
+         * Returns the files that the given result refers to.
+         */
+        Iterable<File> getFiles(T result);
+    }
+}
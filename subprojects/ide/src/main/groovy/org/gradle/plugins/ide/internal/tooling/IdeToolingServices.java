@@ -0,0 +1,56 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.plugins.ide.internal.tooling;
+
+import org.gradle.internal.service.ServiceRegistration;
+import org.gradle.internal.service.scopes.PluginServiceRegistry;
+import org.gradle.listener.ListenerManager;
+
+public class IdeToolingServices implements PluginServiceRegistry {
+    public void registerGlobalServices(ServiceRegistration registration) {
+        registration.addProvider(new GlobalScopeServices());
+    }
+
+    public void registerBuildServices(ServiceRegistration registration) {
+        registration.addProvider(new BuildScopeServices());
+    }
+
+    public void registerProjectServices(ServiceRegistration registration) {
+    }
+
+    private static class GlobalScopeServices {
+        IdeModelCache createIdeModelCache() {
+            return new IdeModelCache();
+        }
+    }
+
+    private static class BuildScopeServices {
+        void configure(ServiceRegistration registration, ListenerManager listenerManager) {
+            AppliedScripts appliedScripts = new AppliedScripts();
+            if (IdeModelCache.isEnabled()) {
+                // Register before any script runs
+                listenerManager.addListener(appliedScripts);
+            }
+            registration.add(AppliedScripts.class, appliedScripts);
+        }
+
+        ChangingModuleDetector createChangingModuleDetector() {
+            return new ChangingModuleDetector();
+        }
+    }
+}
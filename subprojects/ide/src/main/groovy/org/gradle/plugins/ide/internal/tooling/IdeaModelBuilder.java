@@ -17,6 +17,7 @@
 package org.gradle.plugins.ide.internal.tooling;
 
 import org.gradle.api.Project;
+import org.gradle.api.artifacts.Configuration;
 import org.gradle.plugins.ide.idea.IdeaPlugin;
 import org.gradle.plugins.ide.idea.model.*;
 import org.gradle.plugins.ide.internal.tooling.idea.*;
@@ -30,11 +31,13 @@ import java.util.*;
 
 public class IdeaModelBuilder implements ToolingModelBuilder {
     private final GradleProjectBuilder gradleProjectBuilder;
+    private final IdeProjectDependenciesResolver dependenciesResolver;
 
     private boolean offlineDependencyResolution;
 
-    public IdeaModelBuilder(GradleProjectBuilder gradleProjectBuilder) {
+    public IdeaModelBuilder(GradleProjectBuilder gradleProjectBuilder, IdeProjectDependenciesResolver dependenciesResolver) {
         this.gradleProjectBuilder = gradleProjectBuilder;
+        this.dependenciesResolver = dependenciesResolver;
     }
 
     public boolean canBuild(String modelName) {
@@ -69,17 +72,68 @@ public class IdeaModelBuilder implements ToolingModelBuilder {
         for (IdeaModule module : projectModel.getModules()) {
             appendModule(modules, module, out, rootGradleProject);
         }
+        Map<Project, Set<Dependency>> resolvedDependencies = resolveDependencies(projectModel.getModules());
         for (IdeaModule module : projectModel.getModules()) {
-            buildDependencies(modules, module);
+            buildDependencies(modules, module, resolvedDependencies.get(module.getProject()));
         }
         out.setChildren(new LinkedList<DefaultIdeaModule>(modules.values()));
 
         return out;
     }
 
-    private void buildDependencies(Map<String, DefaultIdeaModule> modules, IdeaModule ideaModule) {
-        ideaModule.setOffline(offlineDependencyResolution);
-        Set<Dependency> resolved = ideaModule.resolveDependencies();
+    private Map<Project, Set<Dependency>> resolveDependencies(List<IdeaModule> ideaModules) {
+        final Map<Project, IdeaModule> modulesByProject = new LinkedHashMap<Project, IdeaModule>();
+        final Set<String> moduleNames = new TreeSet<String>();
+        for (IdeaModule ideaModule : ideaModules) {
+            ideaModule.setOffline(offlineDependencyResolution);
+            modulesByProject.put(ideaModule.getProject(), ideaModule);
+            moduleNames.add(ideaModule.getProject().getPath() + "=" + ideaModule.getName());
+        }
+        return dependenciesResolver.resolveAll(modulesByProject.keySet(), new IdeProjectDependenciesResolver.ProjectResolver<Set<Dependency>>() {
+            public String getDisplayName() {
+                return "IDEA module dependencies";
+            }
+
+            public String getInputs(Project project) {
+                IdeaModule ideaModule = modulesByProject.get(project);
+                StringBuilder inputs = new StringBuilder();
+                inputs.append(String.format("offline=%s sources=%s javadoc=%s modules=%s pathVariables=%s", offlineDependencyResolution, ideaModule.isDownloadSources(),
+                        ideaModule.isDownloadJavadoc(), moduleNames, new TreeMap<String, File>(ideaModule.getPathVariables())));
+                for (Map.Entry<String, Map<String, Collection<Configuration>>> scope : new TreeMap<String, Map<String, Collection<Configuration>>>(ideaModule.getScopes()).entrySet()) {
+                    inputs.append(' ').append(scope.getKey());
+                    for (Map.Entry<String, Collection<Configuration>> configurations : new TreeMap<String, Collection<Configuration>>(scope.getValue()).entrySet()) {
+                        inputs.append(' ').append(configurations.getKey()).append('=').append(IdeModelInputs.describeConfigurations(configurations.getValue()));
+                    }
+                }
+                return inputs.toString();
+            }
+
+            public Set<Dependency> resolve(Project project) {
+                return modulesByProject.get(project).resolveDependencies();
+            }
+
+            public Iterable<File> getFiles(Set<Dependency> dependencies) {
+                List<File> files = new ArrayList<File>();
+                for (Dependency dependency : dependencies) {
+                    if (dependency instanceof SingleEntryModuleLibrary) {
+                        SingleEntryModuleLibrary library = (SingleEntryModuleLibrary) dependency;
+                        addIfNotNull(files, library.getLibraryFile());
+                        addIfNotNull(files, library.getSourceFile());
+                        addIfNotNull(files, library.getJavadocFile());
+                    }
+                }
+                return files;
+            }
+        });
+    }
+
+    private static void addIfNotNull(List<File> files, File file) {
+        if (file != null) {
+            files.add(file);
+        }
+    }
+
+    private void buildDependencies(Map<String, DefaultIdeaModule> modules, IdeaModule ideaModule, Set<Dependency> resolved) {
         List<DefaultIdeaDependency> dependencies = new LinkedList<DefaultIdeaDependency>();
         for (Dependency dependency : resolved) {
             if (dependency instanceof SingleEntryModuleLibrary) {
@@ -16,10 +16,12 @@
 
 package org.gradle.plugins.ide.internal.tooling;
 
+import org.gradle.StartParameter;
 import org.gradle.api.internal.artifacts.ivyservice.projectmodule.ProjectPublicationRegistry;
 import org.gradle.api.internal.project.ProjectInternal;
 import org.gradle.api.internal.project.ProjectTaskLister;
 import org.gradle.configuration.project.ProjectConfigureAction;
+import org.gradle.internal.concurrent.ExecutorFactory;
 import org.gradle.tooling.provider.model.ToolingModelBuilderRegistry;
 
 public class ToolingRegistrationAction implements ProjectConfigureAction {
@@ -27,10 +29,18 @@ public class ToolingRegistrationAction implements ProjectConfigureAction {
         ToolingModelBuilderRegistry modelBuilderRegistry = project.getServices().get(ToolingModelBuilderRegistry.class);
         ProjectPublicationRegistry projectPublicationRegistry = project.getServices().get(ProjectPublicationRegistry.class);
         ProjectTaskLister taskLister = project.getServices().get(ProjectTaskLister.class);
+        ChangingModuleDetector changingModuleDetector = project.getServices().get(ChangingModuleDetector.class);
+        if (IdeModelCache.isEnabled()) {
+            // Register before the build script, so that the metadata of every module resolved by the project is seen
+            project.getDependencies().getComponents().all(changingModuleDetector);
+        }
+        IdeProjectDependenciesResolver dependenciesResolver = new IdeProjectDependenciesResolver(
+                project.getServices().get(ExecutorFactory.class), project.getServices().get(StartParameter.class), project.getServices().get(IdeModelCache.class),
+                project.getServices().get(AppliedScripts.class), changingModuleDetector);
 
         GradleProjectBuilder gradleProjectBuilder  = new GradleProjectBuilder();
-        IdeaModelBuilder ideaModelBuilder = new IdeaModelBuilder(gradleProjectBuilder);
-        modelBuilderRegistry.register(new EclipseModelBuilder(gradleProjectBuilder));
+        IdeaModelBuilder ideaModelBuilder = new IdeaModelBuilder(gradleProjectBuilder, dependenciesResolver);
+        modelBuilderRegistry.register(new EclipseModelBuilder(gradleProjectBuilder, dependenciesResolver));
         modelBuilderRegistry.register(ideaModelBuilder);
         modelBuilderRegistry.register(gradleProjectBuilder);
         modelBuilderRegistry.register(new GradleBuildBuilder());
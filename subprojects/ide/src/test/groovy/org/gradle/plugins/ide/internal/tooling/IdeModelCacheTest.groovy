@@ -0,0 +1,79 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.plugins.ide.internal.tooling
+
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+class IdeModelCacheTest extends Specification {
+    @Rule TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+    def cache = new IdeModelCache()
+    def jar = tmpDir.file("lib.jar") << "content"
+
+    def "retains the results of every project of a build"() {
+        def projectPaths = (1..2000).collect { ":project$it" }
+
+        when:
+        projectPaths.each { cache.put("build", it, "inputs", "result for $it".toString(), [jar]) }
+
+        then:
+        projectPaths.every { cache.get("build", it, "inputs") == "result for $it".toString() }
+    }
+
+    def "does not return result recorded with other inputs or for another build"() {
+        when:
+        cache.put("build", ":a", "inputs", "result", [jar])
+
+        then:
+        cache.get("build", ":a", "other inputs") == null
+        cache.get("other build", ":a", "inputs") == null
+    }
+
+    def "discards result when a file it refers to has changed"() {
+        given:
+        cache.put("build", ":a", "inputs", "result", [jar])
+
+        when:
+        jar << "changed"
+
+        then:
+        cache.get("build", ":a", "inputs") == null
+    }
+
+    def "discards the results of the least recently used build when too many builds are retained"() {
+        when:
+        (1..9).each { cache.put("build$it", ":a", "inputs", "result", [jar]) }
+
+        then:
+        cache.get("build1", ":a", "inputs") == null
+        (2..9).every { cache.get("build$it", ":a", "inputs") == "result" }
+    }
+
+    def "discards the results of projects that are no longer in the build"() {
+        given:
+        cache.put("build", ":a", "inputs", "result a", [jar])
+        cache.put("build", ":b", "inputs", "result b", [jar])
+
+        when:
+        cache.retainProjects("build", [":a"])
+
+        then:
+        cache.get("build", ":a", "inputs") == "result a"
+        cache.get("build", ":b", "inputs") == null
+    }
+}
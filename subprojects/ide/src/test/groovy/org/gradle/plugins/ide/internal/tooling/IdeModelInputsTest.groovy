@@ -0,0 +1,190 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.plugins.ide.internal.tooling
+
+import org.gradle.api.artifacts.ComponentMetadataDetails
+import org.gradle.groovy.scripts.Script
+import org.gradle.groovy.scripts.ScriptSource
+import org.gradle.internal.resource.Resource
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.gradle.util.TestUtil
+import org.junit.Rule
+import spock.lang.Specification
+
+class IdeModelInputsTest extends Specification {
+    @Rule TestNameTestDirectoryProvider tmpDir
+    def root = TestUtil.createRootProject(tmpDir.testDirectory)
+    def child = TestUtil.createChildProject(root, "child")
+    def other = TestUtil.createChildProject(root, "other")
+
+    def setup() {
+        [root, child, other].each { it.configurations.create("compile") }
+        root.file("build.gradle") << "// root"
+        child.repositories.mavenCentral()
+        child.dependencies.add("compile", "org:lib:1.0")
+    }
+
+    def "inputs are unchanged when nothing changes"() {
+        expect:
+        IdeModelInputs.describe(child) == IdeModelInputs.describe(child)
+        IdeModelInputs.describe(child) != IdeModelInputs.describe(other)
+    }
+
+    def "inputs change when a dependency is added"() {
+        def original = IdeModelInputs.describe(child)
+
+        when:
+        child.dependencies.add("compile", "org:other:2.0")
+
+        then:
+        IdeModelInputs.describe(child) != original
+    }
+
+    def "inputs change when a repository is added"() {
+        def original = IdeModelInputs.describe(child)
+
+        when:
+        child.repositories.jcenter()
+
+        then:
+        IdeModelInputs.describe(child) != original
+    }
+
+    def "inputs change when the build script classpath of the project or its parents changes"() {
+        def jar = tmpDir.file("plugin.jar") << "content"
+        root.buildscript.dependencies.add("classpath", root.files(jar))
+        root.buildscript.configurations.classpath.resolve()
+        def original = IdeModelInputs.describe(child)
+
+        when:
+        jar << "more content"
+
+        then:
+        IdeModelInputs.describe(child) != original
+    }
+
+    def "inputs change when the resolution strategy changes"() {
+        def original = IdeModelInputs.describe(child)
+
+        when:
+        child.configurations.compile.resolutionStrategy.failOnVersionConflict()
+
+        then:
+        IdeModelInputs.describe(child) != original
+    }
+
+    def "inputs include the dependencies of project dependencies"() {
+        child.dependencies.add("compile", other)
+        def original = IdeModelInputs.describe(child)
+
+        when:
+        other.dependencies.add("compile", "org:transitive:1.0")
+
+        then:
+        IdeModelInputs.describe(child) != original
+    }
+
+    def "inputs change when a file dependency changes"() {
+        def jar = tmpDir.file("lib.jar") << "content"
+        child.dependencies.add("compile", child.files(jar))
+        def original = IdeModelInputs.describe(child)
+
+        when:
+        jar << "more content"
+
+        then:
+        IdeModelInputs.describe(child) != original
+    }
+
+    def "dependencies whose resolution may change without the build changing are not cacheable"() {
+        when:
+        child.dependencies.add("compile", notation)
+
+        then:
+        IdeModelInputs.describe(child) == null
+
+        where:
+        notation << ["org:dynamic:1.+", "org:range:[1.0,2.0)", "org:latest:latest.release", "org:snapshot:1.0-SNAPSHOT"]
+    }
+
+    def "changing modules are not cacheable"() {
+        when:
+        child.dependencies.add("compile", "org:changing:1.0") { changing = true }
+
+        then:
+        IdeModelInputs.describe(child) == null
+    }
+
+    def "build inputs change when a script of the build changes"() {
+        def appliedScripts = new AppliedScripts()
+        appliedScripts.beforeScript(Stub(Script) {
+            getScriptSource() >> Stub(ScriptSource) {
+                getResource() >> Stub(Resource) {
+                    getFile() >> root.file("build.gradle")
+                }
+            }
+        })
+        def original = IdeModelInputs.describeBuild(root, appliedScripts)
+
+        when:
+        root.file("build.gradle") << "// changed"
+
+        then:
+        IdeModelInputs.describeBuild(root, appliedScripts) != original
+    }
+
+    def "result is reproducible when only fixed versions are selected"() {
+        child.dependencies.add("compile", other)
+        child.configurations.compile.incoming.resolutionResult
+
+        expect:
+        IdeModelInputs.isReproducible(child, [] as Set)
+    }
+
+    def "result is not reproducible when a dependency could not be resolved"() {
+        child.repositories.clear()
+        child.configurations.compile.incoming.resolutionResult
+
+        expect:
+        !IdeModelInputs.isReproducible(child, [] as Set)
+    }
+
+    def "result is not reproducible when a changing module is selected"() {
+        def repo = tmpDir.createDir("repo")
+        repo.file("org/lib/1.0/lib-1.0.pom") << """<project>
+    <modelVersion>4.0.0</modelVersion>
+    <groupId>org</groupId>
+    <artifactId>lib</artifactId>
+    <version>1.0</version>
+</project>"""
+        repo.file("org/lib/1.0/lib-1.0.jar") << "content"
+        child.repositories.clear()
+        child.repositories.maven { url repo.toURI() }
+        def detector = new ChangingModuleDetector()
+        child.dependencies.components.all(detector)
+        child.dependencies.components.all { ComponentMetadataDetails details -> details.changing = true }
+
+        when:
+        child.configurations.compile.incoming.resolutionResult
+
+        then:
+        detector.changingModules == ["org:lib:1.0"] as Set
+        !IdeModelInputs.isReproducible(child, detector.changingModules)
+        IdeModelInputs.isReproducible(child, [] as Set)
+    }
+}
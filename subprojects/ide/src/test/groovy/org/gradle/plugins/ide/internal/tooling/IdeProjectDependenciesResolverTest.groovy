@@ -0,0 +1,240 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.plugins.ide.internal.tooling
+
+import org.gradle.StartParameter
+import org.gradle.api.Project
+import org.gradle.groovy.scripts.Script
+import org.gradle.groovy.scripts.ScriptSource
+import org.gradle.internal.concurrent.DefaultExecutorFactory
+import org.gradle.internal.resource.Resource
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.gradle.util.SetSystemProperties
+import org.gradle.util.TestUtil
+import org.junit.Rule
+import spock.lang.Specification
+
+import java.util.concurrent.CyclicBarrier
+import java.util.concurrent.TimeUnit
+
+class IdeProjectDependenciesResolverTest extends Specification {
+    @Rule TestNameTestDirectoryProvider tmpDir
+    @Rule SetSystemProperties systemProperties = new SetSystemProperties((IdeModelCache.ENABLED_PROPERTY): "true")
+    def executorFactory = new DefaultExecutorFactory()
+    def startParameter = new StartParameter()
+    def cache = new IdeModelCache()
+    def appliedScripts = new AppliedScripts()
+    def resolver = new IdeProjectDependenciesResolver(executorFactory, startParameter, cache, appliedScripts, new ChangingModuleDetector())
+    def root = TestUtil.createRootProject(tmpDir.testDirectory)
+    def projects = [root, TestUtil.createChildProject(root, "a"), TestUtil.createChildProject(root, "b")]
+    def jar = tmpDir.file("lib.jar") << "content"
+
+    def cleanup() {
+        executorFactory.stop()
+    }
+
+    def "resolves each project and returns results in project order"() {
+        def projectResolver = new TestProjectResolver(files: [jar])
+
+        when:
+        def results = resolver.resolveAll(projects, projectResolver)
+
+        then:
+        results.keySet() as List == projects
+        results.values() as List == projects.collect { "result for $it.path".toString() }
+        projectResolver.resolved.sort() == projects*.path.sort()
+    }
+
+    def "resolves projects concurrently when parallel execution is enabled"() {
+        def barrier = new CyclicBarrier(projects.size())
+        def projectResolver = new TestProjectResolver(files: [jar], onResolve: { barrier.await(20, TimeUnit.SECONDS) })
+        startParameter.parallelThreadCount = projects.size()
+
+        when:
+        def results = resolver.resolveAll(projects, projectResolver)
+
+        then:
+        results.size() == projects.size()
+        projectResolver.resolved.size() == projects.size()
+    }
+
+    def "propagates resolution failure"() {
+        def failure = new RuntimeException("broken")
+        def projectResolver = new TestProjectResolver(files: [jar], onResolve: { throw failure })
+        startParameter.parallelThreadCount = parallelThreadCount
+
+        when:
+        resolver.resolveAll(projects, projectResolver)
+
+        then:
+        RuntimeException e = thrown()
+        e == failure
+
+        where:
+        parallelThreadCount << [0, 2]
+    }
+
+    def "reuses results from previous build when inputs are unchanged"() {
+        def first = new TestProjectResolver(files: [jar])
+        def second = new TestProjectResolver(files: [jar])
+
+        when:
+        resolver.resolveAll(projects, first)
+        def results = resolver.resolveAll(projects, second)
+
+        then:
+        first.resolved.size() == projects.size()
+        second.resolved.empty
+        results.values() as List == projects.collect { "result for $it.path".toString() }
+    }
+
+    def "resolves again when inputs have changed"() {
+        def first = new TestProjectResolver(files: [jar])
+        def second = new TestProjectResolver(files: [jar], inputs: "changed")
+
+        when:
+        resolver.resolveAll(projects, first)
+        resolver.resolveAll(projects, second)
+
+        then:
+        second.resolved.size() == projects.size()
+    }
+
+    def "resolves again when a file referenced by the previous result has changed"() {
+        def first = new TestProjectResolver(files: [jar])
+        def second = new TestProjectResolver(files: [jar])
+
+        when:
+        resolver.resolveAll(projects, first)
+        jar << "changed"
+        resolver.resolveAll(projects, second)
+
+        then:
+        second.resolved.size() == projects.size()
+    }
+
+    def "resolves again when a script of the build has changed"() {
+        def buildFile = tmpDir.file("build.gradle") << "// original"
+        appliedScripts.beforeScript(script(buildFile))
+        def first = new TestProjectResolver(files: [jar])
+        def second = new TestProjectResolver(files: [jar])
+
+        when:
+        resolver.resolveAll(projects, first)
+        buildFile << "// changed"
+        resolver.resolveAll(projects, second)
+
+        then:
+        second.resolved.size() == projects.size()
+    }
+
+    def "resolves again when the buildSrc sources have changed"() {
+        def source = tmpDir.file("buildSrc/src/main/groovy/Plugin.groovy") << "class Plugin {}"
+        def first = new TestProjectResolver(files: [jar])
+        def second = new TestProjectResolver(files: [jar])
+
+        when:
+        resolver.resolveAll(projects, first)
+        source << "// changed"
+        resolver.resolveAll(projects, second)
+
+        then:
+        second.resolved.size() == projects.size()
+    }
+
+    def "does not reuse results when a script was loaded from a remote location"() {
+        def first = new TestProjectResolver(files: [jar])
+        def second = new TestProjectResolver(files: [jar])
+        def remoteScript = Stub(Script) {
+            getScriptSource() >> Stub(ScriptSource) {
+                getResource() >> Stub(Resource) {
+                    getURI() >> new URI("http://localhost/script.gradle")
+                }
+            }
+        }
+
+        when:
+        appliedScripts.beforeScript(remoteScript)
+        resolver.resolveAll(projects, first)
+        resolver.resolveAll(projects, second)
+
+        then:
+        second.resolved.size() == projects.size()
+    }
+
+    def "resolves again when dependencies are refreshed"() {
+        def first = new TestProjectResolver(files: [jar])
+        def second = new TestProjectResolver(files: [jar])
+
+        when:
+        resolver.resolveAll(projects, first)
+        startParameter.refreshDependencies = true
+        resolver.resolveAll(projects, second)
+
+        then:
+        second.resolved.size() == projects.size()
+    }
+
+    def "does not reuse results when cache is not enabled"() {
+        def first = new TestProjectResolver(files: [jar])
+        def second = new TestProjectResolver(files: [jar])
+
+        when:
+        System.clearProperty(IdeModelCache.ENABLED_PROPERTY)
+        resolver.resolveAll(projects, first)
+        resolver.resolveAll(projects, second)
+
+        then:
+        second.resolved.size() == projects.size()
+    }
+
+    private Script script(File file) {
+        return Stub(Script) {
+            getScriptSource() >> Stub(ScriptSource) {
+                getResource() >> Stub(Resource) {
+                    getFile() >> file
+                }
+            }
+        }
+    }
+}
+
+class TestProjectResolver implements IdeProjectDependenciesResolver.ProjectResolver<String> {
+    final List<String> resolved = Collections.synchronizedList([])
+    String inputs = "inputs"
+    List<File> files = []
+    Closure onResolve = {}
+
+    String getDisplayName() {
+        return "test results"
+    }
+
+    String getInputs(Project project) {
+        return inputs
+    }
+
+    String resolve(Project project) {
+        onResolve.call()
+        resolved << project.path
+        return "result for $project.path".toString()
+    }
+
+    Iterable<File> getFiles(String result) {
+        return files
+    }
+}
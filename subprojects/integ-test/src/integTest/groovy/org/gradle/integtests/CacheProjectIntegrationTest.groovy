@@ -38,8 +38,8 @@ public class CacheProjectIntegrationTest extends AbstractIntegrationTest {
     TestFile projectDir
     TestFile userHomeDir
     TestFile buildFile
-    TestFile propertiesFile
-    TestFile classFile
+    TestFile scriptCacheDir
+    String scriptClassName
     TestFile artifactsCache
 
     MavenHttpRepository repo
@@ -55,8 +55,8 @@ public class CacheProjectIntegrationTest extends AbstractIntegrationTest {
         userHomeDir = executer.gradleUserHomeDir
         buildFile = projectDir.file('build.gradle')
         ScriptSource source = new UriScriptSource("build file", buildFile)
-        propertiesFile = userHomeDir.file("caches/$version/scripts/$source.className/ProjectScript/no_buildscript/cache.properties")
-        classFile = userHomeDir.file("caches/$version/scripts/$source.className/ProjectScript/no_buildscript/classes/${source.className}.class")
+        scriptCacheDir = userHomeDir.file("caches/$version/scripts")
+        scriptClassName = source.className
         artifactsCache = projectDir.file(".gradle/$version/taskArtifacts/taskArtifacts.bin")
 
         repo = new MavenHttpRepository(server, mavenRepo)
@@ -71,18 +71,22 @@ public class CacheProjectIntegrationTest extends AbstractIntegrationTest {
     public void "caches compiled build script"() {
         createLargeBuildScript()
         testBuild("hello1", "Hello 1")
+        TestFile classFile = findClassFile()
         TestFile.Snapshot classFileSnapshot = classFile.snapshot()
 
         testBuild("hello2", "Hello 2")
-        classFile.assertHasNotChangedSince(classFileSnapshot)
+        findClassFile().assertHasNotChangedSince(classFileSnapshot)
 
         modifyLargeBuildScript()
         testBuild("newTask", "I am new")
-        classFile.assertHasChangedSince(classFileSnapshot)
+        assert findClassFile() != classFile
+        classFile = findClassFile()
         classFileSnapshot = classFile.snapshot()
 
+        // Recompiled classes are written to a new location, leaving the classes that other builds may be using in place
         testBuild("newTask", "I am new", "--recompile-scripts")
-        classFile.assertHasChangedSince(classFileSnapshot)
+        assert findClassFile() != classFile
+        classFile.assertHasNotChangedSince(classFileSnapshot)
     }
 
     @Test
@@ -136,11 +140,22 @@ public class CacheProjectIntegrationTest extends AbstractIntegrationTest {
     private def testBuild(String taskName, String expected, String... args) {
         executer.inDirectory(projectDir).withTasks(taskName).withArguments(args).run()
         assertEquals(expected, projectDir.file(TEST_FILE).text)
-        classFile.assertIsFile()
-        propertiesFile.assertIsFile()
+        findClassFile().assertIsFile()
         artifactsCache.assertIsFile()
     }
 
+    // Script classes are cached by the content of the script, so locate the most recently written class for the build script
+    private TestFile findClassFile() {
+        List<File> classFiles = []
+        scriptCacheDir.eachFileRecurse { File file ->
+            if (file.name == "${scriptClassName}.class") {
+                classFiles << file
+            }
+        }
+        assert !classFiles.empty
+        return new TestFile(classFiles.max { it.lastModified() })
+    }
+
     // We once ran into a cache problem under windows, which was not reproducible with small build scripts. Therefore we
     // create a larger one here.
 
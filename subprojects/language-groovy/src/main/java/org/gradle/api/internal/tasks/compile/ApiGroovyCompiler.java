@@ -31,15 +31,12 @@ import org.gradle.api.GradleException;
 import org.gradle.api.internal.tasks.SimpleWorkResult;
 import org.gradle.api.specs.Spec;
 import org.gradle.api.tasks.WorkResult;
-import org.gradle.internal.classloader.FilteringClassLoader;
-import org.gradle.internal.classpath.DefaultClassPath;
 import org.gradle.language.base.internal.compile.Compiler;
 import org.gradle.util.VersionNumber;
 
 import java.io.File;
 import java.io.Serializable;
 import java.lang.reflect.Method;
-import java.net.URLClassLoader;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -69,31 +66,21 @@ public class ApiGroovyCompiler implements org.gradle.language.base.internal.comp
         jointCompilationOptions.put("keepStubs", spec.getGroovyCompileOptions().isKeepStubs());
         configuration.setJointCompilationOptions(jointCompilationOptions);
 
-        URLClassLoader classPathLoader = new GroovyCompileTransformingClassLoader(new DefaultClassPath(spec.getClasspath()));
-        GroovyClassLoader compileClasspathClassLoader = new GroovyClassLoader(classPathLoader, null);
-
-        FilteringClassLoader groovyCompilerClassLoader = new FilteringClassLoader(GroovyClassLoader.class.getClassLoader());
-        groovyCompilerClassLoader.allowPackage("org.codehaus.groovy");
-        groovyCompilerClassLoader.allowPackage("groovy");
-        // Disallow classes from Groovy Jar that reference external classes. Such classes must be loaded from astTransformClassLoader,
-        // or a NoClassDefFoundError will occur. Essentially this is drawing a line between the Groovy compiler and the Groovy
-        // library, albeit only for selected classes that run a high risk of being statically referenced from a transform.
-        groovyCompilerClassLoader.disallowClass("groovy.util.GroovyTestCase");
-        groovyCompilerClassLoader.disallowClass("groovy.servlet.GroovyServlet");
-
-        // AST transforms need their own class loader that shares compiler classes with the compiler itself
-        final GroovyClassLoader astTransformClassLoader = new GroovyClassLoader(groovyCompilerClassLoader, null);
-        // can't delegate to compileClasspathLoader because this would result in ASTTransformation interface
-        // (which is implemented by the transform class) being loaded by compileClasspathClassLoader (which is
-        // where the transform class is loaded from)
-        for (File file : spec.getClasspath()) {
-            astTransformClassLoader.addClasspath(file.getPath());
+        final GroovyCompileClassLoaderPool.CompileClassLoaders classLoaders = GroovyCompileClassLoaderPool.getInstance().acquire(spec.getClasspath());
+        try {
+            compile(spec, configuration, classLoaders);
+        } finally {
+            GroovyCompileClassLoaderPool.getInstance().release(classLoaders);
         }
 
-        JavaAwareCompilationUnit unit = new JavaAwareCompilationUnit(configuration, compileClasspathClassLoader) {
+        return new SimpleWorkResult(true);
+    }
+
+    private void compile(final GroovyJavaJointCompileSpec spec, CompilerConfiguration configuration, final GroovyCompileClassLoaderPool.CompileClassLoaders classLoaders) {
+        JavaAwareCompilationUnit unit = new JavaAwareCompilationUnit(configuration, classLoaders.compileClasspathClassLoader) {
             @Override
             public GroovyClassLoader getTransformLoader() {
-                return astTransformClassLoader;
+                return classLoaders.astTransformClassLoader;
             }
         };
         unit.addSources(Iterables.toArray(spec.getSource(), File.class));
@@ -124,8 +111,6 @@ public class ApiGroovyCompiler implements org.gradle.language.base.internal.comp
             System.err.println(e.getMessage());
             throw new CompilationFailedException();
         }
-
-        return new SimpleWorkResult(true);
     }
 
     private void applyConfigurationScript(File configScript, CompilerConfiguration configuration) {
@@ -0,0 +1,183 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.compile;
+
+import groovy.lang.GroovyClassLoader;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.internal.classloader.FilteringClassLoader;
+import org.gradle.internal.classpath.DefaultClassPath;
+import org.gradle.internal.concurrent.CompositeStoppable;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * Keeps the class loaders used by the Groovy compiler warm between compilations in the same process, so that the compile classpath
+ * and the AST transforms found on it are loaded once per compiler daemon rather than once per compile task. Each set of class loaders is
+ * used by one compilation at a time.
+ *
+ * <p>Class loaders are only kept for a compile classpath made up entirely of jars, and are discarded as soon as one of those jars
+ * changes. A classpath that contains a directory is never reused, as the classes in the directory may change between compilations.
+ * Class loaders that are discarded are stopped, so that they do not keep the jars open.</p>
+ */
+class GroovyCompileClassLoaderPool {
+    private static final Logger LOGGER = Logging.getLogger(GroovyCompileClassLoaderPool.class);
+    private static final GroovyCompileClassLoaderPool INSTANCE = new GroovyCompileClassLoaderPool();
+    private static final int MAX_IDLE_CLASS_LOADERS = 4;
+
+    private final Object lock = new Object();
+    private final LinkedList<CompileClassLoaders> idle = new LinkedList<CompileClassLoaders>();
+    private int compilations;
+    private int reused;
+
+    public static GroovyCompileClassLoaderPool getInstance() {
+        return INSTANCE;
+    }
+
+    public CompileClassLoaders acquire(Iterable<File> classpath) {
+        List<File> files = new ArrayList<File>();
+        for (File file : classpath) {
+            files.add(file);
+        }
+        CompileClassLoaders stale = null;
+        synchronized (lock) {
+            compilations++;
+            for (Iterator<CompileClassLoaders> iterator = idle.iterator(); iterator.hasNext();) {
+                CompileClassLoaders candidate = iterator.next();
+                if (candidate.classpath.equals(files)) {
+                    iterator.remove();
+                    if (candidate.isUpToDate()) {
+                        reused++;
+                        LOGGER.info("Reusing Groovy compiler class loaders ({} of {} compilations in this process reused class loaders).", reused, compilations);
+                        return candidate;
+                    }
+                    stale = candidate;
+                    break;
+                }
+            }
+        }
+        if (stale != null) {
+            stale.stop();
+        }
+        return new CompileClassLoaders(files);
+    }
+
+    public void release(CompileClassLoaders classLoaders) {
+        if (!classLoaders.isReusable()) {
+            classLoaders.stop();
+            return;
+        }
+        CompileClassLoaders evicted = null;
+        synchronized (lock) {
+            idle.addFirst(classLoaders);
+            if (idle.size() > MAX_IDLE_CLASS_LOADERS) {
+                evicted = idle.removeLast();
+            }
+        }
+        if (evicted != null) {
+            evicted.stop();
+        }
+    }
+
+    static class CompileClassLoaders {
+        private final List<File> classpath;
+        private final List<FileState> jarStates = new ArrayList<FileState>();
+        private final boolean reusable;
+        private final GroovyCompileTransformingClassLoader transformingClassLoader;
+        private boolean stopped;
+        final GroovyClassLoader compileClasspathClassLoader;
+        final GroovyClassLoader astTransformClassLoader;
+
+        CompileClassLoaders(List<File> classpath) {
+            this.classpath = classpath;
+            boolean allJars = true;
+            for (File file : classpath) {
+                if (file.isDirectory()) {
+                    allJars = false;
+                }
+                jarStates.add(new FileState(file));
+            }
+            this.reusable = allJars;
+
+            transformingClassLoader = new GroovyCompileTransformingClassLoader(new DefaultClassPath(classpath));
+            compileClasspathClassLoader = new GroovyClassLoader(transformingClassLoader, null);
+
+            FilteringClassLoader groovyCompilerClassLoader = new FilteringClassLoader(GroovyClassLoader.class.getClassLoader());
+            groovyCompilerClassLoader.allowPackage("org.codehaus.groovy");
+            groovyCompilerClassLoader.allowPackage("groovy");
+            // Disallow classes from Groovy Jar that reference external classes. Such classes must be loaded from astTransformClassLoader,
+            // or a NoClassDefFoundError will occur. Essentially this is drawing a line between the Groovy compiler and the Groovy
+            // library, albeit only for selected classes that run a high risk of being statically referenced from a transform.
+            groovyCompilerClassLoader.disallowClass("groovy.util.GroovyTestCase");
+            groovyCompilerClassLoader.disallowClass("groovy.servlet.GroovyServlet");
+
+            // AST transforms need their own class loader that shares compiler classes with the compiler itself
+            astTransformClassLoader = new GroovyClassLoader(groovyCompilerClassLoader, null);
+            // can't delegate to compileClasspathLoader because this would result in ASTTransformation interface
+            // (which is implemented by the transform class) being loaded by compileClasspathClassLoader (which is
+            // where the transform class is loaded from)
+            for (File file : classpath) {
+                astTransformClassLoader.addClasspath(file.getPath());
+            }
+        }
+
+        boolean isReusable() {
+            return reusable;
+        }
+
+        boolean isUpToDate() {
+            for (int i = 0; i < classpath.size(); i++) {
+                if (!jarStates.get(i).isUpToDate(classpath.get(i))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        boolean isStopped() {
+            return stopped;
+        }
+
+        /**
+         * Closes the class loaders, where the JVM supports it, releasing the jars they hold open.
+         */
+        void stop() {
+            stopped = true;
+            CompositeStoppable.stoppable(astTransformClassLoader, compileClasspathClassLoader, transformingClassLoader).stop();
+        }
+    }
+
+    private static class FileState {
+        private final boolean exists;
+        private final long length;
+        private final long lastModified;
+
+        FileState(File file) {
+            this.exists = file.isFile();
+            this.length = file.length();
+            this.lastModified = file.lastModified();
+        }
+
+        boolean isUpToDate(File file) {
+            return file.isFile() == exists && file.length() == length && file.lastModified() == lastModified;
+        }
+    }
+}
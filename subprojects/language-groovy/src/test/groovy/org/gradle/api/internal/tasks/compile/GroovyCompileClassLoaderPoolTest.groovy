@@ -0,0 +1,89 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.compile
+
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+class GroovyCompileClassLoaderPoolTest extends Specification {
+    @Rule TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+    def pool = new GroovyCompileClassLoaderPool()
+
+    def "reuses class loaders for the same classpath of jars"() {
+        def classpath = [tmpDir.createFile("a.jar"), tmpDir.createFile("b.jar")]
+
+        when:
+        def first = pool.acquire(classpath)
+        pool.release(first)
+        def second = pool.acquire(classpath)
+
+        then:
+        second.is(first)
+    }
+
+    def "does not reuse class loaders for a different classpath"() {
+        def first = pool.acquire([tmpDir.createFile("a.jar")])
+        pool.release(first)
+
+        expect:
+        !pool.acquire([tmpDir.createFile("b.jar")]).is(first)
+    }
+
+    def "does not reuse class loaders that are in use"() {
+        def classpath = [tmpDir.createFile("a.jar")]
+
+        expect:
+        !pool.acquire(classpath).is(pool.acquire(classpath))
+    }
+
+    def "does not reuse class loaders when a jar has changed"() {
+        def jar = tmpDir.createFile("a.jar")
+
+        when:
+        def first = pool.acquire([jar])
+        pool.release(first)
+        jar.text = "changed"
+
+        then:
+        !pool.acquire([jar]).is(first)
+        first.stopped
+    }
+
+    def "does not reuse class loaders for a classpath containing a directory"() {
+        def classpath = [tmpDir.createFile("a.jar"), tmpDir.createDir("classes")]
+
+        when:
+        def first = pool.acquire(classpath)
+        pool.release(first)
+
+        then:
+        first.stopped
+        !pool.acquire(classpath).is(first)
+    }
+
+    def "stops least recently used class loaders when too many are idle"() {
+        def classLoaders = (1..5).collect { pool.acquire([tmpDir.createFile("${it}.jar")]) }
+
+        when:
+        classLoaders.each { pool.release(it) }
+
+        then:
+        classLoaders[0].stopped
+        classLoaders[1..4].every { !it.stopped }
+    }
+}
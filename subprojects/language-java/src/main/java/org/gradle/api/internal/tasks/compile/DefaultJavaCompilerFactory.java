@@ -24,10 +24,12 @@ import java.io.File;
 public class DefaultJavaCompilerFactory implements JavaCompilerFactory {
     private final File daemonWorkingDir;
     private final CompilerDaemonFactory compilerDaemonFactory;
+    private final JavaFileManagerPool fileManagerPool;
 
-    public DefaultJavaCompilerFactory(File daemonWorkingDir, CompilerDaemonFactory compilerDaemonFactory) {
+    public DefaultJavaCompilerFactory(File daemonWorkingDir, CompilerDaemonFactory compilerDaemonFactory, JavaFileManagerPool fileManagerPool) {
         this.daemonWorkingDir = daemonWorkingDir;
         this.compilerDaemonFactory = compilerDaemonFactory;
+        this.fileManagerPool = fileManagerPool;
     }
 
     public Compiler<JavaCompileSpec> createForJointCompilation(CompileOptions options) {
@@ -44,11 +46,10 @@ public class DefaultJavaCompilerFactory implements JavaCompilerFactory {
             return new CommandLineJavaCompiler();
         }
 
-        Compiler<JavaCompileSpec> compiler = new JdkJavaCompiler();
         if (options.isFork() && !jointCompilation) {
-            return new DaemonJavaCompiler(daemonWorkingDir, compiler, compilerDaemonFactory);
+            return new DaemonJavaCompiler(daemonWorkingDir, new JdkJavaCompiler(), compilerDaemonFactory);
         }
 
-        return compiler;
+        return new JdkJavaCompiler(fileManagerPool);
     }
 }
@@ -0,0 +1,209 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.compile;
+
+import org.gradle.api.Nullable;
+import org.gradle.api.Transformer;
+import org.gradle.internal.concurrent.Stoppable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.tools.JavaCompiler;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.StandardLocation;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.*;
+
+/**
+ * Keeps javac file managers alive between the compilations of a build, so that the jars on the compile classpath are opened and indexed once
+ * rather than once per compile task. Each file manager is used by one compilation at a time. The pool is stopped at the end of the build, so
+ * that the jars are not held open, and locked on Windows, between builds.
+ *
+ * <p>A file manager is discarded when a jar on the classpath of the next compilation has changed since the file manager last saw it, as
+ * the file manager may hold a stale index of that jar.</p>
+ *
+ * <p>Javac hands the options that define the platform classpath to the file manager, which keeps them for its lifetime. So a file manager is
+ * only reused by compilations with the same platform classpath options.</p>
+ */
+public class JavaFileManagerPool implements Stoppable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(JavaFileManagerPool.class);
+    private static final int MAX_IDLE_FILE_MANAGERS = 4;
+    private static final List<String> PLATFORM_PATH_OPTIONS = Arrays.asList("-bootclasspath", "-extdirs", "-endorseddirs");
+    private static final List<String> PLATFORM_PATH_OPTION_PREFIXES = Arrays.asList("-Xbootclasspath", "-Djava.ext.dirs=", "-Djava.endorsed.dirs=");
+    private static final StandardLocation[] RESET_LOCATIONS = {
+        StandardLocation.CLASS_PATH, StandardLocation.SOURCE_PATH, StandardLocation.CLASS_OUTPUT, StandardLocation.SOURCE_OUTPUT,
+        StandardLocation.ANNOTATION_PROCESSOR_PATH, StandardLocation.PLATFORM_CLASS_PATH
+    };
+
+    private final Object lock = new Object();
+    private final LinkedList<PooledFileManager> idle = new LinkedList<PooledFileManager>();
+
+    /**
+     * Runs the given compilation with a pooled file manager. The file manager is returned to the pool only when the compilation succeeds.
+     */
+    public boolean withFileManager(JavaCompiler compiler, @Nullable Charset charset, @Nullable Iterable<File> classpath, List<String> options, Transformer<Boolean, ? super StandardJavaFileManager> compilation) {
+        PooledFileManager fileManager = acquire(compiler, charset, classpath, options);
+        boolean success = false;
+        try {
+            success = compilation.transform(fileManager.fileManager);
+            return success;
+        } finally {
+            if (success) {
+                release(fileManager);
+            } else {
+                fileManager.close();
+            }
+        }
+    }
+
+    private PooledFileManager acquire(JavaCompiler compiler, @Nullable Charset charset, @Nullable Iterable<File> classpath, List<String> options) {
+        String key = compiler.getClass().getName() + ":" + (charset == null ? "" : charset.name()) + ":" + platformPathOptions(options);
+        PooledFileManager fileManager = null;
+        synchronized (lock) {
+            for (Iterator<PooledFileManager> iterator = idle.iterator(); iterator.hasNext();) {
+                PooledFileManager candidate = iterator.next();
+                if (candidate.key.equals(key)) {
+                    iterator.remove();
+                    fileManager = candidate;
+                    break;
+                }
+            }
+        }
+
+        if (fileManager != null && !fileManager.isUpToDate(classpath)) {
+            LOGGER.debug("Discarding Java file manager, as the compile classpath has changed.");
+            fileManager.close();
+            fileManager = null;
+        }
+        if (fileManager == null) {
+            fileManager = new PooledFileManager(key, compiler.getStandardFileManager(null, null, charset));
+        }
+        fileManager.recordState(classpath);
+        return fileManager;
+    }
+
+    private static List<String> platformPathOptions(List<String> options) {
+        List<String> platformPathOptions = new ArrayList<String>();
+        for (Iterator<String> iterator = options.iterator(); iterator.hasNext();) {
+            String option = iterator.next();
+            if (PLATFORM_PATH_OPTIONS.contains(option)) {
+                platformPathOptions.add(option);
+                if (iterator.hasNext()) {
+                    platformPathOptions.add(iterator.next());
+                }
+            } else {
+                for (String prefix : PLATFORM_PATH_OPTION_PREFIXES) {
+                    if (option.startsWith(prefix)) {
+                        platformPathOptions.add(option);
+                        break;
+                    }
+                }
+            }
+        }
+        return platformPathOptions;
+    }
+
+    private void release(PooledFileManager fileManager) {
+        // Reset the locations, so that the next compilation does not inherit the paths of this one
+        try {
+            for (StandardLocation location : RESET_LOCATIONS) {
+                fileManager.fileManager.setLocation(location, null);
+            }
+        } catch (IOException e) {
+            fileManager.close();
+            return;
+        }
+
+        synchronized (lock) {
+            if (idle.size() < MAX_IDLE_FILE_MANAGERS) {
+                idle.add(fileManager);
+                return;
+            }
+        }
+        fileManager.close();
+    }
+
+    public void stop() {
+        List<PooledFileManager> fileManagers;
+        synchronized (lock) {
+            fileManagers = new ArrayList<PooledFileManager>(idle);
+            idle.clear();
+        }
+        for (PooledFileManager fileManager : fileManagers) {
+            fileManager.close();
+        }
+    }
+
+    private static class PooledFileManager {
+        private final String key;
+        private final StandardJavaFileManager fileManager;
+        private final Map<File, FileState> jars = new HashMap<File, FileState>();
+
+        PooledFileManager(String key, StandardJavaFileManager fileManager) {
+            this.key = key;
+            this.fileManager = fileManager;
+        }
+
+        boolean isUpToDate(@Nullable Iterable<File> classpath) {
+            if (classpath == null) {
+                return true;
+            }
+            for (File file : classpath) {
+                FileState state = jars.get(file);
+                if (state != null && !state.isUpToDate(file)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        void recordState(@Nullable Iterable<File> classpath) {
+            if (classpath == null) {
+                return;
+            }
+            for (File file : classpath) {
+                if (file.isFile()) {
+                    jars.put(file, new FileState(file));
+                }
+            }
+        }
+
+        void close() {
+            try {
+                fileManager.close();
+            } catch (IOException e) {
+                LOGGER.debug("Could not close Java file manager.", e);
+            }
+        }
+    }
+
+    private static class FileState {
+        private final long length;
+        private final long lastModified;
+
+        FileState(File file) {
+            this.length = file.length();
+            this.lastModified = file.lastModified();
+        }
+
+        boolean isUpToDate(File file) {
+            return file.isFile() && file.length() == length && file.lastModified() == lastModified;
+        }
+    }
+}
@@ -15,6 +15,8 @@
  */
 package org.gradle.api.internal.tasks.compile;
 
+import org.gradle.api.Nullable;
+import org.gradle.api.Transformer;
 import org.gradle.api.internal.tasks.SimpleWorkResult;
 import org.gradle.language.base.internal.compile.Compiler;
 import org.gradle.api.tasks.WorkResult;
@@ -35,11 +37,38 @@ import java.util.List;
 public class JdkJavaCompiler implements Compiler<JavaCompileSpec>, Serializable {
     private static final Logger LOGGER = LoggerFactory.getLogger(JdkJavaCompiler.class);
 
-    public WorkResult execute(JavaCompileSpec spec) {
+    // Not available when running in a compiler daemon
+    private final transient JavaFileManagerPool fileManagerPool;
+
+    public JdkJavaCompiler() {
+        this(null);
+    }
+
+    public JdkJavaCompiler(@Nullable JavaFileManagerPool fileManagerPool) {
+        this.fileManagerPool = fileManagerPool;
+    }
+
+    public WorkResult execute(final JavaCompileSpec spec) {
         LOGGER.info("Compiling with JDK Java compiler API.");
 
-        JavaCompiler.CompilationTask task = createCompileTask(spec);
-        boolean success = task.call();
+        final JavaCompiler compiler = findCompiler();
+        if(compiler==null){
+            throw new RuntimeException("Cannot find System Java Compiler. Ensure that you have installed a JDK (not just a JRE) and configured your JAVA_HOME system variable to point to the according directory.");
+        }
+        CompileOptions compileOptions = spec.getCompileOptions();
+        Charset charset = compileOptions.getEncoding() != null ? Charset.forName(compileOptions.getEncoding()) : null;
+
+        final List<String> options = new JavaCompilerArgumentsBuilder(spec).build();
+        boolean success;
+        if (fileManagerPool == null) {
+            success = compile(compiler, compiler.getStandardFileManager(null, null, charset), spec, options);
+        } else {
+            success = fileManagerPool.withFileManager(compiler, charset, spec.getClasspath(), options, new Transformer<Boolean, StandardJavaFileManager>() {
+                public Boolean transform(StandardJavaFileManager fileManager) {
+                    return compile(compiler, fileManager, spec, options);
+                }
+            });
+        }
         if (!success) {
             throw new CompilationFailedException();
         }
@@ -47,16 +76,10 @@ public class JdkJavaCompiler implements Compiler<JavaCompileSpec>, Serializable
         return new SimpleWorkResult(true);
     }
 
-    private JavaCompiler.CompilationTask createCompileTask(JavaCompileSpec spec) {
-        List<String> options = new JavaCompilerArgumentsBuilder(spec).build();
-        JavaCompiler compiler = findCompiler();
-        if(compiler==null){
-            throw new RuntimeException("Cannot find System Java Compiler. Ensure that you have installed a JDK (not just a JRE) and configured your JAVA_HOME system variable to point to the according directory.");
-        }
-        CompileOptions compileOptions = spec.getCompileOptions();
-        StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, null, compileOptions.getEncoding() != null ? Charset.forName(compileOptions.getEncoding()) : null);
+    private static boolean compile(JavaCompiler compiler, StandardJavaFileManager fileManager, JavaCompileSpec spec, List<String> options) {
         Iterable<? extends JavaFileObject> compilationUnits = fileManager.getJavaFileObjectsFromFiles(spec.getSource());
-        return compiler.getTask(null, null, null, options, null, compilationUnits);
+        JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, null, options, null, compilationUnits);
+        return task.call();
     }
 
     private static JavaCompiler findCompiler() {
@@ -0,0 +1,216 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.compile.incremental.analyzer;
+
+import org.gradle.api.internal.hash.Hasher;
+import org.gradle.internal.UncheckedException;
+import org.gradle.util.GFileUtils;
+import org.objectweb.asm.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Hashes the public ABI of a class file: the class declaration, its non-private fields and methods including constant values, and all
+ * annotations on them. Method bodies, private members, synthetic members and debug information are ignored, so two class files that
+ * differ only in implementation details have the same hash.
+ */
+public class ClassAbiHasher implements Hasher {
+
+    public byte[] hash(File classFile) {
+        InputStream input = GFileUtils.openInputStream(classFile);
+        try {
+            return hash(input);
+        } catch (IOException e) {
+            throw new RuntimeException("Problems hashing class ABI from file: " + classFile, e);
+        } finally {
+            GFileUtils.closeInputStream(input);
+        }
+    }
+
+    public byte[] hash(InputStream input) throws IOException {
+        ClassReader reader = new ClassReader(input);
+        AbiCollector collector = new AbiCollector();
+        reader.accept(collector, ClassReader.SKIP_CODE | ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES);
+
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+        // Members are sorted, so that reordering declarations does not change the hash
+        for (String member : collector.members) {
+            digest.update(member.getBytes("UTF-8"));
+            digest.update((byte) 0);
+        }
+        return digest.digest();
+    }
+
+    private static boolean isIgnored(int access) {
+        return (access & (Opcodes.ACC_PRIVATE | Opcodes.ACC_SYNTHETIC)) != 0;
+    }
+
+    private static class AbiCollector extends ClassVisitor {
+        private final Set<String> members = new TreeSet<String>();
+
+        public AbiCollector() {
+            super(Opcodes.ASM5);
+        }
+
+        @Override
+        public void visit(int version, int access, String name, String signature, String superName, String[] interfaces) {
+            String[] sortedInterfaces = interfaces == null ? new String[0] : interfaces.clone();
+            Arrays.sort(sortedInterfaces);
+            members.add(String.format("class %d %d %s %s %s %s", version, access, name, signature, superName, Arrays.toString(sortedInterfaces)));
+        }
+
+        @Override
+        public AnnotationVisitor visitAnnotation(String desc, boolean visible) {
+            return new AnnotationCollector(members, "class @" + desc);
+        }
+
+        @Override
+        public FieldVisitor visitField(int access, final String name, String desc, String signature, Object value) {
+            if (isIgnored(access)) {
+                return null;
+            }
+            final String field = String.format("field %d %s %s %s %s", access, name, desc, signature, value);
+            members.add(field);
+            return new FieldVisitor(Opcodes.ASM5) {
+                @Override
+                public AnnotationVisitor visitAnnotation(String desc, boolean visible) {
+                    return new AnnotationCollector(members, field + " @" + desc);
+                }
+            };
+        }
+
+        @Override
+        public MethodVisitor visitMethod(int access, String name, String desc, String signature, String[] exceptions) {
+            if (isIgnored(access) || name.equals("<clinit>")) {
+                return null;
+            }
+            String[] sortedExceptions = exceptions == null ? new String[0] : exceptions.clone();
+            Arrays.sort(sortedExceptions);
+            final String method = String.format("method %d %s %s %s %s", access, name, desc, signature, Arrays.toString(sortedExceptions));
+            members.add(method);
+            return new MethodVisitor(Opcodes.ASM5) {
+                @Override
+                public AnnotationVisitor visitAnnotation(String desc, boolean visible) {
+                    return new AnnotationCollector(members, method + " @" + desc);
+                }
+
+                @Override
+                public AnnotationVisitor visitParameterAnnotation(int parameter, String desc, boolean visible) {
+                    return new AnnotationCollector(members, method + " param " + parameter + " @" + desc);
+                }
+
+                @Override
+                public AnnotationVisitor visitAnnotationDefault() {
+                    return new AnnotationCollector(members, method + " default");
+                }
+            };
+        }
+    }
+
+    /**
+     * Records an annotation and its values as a single member, once all the values have been visited.
+     */
+    private static class AnnotationCollector extends AnnotationVisitor {
+        private final Set<String> members;
+        private final StringBuilder annotation;
+
+        public AnnotationCollector(Set<String> members, String prefix) {
+            super(Opcodes.ASM5);
+            this.members = members;
+            this.annotation = new StringBuilder(prefix);
+        }
+
+        private AnnotationCollector(StringBuilder annotation) {
+            super(Opcodes.ASM5);
+            this.members = null;
+            this.annotation = annotation;
+        }
+
+        @Override
+        public void visit(String name, Object value) {
+            String valueString = value.getClass().isArray() ? arrayToString(value) : String.valueOf(value);
+            annotation.append(' ').append(name).append('=').append(valueString);
+        }
+
+        @Override
+        public void visitEnum(String name, String desc, String value) {
+            annotation.append(' ').append(name).append('=').append(desc).append('.').append(value);
+        }
+
+        @Override
+        public AnnotationVisitor visitAnnotation(String name, String desc) {
+            annotation.append(' ').append(name).append("=@").append(desc).append('(');
+            return new AnnotationCollector(annotation) {
+                @Override
+                public void visitEnd() {
+                    annotation.append(')');
+                }
+            };
+        }
+
+        @Override
+        public AnnotationVisitor visitArray(String name) {
+            annotation.append(' ').append(name).append("=[");
+            return new AnnotationCollector(annotation) {
+                @Override
+                public void visitEnd() {
+                    annotation.append(']');
+                }
+            };
+        }
+
+        @Override
+        public void visitEnd() {
+            if (members != null) {
+                members.add(annotation.toString());
+            }
+        }
+
+        private static String arrayToString(Object array) {
+            if (array instanceof byte[]) {
+                return Arrays.toString((byte[]) array);
+            } else if (array instanceof boolean[]) {
+                return Arrays.toString((boolean[]) array);
+            } else if (array instanceof short[]) {
+                return Arrays.toString((short[]) array);
+            } else if (array instanceof char[]) {
+                return Arrays.toString((char[]) array);
+            } else if (array instanceof int[]) {
+                return Arrays.toString((int[]) array);
+            } else if (array instanceof long[]) {
+                return Arrays.toString((long[]) array);
+            } else if (array instanceof float[]) {
+                return Arrays.toString((float[]) array);
+            } else if (array instanceof double[]) {
+                return Arrays.toString((double[]) array);
+            }
+            return Arrays.toString((Object[]) array);
+        }
+    }
+}
@@ -18,67 +18,151 @@ package org.gradle.api.internal.tasks.compile.incremental.deps;
 
 import org.gradle.messaging.serialize.Decoder;
 import org.gradle.messaging.serialize.Encoder;
-import org.gradle.messaging.serialize.MapSerializer;
-import org.gradle.messaging.serialize.SetSerializer;
 
-import java.util.Map;
-import java.util.Set;
-
-import static org.gradle.messaging.serialize.BaseSerializerFactory.STRING_SERIALIZER;
+import java.util.*;
 
+/**
+ * The class dependents graph of a set of classes. Each class name is held once, in a sorted table, and classes refer to their dependents
+ * by their index in that table. The {@link DependentsSet} of a class is only created when it is queried.
+ */
 public class ClassSetAnalysisData {
 
-    final Map<String, DependentsSet> dependents;
+    private static final byte DEPENDENCY_TO_ALL = 0;
+    private static final byte DEPENDENTS_AND_DEPENDENCY_TO_ALL = 1;
+    private static final byte DEPENDENTS = 2;
+    // A class that is only known as a dependent of another class
+    private static final byte NOT_ANALYZED = 3;
+
+    private final String[] classNames;
+    private final byte[] kinds;
+    private final int[][] dependents;
 
     public ClassSetAnalysisData(Map<String, DependentsSet> dependents) {
+        Set<String> names = new TreeSet<String>(dependents.keySet());
+        for (DependentsSet dependentsSet : dependents.values()) {
+            if (!(dependentsSet instanceof DependencyToAll)) {
+                names.addAll(dependentsSet.getDependentClasses());
+            }
+        }
+        this.classNames = names.toArray(new String[names.size()]);
+        this.kinds = new byte[classNames.length];
+        this.dependents = new int[classNames.length][];
+        Arrays.fill(kinds, NOT_ANALYZED);
+
+        for (Map.Entry<String, DependentsSet> entry : dependents.entrySet()) {
+            int id = Arrays.binarySearch(classNames, entry.getKey());
+            DependentsSet dependentsSet = entry.getValue();
+            if (dependentsSet instanceof DependencyToAll) {
+                kinds[id] = DEPENDENCY_TO_ALL;
+                continue;
+            }
+            kinds[id] = dependentsSet.isDependencyToAll() ? DEPENDENTS_AND_DEPENDENCY_TO_ALL : DEPENDENTS;
+            int[] ids = new int[dependentsSet.getDependentClasses().size()];
+            int i = 0;
+            for (String dependent : dependentsSet.getDependentClasses()) {
+                ids[i++] = Arrays.binarySearch(classNames, dependent);
+            }
+            Arrays.sort(ids);
+            this.dependents[id] = ids;
+        }
+    }
+
+    private ClassSetAnalysisData(String[] classNames, byte[] kinds, int[][] dependents) {
+        this.classNames = classNames;
+        this.kinds = kinds;
         this.dependents = dependents;
     }
 
+    /**
+     * Returns the dependents of the given class, or null if the class was not analyzed.
+     */
     public DependentsSet getDependents(String className) {
-        return dependents.get(className);
+        int id = Arrays.binarySearch(classNames, className);
+        if (id < 0 || kinds[id] == NOT_ANALYZED) {
+            return null;
+        }
+        if (kinds[id] == DEPENDENCY_TO_ALL) {
+            return new DependencyToAll();
+        }
+        int[] ids = dependents[id];
+        List<String> dependentClasses = new ArrayList<String>(ids.length);
+        for (int dependent : ids) {
+            dependentClasses.add(classNames[dependent]);
+        }
+        return new DefaultDependentsSet(kinds[id] == DEPENDENTS_AND_DEPENDENCY_TO_ALL, dependentClasses);
     }
 
+    /**
+     * Writes the class name table with the prefix shared with the previous name elided, followed by the dependents of each class as
+     * deltas between successive class ids.
+     */
     public static class Serializer implements org.gradle.messaging.serialize.Serializer<ClassSetAnalysisData> {
 
-        private final MapSerializer<String, DependentsSet> serializer = new MapSerializer<String, DependentsSet>(
-                STRING_SERIALIZER, new DependentsSetSerializer());
-
         public ClassSetAnalysisData read(Decoder decoder) throws Exception {
-            //we only support one kind of data
-            return new ClassSetAnalysisData(serializer.read(decoder));
-        }
-
-        public void write(Encoder encoder, ClassSetAnalysisData value) throws Exception {
-            //we only support one kind of data
-            serializer.write(encoder, value.dependents);
-        }
-
-        private static class DependentsSetSerializer implements org.gradle.messaging.serialize.Serializer<DependentsSet> {
-
-            private SetSerializer<String> setSerializer = new SetSerializer<String>(STRING_SERIALIZER, false);
+            int count = decoder.readSmallInt();
+            String[] classNames = new String[count];
+            String previous = "";
+            for (int i = 0; i < count; i++) {
+                int sharedPrefix = decoder.readSmallInt();
+                String name = previous.substring(0, sharedPrefix) + decoder.readString();
+                classNames[i] = name;
+                previous = name;
+            }
 
-            public DependentsSet read(Decoder decoder) throws Exception {
+            byte[] kinds = new byte[count];
+            int[][] dependents = new int[count][];
+            for (int i = 0; i < count; i++) {
                 int control = decoder.readSmallInt();
-                if (control == 0) {
-                    return new DependencyToAll();
-                }
-                if (control != 1 && control != 2) {
+                if (control < DEPENDENCY_TO_ALL || control > NOT_ANALYZED) {
                     throw new IllegalArgumentException("Unable to read the data. Unexpected control value: " + control);
                 }
-                Set<String> classes = setSerializer.read(decoder);
-                return new DefaultDependentsSet(control == 1, classes);
+                kinds[i] = (byte) control;
+                if (control == DEPENDENTS_AND_DEPENDENCY_TO_ALL || control == DEPENDENTS) {
+                    int[] ids = new int[decoder.readSmallInt()];
+                    int id = 0;
+                    for (int j = 0; j < ids.length; j++) {
+                        id += decoder.readSmallInt();
+                        ids[j] = id;
+                    }
+                    dependents[i] = ids;
+                }
+            }
+            return new ClassSetAnalysisData(classNames, kinds, dependents);
+        }
+
+        public void write(Encoder encoder, ClassSetAnalysisData value) throws Exception {
+            String[] classNames = value.classNames;
+            encoder.writeSmallInt(classNames.length);
+            String previous = "";
+            for (String name : classNames) {
+                int sharedPrefix = sharedPrefixLength(previous, name);
+                encoder.writeSmallInt(sharedPrefix);
+                encoder.writeString(name.substring(sharedPrefix));
+                previous = name;
             }
 
-            public void write(Encoder encoder, DependentsSet value) throws Exception {
-                if (value instanceof DependencyToAll) {
-                    encoder.writeSmallInt(0);
-                } else if (value instanceof DefaultDependentsSet) {
-                    encoder.writeSmallInt(value.isDependencyToAll() ? 1 : 2);
-                    setSerializer.write(encoder, value.getDependentClasses());
-                } else {
-                    throw new IllegalArgumentException("Don't know how to serialize value of type: " + value.getClass() + ", value: " + value);
+            for (int i = 0; i < classNames.length; i++) {
+                byte kind = value.kinds[i];
+                encoder.writeSmallInt(kind);
+                if (kind == DEPENDENTS_AND_DEPENDENCY_TO_ALL || kind == DEPENDENTS) {
+                    int[] ids = value.dependents[i];
+                    encoder.writeSmallInt(ids.length);
+                    int previousId = 0;
+                    for (int id : ids) {
+                        encoder.writeSmallInt(id - previousId);
+                        previousId = id;
+                    }
                 }
             }
         }
+
+        private static int sharedPrefixLength(String a, String b) {
+            int max = Math.min(a.length(), b.length());
+            int i = 0;
+            while (i < max && a.charAt(i) == b.charAt(i)) {
+                i++;
+            }
+            return i;
+        }
     }
 }
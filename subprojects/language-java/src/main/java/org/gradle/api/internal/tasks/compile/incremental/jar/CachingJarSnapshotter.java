@@ -19,7 +19,8 @@ package org.gradle.api.internal.tasks.compile.incremental.jar;
 import org.gradle.api.internal.changedetection.state.FileSnapshot;
 import org.gradle.api.internal.changedetection.state.FilesSnapshotSet;
 import org.gradle.api.internal.hash.Hasher;
-import org.gradle.api.internal.tasks.compile.incremental.analyzer.ClassDependenciesAnalyzer;
+import org.gradle.api.internal.tasks.compile.incremental.analyzer.ClassAbiHasher;
+import org.gradle.api.internal.tasks.compile.incremental.analyzer.DefaultClassDependenciesAnalyzer;
 import org.gradle.internal.Factory;
 
 public class CachingJarSnapshotter implements JarSnapshotter {
@@ -29,9 +30,10 @@ public class CachingJarSnapshotter implements JarSnapshotter {
     private final JarSnapshotCache cache;
     private final FilesSnapshotSet inputFilesSnapshot;
 
-    public CachingJarSnapshotter(Hasher hasher, ClassDependenciesAnalyzer analyzer, JarSnapshotCache cache, FilesSnapshotSet inputFilesSnapshot) {
+    public CachingJarSnapshotter(Hasher hasher, JarSnapshotCache cache, FilesSnapshotSet inputFilesSnapshot) {
         this.inputFilesSnapshot = inputFilesSnapshot;
-        this.snapshotter = new DefaultJarSnapshotter(hasher, analyzer);
+        // Classes in a jar are not analysed individually through the class analysis cache, as the whole jar snapshot is cached by jar hash
+        this.snapshotter = new DefaultJarSnapshotter(new ClassAbiHasher(), new DefaultClassDependenciesAnalyzer());
         this.hasher = hasher;
         this.cache = cache;
     }
@@ -16,22 +16,29 @@
 
 package org.gradle.api.internal.tasks.compile.incremental.jar;
 
+import com.google.common.util.concurrent.Striped;
 import org.gradle.api.internal.cache.MinimalPersistentCache;
 import org.gradle.cache.CacheRepository;
 import org.gradle.internal.Factory;
+import org.gradle.internal.hash.HashValue;
 import org.gradle.messaging.serialize.BaseSerializerFactory;
 
 import java.io.File;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.locks.Lock;
 
 /**
  * Cross-process, global cache of jar snapshots. Required to make incremental java compilation fast.
  * Jar snapshots are cached globally, so if one project caches the groovy jar, it can be used by some other project.
+ * Concurrent requests for the snapshot of the same jar are serialized, so that the jar is only analysed once. Requests are serialized using a
+ * fixed set of locks, selected by the hash of the jar.
  */
 public class DefaultJarSnapshotCache implements JarSnapshotCache {
+    private static final int LOCK_STRIPES = 64;
 
     private final MinimalPersistentCache<byte[], JarSnapshotData> cache;
+    private final Striped<Lock> locks = Striped.lock(LOCK_STRIPES);
 
     public DefaultJarSnapshotCache(CacheRepository cacheRepository) {
         cache = new MinimalPersistentCache<byte[], JarSnapshotData>(cacheRepository, "jar snapshots", BaseSerializerFactory.BYTE_ARRAY_SERIALIZER, new JarSnapshotDataSerializer());
@@ -51,11 +58,17 @@ public class DefaultJarSnapshotCache implements JarSnapshotCache {
     }
 
     public JarSnapshot get(byte[] key, final Factory<JarSnapshot> factory) {
-        return new JarSnapshot(cache.get(key, new Factory<JarSnapshotData>() {
-            public JarSnapshotData create() {
-                return factory.create().getData();
-            }
-        }));
+        Lock lock = locks.get(new HashValue(key));
+        lock.lock();
+        try {
+            return new JarSnapshot(cache.get(key, new Factory<JarSnapshotData>() {
+                public JarSnapshotData create() {
+                    return factory.create().getData();
+                }
+            }));
+        } finally {
+            lock.unlock();
+        }
     }
 
     public void stop() {
@@ -15,44 +15,62 @@
  */
 package org.gradle.api.internal.tasks.compile.incremental.jar;
 
-import org.gradle.api.file.FileTree;
-import org.gradle.api.file.FileVisitDetails;
-import org.gradle.api.file.FileVisitor;
-import org.gradle.api.internal.hash.Hasher;
-import org.gradle.api.internal.tasks.compile.incremental.analyzer.ClassDependenciesAnalyzer;
-import org.gradle.api.internal.tasks.compile.incremental.analyzer.ClassFilesAnalyzer;
+import com.google.common.io.ByteStreams;
+import org.gradle.api.internal.tasks.compile.incremental.analyzer.ClassAbiHasher;
+import org.gradle.api.internal.tasks.compile.incremental.analyzer.ClassAnalysis;
+import org.gradle.api.internal.tasks.compile.incremental.analyzer.DefaultClassDependenciesAnalyzer;
+import org.gradle.api.internal.tasks.compile.incremental.deps.ClassDependentsAccumulator;
+import org.gradle.api.internal.tasks.compile.incremental.deps.ClassSetAnalysisData;
+import org.gradle.util.GFileUtils;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
 
+/**
+ * Creates the snapshot of a jar by reading its class files straight from the zip stream, without extracting them.
+ */
 class DefaultJarSnapshotter {
 
-    private final Hasher hasher;
-    private final ClassDependenciesAnalyzer analyzer;
+    // Hashes only the public ABI of each class, so that implementation changes are not reported as changes.
+    private final ClassAbiHasher hasher;
+    private final DefaultClassDependenciesAnalyzer analyzer;
 
-    public DefaultJarSnapshotter(Hasher hasher, ClassDependenciesAnalyzer analyzer) {
+    public DefaultJarSnapshotter(ClassAbiHasher hasher, DefaultClassDependenciesAnalyzer analyzer) {
         this.hasher = hasher;
         this.analyzer = analyzer;
     }
 
     public JarSnapshot createSnapshot(byte[] hash, JarArchive jarArchive) {
-        return createSnapshot(hash, jarArchive.contents, new ClassFilesAnalyzer(analyzer));
+        InputStream input = GFileUtils.openInputStream(jarArchive.file);
+        try {
+            return createSnapshot(hash, new ZipInputStream(input));
+        } catch (IOException e) {
+            throw new RuntimeException("Problems creating jar snapshot of: " + jarArchive.file, e);
+        } finally {
+            GFileUtils.closeInputStream(input);
+        }
     }
 
-    JarSnapshot createSnapshot(byte[] hash, FileTree classes, final ClassFilesAnalyzer analyzer) {
-        final Map<String, byte[]> hashes = new HashMap<String, byte[]>();
-        classes.visit(new FileVisitor() {
-            public void visitDir(FileVisitDetails dirDetails) {
-            }
-
-            public void visitFile(FileVisitDetails fileDetails) {
-                analyzer.visitFile(fileDetails);
-                String className = fileDetails.getPath().replaceAll("/", ".").replaceAll("\\.class$", "");
-                byte[] classHash = hasher.hash(fileDetails.getFile());
-                hashes.put(className, classHash);
+    JarSnapshot createSnapshot(byte[] hash, ZipInputStream jar) throws IOException {
+        Map<String, byte[]> hashes = new HashMap<String, byte[]>();
+        ClassDependentsAccumulator accumulator = new ClassDependentsAccumulator("");
+        ZipEntry entry;
+        while ((entry = jar.getNextEntry()) != null) {
+            if (entry.isDirectory() || !entry.getName().endsWith(".class")) {
+                continue;
             }
-        });
+            String className = entry.getName().replaceAll("/", ".").replaceAll("\\.class$", "");
+            byte[] classBytes = ByteStreams.toByteArray(jar);
+            ClassAnalysis analysis = analyzer.getClassAnalysis(className, new ByteArrayInputStream(classBytes));
+            accumulator.addClass(className, analysis.isDependencyToAll(), analysis.getClassDependencies());
+            hashes.put(className, hasher.hash(new ByteArrayInputStream(classBytes)));
+        }
 
-        return new JarSnapshot(new JarSnapshotData(hash, hashes, analyzer.getAnalysis()));
+        return new JarSnapshot(new JarSnapshotData(hash, hashes, new ClassSetAnalysisData(accumulator.getDependentsMap())));
     }
-}
\ No newline at end of file
+}
@@ -20,9 +20,12 @@ import org.gradle.api.internal.tasks.compile.incremental.deps.AffectedClasses;
 import org.gradle.api.internal.tasks.compile.incremental.deps.DefaultDependentsSet;
 import org.gradle.api.internal.tasks.compile.incremental.deps.DependencyToAll;
 import org.gradle.api.internal.tasks.compile.incremental.deps.DependentsSet;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
 import org.gradle.api.tasks.incremental.InputFileDetails;
 
 public class JarChangeDependentsFinder {
+    private static final Logger LOG = Logging.getLogger(JarChangeDependentsFinder.class);
 
     private final JarClasspathSnapshot jarClasspathSnapshot;
     private final PreviousCompilation previousCompilation;
@@ -74,7 +77,13 @@ public class JarChangeDependentsFinder {
                 return new DependencyToAll("at least one of the classes of modified jar '" + jarArchive.file.getName() + "' is already present in the classpath");
             }
 
+            if (affected.getAltered().getDependentClasses().isEmpty()) {
+                LOG.info("Public API of the classes in modified jar '{}' is unchanged, no dependents need to be recompiled.", jarArchive.file.getName());
+                return affected.getAltered();
+            }
+
             //recompile all dependents of the classes changed in the jar
+            LOG.info("Public API of classes in modified jar '{}' has changed, recompiling dependents of: {}", jarArchive.file.getName(), affected.getAltered().getDependentClasses());
             return previousCompilation.getDependents(affected.getAltered().getDependentClasses());
         }
 
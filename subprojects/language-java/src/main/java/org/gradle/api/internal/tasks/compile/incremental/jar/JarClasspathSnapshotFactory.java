@@ -16,28 +16,38 @@
 
 package org.gradle.api.internal.tasks.compile.incremental.jar;
 
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.concurrent.StoppableExecutor;
+
 import java.io.File;
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Map;
-import java.util.Set;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class JarClasspathSnapshotFactory {
 
     private final JarSnapshotter jarSnapshotter;
+    private final ExecutorFactory executorFactory;
 
-    public JarClasspathSnapshotFactory(JarSnapshotter jarSnapshotter) {
+    public JarClasspathSnapshotFactory(JarSnapshotter jarSnapshotter, ExecutorFactory executorFactory) {
         this.jarSnapshotter = jarSnapshotter;
+        this.executorFactory = executorFactory;
     }
 
     JarClasspathSnapshot createSnapshot(Iterable<JarArchive> jarArchives) {
+        List<JarArchive> jars = new ArrayList<JarArchive>();
+        for (JarArchive jar : jarArchives) {
+            jars.add(jar);
+        }
+        JarSnapshot[] snapshots = createJarSnapshots(jars);
+
         Map<File, JarSnapshot> jarSnapshots = new HashMap<File, JarSnapshot>();
         Map<File, byte[]> jarHashes = new HashMap<File, byte[]>();
         Set<String> allClasses = new HashSet<String>();
         Set<String> duplicateClasses = new HashSet<String>();
 
-        for (JarArchive jar : jarArchives) {
-            JarSnapshot snapshot = jarSnapshotter.createSnapshot(jar);
+        for (int i = 0; i < jars.size(); i++) {
+            JarArchive jar = jars.get(i);
+            JarSnapshot snapshot = snapshots[i];
             jarSnapshots.put(jar.file, snapshot);
             jarHashes.put(jar.file, snapshot.getHash());
             for (String c : snapshot.getClasses()) {
@@ -49,4 +59,37 @@ public class JarClasspathSnapshotFactory {
         JarClasspathSnapshotData jarClasspathSnapshotData = new JarClasspathSnapshotData(jarHashes, duplicateClasses);
         return new JarClasspathSnapshot(jarSnapshots, jarClasspathSnapshotData);
     }
+
+    /**
+     * Snapshots the given jars using a worker per processor. Each worker takes the next jar that has not been started yet.
+     */
+    private JarSnapshot[] createJarSnapshots(final List<JarArchive> jars) {
+        final JarSnapshot[] snapshots = new JarSnapshot[jars.size()];
+        if (jars.size() < 2) {
+            for (int i = 0; i < jars.size(); i++) {
+                snapshots[i] = jarSnapshotter.createSnapshot(jars.get(i));
+            }
+            return snapshots;
+        }
+
+        final AtomicInteger nextJar = new AtomicInteger();
+        int workerCount = Math.min(jars.size(), Runtime.getRuntime().availableProcessors());
+        StoppableExecutor executor = executorFactory.create("Jar snapshotter");
+        try {
+            for (int worker = 0; worker < workerCount; worker++) {
+                executor.execute(new Runnable() {
+                    public void run() {
+                        int i;
+                        while ((i = nextJar.getAndIncrement()) < jars.size()) {
+                            snapshots[i] = jarSnapshotter.createSnapshot(jars.get(i));
+                        }
+                    }
+                });
+            }
+        } finally {
+            // Waits for the workers and rethrows the first failure
+            executor.stop();
+        }
+        return snapshots;
+    }
 }
@@ -21,6 +21,7 @@ import org.gradle.api.internal.GradleInternal;
 import org.gradle.api.internal.tasks.DefaultJavaToolChain;
 import org.gradle.api.internal.tasks.compile.DefaultJavaCompilerFactory;
 import org.gradle.api.internal.tasks.compile.JavaCompilerFactory;
+import org.gradle.api.internal.tasks.compile.JavaFileManagerPool;
 import org.gradle.api.internal.tasks.compile.daemon.CompilerClientsManager;
 import org.gradle.api.internal.tasks.compile.daemon.CompilerDaemonManager;
 import org.gradle.api.internal.tasks.compile.daemon.CompilerDaemonStarter;
@@ -44,14 +45,31 @@ public class JavaToolChainServiceRegistry implements PluginServiceRegistry {
     }
 
     private static class BuildScopeCompileServices {
+        // One idle daemon for each kind of compiler daemon: Java, Groovy and Scala
+        private static final int MIN_IDLE_COMPILER_DAEMONS = 3;
+
+        JavaFileManagerPool createJavaFileManagerPool() {
+            return new JavaFileManagerPool();
+        }
+
         CompilerDaemonManager createCompilerDaemonManager(Factory<WorkerProcessBuilder> workerFactory, StartParameter startParameter) {
-            return new CompilerDaemonManager(new CompilerClientsManager(new CompilerDaemonStarter(workerFactory, startParameter)));
+            return new CompilerDaemonManager(new CompilerClientsManager(new CompilerDaemonStarter(workerFactory, startParameter), getMaxIdleCompilerDaemons(startParameter)));
+        }
+
+        private int getMaxIdleCompilerDaemons(StartParameter startParameter) {
+            // Keep one idle compiler daemon for each compile task that can run in parallel, and at least one for each kind of daemon, so that a
+            // build that uses several kinds of compiler daemons does not restart them for every compile task
+            int parallelThreadCount = startParameter.getParallelThreadCount();
+            if (parallelThreadCount < 0) {
+                parallelThreadCount = Runtime.getRuntime().availableProcessors();
+            }
+            return Math.max(MIN_IDLE_COMPILER_DAEMONS, parallelThreadCount);
         }
     }
 
     private static class ProjectScopeCompileServices {
-        JavaCompilerFactory createJavaCompilerFactory(GradleInternal gradle, CompilerDaemonManager compilerDaemonManager) {
-            return new DefaultJavaCompilerFactory(gradle.getRootProject().getProjectDir(), compilerDaemonManager);
+        JavaCompilerFactory createJavaCompilerFactory(GradleInternal gradle, CompilerDaemonManager compilerDaemonManager, JavaFileManagerPool fileManagerPool) {
+            return new DefaultJavaCompilerFactory(gradle.getRootProject().getProjectDir(), compilerDaemonManager, fileManagerPool);
         }
 
         JavaToolChainInternal createJavaToolChain(JavaCompilerFactory compilerFactory, ExecActionFactory execActionFactory) {
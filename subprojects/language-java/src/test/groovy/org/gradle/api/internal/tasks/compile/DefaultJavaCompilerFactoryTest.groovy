@@ -20,7 +20,7 @@ import org.gradle.api.tasks.compile.CompileOptions
 import spock.lang.Specification
 
 class DefaultJavaCompilerFactoryTest extends Specification {
-    def factory = new DefaultJavaCompilerFactory(new File("daemon-work-dir"), Mock(CompilerDaemonFactory))
+    def factory = new DefaultJavaCompilerFactory(new File("daemon-work-dir"), Mock(CompilerDaemonFactory), new JavaFileManagerPool())
     def options = new CompileOptions()
     
     def "creates in-process compiler when not forking"() {
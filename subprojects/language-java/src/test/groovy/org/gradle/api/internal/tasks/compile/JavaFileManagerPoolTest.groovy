@@ -0,0 +1,154 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.compile
+
+import org.gradle.api.Transformer
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+import javax.tools.JavaCompiler
+import javax.tools.StandardJavaFileManager
+import javax.tools.StandardLocation
+
+class JavaFileManagerPoolTest extends Specification {
+    @Rule TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+    def compiler = Mock(JavaCompiler)
+    def pool = new JavaFileManagerPool()
+
+    def "reuses file manager for later compilations"() {
+        def fileManager = Mock(StandardJavaFileManager)
+        def jar = tmpDir.createFile("lib.jar")
+
+        when:
+        def first = use([jar])
+        def second = use([jar])
+
+        then:
+        1 * compiler.getStandardFileManager(null, null, null) >> fileManager
+        first.is(fileManager)
+        second.is(fileManager)
+        0 * fileManager.close()
+    }
+
+    def "resets locations when file manager is released"() {
+        def fileManager = Mock(StandardJavaFileManager)
+        compiler.getStandardFileManager(null, null, null) >> fileManager
+
+        when:
+        use([])
+
+        then:
+        1 * fileManager.setLocation(StandardLocation.CLASS_PATH, null)
+        1 * fileManager.setLocation(StandardLocation.CLASS_OUTPUT, null)
+    }
+
+    def "discards file manager when a jar on the classpath has changed"() {
+        def fileManager1 = Mock(StandardJavaFileManager)
+        def fileManager2 = Mock(StandardJavaFileManager)
+        def jar = tmpDir.createFile("lib.jar")
+
+        when:
+        use([jar])
+        jar.text = "changed"
+        def second = use([jar])
+
+        then:
+        2 * compiler.getStandardFileManager(null, null, null) >>> [fileManager1, fileManager2]
+        1 * fileManager1.close()
+        second.is(fileManager2)
+    }
+
+    def "discards file manager when compilation fails"() {
+        def fileManager = Mock(StandardJavaFileManager)
+        compiler.getStandardFileManager(null, null, null) >> fileManager
+
+        when:
+        pool.withFileManager(compiler, null, [], [], { throw new RuntimeException("broken") } as Transformer)
+
+        then:
+        thrown(RuntimeException)
+        1 * fileManager.close()
+    }
+
+    def "discards file manager when compilation reports errors"() {
+        def fileManager1 = Mock(StandardJavaFileManager)
+        def fileManager2 = Mock(StandardJavaFileManager)
+
+        when:
+        def result = pool.withFileManager(compiler, null, [], [], { false } as Transformer)
+        def second = use([])
+
+        then:
+        2 * compiler.getStandardFileManager(null, null, null) >>> [fileManager1, fileManager2]
+        1 * fileManager1.close()
+        !result
+        second.is(fileManager2)
+    }
+
+    def "closes idle file managers when stopped"() {
+        def fileManager = Mock(StandardJavaFileManager)
+        compiler.getStandardFileManager(null, null, null) >> fileManager
+        use([])
+
+        when:
+        pool.stop()
+
+        then:
+        1 * fileManager.close()
+    }
+
+    def "does not reuse file manager for compilation with different platform classpath"() {
+        def fileManager1 = Mock(StandardJavaFileManager)
+        def fileManager2 = Mock(StandardJavaFileManager)
+        def bootClasspath = tmpDir.createDir("boot").path
+
+        when:
+        def first = use([], ["-bootclasspath", bootClasspath, "-g"])
+        def second = use([], ["-g"])
+        def third = use([], ["-bootclasspath", bootClasspath])
+
+        then:
+        2 * compiler.getStandardFileManager(null, null, null) >>> [fileManager1, fileManager2]
+        first.is(fileManager1)
+        second.is(fileManager2)
+        third.is(fileManager1)
+    }
+
+    def "does not reuse file manager for compilation with different extension or endorsed dirs"() {
+        def fileManager1 = Mock(StandardJavaFileManager)
+        def fileManager2 = Mock(StandardJavaFileManager)
+        def fileManager3 = Mock(StandardJavaFileManager)
+
+        when:
+        def first = use([], ["-extdirs", "ext"])
+        def second = use([], ["-endorseddirs", "endorsed"])
+        def third = use([], [])
+
+        then:
+        3 * compiler.getStandardFileManager(null, null, null) >>> [fileManager1, fileManager2, fileManager3]
+        first.is(fileManager1)
+        second.is(fileManager2)
+        third.is(fileManager3)
+    }
+
+    private StandardJavaFileManager use(List<File> classpath, List<String> options = []) {
+        StandardJavaFileManager used = null
+        assert pool.withFileManager(compiler, null, classpath, options, { used = it; true } as Transformer)
+        return used
+    }
+}
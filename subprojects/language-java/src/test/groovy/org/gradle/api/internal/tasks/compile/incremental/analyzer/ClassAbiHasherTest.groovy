@@ -0,0 +1,90 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.compile.incremental.analyzer
+
+import org.objectweb.asm.ClassWriter
+import org.objectweb.asm.MethodVisitor
+import spock.lang.Specification
+import spock.lang.Subject
+
+import static org.objectweb.asm.Opcodes.*
+
+class ClassAbiHasherTest extends Specification {
+
+    @Subject hasher = new ClassAbiHasher()
+
+    def "hash is unchanged when only method bodies change"() {
+        expect:
+        hash(classWith(returnValue: 1)) == hash(classWith(returnValue: 2))
+    }
+
+    def "hash is unchanged when private members change"() {
+        expect:
+        hash(classWith()) == hash(classWith(privateMethod: "helper", privateField: "cache"))
+    }
+
+    def "hash is unchanged when members are reordered"() {
+        expect:
+        hash(classWith(methods: ["a", "b"])) == hash(classWith(methods: ["b", "a"]))
+    }
+
+    def "hash changes when public API changes"() {
+        def original = hash(classWith())
+
+        expect:
+        hash(classWith(methods: ["foo", "bar"])) != original
+        hash(classWith(methodAccess: ACC_PROTECTED)) != original
+        hash(classWith(superName: "java/lang/Thread")) != original
+        hash(classWith(constant: 1)) != hash(classWith(constant: 2))
+        hash(classWith(annotation: "Ljava/lang/Deprecated;")) != original
+    }
+
+    private byte[] hash(byte[] classBytes) {
+        hasher.hash(new ByteArrayInputStream(classBytes))
+    }
+
+    private static byte[] classWith(Map options = [:]) {
+        def writer = new ClassWriter(ClassWriter.COMPUTE_MAXS)
+        writer.visit(V1_6, ACC_PUBLIC, "org/gradle/Foo", null, options.superName ?: "java/lang/Object", null)
+        if (options.annotation) {
+            writer.visitAnnotation(options.annotation, true).visitEnd()
+        }
+        if (options.constant != null) {
+            writer.visitField(ACC_PUBLIC | ACC_STATIC | ACC_FINAL, "CONSTANT", "I", null, options.constant).visitEnd()
+        }
+        if (options.privateField) {
+            writer.visitField(ACC_PRIVATE, options.privateField, "Ljava/lang/String;", null, null).visitEnd()
+        }
+        (options.methods ?: ["foo"]).each { String name ->
+            method(writer, options.methodAccess ?: ACC_PUBLIC, name, options.returnValue ?: 0)
+        }
+        if (options.privateMethod) {
+            method(writer, ACC_PRIVATE, options.privateMethod, 0)
+        }
+        writer.visitEnd()
+        writer.toByteArray()
+    }
+
+    private static void method(ClassWriter writer, int access, String name, int returnValue) {
+        MethodVisitor method = writer.visitMethod(access, name, "()I", null, null)
+        method.visitCode()
+        method.visitLdcInsn(returnValue)
+        method.visitInsn(IRETURN)
+        method.visitMaxs(0, 0)
+        method.visitEnd()
+    }
+}
@@ -38,13 +38,31 @@ class ClassSetAnalysisDataSerializerTest extends Specification {
         ClassSetAnalysisData read = serializer.read(new InputStreamBackedDecoder(new ByteArrayInputStream(os.toByteArray())))
 
         then:
-        read.dependents.keySet() == data.dependents.keySet()
-
         ["A", "B", "C"].each {
-            assert read.dependents[it].dependentClasses == data.dependents[it].dependentClasses
-            assert read.dependents[it].dependencyToAll == data.dependents[it].dependencyToAll
+            assert read.getDependents(it).dependentClasses == data.getDependents(it).dependentClasses
+            assert read.getDependents(it).dependencyToAll == data.getDependents(it).dependencyToAll
         }
 
-        read.dependents["D"] instanceof DependencyToAll
+        read.getDependents("D") instanceof DependencyToAll
+        read.getDependents("E") == null
+    }
+
+    def "serializes classes that share a package prefix"() {
+        def data = new ClassSetAnalysisData([
+                "org.foo.A": dependents("org.foo.A\$Inner", "org.foo.bar.B"),
+                "org.foo.A\$Inner": dependents(),
+                "org.foo.bar.B": dependents("org.foo.A"),
+                "org.foo": dependents()])
+        def os = new ByteArrayOutputStream()
+
+        when:
+        serializer.write(new OutputStreamBackedEncoder(os), data)
+        ClassSetAnalysisData read = serializer.read(new InputStreamBackedDecoder(new ByteArrayInputStream(os.toByteArray())))
+
+        then:
+        read.getDependents("org.foo.A").dependentClasses == ["org.foo.A\$Inner", "org.foo.bar.B"] as Set
+        read.getDependents("org.foo.A\$Inner").dependentClasses.isEmpty()
+        read.getDependents("org.foo.bar.B").dependentClasses == ["org.foo.A"] as Set
+        read.getDependents("org.foo").dependentClasses.isEmpty()
     }
 }
@@ -14,52 +14,81 @@
  * limitations under the License.
  */
 
-
-
 package org.gradle.api.internal.tasks.compile.incremental.jar
 
-import org.gradle.api.internal.file.collections.DirectoryFileTree
-import org.gradle.api.internal.file.collections.FileTreeAdapter
-import org.gradle.api.internal.hash.Hasher
-import org.gradle.api.internal.tasks.compile.incremental.analyzer.ClassDependenciesAnalyzer
-import org.gradle.api.internal.tasks.compile.incremental.analyzer.ClassFilesAnalyzer
-import org.gradle.api.internal.tasks.compile.incremental.deps.ClassSetAnalysisData
+import org.gradle.api.internal.tasks.compile.incremental.analyzer.ClassAbiHasher
+import org.gradle.api.internal.tasks.compile.incremental.analyzer.DefaultClassDependenciesAnalyzer
 import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
 import org.junit.Rule
+import org.objectweb.asm.ClassWriter
 import spock.lang.Specification
 import spock.lang.Subject
 
+import java.util.zip.ZipEntry
+import java.util.zip.ZipOutputStream
+
+import static org.objectweb.asm.Opcodes.*
+
 class DefaultJarSnapshotterTest extends Specification {
 
     @Rule TestNameTestDirectoryProvider temp = new TestNameTestDirectoryProvider()
-    def hasher = Mock(Hasher)
 
-    @Subject snapshotter = new DefaultJarSnapshotter(hasher, Mock(ClassDependenciesAnalyzer))
+    @Subject snapshotter = new DefaultJarSnapshotter(new ClassAbiHasher(), new DefaultClassDependenciesAnalyzer())
 
     def "creates snapshot for an empty jar"() {
+        def jar = jar("a.jar", [:])
+
         expect:
-        def snapshot = snapshotter.createSnapshot(new byte[0], new JarArchive(new File("a.jar"), new FileTreeAdapter(new DirectoryFileTree(new File("missing")))))
+        def snapshot = snapshotter.createSnapshot(new byte[0], new JarArchive(jar))
         snapshot.hashes.isEmpty()
         snapshot.analysis
     }
 
     def "creates snapshot of a jar with classes"() {
-        def f1 = temp.createFile("foo/Foo.class")
-        def f2 = temp.createFile("foo/com/Foo2.class")
-        def analyzer = Mock(ClassFilesAnalyzer)
+        def jar = jar("a.jar", [
+                "Foo.class": classFile("Foo", "java/lang/Object"),
+                "com/Foo2.class": classFile("com/Foo2", "Foo"),
+                "META-INF/MANIFEST.MF": "Manifest-Version: 1.0".bytes
+        ])
 
         when:
-        def snapshot = snapshotter.createSnapshot(new byte[0], new FileTreeAdapter(new DirectoryFileTree(temp.file("foo"))), analyzer)
+        def snapshot = snapshotter.createSnapshot(new byte[0], new JarArchive(jar))
 
         then:
-        2 * analyzer.visitFile(_)
-        1 * hasher.hash(f1)
-        1 * hasher.hash(f2)
-        1 * analyzer.getAnalysis() >> Stub(ClassSetAnalysisData)
-        0 * _._
-
-        and:
         snapshot.hashes.keySet() == ["Foo", "com.Foo2"] as Set
-        snapshot.analysis
+        snapshot.analysis.getRelevantDependents("Foo").dependentClasses == ["com.Foo2"] as Set
+    }
+
+    def "reports problem reading jar"() {
+        def jar = temp.createFile("broken.jar")
+        jar.delete()
+
+        when:
+        snapshotter.createSnapshot(new byte[0], new JarArchive(jar))
+
+        then:
+        thrown(RuntimeException)
+    }
+
+    private File jar(String name, Map<String, byte[]> entries) {
+        def jar = temp.file(name)
+        def output = new ZipOutputStream(new FileOutputStream(jar))
+        try {
+            output.putNextEntry(new ZipEntry("META-INF/"))
+            entries.each { path, bytes ->
+                output.putNextEntry(new ZipEntry(path))
+                output.write(bytes)
+            }
+        } finally {
+            output.close()
+        }
+        jar
+    }
+
+    private static byte[] classFile(String name, String superName) {
+        def writer = new ClassWriter(0)
+        writer.visit(V1_6, ACC_PUBLIC, name, null, superName, null)
+        writer.visitEnd()
+        writer.toByteArray()
     }
 }
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.compile.incremental.jar
+
+import org.gradle.api.internal.tasks.compile.incremental.deps.ClassSetAnalysisData
+import org.gradle.api.tasks.incremental.InputFileDetails
+import spock.lang.Specification
+
+import static org.gradle.api.internal.tasks.compile.incremental.deps.DefaultDependentsSet.dependents
+
+class JarChangeDependentsFinderTest extends Specification {
+    def classpathSnapshot = Mock(JarClasspathSnapshot)
+    def previousCompilation = Mock(PreviousCompilation)
+    def finder = new JarChangeDependentsFinder(classpathSnapshot, previousCompilation)
+    def jarFile = new File("lib.jar")
+    def jarArchive = new JarArchive(jarFile)
+    def analysis = Stub(ClassSetAnalysisData)
+
+    def "does not recompile dependents when jar changed but the public API of its classes is unchanged"() {
+        def previous = snapshot("old jar hash", ["A": "A api".bytes, "B": "B api".bytes])
+        def current = snapshot("new jar hash", ["A": "A api".bytes, "B": "B api".bytes])
+
+        when:
+        def result = finder.getActualDependents(modified(), jarArchive)
+
+        then:
+        1 * previousCompilation.getJarSnapshot(jarFile) >> previous
+        1 * classpathSnapshot.getSnapshot(jarArchive) >> current
+        1 * classpathSnapshot.isAnyClassDuplicated([] as Set) >> false
+        0 * previousCompilation.getDependents(_)
+
+        and:
+        !result.dependencyToAll
+        result.dependentClasses.empty
+    }
+
+    def "recompiles dependents of classes whose public API has changed"() {
+        def previous = snapshot("old jar hash", ["A": "A api".bytes, "B": "B api".bytes])
+        def current = snapshot("new jar hash", ["A": "A api".bytes, "B": "B changed api".bytes])
+
+        when:
+        def result = finder.getActualDependents(modified(), jarArchive)
+
+        then:
+        1 * previousCompilation.getJarSnapshot(jarFile) >> previous
+        1 * classpathSnapshot.getSnapshot(jarArchive) >> current
+        1 * classpathSnapshot.isAnyClassDuplicated([] as Set) >> false
+        1 * previousCompilation.getDependents(["B"] as Set) >> dependents("Foo")
+
+        and:
+        result.dependentClasses == ["Foo"] as Set
+    }
+
+    private JarSnapshot snapshot(String jarHash, Map<String, byte[]> hashes) {
+        return new JarSnapshot(new JarSnapshotData(jarHash.bytes, hashes, analysis))
+    }
+
+    private InputFileDetails modified() {
+        return Stub(InputFileDetails) {
+            getFile() >> jarFile
+            isModified() >> true
+        }
+    }
+}
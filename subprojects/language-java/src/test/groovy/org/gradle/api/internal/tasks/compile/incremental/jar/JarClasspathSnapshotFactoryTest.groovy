@@ -16,14 +16,14 @@
 
 package org.gradle.api.internal.tasks.compile.incremental.jar
 
-import org.gradle.api.file.FileTree
+import org.gradle.internal.concurrent.DefaultExecutorFactory
 import spock.lang.Specification
 import spock.lang.Subject
 
 class JarClasspathSnapshotFactoryTest extends Specification {
 
     def snapshotter = Mock(JarSnapshotter)
-    @Subject factory = new JarClasspathSnapshotFactory(snapshotter)
+    @Subject factory = new JarClasspathSnapshotFactory(snapshotter, new DefaultExecutorFactory())
 
     def "creates classpath snapshot with correct duplicate classes"() {
         def jar1 = Stub(JarArchive); def jar2 = Stub(JarArchive); def jar3 = Stub(JarArchive)
@@ -45,8 +45,8 @@ class JarClasspathSnapshotFactoryTest extends Specification {
     }
 
     def "creates classpath snapshot with correct hashes"() {
-        def jar1 = new JarArchive(new File("f1"), Stub(FileTree))
-        def jar2 = new JarArchive(new File("f2"), Stub(FileTree))
+        def jar1 = new JarArchive(new File("f1"))
+        def jar2 = new JarArchive(new File("f2"))
 
         def sn1 = Stub(JarSnapshot) { getHash() >> new byte[1] }
         def sn2 = Stub(JarSnapshot) { getHash() >> new byte[2] }
@@ -62,4 +62,21 @@ class JarClasspathSnapshotFactoryTest extends Specification {
         s.data.jarHashes[new File("f1")] == new byte[1]
         s.data.jarHashes[new File("f2")] == new byte[2]
     }
+
+    def "propagates failure to snapshot a jar"() {
+        def jar1 = new JarArchive(new File("f1"))
+        def jar2 = new JarArchive(new File("f2"))
+        def failure = new RuntimeException("broken jar")
+
+        given:
+        snapshotter.createSnapshot(jar1) >> Stub(JarSnapshot)
+        snapshotter.createSnapshot(jar2) >> { throw failure }
+
+        when:
+        factory.createSnapshot([jar1, jar2])
+
+        then:
+        def e = thrown(RuntimeException)
+        e.is(failure)
+    }
 }
@@ -24,6 +24,11 @@ import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 
+/**
+ * Keeps track of the compiler daemons of a build. At most {@code maxIdleClients} daemons are kept idle for reuse, which should match the
+ * number of compile tasks that can run in parallel. When a daemon is released and that many are already idle, the daemon that has been idle
+ * the longest is stopped.
+ */
 public class CompilerClientsManager {
 
     private static final Logger LOGGER = Logging.getLogger(CompilerDaemonManager.class);
@@ -31,15 +36,29 @@ public class CompilerClientsManager {
     private final Object lock = new Object();
     private final List<CompilerDaemonClient> allClients = new ArrayList<CompilerDaemonClient>();
     private final List<CompilerDaemonClient> idleClients = new ArrayList<CompilerDaemonClient>();
+    private final int maxIdleClients;
+    private int reusedClients;
+    private int startedClients;
 
     private CompilerDaemonStarter compilerDaemonStarter;
 
     public CompilerClientsManager(CompilerDaemonStarter compilerDaemonStarter) {
+        this(compilerDaemonStarter, Integer.MAX_VALUE);
+    }
+
+    public CompilerClientsManager(CompilerDaemonStarter compilerDaemonStarter, int maxIdleClients) {
         this.compilerDaemonStarter = compilerDaemonStarter;
+        this.maxIdleClients = maxIdleClients;
     }
 
     public CompilerDaemonClient reserveIdleClient(DaemonForkOptions forkOptions) {
-        return reserveIdleClient(forkOptions, idleClients);
+        CompilerDaemonClient client = reserveIdleClient(forkOptions, idleClients);
+        if (client != null) {
+            synchronized (lock) {
+                reusedClients++;
+            }
+        }
+        return client;
     }
 
     CompilerDaemonClient reserveIdleClient(DaemonForkOptions forkOptions, List<CompilerDaemonClient> clients) {
@@ -61,14 +80,24 @@ public class CompilerClientsManager {
         CompilerDaemonClient client = compilerDaemonStarter.startDaemon(workingDir, forkOptions);
         synchronized (lock) {
             allClients.add(client);
+            startedClients++;
         }
         return client;
     }
 
     public void release(CompilerDaemonClient client) {
+        CompilerDaemonClient evicted;
         synchronized (lock) {
             idleClients.add(client);
+            if (idleClients.size() <= maxIdleClients) {
+                return;
+            }
+            // Clients are added when released, so the first idle client is the least recently used
+            evicted = idleClients.remove(0);
+            allClients.remove(evicted);
         }
+        LOGGER.debug("Stopping least recently used compiler daemon, as {} compiler daemon(s) are already idle.", maxIdleClients);
+        evicted.stop();
     }
 
     public void stop() {
@@ -76,7 +105,11 @@ public class CompilerClientsManager {
             LOGGER.debug("Stopping {} compiler daemon(s).", allClients.size());
             CompositeStoppable.stoppable(allClients).stop();
             LOGGER.info("Stopped {} compiler daemon(s).", allClients.size());
+            if (reusedClients + startedClients > 0) {
+                LOGGER.info("Compiler daemons were reused for {} of {} compilations, {} compiler daemon(s) were started.", reusedClients, reusedClients + startedClients, startedClients);
+            }
             allClients.clear();
+            idleClients.clear();
         }
     }
 }
\ No newline at end of file
@@ -94,4 +94,49 @@ class CompilerClientsManagerTest extends ConcurrentSpecification {
         then:
         manager.reserveIdleClient(options) == client
     }
+
+    def "stops least recently used idle client when the maximum number of clients are idle"() {
+        def client1 = Mock(CompilerDaemonClient)
+        def client2 = Mock(CompilerDaemonClient)
+        starter.startDaemon(workingDir, options) >>> [client1, client2]
+        def manager = new CompilerClientsManager(starter, 1)
+
+        when:
+        manager.reserveNewClient(workingDir, options)
+        manager.reserveNewClient(workingDir, options)
+        manager.release(client1)
+        manager.release(client2)
+
+        then:
+        1 * client1.stop()
+        0 * client2.stop()
+
+        when:
+        manager.stop()
+
+        then:
+        0 * client1.stop()
+        1 * client2.stop()
+    }
+
+    def "keeps released client of each kind idle when they fit"() {
+        def javaClient = Mock(CompilerDaemonClient) { isCompatibleWith(options) >> true }
+        def groovyOptions = Stub(DaemonForkOptions)
+        def groovyClient = Mock(CompilerDaemonClient) { isCompatibleWith(groovyOptions) >> true }
+        starter.startDaemon(workingDir, options) >> javaClient
+        starter.startDaemon(workingDir, groovyOptions) >> groovyClient
+        def manager = new CompilerClientsManager(starter, 2)
+
+        when:
+        2.times {
+            def java = manager.reserveIdleClient(options) ?: manager.reserveNewClient(workingDir, options)
+            manager.release(java)
+            def groovy = manager.reserveIdleClient(groovyOptions) ?: manager.reserveNewClient(workingDir, groovyOptions)
+            manager.release(groovy)
+        }
+
+        then:
+        0 * javaClient.stop()
+        0 * groovyClient.stop()
+    }
 }
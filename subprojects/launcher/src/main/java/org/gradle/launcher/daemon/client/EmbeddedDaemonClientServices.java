@@ -74,6 +74,7 @@ public class EmbeddedDaemonClientServices extends DaemonClientServicesSupport {
                         get(ProcessEnvironment.class),
                         mgr,
                         new File("dummy"),
+                        new NoOpDaemonCommandAction(),
                         new NoOpDaemonCommandAction()));
     }
 
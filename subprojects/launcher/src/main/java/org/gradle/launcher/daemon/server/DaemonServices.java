@@ -15,6 +15,7 @@
  */
 package org.gradle.launcher.daemon.server;
 
+import org.gradle.api.internal.DocumentationRegistry;
 import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
 import org.gradle.initialization.GradleLauncherFactory;
@@ -24,6 +25,7 @@ import org.gradle.internal.nativeintegration.services.NativeServices;
 import org.gradle.internal.service.DefaultServiceRegistry;
 import org.gradle.internal.service.ServiceRegistry;
 import org.gradle.internal.service.scopes.GlobalScopeServices;
+import org.gradle.launcher.daemon.bootstrap.DaemonGreeter;
 import org.gradle.launcher.daemon.configuration.DaemonServerConfiguration;
 import org.gradle.launcher.daemon.context.DaemonContext;
 import org.gradle.launcher.daemon.context.DaemonContextBuilder;
@@ -32,6 +34,7 @@ import org.gradle.launcher.daemon.registry.DaemonRegistry;
 import org.gradle.launcher.daemon.registry.DaemonRegistryServices;
 import org.gradle.launcher.daemon.server.exec.DaemonHygieneAction;
 import org.gradle.launcher.daemon.server.exec.DefaultDaemonCommandExecuter;
+import org.gradle.launcher.daemon.server.exec.StartStandbyDaemon;
 import org.gradle.launcher.daemon.server.exec.StopHandlingCommandExecuter;
 import org.gradle.launcher.exec.InProcessBuildActionExecuter;
 import org.gradle.logging.LoggingManagerInternal;
@@ -89,7 +92,12 @@ public class DaemonServices extends DefaultServiceRegistry {
                                 get(ProcessEnvironment.class),
                                 loggingManager,
                                 getDaemonLogFile(),
-                                new DaemonHygieneAction())),
+                                new DaemonHygieneAction(),
+                                new StartStandbyDaemon(
+                                        get(DaemonRegistry.class),
+                                        get(DaemonDir.class),
+                                        new DaemonGreeter(get(DocumentationRegistry.class)),
+                                        get(ExecutorFactory.class).create("Standby daemon starter")))),
                 get(ExecutorFactory.class));
     }
 
@@ -0,0 +1,60 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.launcher.daemon.server.exec;
+
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.internal.TimeProvider;
+import org.gradle.internal.TrueTimeProvider;
+import org.gradle.launcher.daemon.protocol.Build;
+
+/**
+ * Checks the memory health of the daemon once the build has completed and reports it to the client. When the daemon's memory is exhausted, the
+ * daemon is stopped once the build result has been returned, so that it is removed from the registry and the next build starts a fresh daemon.
+ */
+public class DaemonHealthCheck extends BuildCommandOnly {
+    private static final Logger LOGGER = Logging.getLogger(DaemonHealthCheck.class);
+
+    private final DaemonMemoryStatus memoryStatus;
+    private final TimeProvider timeProvider;
+
+    public DaemonHealthCheck() {
+        this(new DaemonMemoryStatus(), new TrueTimeProvider());
+    }
+
+    DaemonHealthCheck(DaemonMemoryStatus memoryStatus, TimeProvider timeProvider) {
+        this.memoryStatus = memoryStatus;
+        this.timeProvider = timeProvider;
+    }
+
+    @Override
+    protected void doBuild(DaemonCommandExecution execution, Build build) {
+        long startTime = timeProvider.getCurrentTime();
+        long startGcTime = memoryStatus.getGcTime();
+
+        execution.proceed();
+
+        DaemonMemoryStatus.Stats stats = memoryStatus.getStats(memoryStatus.getGcTime() - startGcTime, timeProvider.getCurrentTime() - startTime);
+        LOGGER.info("Daemon memory status: {}.", stats);
+        String reason = stats.getExhaustedReason();
+        if (reason != null) {
+            LOGGER.lifecycle("This daemon will stop at the end of the build, as its memory is exhausted: {}.", reason);
+            execution.getDaemonStateControl().requestStop();
+        }
+    }
+}
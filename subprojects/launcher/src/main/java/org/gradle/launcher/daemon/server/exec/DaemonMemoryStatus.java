@@ -0,0 +1,160 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.launcher.daemon.server.exec;
+
+import org.gradle.api.Nullable;
+
+import java.lang.management.*;
+import java.util.List;
+
+/**
+ * Measures the memory health of the daemon: the proportion of time spent in garbage collection during a build, the usage of the tenured heap
+ * after garbage collection, and the usage of the permanent generation or metaspace after garbage collection.
+ *
+ * <p>The usage of a pool is only checked when the pool has a maximum size. The metaspace has no maximum size unless {@code -XX:MaxMetaspaceSize}
+ * is set, so its usage is only checked when the daemon is started with this option.</p>
+ */
+public class DaemonMemoryStatus {
+    static final double TENURED_USAGE_EXPIRE_AT = 0.9;
+    static final double GC_TIME_EXPIRE_AT = 0.1;
+    static final double PERMGEN_USAGE_EXPIRE_AT = 0.9;
+
+    private final List<MemoryPoolMXBean> memoryPools;
+    private final List<GarbageCollectorMXBean> garbageCollectors;
+
+    public DaemonMemoryStatus() {
+        this(ManagementFactory.getMemoryPoolMXBeans(), ManagementFactory.getGarbageCollectorMXBeans());
+    }
+
+    DaemonMemoryStatus(List<MemoryPoolMXBean> memoryPools, List<GarbageCollectorMXBean> garbageCollectors) {
+        this.memoryPools = memoryPools;
+        this.garbageCollectors = garbageCollectors;
+    }
+
+    /**
+     * Returns the total time spent in garbage collection by this process, in milliseconds.
+     */
+    public long getGcTime() {
+        long total = 0;
+        for (GarbageCollectorMXBean garbageCollector : garbageCollectors) {
+            long time = garbageCollector.getCollectionTime();
+            if (time > 0) {
+                total += time;
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Returns the current memory stats, given the garbage collection time and the elapsed time of the period being measured.
+     */
+    public Stats getStats(long gcTime, long elapsedTime) {
+        MemoryUsage tenured = null;
+        String tenuredName = null;
+        MemoryUsage permGen = null;
+        String permGenName = null;
+        boolean permGenAfterGc = false;
+        for (MemoryPoolMXBean pool : memoryPools) {
+            if (!pool.isValid()) {
+                continue;
+            }
+            String name = pool.getName();
+            if (pool.getType() == MemoryType.HEAP && (name.contains("Old Gen") || name.contains("Tenured Gen"))) {
+                tenured = pool.getCollectionUsage();
+                tenuredName = name;
+            } else if (pool.getType() == MemoryType.NON_HEAP && (name.contains("Perm Gen") || name.equals("Metaspace"))) {
+                // Not all JVMs report the usage after garbage collection for these pools
+                MemoryUsage collectionUsage = pool.getCollectionUsage();
+                permGenAfterGc = collectionUsage != null;
+                permGen = permGenAfterGc ? collectionUsage : pool.getUsage();
+                permGenName = name;
+            }
+        }
+        double gcTimeRatio = elapsedTime > 0 ? (double) gcTime / elapsedTime : 0;
+        return new Stats(gcTimeRatio, tenuredName, tenured, permGenName, permGen, permGenAfterGc);
+    }
+
+    public static class Stats {
+        private static final long MB = 1024 * 1024;
+
+        private final double gcTimeRatio;
+        private final String tenuredName;
+        private final MemoryUsage tenured;
+        private final String permGenName;
+        private final MemoryUsage permGen;
+        private final boolean permGenAfterGc;
+
+        Stats(double gcTimeRatio, @Nullable String tenuredName, @Nullable MemoryUsage tenured, @Nullable String permGenName, @Nullable MemoryUsage permGen,
+              boolean permGenAfterGc) {
+            this.gcTimeRatio = gcTimeRatio;
+            this.tenuredName = tenuredName;
+            this.tenured = tenured;
+            this.permGenName = permGenName;
+            this.permGen = permGen;
+            this.permGenAfterGc = permGenAfterGc;
+        }
+
+        /**
+         * Returns the reason why the daemon should no longer be used, or null when its memory is healthy.
+         */
+        @Nullable
+        public String getExhaustedReason() {
+            double tenuredUsage = usage(tenured);
+            if (tenuredUsage >= TENURED_USAGE_EXPIRE_AT && gcTimeRatio >= GC_TIME_EXPIRE_AT) {
+                return String.format("%s is %d%% used after garbage collection and %d%% of the build time was spent in garbage collection",
+                        tenuredName, percent(tenuredUsage), percent(gcTimeRatio));
+            }
+            double permGenUsage = usage(permGen);
+            if (permGenUsage >= PERMGEN_USAGE_EXPIRE_AT) {
+                return String.format("%s is %d%% used%s", permGenName, percent(permGenUsage), permGenAfterGc ? " after garbage collection" : "");
+            }
+            return null;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder builder = new StringBuilder();
+            builder.append(String.format("%d%% of the build time spent in garbage collection", percent(gcTimeRatio)));
+            if (tenured != null) {
+                builder.append(String.format(", %s %s used after garbage collection", tenuredName, format(tenured)));
+            }
+            if (permGen != null) {
+                builder.append(String.format(", %s %s used%s", permGenName, format(permGen), permGenAfterGc ? " after garbage collection" : ""));
+            }
+            return builder.toString();
+        }
+
+        private static double usage(@Nullable MemoryUsage usage) {
+            if (usage == null || usage.getMax() <= 0) {
+                return 0;
+            }
+            return (double) usage.getUsed() / usage.getMax();
+        }
+
+        private static int percent(double ratio) {
+            return (int) Math.round(ratio * 100);
+        }
+
+        private static String format(MemoryUsage usage) {
+            if (usage.getMax() <= 0) {
+                return String.format("%dMB", usage.getUsed() / MB);
+            }
+            return String.format("%dMB of %dMB", usage.getUsed() / MB, usage.getMax() / MB);
+        }
+    }
+}
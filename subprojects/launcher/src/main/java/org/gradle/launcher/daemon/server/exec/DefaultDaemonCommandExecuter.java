@@ -36,16 +36,19 @@ public class DefaultDaemonCommandExecuter implements DaemonCommandExecuter {
     private final LoggingOutputInternal loggingOutput;
     private final BuildActionExecuter<BuildActionParameters> actionExecuter;
     private final DaemonCommandAction hygieneAction;
+    private final DaemonCommandAction standbyAction;
     private final ProcessEnvironment processEnvironment;
     private final File daemonLog;
 
     public DefaultDaemonCommandExecuter(BuildActionExecuter<BuildActionParameters> actionExecuter, ProcessEnvironment processEnvironment,
-                                        LoggingManagerInternal loggingOutput, File daemonLog, DaemonCommandAction hygieneAction) {
+                                        LoggingManagerInternal loggingOutput, File daemonLog, DaemonCommandAction hygieneAction,
+                                        DaemonCommandAction standbyAction) {
         this.processEnvironment = processEnvironment;
         this.daemonLog = daemonLog;
         this.loggingOutput = loggingOutput;
         this.actionExecuter = actionExecuter;
         this.hygieneAction = hygieneAction;
+        this.standbyAction = standbyAction;
     }
 
     public void executeCommand(DaemonConnection connection, Command command, DaemonContext daemonContext, DaemonStateControl daemonStateControl) {
@@ -63,11 +66,13 @@ public class DefaultDaemonCommandExecuter implements DaemonCommandExecuter {
         return new LinkedList<DaemonCommandAction>(Arrays.asList(
             new HandleCancel(),
             new StartBuildOrRespondWithBusy(daemonDiagnostics),
+            standbyAction,
             hygieneAction,
             new EstablishBuildEnvironment(processEnvironment),
             new LogToClient(loggingOutput, daemonDiagnostics), // from this point down, logging is sent back to the client
             new ForwardClientInput(),
             new ReturnResult(),
+            new DaemonHealthCheck(),
             new StartStopIfBuildAndStop(),
             new ResetDeprecationLogger(),
             new WatchForDisconnection(),
@@ -0,0 +1,141 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.launcher.daemon.server.exec;
+
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.initialization.BuildLayoutParameters;
+import org.gradle.internal.concurrent.StoppableExecutor;
+import org.gradle.launcher.daemon.bootstrap.DaemonGreeter;
+import org.gradle.launcher.daemon.client.DaemonStarter;
+import org.gradle.launcher.daemon.client.DefaultDaemonStarter;
+import org.gradle.launcher.daemon.configuration.DaemonParameters;
+import org.gradle.launcher.daemon.context.DaemonCompatibilitySpec;
+import org.gradle.launcher.daemon.context.DaemonContext;
+import org.gradle.launcher.daemon.diagnostics.DaemonStartupInfo;
+import org.gradle.launcher.daemon.protocol.Build;
+import org.gradle.launcher.daemon.registry.DaemonDir;
+import org.gradle.launcher.daemon.registry.DaemonInfo;
+import org.gradle.launcher.daemon.registry.DaemonRegistry;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Starts an idle standby daemon in the background when this daemon becomes busy, so that a build started while this one is running does not
+ * have to wait for a new daemon to start. The standby uses the same Java home and daemon options as this daemon, so it is compatible with the
+ * clients of this daemon.
+ *
+ * <p>This is opt-in, through the {@value #ENABLED_PROPERTY} system property of the client. No standby is started when there is already an idle
+ * compatible daemon, or when the registry already contains {@value #MAX_DAEMONS_PROPERTY} daemons. A standby stops after being idle for
+ * {@value #IDLE_TIMEOUT_PROPERTY} milliseconds, and keeps this idle timeout once it has been used.</p>
+ */
+public class StartStandbyDaemon extends BuildCommandOnly {
+    public static final String ENABLED_PROPERTY = "org.gradle.daemon.standby";
+    public static final String MAX_DAEMONS_PROPERTY = "org.gradle.daemon.standby.maxdaemons";
+    public static final String IDLE_TIMEOUT_PROPERTY = "org.gradle.daemon.standby.idletimeout";
+    static final int DEFAULT_MAX_DAEMONS = 4;
+    static final int DEFAULT_IDLE_TIMEOUT = 10 * 60 * 1000;
+
+    private static final Logger LOGGER = Logging.getLogger(StartStandbyDaemon.class);
+
+    private final DaemonRegistry daemonRegistry;
+    private final DaemonDir daemonDir;
+    private final DaemonGreeter daemonGreeter;
+    private final StoppableExecutor executor;
+    private final AtomicBoolean starting = new AtomicBoolean();
+
+    public StartStandbyDaemon(DaemonRegistry daemonRegistry, DaemonDir daemonDir, DaemonGreeter daemonGreeter, StoppableExecutor executor) {
+        this.daemonRegistry = daemonRegistry;
+        this.daemonDir = daemonDir;
+        this.daemonGreeter = daemonGreeter;
+        this.executor = executor;
+    }
+
+    @Override
+    protected void doBuild(DaemonCommandExecution execution, Build build) {
+        Map<String, String> properties = build.getParameters().getSystemProperties();
+        if (Boolean.parseBoolean(properties.get(ENABLED_PROPERTY)) && starting.compareAndSet(false, true)) {
+            final DaemonContext daemonContext = execution.getDaemonContext();
+            final int maxDaemons = intProperty(properties, MAX_DAEMONS_PROPERTY, DEFAULT_MAX_DAEMONS);
+            final int idleTimeout = intProperty(properties, IDLE_TIMEOUT_PROPERTY, DEFAULT_IDLE_TIMEOUT);
+            executor.execute(new Runnable() {
+                public void run() {
+                    try {
+                        startStandbyIfRequired(daemonContext, maxDaemons, idleTimeout);
+                    } catch (Exception e) {
+                        LOGGER.info("Could not start a standby daemon.", e);
+                    } finally {
+                        starting.set(false);
+                    }
+                }
+            });
+        }
+        execution.proceed();
+    }
+
+    void startStandbyIfRequired(DaemonContext daemonContext, int maxDaemons, int idleTimeout) {
+        List<DaemonInfo> daemons = daemonRegistry.getAll();
+        if (daemons.size() >= maxDaemons) {
+            LOGGER.info("Not starting a standby daemon, as there are already {} daemons running.", daemons.size());
+            return;
+        }
+        DaemonCompatibilitySpec compatibilitySpec = new DaemonCompatibilitySpec(daemonContext);
+        for (DaemonInfo daemon : daemons) {
+            if (daemon.isIdle() && compatibilitySpec.isSatisfiedBy(daemon.getContext())) {
+                LOGGER.info("Not starting a standby daemon, as there is already an idle compatible daemon: {}", daemon);
+                return;
+            }
+        }
+
+        DaemonStartupInfo startupInfo = createStarter(daemonContext, idleTimeout).startDaemon();
+
+        // A new daemon registers itself as busy, so that it is reserved for the client that started it. Nobody is waiting for the standby, so advertise it as idle
+        for (DaemonInfo daemon : daemonRegistry.getAll()) {
+            if (daemon.getContext().getUid().equals(startupInfo.getUid())) {
+                daemonRegistry.markIdle(daemon.getAddress());
+                LOGGER.info("Started standby daemon: {}", daemon);
+                return;
+            }
+        }
+        LOGGER.info("Standby daemon {} did not register itself.", startupInfo.getUid());
+    }
+
+    DaemonStarter createStarter(DaemonContext daemonContext, int idleTimeout) {
+        DaemonParameters parameters = new DaemonParameters(new BuildLayoutParameters());
+        parameters.setBaseDir(daemonDir.getBaseDir());
+        parameters.setJavaHome(daemonContext.getJavaHome());
+        parameters.setJvmArgs(daemonContext.getDaemonOpts());
+        parameters.setIdleTimeout(idleTimeout);
+        return new DefaultDaemonStarter(daemonDir, parameters, daemonGreeter);
+    }
+
+    private static int intProperty(Map<String, String> properties, String name, int defaultValue) {
+        String value = properties.get(name);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            LOGGER.warn("Ignoring invalid value '{}' for system property '{}'.", value, name);
+            return defaultValue;
+        }
+    }
+}
@@ -76,7 +76,7 @@ class DaemonServerExceptionHandlingTest extends Specification {
             DaemonCommandExecuter createDaemonCommandExecuter() {
                 return new DefaultDaemonCommandExecuter(new InProcessBuildActionExecuter(get(GradleLauncherFactory)),
                         get(ProcessEnvironment), getFactory(LoggingManagerInternal.class).create(),
-                        new File("dummy"), new NoOpDaemonCommandAction()) {
+                        new File("dummy"), new NoOpDaemonCommandAction(), new NoOpDaemonCommandAction()) {
                     List<DaemonCommandAction> createActions(DaemonContext daemonContext) {
                         def actions = new LinkedList(super.createActions(daemonContext));
                         configureDeamonActions(actions);
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.launcher.daemon.server.exec
+
+import org.gradle.internal.TimeProvider
+import org.gradle.launcher.daemon.protocol.Build
+import spock.lang.Specification
+
+class DaemonHealthCheckTest extends Specification {
+    def memoryStatus = Mock(DaemonMemoryStatus)
+    def timeProvider = Stub(TimeProvider) {
+        getCurrentTime() >>> [1000, 3000]
+    }
+    def stateControl = Mock(DaemonStateControl)
+    def execution = Mock(DaemonCommandExecution) {
+        getCommand() >> Stub(Build)
+        getDaemonStateControl() >> stateControl
+    }
+    def stats = Mock(DaemonMemoryStatus.Stats)
+    def healthCheck = new DaemonHealthCheck(memoryStatus, timeProvider)
+
+    def "measures garbage collection during the build"() {
+        when:
+        healthCheck.execute(execution)
+
+        then:
+        1 * memoryStatus.getGcTime() >> 100
+
+        then:
+        1 * execution.proceed()
+
+        then:
+        1 * memoryStatus.getGcTime() >> 600
+        1 * memoryStatus.getStats(500, 2000) >> stats
+        1 * stats.getExhaustedReason() >> null
+        0 * stateControl._
+    }
+
+    def "stops daemon when memory is exhausted"() {
+        memoryStatus.getStats(_, _) >> stats
+        stats.getExhaustedReason() >> "PS Perm Gen is 95% used"
+
+        when:
+        healthCheck.execute(execution)
+
+        then:
+        1 * stateControl.requestStop()
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.launcher.daemon.server.exec
+
+import spock.lang.Specification
+
+import java.lang.management.GarbageCollectorMXBean
+import java.lang.management.MemoryPoolMXBean
+import java.lang.management.MemoryType
+import java.lang.management.MemoryUsage
+
+class DaemonMemoryStatusTest extends Specification {
+    static final long MB = 1024 * 1024
+
+    def "sums collection time of all garbage collectors"() {
+        def status = new DaemonMemoryStatus([], [collector(100), collector(250), collector(-1)])
+
+        expect:
+        status.gcTime == 350
+    }
+
+    def "memory is healthy when tenured heap has space after garbage collection"() {
+        def status = new DaemonMemoryStatus([tenured(500, 1000), permGen(50, 100)], [])
+
+        when:
+        def stats = status.getStats(500, 1000)
+
+        then:
+        stats.exhaustedReason == null
+        stats.toString() == "50% of the build time spent in garbage collection, PS Old Gen 500MB of 1000MB used after garbage collection, PS Perm Gen 50MB of 100MB used after garbage collection"
+    }
+
+    def "memory is healthy when tenured heap is full but little time is spent in garbage collection"() {
+        def status = new DaemonMemoryStatus([tenured(950, 1000)], [])
+
+        expect:
+        status.getStats(10, 1000).exhaustedReason == null
+    }
+
+    def "memory is exhausted when tenured heap is full after garbage collection and time is spent in garbage collection"() {
+        def status = new DaemonMemoryStatus([tenured(950, 1000)], [])
+
+        expect:
+        status.getStats(300, 1000).exhaustedReason == "PS Old Gen is 95% used after garbage collection and 30% of the build time was spent in garbage collection"
+    }
+
+    def "memory is exhausted when permanent generation is full"() {
+        def status = new DaemonMemoryStatus([tenured(100, 1000), permGen(95, 100)], [])
+
+        expect:
+        status.getStats(0, 1000).exhaustedReason == "PS Perm Gen is 95% used after garbage collection"
+    }
+
+    def "uses current usage of permanent generation when usage after garbage collection is not available"() {
+        def status = new DaemonMemoryStatus([pool("PS Perm Gen", MemoryType.NON_HEAP, null, usage(95, 100))], [])
+
+        expect:
+        status.getStats(0, 1000).exhaustedReason == "PS Perm Gen is 95% used"
+    }
+
+    def "checks metaspace usage after garbage collection when a maximum size is set"() {
+        def status = new DaemonMemoryStatus([pool("Metaspace", MemoryType.NON_HEAP, usage(95, 100), usage(99, 100))], [])
+
+        expect:
+        status.getStats(0, 1000).exhaustedReason == "Metaspace is 95% used after garbage collection"
+    }
+
+    def "ignores usage of pools without a maximum size"() {
+        def status = new DaemonMemoryStatus([pool("Metaspace", MemoryType.NON_HEAP, null, usage(500, -1))], [])
+
+        when:
+        def stats = status.getStats(0, 1000)
+
+        then:
+        stats.exhaustedReason == null
+        stats.toString() == "0% of the build time spent in garbage collection, Metaspace 500MB used"
+    }
+
+    def collector(long time) {
+        return Stub(GarbageCollectorMXBean) {
+            getCollectionTime() >> time
+        }
+    }
+
+    def tenured(long usedMb, long maxMb) {
+        return pool("PS Old Gen", MemoryType.HEAP, usage(usedMb, maxMb), usage(maxMb, maxMb))
+    }
+
+    def permGen(long usedMb, long maxMb) {
+        return pool("PS Perm Gen", MemoryType.NON_HEAP, usage(usedMb, maxMb), usage(maxMb, maxMb))
+    }
+
+    def pool(String name, MemoryType type, MemoryUsage collectionUsage, MemoryUsage usage) {
+        return Stub(MemoryPoolMXBean) {
+            isValid() >> true
+            getName() >> name
+            getType() >> type
+            getCollectionUsage() >> collectionUsage
+            getUsage() >> usage
+        }
+    }
+
+    def usage(long usedMb, long maxMb) {
+        return new MemoryUsage(-1, usedMb * MB, usedMb * MB, maxMb < 0 ? -1 : maxMb * MB)
+    }
+}
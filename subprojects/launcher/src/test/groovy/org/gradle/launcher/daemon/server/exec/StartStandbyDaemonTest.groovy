@@ -0,0 +1,156 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.launcher.daemon.server.exec
+
+import org.gradle.internal.concurrent.StoppableExecutor
+import org.gradle.launcher.daemon.bootstrap.DaemonGreeter
+import org.gradle.launcher.daemon.client.DaemonStarter
+import org.gradle.launcher.daemon.context.DaemonContext
+import org.gradle.launcher.daemon.diagnostics.DaemonStartupInfo
+import org.gradle.launcher.daemon.protocol.Build
+import org.gradle.launcher.daemon.registry.DaemonDir
+import org.gradle.launcher.daemon.registry.DaemonInfo
+import org.gradle.launcher.daemon.registry.DaemonRegistry
+import org.gradle.launcher.exec.BuildActionParameters
+import org.gradle.messaging.remote.Address
+import spock.lang.Specification
+
+class StartStandbyDaemonTest extends Specification {
+    def registry = Mock(DaemonRegistry)
+    def starter = Mock(DaemonStarter)
+    def executor = Stub(StoppableExecutor) {
+        execute(_) >> { Runnable action -> action.run() }
+    }
+    def properties = [(StartStandbyDaemon.ENABLED_PROPERTY): "true"]
+    def context = daemonContext("this")
+    def execution = Mock(DaemonCommandExecution) {
+        getCommand() >> Stub(Build) {
+            getParameters() >> Stub(BuildActionParameters) {
+                getSystemProperties() >> properties
+            }
+        }
+        getDaemonContext() >> context
+    }
+    def busy = new DaemonInfo(Stub(Address), context, "password", false)
+    int standbyIdleTimeout
+    def action = new StartStandbyDaemon(registry, new DaemonDir(new File("daemon")), Stub(DaemonGreeter), executor) {
+        @Override
+        DaemonStarter createStarter(DaemonContext daemonContext, int idleTimeout) {
+            assert daemonContext == context
+            standbyIdleTimeout = idleTimeout
+            return starter
+        }
+    }
+
+    def "does nothing when not enabled"() {
+        properties.clear()
+
+        when:
+        action.execute(execution)
+
+        then:
+        1 * execution.proceed()
+        0 * registry._
+        0 * starter._
+    }
+
+    def "starts standby daemon and advertises it as idle"() {
+        def standbyAddress = Stub(Address)
+
+        when:
+        action.execute(execution)
+
+        then:
+        1 * registry.getAll() >> [busy]
+
+        then:
+        1 * starter.startDaemon() >> new DaemonStartupInfo("standby", null)
+
+        then:
+        1 * registry.getAll() >> [busy, new DaemonInfo(standbyAddress, daemonContext("standby"), "password", false)]
+        1 * registry.markIdle(standbyAddress)
+
+        then:
+        1 * execution.proceed()
+        standbyIdleTimeout == StartStandbyDaemon.DEFAULT_IDLE_TIMEOUT
+    }
+
+    def "uses configured idle timeout for standby daemon"() {
+        properties[StartStandbyDaemon.IDLE_TIMEOUT_PROPERTY] = "5000"
+        registry.getAll() >> [busy]
+
+        when:
+        action.execute(execution)
+
+        then:
+        1 * starter.startDaemon() >> new DaemonStartupInfo("standby", null)
+        standbyIdleTimeout == 5000
+    }
+
+    def "does not start standby daemon when a compatible daemon is idle"() {
+        registry.getAll() >> [busy, new DaemonInfo(Stub(Address), daemonContext("other"), "password", true)]
+
+        when:
+        action.execute(execution)
+
+        then:
+        0 * starter._
+        1 * execution.proceed()
+    }
+
+    def "starts standby daemon when idle daemon is not compatible"() {
+        registry.getAll() >> [busy, new DaemonInfo(Stub(Address), daemonContext("other", ["-Xmx2g"]), "password", true)]
+
+        when:
+        action.execute(execution)
+
+        then:
+        1 * starter.startDaemon() >> new DaemonStartupInfo("standby", null)
+    }
+
+    def "does not start standby daemon when registry contains maximum number of daemons"() {
+        properties[StartStandbyDaemon.MAX_DAEMONS_PROPERTY] = "2"
+        registry.getAll() >> [busy, new DaemonInfo(Stub(Address), daemonContext("other"), "password", false)]
+
+        when:
+        action.execute(execution)
+
+        then:
+        0 * starter._
+        1 * execution.proceed()
+    }
+
+    def "build proceeds when standby daemon cannot be started"() {
+        registry.getAll() >> [busy]
+
+        when:
+        action.execute(execution)
+
+        then:
+        1 * starter.startDaemon() >> { throw new RuntimeException("broken") }
+        1 * execution.proceed()
+    }
+
+    private DaemonContext daemonContext(String uid, List<String> daemonOpts = ["-Xmx1g"]) {
+        return Stub(DaemonContext) {
+            getUid() >> uid
+            getJavaHome() >> new File("java-home")
+            getDaemonOpts() >> daemonOpts
+        }
+    }
+}
@@ -0,0 +1,285 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.publish.maven.internal.publisher;
+
+import org.gradle.api.Nullable;
+import org.gradle.internal.UncheckedException;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.transform.OutputKeys;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The content of a {@code maven-metadata.xml} file, either for a module, listing its published versions, or for a snapshot version,
+ * recording its latest timestamped build.
+ *
+ * <p>Metadata read from a repository keeps the parsed document, and is written back by updating only the elements that a publication
+ * changes. Any other content, such as elements written by other tools, is kept as is.</p>
+ */
+class MavenRepositoryMetadata {
+    private final Document document;
+    private final Set<String> versions = new LinkedHashSet<String>();
+    private final List<SnapshotVersion> snapshotVersions = new ArrayList<SnapshotVersion>();
+    private boolean versionsChanged;
+    private String latest;
+    private String release;
+    private String snapshotTimestamp;
+    private int snapshotBuildNumber;
+    private String lastUpdated;
+
+    MavenRepositoryMetadata(String groupId, String artifactId, @Nullable String version) {
+        document = newDocumentBuilder().newDocument();
+        Element root = document.createElement("metadata");
+        document.appendChild(root);
+        appendText(root, "groupId", groupId);
+        appendText(root, "artifactId", artifactId);
+        appendText(root, "version", version);
+    }
+
+    private MavenRepositoryMetadata(Document document) {
+        this.document = document;
+    }
+
+    /**
+     * Reads the metadata of a module or snapshot version from the given stream.
+     */
+    static MavenRepositoryMetadata read(InputStream inputStream) throws Exception {
+        Document document = newDocumentBuilder().parse(inputStream);
+        MavenRepositoryMetadata metadata = new MavenRepositoryMetadata(document);
+        Element versioning = child(document.getDocumentElement(), "versioning");
+        if (versioning == null) {
+            return metadata;
+        }
+        metadata.latest = text(versioning, "latest");
+        metadata.release = text(versioning, "release");
+        metadata.lastUpdated = text(versioning, "lastUpdated");
+        Element versions = child(versioning, "versions");
+        if (versions != null) {
+            for (Element element : children(versions, "version")) {
+                metadata.versions.add(element.getTextContent().trim());
+            }
+        }
+        Element snapshot = child(versioning, "snapshot");
+        if (snapshot != null) {
+            metadata.snapshotTimestamp = text(snapshot, "timestamp");
+            String buildNumber = text(snapshot, "buildNumber");
+            metadata.snapshotBuildNumber = buildNumber == null ? 0 : Integer.parseInt(buildNumber);
+        }
+        return metadata;
+    }
+
+    Set<String> getVersions() {
+        return versions;
+    }
+
+    @Nullable
+    String getLatest() {
+        return latest;
+    }
+
+    @Nullable
+    String getRelease() {
+        return release;
+    }
+
+    @Nullable
+    String getSnapshotTimestamp() {
+        return snapshotTimestamp;
+    }
+
+    int getSnapshotBuildNumber() {
+        return snapshotBuildNumber;
+    }
+
+    /**
+     * Adds a published version to the module metadata.
+     */
+    void addVersion(String version, String lastUpdated) {
+        versions.add(version);
+        versionsChanged = true;
+        latest = version;
+        if (!version.endsWith("-SNAPSHOT")) {
+            release = version;
+        }
+        this.lastUpdated = lastUpdated;
+    }
+
+    /**
+     * Records a new timestamped build of the snapshot version.
+     */
+    void setSnapshot(String timestamp, int buildNumber, String lastUpdated) {
+        this.snapshotTimestamp = timestamp;
+        this.snapshotBuildNumber = buildNumber;
+        this.lastUpdated = lastUpdated;
+    }
+
+    /**
+     * Records the timestamped version of an artifact of the new snapshot build. This is only written when the metadata already lists the
+     * timestamped version of each artifact, so that such a list does not point at the previous build.
+     */
+    void addSnapshotVersion(@Nullable String classifier, @Nullable String extension, String value) {
+        snapshotVersions.add(new SnapshotVersion(classifier == null ? "" : classifier, extension == null ? "" : extension, value));
+    }
+
+    void writeTo(File file) throws Exception {
+        Element versioning = getOrAppend(document.getDocumentElement(), "versioning");
+        if (snapshotTimestamp != null) {
+            Element snapshot = getOrAppend(versioning, "snapshot");
+            setText(snapshot, "timestamp", snapshotTimestamp);
+            setText(snapshot, "buildNumber", String.valueOf(snapshotBuildNumber));
+        }
+        setText(versioning, "latest", latest);
+        setText(versioning, "release", release);
+        if (versionsChanged) {
+            Element versionsElement = getOrAppend(versioning, "versions");
+            while (versionsElement.getFirstChild() != null) {
+                versionsElement.removeChild(versionsElement.getFirstChild());
+            }
+            for (String publishedVersion : versions) {
+                appendText(versionsElement, "version", publishedVersion);
+            }
+        }
+        Element snapshotVersionsElement = child(versioning, "snapshotVersions");
+        if (snapshotVersionsElement != null) {
+            for (SnapshotVersion snapshotVersion : snapshotVersions) {
+                snapshotVersion.writeTo(snapshotVersionsElement, lastUpdated);
+            }
+        }
+        setText(versioning, "lastUpdated", lastUpdated);
+
+        Transformer transformer = TransformerFactory.newInstance().newTransformer();
+        transformer.setOutputProperty(OutputKeys.ENCODING, "UTF-8");
+        transformer.setOutputProperty(OutputKeys.INDENT, "yes");
+        transformer.setOutputProperty("{http://xml.apache.org/xslt}indent-amount", "2");
+        OutputStream outputStream = new FileOutputStream(file);
+        try {
+            transformer.transform(new DOMSource(document), new StreamResult(outputStream));
+        } finally {
+            outputStream.close();
+        }
+    }
+
+    private static DocumentBuilder newDocumentBuilder() {
+        try {
+            return DocumentBuilderFactory.newInstance().newDocumentBuilder();
+        } catch (ParserConfigurationException e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+    }
+
+    private static Element getOrAppend(Element parent, String name) {
+        Element element = child(parent, name);
+        return element == null ? append(parent, name) : element;
+    }
+
+    private static void setText(Element parent, String name, @Nullable String value) {
+        if (value != null) {
+            getOrAppend(parent, name).setTextContent(value);
+        }
+    }
+
+    private static Element append(Element parent, String name) {
+        Element element = parent.getOwnerDocument().createElement(name);
+        parent.appendChild(element);
+        return element;
+    }
+
+    private static void appendText(Element parent, String name, @Nullable String value) {
+        if (value != null) {
+            append(parent, name).setTextContent(value);
+        }
+    }
+
+    @Nullable
+    private static Element child(Element parent, String name) {
+        NodeList children = parent.getChildNodes();
+        for (int i = 0; i < children.getLength(); i++) {
+            Node node = children.item(i);
+            if (node instanceof Element && node.getNodeName().equals(name)) {
+                return (Element) node;
+            }
+        }
+        return null;
+    }
+
+    private static List<Element> children(Element parent, String name) {
+        List<Element> elements = new ArrayList<Element>();
+        NodeList children = parent.getChildNodes();
+        for (int i = 0; i < children.getLength(); i++) {
+            Node node = children.item(i);
+            if (node instanceof Element && node.getNodeName().equals(name)) {
+                elements.add((Element) node);
+            }
+        }
+        return elements;
+    }
+
+    @Nullable
+    private static String text(Element parent, String name) {
+        Element element = child(parent, name);
+        return element == null ? null : element.getTextContent().trim();
+    }
+
+    private static class SnapshotVersion {
+        private final String classifier;
+        private final String extension;
+        private final String value;
+
+        SnapshotVersion(String classifier, String extension, String value) {
+            this.classifier = classifier;
+            this.extension = extension;
+            this.value = value;
+        }
+
+        void writeTo(Element snapshotVersions, String updated) {
+            Element element = null;
+            for (Element candidate : children(snapshotVersions, "snapshotVersion")) {
+                String candidateClassifier = text(candidate, "classifier");
+                if ((candidateClassifier == null ? "" : candidateClassifier).equals(classifier) && extension.equals(text(candidate, "extension"))) {
+                    element = candidate;
+                    break;
+                }
+            }
+            if (element == null) {
+                element = append(snapshotVersions, "snapshotVersion");
+                if (classifier.length() > 0) {
+                    appendText(element, "classifier", classifier);
+                }
+                appendText(element, "extension", extension);
+            }
+            setText(element, "value", value);
+            setText(element, "updated", updated);
+        }
+    }
+}
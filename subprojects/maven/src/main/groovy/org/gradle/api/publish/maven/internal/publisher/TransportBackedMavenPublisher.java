@@ -0,0 +1,282 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.publish.maven.internal.publisher;
+
+import org.gradle.api.InvalidUserDataException;
+import org.gradle.api.Nullable;
+import org.gradle.api.Transformer;
+import org.gradle.api.UncheckedIOException;
+import org.gradle.api.artifacts.repositories.MavenArtifactRepository;
+import org.gradle.api.internal.artifacts.repositories.transport.RepositoryTransportFactory;
+import org.gradle.api.publish.maven.MavenArtifact;
+import org.gradle.internal.Factory;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.concurrent.StoppableExecutor;
+import org.gradle.internal.hash.HashUtil;
+import org.gradle.internal.resource.ExternalResource;
+import org.gradle.internal.resource.transport.ExternalResourceRepository;
+import org.gradle.util.GFileUtils;
+import org.gradle.util.WrapUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.text.SimpleDateFormat;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A MavenPublisher that uploads a publication through the repository transport, rather than through the Maven Ant tasks. It holds no
+ * static state other than the metadata locks, so publications of different modules can be published concurrently.
+ *
+ * <p>The POM, the artifacts and their SHA1 and MD5 checksums are uploaded in parallel. The {@code maven-metadata.xml} files are updated
+ * once these uploads have completed, so that the metadata never refers to a file that is not yet available. Each metadata file is read,
+ * merged and written while holding a lock for its location, so concurrent publications of the same module do not lose versions.
+ * The lock only coordinates publishers within this process.</p>
+ */
+public class TransportBackedMavenPublisher implements MavenPublisher {
+    private static final Logger LOGGER = LoggerFactory.getLogger(TransportBackedMavenPublisher.class);
+    private static final Set<String> SUPPORTED_SCHEMES = WrapUtil.toSet("http", "https", "file", "sftp");
+    private static final int MAX_CONCURRENT_UPLOADS = 4;
+    private static final String SNAPSHOT_SUFFIX = "-SNAPSHOT";
+    private static final String METADATA_FILE_NAME = "maven-metadata.xml";
+    private static final ConcurrentMap<URI, Lock> METADATA_LOCKS = new ConcurrentHashMap<URI, Lock>();
+
+    private final RepositoryTransportFactory transportFactory;
+    private final ExecutorFactory executorFactory;
+    private final Factory<File> temporaryDirFactory;
+
+    public TransportBackedMavenPublisher(RepositoryTransportFactory transportFactory, ExecutorFactory executorFactory, Factory<File> temporaryDirFactory) {
+        this.transportFactory = transportFactory;
+        this.executorFactory = executorFactory;
+        this.temporaryDirFactory = temporaryDirFactory;
+    }
+
+    /**
+     * Returns true when the given repository can be published to by this publisher, that is, when there is a transport for its URL.
+     */
+    public static boolean canPublishTo(MavenArtifactRepository artifactRepository) {
+        URI rootUri = artifactRepository.getUrl();
+        return rootUri != null && SUPPORTED_SCHEMES.contains(rootUri.getScheme());
+    }
+
+    public void publish(MavenNormalizedPublication publication, MavenArtifactRepository artifactRepository) {
+        URI rootUri = artifactRepository.getUrl();
+        if (rootUri == null) {
+            throw new InvalidUserDataException("You must specify a URL for a Maven repository.");
+        }
+        LOGGER.info("Publishing to repository {}", artifactRepository);
+        ExternalResourceRepository repository = transportFactory.createTransport(rootUri.getScheme(), artifactRepository.getName(), artifactRepository.getCredentials()).getRepository();
+
+        MavenProjectIdentity projectIdentity = publication.getProjectIdentity();
+        String groupId = projectIdentity.getGroupId();
+        String artifactId = projectIdentity.getArtifactId();
+        String version = projectIdentity.getVersion();
+        String root = rootUri.toString().endsWith("/") ? rootUri.toString() : rootUri + "/";
+        String modulePath = root + groupId.replace('.', '/') + "/" + artifactId + "/";
+        String versionPath = modulePath + version + "/";
+
+        File workDir = temporaryDirFactory.create();
+        Date now = new Date();
+        String lastUpdated = utcFormat("yyyyMMddHHmmss").format(now);
+
+        if (version.endsWith(SNAPSHOT_SUFFIX)) {
+            // The timestamped file names depend on the build number recorded in the snapshot metadata, so hold its lock for the whole upload
+            URI snapshotMetadataUri = URI.create(versionPath + METADATA_FILE_NAME);
+            Lock lock = lockFor(snapshotMetadataUri);
+            lock.lock();
+            try {
+                MavenRepositoryMetadata snapshotMetadata = readMetadata(repository, snapshotMetadataUri, groupId, artifactId, version);
+                String timestamp = utcFormat("yyyyMMdd.HHmmss").format(now);
+                int buildNumber = snapshotMetadata.getSnapshotBuildNumber() + 1;
+                snapshotMetadata.setSnapshot(timestamp, buildNumber, lastUpdated);
+                String artifactVersion = version.substring(0, version.length() - "SNAPSHOT".length()) + timestamp + "-" + buildNumber;
+                snapshotMetadata.addSnapshotVersion(null, "pom", artifactVersion);
+                for (MavenArtifact artifact : publication.getArtifacts()) {
+                    snapshotMetadata.addSnapshotVersion(artifact.getClassifier(), artifact.getExtension(), artifactVersion);
+                }
+
+                uploadAll(repository, publicationFiles(publication, versionPath, artifactId, artifactVersion), workDir);
+                writeMetadata(repository, snapshotMetadata, snapshotMetadataUri, workDir);
+            } finally {
+                lock.unlock();
+            }
+        } else {
+            uploadAll(repository, publicationFiles(publication, versionPath, artifactId, version), workDir);
+        }
+
+        URI moduleMetadataUri = URI.create(modulePath + METADATA_FILE_NAME);
+        Lock lock = lockFor(moduleMetadataUri);
+        lock.lock();
+        try {
+            MavenRepositoryMetadata moduleMetadata = readMetadata(repository, moduleMetadataUri, groupId, artifactId, null);
+            moduleMetadata.addVersion(version, lastUpdated);
+            writeMetadata(repository, moduleMetadata, moduleMetadataUri, workDir);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private List<Upload> publicationFiles(MavenNormalizedPublication publication, String versionPath, String artifactId, String artifactVersion) {
+        String baseName = versionPath + artifactId + "-" + artifactVersion;
+        List<Upload> uploads = new ArrayList<Upload>();
+        uploads.add(new Upload(publication.getPomFile(), URI.create(baseName + ".pom")));
+        for (MavenArtifact artifact : publication.getArtifacts()) {
+            StringBuilder path = new StringBuilder(baseName);
+            if (artifact.getClassifier() != null && artifact.getClassifier().length() > 0) {
+                path.append('-').append(artifact.getClassifier());
+            }
+            if (artifact.getExtension() != null && artifact.getExtension().length() > 0) {
+                path.append('.').append(artifact.getExtension());
+            }
+            uploads.add(new Upload(artifact.getFile(), URI.create(path.toString())));
+        }
+        return uploads;
+    }
+
+    private MavenRepositoryMetadata readMetadata(ExternalResourceRepository repository, URI metadataUri, String groupId, String artifactId, @Nullable String version) {
+        ExternalResource resource;
+        try {
+            resource = repository.getResource(metadataUri);
+        } catch (IOException e) {
+            throw new UncheckedIOException(String.format("Could not read Maven metadata %s.", metadataUri), e);
+        }
+        if (resource == null) {
+            return new MavenRepositoryMetadata(groupId, artifactId, version);
+        }
+        try {
+            return resource.withContent(new Transformer<MavenRepositoryMetadata, InputStream>() {
+                public MavenRepositoryMetadata transform(InputStream inputStream) {
+                    try {
+                        return MavenRepositoryMetadata.read(inputStream);
+                    } catch (Exception e) {
+                        throw UncheckedException.throwAsUncheckedException(e);
+                    }
+                }
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException(String.format("Could not read Maven metadata %s.", metadataUri), e);
+        } finally {
+            try {
+                resource.close();
+            } catch (IOException e) {
+                LOGGER.debug("Could not close Maven metadata resource.", e);
+            }
+        }
+    }
+
+    private void writeMetadata(ExternalResourceRepository repository, MavenRepositoryMetadata metadata, URI metadataUri, File workDir) {
+        File metadataFile = createTempFile(workDir, METADATA_FILE_NAME);
+        try {
+            metadata.writeTo(metadataFile);
+        } catch (Exception e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+        uploadAll(repository, Collections.singletonList(new Upload(metadataFile, metadataUri)), workDir);
+    }
+
+    /**
+     * Uploads the given files and their checksums, using a worker per concurrent upload. Each worker takes the next file that has not been
+     * started yet.
+     */
+    private void uploadAll(final ExternalResourceRepository repository, List<Upload> files, File workDir) {
+        final List<Upload> uploads = new ArrayList<Upload>();
+        for (Upload file : files) {
+            uploads.add(file);
+            uploads.add(new Upload(createChecksumFile(file.source, "SHA1", 40, workDir), URI.create(file.destination + ".sha1")));
+            uploads.add(new Upload(createChecksumFile(file.source, "MD5", 32, workDir), URI.create(file.destination + ".md5")));
+        }
+
+        final AtomicInteger nextUpload = new AtomicInteger();
+        int workerCount = Math.min(uploads.size(), MAX_CONCURRENT_UPLOADS);
+        StoppableExecutor executor = executorFactory.create("Maven publisher");
+        try {
+            for (int worker = 0; worker < workerCount; worker++) {
+                executor.execute(new Runnable() {
+                    public void run() {
+                        int i;
+                        while ((i = nextUpload.getAndIncrement()) < uploads.size()) {
+                            uploads.get(i).uploadTo(repository);
+                        }
+                    }
+                });
+            }
+        } finally {
+            // Waits for the workers and rethrows the first failure
+            executor.stop();
+        }
+    }
+
+    private File createChecksumFile(File source, String algorithm, int length, File workDir) {
+        String checksum = HashUtil.createHash(source, algorithm).asHexString();
+        while (checksum.length() < length) {
+            checksum = "0" + checksum;
+        }
+        File checksumFile = createTempFile(workDir, source.getName() + "." + algorithm.toLowerCase());
+        GFileUtils.writeFile(checksum, checksumFile, "US-ASCII");
+        return checksumFile;
+    }
+
+    private static File createTempFile(File workDir, String name) {
+        try {
+            return File.createTempFile("publish", "-" + name, workDir);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Lock lockFor(URI metadataUri) {
+        Lock lock = METADATA_LOCKS.get(metadataUri);
+        if (lock == null) {
+            METADATA_LOCKS.putIfAbsent(metadataUri, new ReentrantLock());
+            lock = METADATA_LOCKS.get(metadataUri);
+        }
+        return lock;
+    }
+
+    private static SimpleDateFormat utcFormat(String pattern) {
+        SimpleDateFormat format = new SimpleDateFormat(pattern);
+        format.setTimeZone(TimeZone.getTimeZone("UTC"));
+        return format;
+    }
+
+    private static class Upload {
+        private final File source;
+        private final URI destination;
+
+        Upload(File source, URI destination) {
+            this.source = source;
+            this.destination = destination;
+        }
+
+        void uploadTo(ExternalResourceRepository repository) {
+            try {
+                repository.putWithoutChecksum(source, destination);
+            } catch (IOException e) {
+                throw new UncheckedIOException(String.format("Could not upload %s to %s.", source, destination), e);
+            }
+        }
+    }
+}
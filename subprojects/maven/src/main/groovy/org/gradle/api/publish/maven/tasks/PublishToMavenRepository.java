@@ -21,15 +21,18 @@ import org.gradle.api.Incubating;
 import org.gradle.api.InvalidUserDataException;
 import org.gradle.api.artifacts.repositories.MavenArtifactRepository;
 import org.gradle.api.file.FileCollection;
+import org.gradle.api.internal.artifacts.repositories.transport.RepositoryTransportFactory;
 import org.gradle.api.publish.internal.PublishOperation;
 import org.gradle.api.publish.maven.MavenPublication;
 import org.gradle.api.publish.maven.internal.publication.MavenPublicationInternal;
 import org.gradle.api.publish.maven.internal.publisher.AntTaskBackedMavenPublisher;
 import org.gradle.api.publish.maven.internal.publisher.MavenPublisher;
 import org.gradle.api.publish.maven.internal.publisher.StaticLockingMavenPublisher;
+import org.gradle.api.publish.maven.internal.publisher.TransportBackedMavenPublisher;
 import org.gradle.api.publish.maven.internal.publisher.ValidatingMavenPublisher;
 import org.gradle.api.tasks.TaskAction;
 import org.gradle.internal.Factory;
+import org.gradle.internal.concurrent.ExecutorFactory;
 import org.gradle.logging.LoggingManagerInternal;
 
 import javax.inject.Inject;
@@ -138,15 +141,32 @@ public class PublishToMavenRepository extends DefaultTask {
         throw new UnsupportedOperationException();
     }
 
+    @Inject
+    protected RepositoryTransportFactory getRepositoryTransportFactory() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Inject
+    protected ExecutorFactory getExecutorFactory() {
+        throw new UnsupportedOperationException();
+    }
+
     protected void doPublish(final MavenPublicationInternal publication, final MavenArtifactRepository repository) {
         new PublishOperation(publication, repository) {
             @Override
             protected void publish() throws Exception {
-                MavenPublisher antBackedPublisher = new AntTaskBackedMavenPublisher(getLoggingManagerFactory(), getTemporaryDirFactory());
-                MavenPublisher staticLockingPublisher = new StaticLockingMavenPublisher(antBackedPublisher);
-                MavenPublisher validatingPublisher = new ValidatingMavenPublisher(staticLockingPublisher);
+                MavenPublisher validatingPublisher = new ValidatingMavenPublisher(createPublisher(repository));
                 validatingPublisher.publish(publication.asNormalisedPublication(), repository);
             }
         }.run();
     }
+
+    private MavenPublisher createPublisher(MavenArtifactRepository repository) {
+        if (TransportBackedMavenPublisher.canPublishTo(repository)) {
+            return new TransportBackedMavenPublisher(getRepositoryTransportFactory(), getExecutorFactory(), getTemporaryDirFactory());
+        }
+        // The Maven Ant tasks support some further repository protocols, but hold static state
+        MavenPublisher antBackedPublisher = new AntTaskBackedMavenPublisher(getLoggingManagerFactory(), getTemporaryDirFactory());
+        return new StaticLockingMavenPublisher(antBackedPublisher);
+    }
 }
@@ -0,0 +1,158 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.publish.maven.internal.publisher
+
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+class MavenRepositoryMetadataTest extends Specification {
+    @Rule TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+
+    def "writes new module metadata"() {
+        def metadata = new MavenRepositoryMetadata("group", "module", null)
+        metadata.addVersion("1.0", "20141101120000")
+
+        when:
+        def xml = writeAndParse(metadata)
+
+        then:
+        xml.groupId.text() == "group"
+        xml.artifactId.text() == "module"
+        xml.versioning.latest.text() == "1.0"
+        xml.versioning.release.text() == "1.0"
+        xml.versioning.versions.version*.text() == ["1.0"]
+        xml.versioning.lastUpdated.text() == "20141101120000"
+    }
+
+    def "keeps content it does not own when adding a version"() {
+        def file = tmpDir.file("maven-metadata.xml")
+        file.text = """<?xml version="1.0" encoding="UTF-8"?>
+<metadata modelVersion="1.1.0">
+  <groupId>group</groupId>
+  <artifactId>module</artifactId>
+  <versioning>
+    <latest>1.0</latest>
+    <release>1.0</release>
+    <versions>
+      <version>1.0</version>
+    </versions>
+    <lastUpdated>20141101120000</lastUpdated>
+  </versioning>
+  <custom><value>kept</value></custom>
+</metadata>
+"""
+
+        when:
+        def metadata = read(file)
+        metadata.addVersion("1.1", "20141102120000")
+        def xml = writeAndParse(metadata)
+
+        then:
+        xml.@modelVersion.text() == "1.1.0"
+        xml.custom.value.text() == "kept"
+        xml.versioning.latest.text() == "1.1"
+        xml.versioning.release.text() == "1.1"
+        xml.versioning.versions.version*.text() == ["1.0", "1.1"]
+        xml.versioning.lastUpdated.text() == "20141102120000"
+    }
+
+    def "keeps snapshot versions and unknown elements when recording a snapshot build"() {
+        def file = tmpDir.file("maven-metadata.xml")
+        file.text = """<?xml version="1.0" encoding="UTF-8"?>
+<metadata modelVersion="1.1.0">
+  <groupId>group</groupId>
+  <artifactId>module</artifactId>
+  <version>1.0-SNAPSHOT</version>
+  <versioning>
+    <snapshot>
+      <timestamp>20141101.120000</timestamp>
+      <buildNumber>1</buildNumber>
+    </snapshot>
+    <lastUpdated>20141101120000</lastUpdated>
+    <snapshotVersions>
+      <snapshotVersion>
+        <extension>pom</extension>
+        <value>1.0-20141101.120000-1</value>
+        <updated>20141101120000</updated>
+      </snapshotVersion>
+      <snapshotVersion>
+        <classifier>javadoc</classifier>
+        <extension>jar</extension>
+        <value>1.0-20141101.120000-1</value>
+        <updated>20141101120000</updated>
+      </snapshotVersion>
+    </snapshotVersions>
+    <unknown>kept</unknown>
+  </versioning>
+</metadata>
+"""
+
+        when:
+        def metadata = read(file)
+        metadata.setSnapshot("20141102.120000", 2, "20141102120000")
+        metadata.addSnapshotVersion(null, "pom", "1.0-20141102.120000-2")
+        metadata.addSnapshotVersion(null, "jar", "1.0-20141102.120000-2")
+        def xml = writeAndParse(metadata)
+
+        then:
+        xml.version.text() == "1.0-SNAPSHOT"
+        xml.versioning.unknown.text() == "kept"
+        xml.versioning.snapshot.timestamp.text() == "20141102.120000"
+        xml.versioning.snapshot.buildNumber.text() == "2"
+        xml.versioning.lastUpdated.text() == "20141102120000"
+
+        and:
+        def snapshotVersions = xml.versioning.snapshotVersions.snapshotVersion
+        snapshotVersions.size() == 3
+        snapshotVersions[0].extension.text() == "pom"
+        snapshotVersions[0].value.text() == "1.0-20141102.120000-2"
+        snapshotVersions[0].updated.text() == "20141102120000"
+        snapshotVersions[1].classifier.text() == "javadoc"
+        snapshotVersions[1].value.text() == "1.0-20141101.120000-1"
+        snapshotVersions[1].updated.text() == "20141101120000"
+        snapshotVersions[2].classifier.isEmpty()
+        snapshotVersions[2].extension.text() == "jar"
+        snapshotVersions[2].value.text() == "1.0-20141102.120000-2"
+    }
+
+    def "round trips metadata it wrote"() {
+        def file = tmpDir.file("maven-metadata.xml")
+        def metadata = new MavenRepositoryMetadata("group", "module", "1.0-SNAPSHOT")
+        metadata.setSnapshot("20141101.120000", 1, "20141101120000")
+        metadata.writeTo(file)
+
+        when:
+        def reread = read(file)
+
+        then:
+        reread.snapshotTimestamp == "20141101.120000"
+        reread.snapshotBuildNumber == 1
+        reread.versions.empty
+    }
+
+    private static MavenRepositoryMetadata read(File file) {
+        return file.withInputStream { MavenRepositoryMetadata.read(it) }
+    }
+
+    private def writeAndParse(MavenRepositoryMetadata metadata) {
+        def file = tmpDir.file("written/maven-metadata.xml")
+        file.parentFile.mkdirs()
+        metadata.writeTo(file)
+        return new XmlSlurper().parse(file)
+    }
+}
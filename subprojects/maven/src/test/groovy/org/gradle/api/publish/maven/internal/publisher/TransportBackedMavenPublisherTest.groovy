@@ -0,0 +1,181 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.publish.maven.internal.publisher
+
+import org.gradle.api.artifacts.repositories.MavenArtifactRepository
+import org.gradle.api.internal.artifacts.repositories.transport.RepositoryTransportFactory
+import org.gradle.api.publish.maven.MavenArtifact
+import org.gradle.internal.Factory
+import org.gradle.internal.concurrent.DefaultExecutorFactory
+import org.gradle.internal.hash.HashUtil
+import org.gradle.internal.resource.transport.file.FileTransport
+import org.gradle.test.fixtures.file.TestFile
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.CyclicBarrier
+
+class TransportBackedMavenPublisherTest extends Specification {
+    @Rule TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+    def transportFactory = Stub(RepositoryTransportFactory) {
+        createTransport("file", _, _) >> new FileTransport("repo")
+    }
+    def executorFactory = new DefaultExecutorFactory()
+    def repoDir = tmpDir.createDir("repo")
+    def repository = Stub(MavenArtifactRepository) {
+        getName() >> "repo"
+        getUrl() >> repoDir.toURI()
+    }
+    def publisher = new TransportBackedMavenPublisher(transportFactory, executorFactory, { tmpDir.createDir("work") } as Factory<File>)
+
+    def cleanup() {
+        executorFactory.stop()
+    }
+
+    def "publishes pom, artifacts and checksums using the maven layout"() {
+        def jar = tmpDir.file("lib.jar") << "jar content"
+        def sources = tmpDir.file("sources.jar") << "sources content"
+
+        when:
+        publisher.publish(publication("group.name", "module", "1.2", artifact(jar, null, "jar"), artifact(sources, "sources", "jar")), repository)
+
+        then:
+        def versionDir = repoDir.file("group/name/module/1.2")
+        versionDir.file("module-1.2.pom").text == pomFile("module", "1.2").text
+        versionDir.file("module-1.2.jar").text == "jar content"
+        versionDir.file("module-1.2-sources.jar").text == "sources content"
+        assertChecksums(versionDir.file("module-1.2.pom"))
+        assertChecksums(versionDir.file("module-1.2.jar"))
+        assertChecksums(versionDir.file("module-1.2-sources.jar"))
+
+        and:
+        def metadataFile = repoDir.file("group/name/module/maven-metadata.xml")
+        assertChecksums(metadataFile)
+        def metadata = readMetadata(metadataFile)
+        metadata.versions == ["1.2"] as Set
+        metadata.latest == "1.2"
+        metadata.release == "1.2"
+    }
+
+    def "adds version to existing module metadata"() {
+        when:
+        publisher.publish(publication("group", "module", "1.0"), repository)
+        publisher.publish(publication("group", "module", "2.0-SNAPSHOT"), repository)
+        publisher.publish(publication("group", "module", "1.1"), repository)
+
+        then:
+        def metadata = readMetadata(repoDir.file("group/module/maven-metadata.xml"))
+        metadata.versions == ["1.0", "2.0-SNAPSHOT", "1.1"] as Set
+        metadata.latest == "1.1"
+        metadata.release == "1.1"
+    }
+
+    def "publishes snapshot with timestamped file names and increments build number"() {
+        def jar = tmpDir.file("lib.jar") << "jar content"
+
+        when:
+        publisher.publish(publication("group", "module", "1.0-SNAPSHOT", artifact(jar, null, "jar")), repository)
+        publisher.publish(publication("group", "module", "1.0-SNAPSHOT", artifact(jar, null, "jar")), repository)
+
+        then:
+        def versionDir = repoDir.file("group/module/1.0-SNAPSHOT")
+        def snapshotMetadata = readMetadata(versionDir.file("maven-metadata.xml"))
+        snapshotMetadata.snapshotBuildNumber == 2
+        def artifactVersion = "1.0-${snapshotMetadata.snapshotTimestamp}-2"
+        versionDir.file("module-${artifactVersion}.jar").text == "jar content"
+        assertChecksums(versionDir.file("module-${artifactVersion}.pom"))
+        versionDir.listFiles().findAll { it.name.endsWith(".jar") }.size() == 2
+
+        and:
+        def metadata = readMetadata(repoDir.file("group/module/maven-metadata.xml"))
+        metadata.versions == ["1.0-SNAPSHOT"] as Set
+        metadata.release == null
+    }
+
+    def "concurrent publications of the same module keep all versions in metadata"() {
+        def versions = (1..8).collect { "1.$it".toString() }
+        def publications = versions.collect { publication("group", "module", it) }
+        def barrier = new CyclicBarrier(versions.size())
+        def finished = new CountDownLatch(versions.size())
+        def failures = Collections.synchronizedList([])
+
+        when:
+        publications.each { publication ->
+            Thread.start {
+                try {
+                    barrier.await()
+                    publisher.publish(publication, repository)
+                } catch (Throwable t) {
+                    failures << t
+                } finally {
+                    finished.countDown()
+                }
+            }
+        }
+        finished.await()
+
+        then:
+        failures.empty
+        readMetadata(repoDir.file("group/module/maven-metadata.xml")).versions == versions as Set
+    }
+
+    def "reports upload failure"() {
+        def missing = tmpDir.file("missing.jar")
+
+        when:
+        publisher.publish(publication("group", "module", "1.0", artifact(missing, null, "jar")), repository)
+
+        then:
+        thrown(Exception)
+        !repoDir.file("group/module/maven-metadata.xml").exists()
+    }
+
+    private MavenNormalizedPublication publication(String groupId, String artifactId, String version, MavenArtifact... artifacts) {
+        def projectIdentity = Stub(MavenProjectIdentity) {
+            getGroupId() >> groupId
+            getArtifactId() >> artifactId
+            getVersion() >> version
+        }
+        return new MavenNormalizedPublication("pub", pomFile(artifactId, version), projectIdentity, artifacts as Set)
+    }
+
+    private TestFile pomFile(String artifactId, String version) {
+        def pomFile = tmpDir.file("poms/${artifactId}-${version}.pom")
+        pomFile.text = "<project><artifactId>${artifactId}</artifactId><version>${version}</version></project>"
+        return pomFile
+    }
+
+    private MavenArtifact artifact(File file, String classifier, String extension) {
+        return Stub(MavenArtifact) {
+            getFile() >> file
+            getClassifier() >> classifier
+            getExtension() >> extension
+        }
+    }
+
+    private static void assertChecksums(TestFile file) {
+        assert file.isFile()
+        assert new BigInteger(file.parentFile.file(file.name + ".sha1").text, 16) == HashUtil.createHash(file, "SHA1").asBigInteger()
+        assert new BigInteger(file.parentFile.file(file.name + ".md5").text, 16) == HashUtil.createHash(file, "MD5").asBigInteger()
+    }
+
+    private static MavenRepositoryMetadata readMetadata(File file) {
+        return file.withInputStream { MavenRepositoryMetadata.read(it) }
+    }
+}
@@ -36,11 +36,9 @@ import org.gradle.api.plugins.InvalidPluginException;
 import org.gradle.api.plugins.UnknownPluginException;
 import org.gradle.api.specs.Spec;
 import org.gradle.internal.classpath.ClassPath;
-import org.gradle.internal.classpath.DefaultClassPath;
 import org.gradle.internal.exceptions.LocationAwareException;
 import org.gradle.plugin.use.resolve.internal.*;
 
-import java.io.File;
 import java.util.*;
 
 import static org.gradle.util.CollectionUtils.*;
@@ -49,10 +47,12 @@ public class DefaultPluginRequestApplicator implements PluginRequestApplicator {
 
     private final PluginRegistry pluginRegistry;
     private final PluginResolver pluginResolver;
+    private final ScriptClassPathResolver scriptClassPathResolver;
 
-    public DefaultPluginRequestApplicator(PluginRegistry pluginRegistry, PluginResolver pluginResolver) {
+    public DefaultPluginRequestApplicator(PluginRegistry pluginRegistry, PluginResolver pluginResolver, ScriptClassPathResolver scriptClassPathResolver) {
         this.pluginRegistry = pluginRegistry;
         this.pluginResolver = pluginResolver;
+        this.scriptClassPathResolver = scriptClassPathResolver;
     }
 
     public void applyPlugins(Collection<? extends PluginRequest> requests, final ScriptHandler scriptHandler, @Nullable final PluginAwareInternal target, ClassLoaderScope classLoaderScope) {
@@ -139,8 +139,7 @@ public class DefaultPluginRequestApplicator implements PluginRequestApplicator {
 
     private void defineScriptHandlerClassScope(ScriptHandler scriptHandler, ClassLoaderScope classLoaderScope) {
         Configuration classpathConfiguration = scriptHandler.getConfigurations().getByName(ScriptHandler.CLASSPATH_CONFIGURATION);
-        Set<File> files = classpathConfiguration.getFiles();
-        ClassPath classPath = new DefaultClassPath(files);
+        ClassPath classPath = scriptClassPathResolver.resolveClassPath(classpathConfiguration);
         classLoaderScope.export(classPath);
         classLoaderScope.lock();
     }
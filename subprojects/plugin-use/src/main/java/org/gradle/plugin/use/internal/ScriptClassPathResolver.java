@@ -0,0 +1,95 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.plugin.use.internal;
+
+import org.gradle.api.artifacts.Configuration;
+import org.gradle.api.artifacts.ResolvedArtifact;
+import org.gradle.api.specs.Specs;
+import org.gradle.internal.classpath.ClassPath;
+import org.gradle.internal.classpath.DefaultClassPath;
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.concurrent.StoppableExecutor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Resolves the classpath of a script. The artifacts of the classpath are downloaded in parallel, as the artifact cache is only locked for each
+ * call into the repositories. The files are then collected from the configuration in the usual order, so failures are reported as before.
+ */
+public class ScriptClassPathResolver {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ScriptClassPathResolver.class);
+    private static final int MAX_CONCURRENT_DOWNLOADS = 4;
+
+    private final ExecutorFactory executorFactory;
+
+    public ScriptClassPathResolver(ExecutorFactory executorFactory) {
+        this.executorFactory = executorFactory;
+    }
+
+    public ClassPath resolveClassPath(Configuration classpathConfiguration) {
+        if (!classpathConfiguration.getAllDependencies().isEmpty()) {
+            prefetchArtifacts(classpathConfiguration);
+        }
+        return new DefaultClassPath(classpathConfiguration.getFiles());
+    }
+
+    /**
+     * Resolves the file of each artifact of the given configuration, using a worker per concurrent download. Each worker takes the next artifact
+     * that has not been started yet. Failures are ignored here, and reported when the files of the configuration are collected.
+     */
+    private void prefetchArtifacts(Configuration classpathConfiguration) {
+        final List<ResolvedArtifact> artifacts;
+        try {
+            artifacts = new ArrayList<ResolvedArtifact>(classpathConfiguration.getResolvedConfiguration().getLenientConfiguration().getArtifacts(Specs.satisfyAll()));
+        } catch (RuntimeException e) {
+            LOGGER.debug("Could not resolve the artifacts of {} ahead of time.", classpathConfiguration, e);
+            return;
+        }
+        if (artifacts.size() < 2) {
+            return;
+        }
+
+        final AtomicInteger nextArtifact = new AtomicInteger();
+        int workerCount = Math.min(artifacts.size(), MAX_CONCURRENT_DOWNLOADS);
+        StoppableExecutor executor = executorFactory.create("Script classpath resolver");
+        try {
+            for (int worker = 0; worker < workerCount; worker++) {
+                executor.execute(new Runnable() {
+                    public void run() {
+                        int i;
+                        while ((i = nextArtifact.getAndIncrement()) < artifacts.size()) {
+                            ResolvedArtifact artifact = artifacts.get(i);
+                            try {
+                                artifact.getFile();
+                            } catch (RuntimeException e) {
+                                LOGGER.debug("Could not download {} ahead of time.", artifact, e);
+                            }
+                        }
+                    }
+                });
+            }
+        } finally {
+            // Waits for the workers
+            executor.stop();
+        }
+    }
+}
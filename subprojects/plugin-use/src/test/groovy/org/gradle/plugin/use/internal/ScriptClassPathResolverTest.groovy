@@ -0,0 +1,155 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.plugin.use.internal
+
+import org.gradle.api.artifacts.Configuration
+import org.gradle.api.artifacts.DependencySet
+import org.gradle.api.artifacts.LenientConfiguration
+import org.gradle.api.artifacts.ResolvedArtifact
+import org.gradle.api.artifacts.ResolvedConfiguration
+import org.gradle.internal.concurrent.DefaultExecutorFactory
+import spock.lang.Specification
+
+import java.util.concurrent.CyclicBarrier
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+
+class ScriptClassPathResolverTest extends Specification {
+    def executorFactory = new DefaultExecutorFactory()
+    def resolver = new ScriptClassPathResolver(executorFactory)
+    def configuration = Mock(Configuration)
+    def lenientConfiguration = Mock(LenientConfiguration)
+
+    def setup() {
+        _ * configuration.allDependencies >> Stub(DependencySet) { isEmpty() >> false }
+        _ * configuration.resolvedConfiguration >> Stub(ResolvedConfiguration) { getLenientConfiguration() >> lenientConfiguration }
+    }
+
+    def cleanup() {
+        executorFactory.stop()
+    }
+
+    def "returns the files in the order of the configuration"() {
+        def a = new File("a.jar")
+        def b = new File("b.jar")
+        def c = new File("c.jar")
+
+        when:
+        def classPath = resolver.resolveClassPath(configuration)
+
+        then:
+        1 * lenientConfiguration.getArtifacts(_) >> ([artifact(a), artifact(b), artifact(c)] as Set)
+        1 * configuration.files >> ([c, a, b] as LinkedHashSet)
+
+        and:
+        classPath.asFiles == [c, a, b]
+    }
+
+    def "reports a failed download only when the files are collected"() {
+        def failure = new RuntimeException("could not collect files")
+        def broken = Stub(ResolvedArtifact) {
+            getFile() >> { throw new RuntimeException("could not download") }
+        }
+
+        when:
+        resolver.resolveClassPath(configuration)
+
+        then:
+        1 * lenientConfiguration.getArtifacts(_) >> ([broken, artifact(new File("a.jar"))] as Set)
+        1 * configuration.files >> { throw failure }
+
+        and:
+        RuntimeException e = thrown()
+        e == failure
+    }
+
+    def "ignores a failed download when the files can still be collected"() {
+        def file = new File("a.jar")
+        def broken = Stub(ResolvedArtifact) {
+            getFile() >> { throw new RuntimeException("could not download") }
+        }
+
+        when:
+        def classPath = resolver.resolveClassPath(configuration)
+
+        then:
+        1 * lenientConfiguration.getArtifacts(_) >> ([broken, artifact(file)] as Set)
+        1 * configuration.files >> ([file] as Set)
+
+        and:
+        classPath.asFiles == [file]
+    }
+
+    def "ignores a failure to resolve the artifacts ahead of time"() {
+        def failure = new RuntimeException("could not resolve")
+
+        when:
+        resolver.resolveClassPath(configuration)
+
+        then:
+        1 * lenientConfiguration.getArtifacts(_) >> { throw new RuntimeException("could not resolve ahead of time") }
+        1 * configuration.files >> { throw failure }
+
+        and:
+        RuntimeException e = thrown()
+        e == failure
+    }
+
+    def "downloads artifacts concurrently"() {
+        def barrier = new CyclicBarrier(4)
+        def downloaded = new AtomicInteger()
+        def artifacts = (1..4).collect { index ->
+            Stub(ResolvedArtifact) {
+                getFile() >> {
+                    // Each download waits for the others to start
+                    barrier.await(20, TimeUnit.SECONDS)
+                    downloaded.incrementAndGet()
+                    return new File("${index}.jar")
+                }
+            }
+        }
+
+        when:
+        resolver.resolveClassPath(configuration)
+
+        then:
+        1 * lenientConfiguration.getArtifacts(_) >> (artifacts as Set)
+        1 * configuration.files >> ([] as Set)
+
+        and:
+        downloaded.get() == 4
+    }
+
+    def "does not prefetch when there are no dependencies"() {
+        when:
+        def classPath = resolver.resolveClassPath(configuration)
+
+        then:
+        _ * configuration.allDependencies >> Stub(DependencySet) { isEmpty() >> true }
+        0 * lenientConfiguration._
+        1 * configuration.files >> ([] as Set)
+
+        and:
+        classPath.empty
+    }
+
+    private ResolvedArtifact artifact(File file) {
+        return Stub(ResolvedArtifact) {
+            getFile() >> file
+        }
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.testing
+
+import org.gradle.integtests.fixtures.AbstractIntegrationSpec
+
+class TestWorkerReuseIntegrationTest extends AbstractIntegrationSpec {
+    def setup() {
+        buildFile << """
+            apply plugin: 'java'
+            repositories { mavenCentral() }
+            dependencies { testCompile 'junit:junit:4.11' }
+
+            task otherTest(type: Test) {
+                testClassesDir = sourceSets.test.output.classesDir
+                classpath = sourceSets.test.runtimeClasspath
+                reports.junitXml.destination = file("\$buildDir/other-test-results")
+                reports.html.destination = file("\$buildDir/reports/other-tests")
+            }
+        """
+        file("src/test/java/ProcessTest.java") << """
+            import java.io.FileWriter;
+            import java.lang.management.ManagementFactory;
+
+            public class ProcessTest {
+                @org.junit.Test
+                public void recordProcess() throws Exception {
+                    // Writes to the working directory, as a system property per task would prevent the worker from being reused
+                    FileWriter writer = new FileWriter("processes.txt", true);
+                    writer.write(ManagementFactory.getRuntimeMXBean().getName() + "\\n");
+                    writer.close();
+                }
+            }
+        """
+    }
+
+    def "reuses test worker process for test tasks with the same configuration"() {
+        when:
+        executer.withArgument("-Dorg.gradle.test.reuseWorkers=true")
+        run "test", "otherTest"
+
+        then:
+        def processes = file("processes.txt").readLines()
+        processes.size() == 2
+        processes[0] == processes[1]
+    }
+
+    def "starts test worker process for each test task by default"() {
+        when:
+        run "test", "otherTest"
+
+        then:
+        def processes = file("processes.txt").readLines()
+        processes.size() == 2
+        processes[0] != processes[1]
+    }
+}
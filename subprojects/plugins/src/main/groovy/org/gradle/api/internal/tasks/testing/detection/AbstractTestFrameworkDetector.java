@@ -22,6 +22,7 @@ import org.gradle.api.GradleException;
 import org.gradle.api.file.FileCollection;
 import org.gradle.api.internal.tasks.testing.DefaultTestClassRunInfo;
 import org.gradle.api.internal.tasks.testing.TestClassProcessor;
+import org.gradle.api.Nullable;
 import org.objectweb.asm.ClassReader;
 import org.objectweb.asm.Type;
 
@@ -37,45 +38,54 @@ public abstract class AbstractTestFrameworkDetector<T extends TestClassVisitor>
 
     private List<File> testClassDirectories;
     private final ClassFileExtractionManager classFileExtractionManager;
-    private final Map<File, Boolean> superClasses;
+    private final Map<String, Boolean> superClasses;
     private TestClassProcessor testClassProcessor;
     private final List<String> knownTestCaseClassNames;
 
     private File testClassesDirectory;
     private FileCollection testClasspath;
+    private TestClassDetectionCache detectionCache;
 
     protected AbstractTestFrameworkDetector(ClassFileExtractionManager classFileExtractionManager) {
         assert classFileExtractionManager != null;
         this.classFileExtractionManager = classFileExtractionManager;
-        this.superClasses = new HashMap<File, Boolean>();
+        this.superClasses = new HashMap<String, Boolean>();
         this.knownTestCaseClassNames = new ArrayList<String>();
         addKnownTestCaseClassNames(TEST_CASE, GROOVY_TEST_CASE);
     }
 
     protected abstract T createClassVisitor();
 
-    protected File getSuperTestClassFile(String superClassName) {
+    /**
+     * Returns the details of the given superclass, looking for its class file in the test class directories first and then in the jars of
+     * the test classpath. Returns null when the superclass cannot be found.
+     */
+    @Nullable
+    protected DetectedClass getSuperTestClass(String superClassName) {
         prepareClasspath();
         if (StringUtils.isEmpty(superClassName)) {
             throw new IllegalArgumentException("superClassName is empty!");
         }
 
-        final Iterator<File> testClassDirectoriesIt = testClassDirectories.iterator();
-
-        File superTestClassFile = null;
-        while (superTestClassFile == null && testClassDirectoriesIt.hasNext()) {
-            final File testClassDirectory = testClassDirectoriesIt.next();
+        for (File testClassDirectory : testClassDirectories) {
             final File superTestClassFileCandidate = new File(testClassDirectory, superClassName + ".class");
             if (superTestClassFileCandidate.exists()) {
-                superTestClassFile = superTestClassFileCandidate;
+                return detectClass(superTestClassFileCandidate);
             }
         }
 
-        if (superTestClassFile != null) {
-            return superTestClassFile;
-        } else { // super test class file not in test class directories
-            return classFileExtractionManager.getLibraryClassFile(superClassName);
+        // super test class file not in test class directories
+        byte[] libraryClass = classFileExtractionManager.getLibraryClass(superClassName);
+        if (libraryClass == null) {
+            return null;
+        }
+        final TestClassVisitor classVisitor = createClassVisitor();
+        try {
+            new ClassReader(libraryClass).accept(classVisitor, ClassReader.SKIP_DEBUG | ClassReader.SKIP_CODE | ClassReader.SKIP_FRAMES);
+        } catch (Throwable e) {
+            throw new GradleException("failed to read library class " + superClassName, e);
         }
+        return DetectedClass.of(classVisitor);
     }
 
     private void prepareClasspath() {
@@ -107,6 +117,10 @@ public abstract class AbstractTestFrameworkDetector<T extends TestClassVisitor>
         this.testClasspath = testClasspath;
     }
 
+    public void setDetectionCache(@Nullable TestClassDetectionCache detectionCache) {
+        this.detectionCache = detectionCache;
+    }
+
     protected TestClassVisitor classVisitor(final File testClassFile) {
         final TestClassVisitor classVisitor = createClassVisitor();
 
@@ -124,25 +138,41 @@ public abstract class AbstractTestFrameworkDetector<T extends TestClassVisitor>
         return classVisitor;
     }
 
-    public boolean processTestClass(File testClassFile) {
-        return processTestClass(testClassFile, false);
+    /**
+     * Returns the details of the class in the given class file, using the detection cache when the class file has been scanned before.
+     */
+    protected DetectedClass detectClass(File testClassFile) {
+        if (detectionCache == null) {
+            return DetectedClass.of(classVisitor(testClassFile));
+        }
+        String framework = getClass().getName();
+        DetectedClass detectedClass = detectionCache.get(framework, testClassFile);
+        if (detectedClass == null) {
+            detectedClass = DetectedClass.of(classVisitor(testClassFile));
+            detectionCache.put(framework, testClassFile, detectedClass);
+        }
+        return detectedClass;
     }
 
-    protected abstract boolean processTestClass(File testClassFile, boolean superClass);
-
-    protected boolean processSuperClass(File testClassFile) {
-        boolean isTest = false;
-
-        Boolean isSuperTest = superClasses.get(testClassFile);
+    public boolean processTestClass(File testClassFile) {
+        return processTestClass(detectClass(testClassFile), false);
+    }
 
-        if (isSuperTest == null) {
-            isTest = processTestClass(testClassFile, true);
+    protected abstract boolean processTestClass(DetectedClass testClass, boolean superClass);
 
-            superClasses.put(testClassFile, isTest);
-        } else {
-            isTest = isSuperTest;
+    /**
+     * Returns whether the given superclass is a test class, or null when its class file cannot be found. The result is remembered for each
+     * superclass name, so that the class file of a superclass is only located and read once.
+     */
+    @Nullable
+    protected Boolean processSuperClass(String superClassName) {
+        if (superClasses.containsKey(superClassName)) {
+            return superClasses.get(superClassName);
         }
 
+        DetectedClass superTestClass = getSuperTestClass(superClassName);
+        Boolean isTest = superTestClass == null ? null : processTestClass(superTestClass, true);
+        superClasses.put(superClassName, isTest);
         return isTest;
     }
 
@@ -150,9 +180,9 @@ public abstract class AbstractTestFrameworkDetector<T extends TestClassVisitor>
      * In none super class mode a test class is published when the class is a test and it is not abstract. In super class mode it must not publish the class otherwise it will get published multiple
      * times (for each extending class).
      */
-    protected void publishTestClass(boolean isTest, TestClassVisitor classVisitor, boolean superClass) {
-        if (isTest && !classVisitor.isAbstract() && !superClass) {
-            String className = Type.getObjectType(classVisitor.getClassName()).getClassName();
+    protected void publishTestClass(boolean isTest, DetectedClass testClass, boolean superClass) {
+        if (isTest && !testClass.isAbstract() && !superClass) {
+            String className = Type.getObjectType(testClass.getClassName()).getClassName();
             testClassProcessor.processTestClass(new DefaultTestClassRunInfo(className));
         }
     }
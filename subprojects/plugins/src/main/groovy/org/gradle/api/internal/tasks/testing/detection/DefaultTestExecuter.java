@@ -17,6 +17,8 @@
 package org.gradle.api.internal.tasks.testing.detection;
 
 import org.gradle.api.file.FileTree;
+import org.gradle.api.internal.changedetection.state.FileSnapshotter;
+import org.gradle.api.internal.changedetection.state.TaskArtifactStateCacheAccess;
 import org.gradle.api.internal.tasks.testing.TestClassProcessor;
 import org.gradle.api.internal.tasks.testing.TestFramework;
 import org.gradle.api.internal.tasks.testing.TestResultProcessor;
@@ -25,6 +27,8 @@ import org.gradle.api.internal.tasks.testing.processors.MaxNParallelTestClassPro
 import org.gradle.api.internal.tasks.testing.processors.RestartEveryNTestClassProcessor;
 import org.gradle.api.internal.tasks.testing.processors.TestMainAction;
 import org.gradle.api.internal.tasks.testing.worker.ForkingTestClassProcessor;
+import org.gradle.api.internal.tasks.testing.worker.PooledTestClassProcessor;
+import org.gradle.api.internal.tasks.testing.worker.TestWorkerPool;
 import org.gradle.api.tasks.testing.Test;
 import org.gradle.internal.Factory;
 import org.gradle.internal.TrueTimeProvider;
@@ -35,19 +39,40 @@ import org.gradle.process.internal.WorkerProcessBuilder;
  * The default test class scanner factory.
  */
 public class DefaultTestExecuter implements TestExecuter {
+    /**
+     * When set to true, test workers are kept alive and reused by later test tasks with the same worker configuration. Ignored for test
+     * tasks that debug their tests or that set forkEvery.
+     */
+    public static final String REUSE_WORKERS_PROPERTY = "org.gradle.test.reuseWorkers";
+
     private final Factory<WorkerProcessBuilder> workerFactory;
     private final ActorFactory actorFactor;
+    private final TestWorkerPool workerPool;
+    private final TestClassDetectionCache detectionCache;
+    private final TaskArtifactStateCacheAccess cacheAccess;
+    private final FileSnapshotter fileSnapshotter;
 
-    public DefaultTestExecuter(Factory<WorkerProcessBuilder> workerFactory, ActorFactory actorFactor) {
+    public DefaultTestExecuter(Factory<WorkerProcessBuilder> workerFactory, ActorFactory actorFactor, TestWorkerPool workerPool, TestClassDetectionCache detectionCache,
+                               TaskArtifactStateCacheAccess cacheAccess, FileSnapshotter fileSnapshotter) {
         this.workerFactory = workerFactory;
         this.actorFactor = actorFactor;
+        this.workerPool = workerPool;
+        this.detectionCache = detectionCache;
+        this.cacheAccess = cacheAccess;
+        this.fileSnapshotter = fileSnapshotter;
     }
 
     public void execute(final Test testTask, TestResultProcessor testResultProcessor) {
         final TestFramework testFramework = testTask.getTestFramework();
         final WorkerTestClassProcessorFactory testInstanceFactory = testFramework.getProcessorFactory();
+        // A worker that waits for a debugger cannot be shared, and forkEvery asks for a fresh JVM for every batch of tests
+        final boolean reuseWorkers = Boolean.getBoolean(REUSE_WORKERS_PROPERTY) && !testTask.getDebug() && testTask.getForkEvery() == 0;
         final Factory<TestClassProcessor> forkingProcessorFactory = new Factory<TestClassProcessor>() {
             public TestClassProcessor create() {
+                if (reuseWorkers) {
+                    return new PooledTestClassProcessor(workerPool, workerFactory, testInstanceFactory, testTask,
+                            testTask.getClasspath(), testFramework.getWorkerConfigurationAction());
+                }
                 return new ForkingTestClassProcessor(workerFactory, testInstanceFactory, testTask,
                         testTask.getClasspath(), testFramework.getWorkerConfigurationAction());
             }
@@ -68,7 +93,13 @@ public class DefaultTestExecuter implements TestExecuter {
             TestFrameworkDetector testFrameworkDetector = testTask.getTestFramework().getDetector();
             testFrameworkDetector.setTestClassesDirectory(testTask.getTestClassesDir());
             testFrameworkDetector.setTestClasspath(testTask.getClasspath());
-            detector = new DefaultTestClassScanner(testClassFiles, testFrameworkDetector, processor);
+            testFrameworkDetector.setDetectionCache(detectionCache);
+            final Runnable scanner = new DefaultTestClassScanner(testClassFiles, testFrameworkDetector, processor);
+            detector = new Runnable() {
+                public void run() {
+                    detectionCache.useCache(cacheAccess, fileSnapshotter, scanner);
+                }
+            };
         } else {
             detector = new DefaultTestClassScanner(testClassFiles, null, processor);
         }
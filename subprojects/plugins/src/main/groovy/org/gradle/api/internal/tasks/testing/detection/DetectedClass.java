@@ -0,0 +1,66 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.detection;
+
+import org.gradle.api.Nullable;
+
+/**
+ * What a test framework detector found out about a single class file, without taking the superclasses of the class into account.
+ */
+public class DetectedClass {
+    private final String className;
+    private final String superClassName;
+    private final boolean test;
+    private final boolean abstractClass;
+
+    public DetectedClass(String className, @Nullable String superClassName, boolean test, boolean abstractClass) {
+        this.className = className;
+        this.superClassName = superClassName;
+        this.test = test;
+        this.abstractClass = abstractClass;
+    }
+
+    public static DetectedClass of(TestClassVisitor classVisitor) {
+        return new DetectedClass(classVisitor.getClassName(), classVisitor.getSuperClassName(), classVisitor.isTest(), classVisitor.isAbstract());
+    }
+
+    /**
+     * The internal name of the class, for example {@code org/gradle/SomeTest}.
+     */
+    public String getClassName() {
+        return className;
+    }
+
+    /**
+     * The internal name of the superclass, or null for {@code java/lang/Object}.
+     */
+    @Nullable
+    public String getSuperClassName() {
+        return superClassName;
+    }
+
+    /**
+     * Whether the class itself is a test, for example because it declares test methods.
+     */
+    public boolean isTest() {
+        return test;
+    }
+
+    public boolean isAbstract() {
+        return abstractClass;
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.detection;
+
+import org.gradle.api.Nullable;
+import org.gradle.api.internal.changedetection.state.FileSnapshotter;
+import org.gradle.api.internal.changedetection.state.TaskArtifactStateCacheAccess;
+import org.gradle.cache.PersistentIndexedCache;
+import org.gradle.internal.hash.HashValue;
+import org.gradle.messaging.serialize.Decoder;
+import org.gradle.messaging.serialize.Encoder;
+import org.gradle.messaging.serialize.Serializer;
+
+import java.io.File;
+
+/**
+ * Caches what a test framework detector found out about each class file, keyed by the test framework and the hash of the class file. This
+ * way test detection only reads the class files that have changed since they were last scanned. The hashes are taken from the file
+ * snapshotter, which has usually hashed the class files already while checking whether the test task is up-to-date.
+ *
+ * <p>This is a build scoped service, so that all test tasks of the build share the same persistent cache, which is stored with the task
+ * artifact state of the build. The cache may only be used from an action run by {@link #useCache(TaskArtifactStateCacheAccess, FileSnapshotter, Runnable)}.</p>
+ */
+public class TestClassDetectionCache {
+    private final Object lock = new Object();
+    private TaskArtifactStateCacheAccess cacheAccess;
+    private FileSnapshotter fileSnapshotter;
+    private PersistentIndexedCache<String, DetectedClass> cache;
+
+    /**
+     * Runs the given action with access to the cache. The task artifact state cache access and the file snapshotter are the same for all
+     * the projects of the build.
+     */
+    public void useCache(TaskArtifactStateCacheAccess cacheAccess, FileSnapshotter fileSnapshotter, Runnable action) {
+        synchronized (lock) {
+            if (this.cacheAccess == null) {
+                this.cacheAccess = cacheAccess;
+                this.fileSnapshotter = fileSnapshotter;
+            } else if (this.cacheAccess != cacheAccess) {
+                throw new IllegalStateException("The test class detection cache is already in use by another build.");
+            }
+        }
+        cacheAccess.useCache("detect test classes", action);
+    }
+
+    @Nullable
+    public DetectedClass get(String framework, File classFile) {
+        return getCache().get(keyFor(framework, classFile));
+    }
+
+    public void put(String framework, File classFile, DetectedClass detectedClass) {
+        getCache().put(keyFor(framework, classFile), detectedClass);
+    }
+
+    private String keyFor(String framework, File classFile) {
+        return framework + ":" + new HashValue(fileSnapshotter.snapshot(classFile).getHash()).asCompactString();
+    }
+
+    private PersistentIndexedCache<String, DetectedClass> getCache() {
+        synchronized (lock) {
+            if (cache == null) {
+                cache = cacheAccess.createCache("testClassDetection", String.class, new DetectedClassSerializer());
+            }
+            return cache;
+        }
+    }
+
+    private static class DetectedClassSerializer implements Serializer<DetectedClass> {
+        public DetectedClass read(Decoder decoder) throws Exception {
+            String className = decoder.readString();
+            String superClassName = decoder.readBoolean() ? decoder.readString() : null;
+            boolean test = decoder.readBoolean();
+            boolean abstractClass = decoder.readBoolean();
+            return new DetectedClass(className, superClassName, test, abstractClass);
+        }
+
+        public void write(Encoder encoder, DetectedClass value) throws Exception {
+            encoder.writeString(value.getClassName());
+            encoder.writeBoolean(value.getSuperClassName() != null);
+            if (value.getSuperClassName() != null) {
+                encoder.writeString(value.getSuperClassName());
+            }
+            encoder.writeBoolean(value.isTest());
+            encoder.writeBoolean(value.isAbstract());
+        }
+    }
+}
@@ -44,7 +44,7 @@ public class JUnitTestFramework implements TestFramework {
         this.testTask = testTask;
         this.filter = filter;
         options = new JUnitOptions();
-        detector = new JUnitDetector(new ClassFileExtractionManager(testTask.getTemporaryDirFactory()));
+        detector = new JUnitDetector(new ClassFileExtractionManager());
     }
 
     public WorkerTestClassProcessorFactory getProcessorFactory() {
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.worker;
+
+import org.gradle.api.Action;
+import org.gradle.api.internal.tasks.testing.TestClassProcessor;
+import org.gradle.api.internal.tasks.testing.TestClassRunInfo;
+import org.gradle.api.internal.tasks.testing.TestResultProcessor;
+import org.gradle.api.internal.tasks.testing.WorkerTestClassProcessorFactory;
+import org.gradle.internal.Factory;
+import org.gradle.process.JavaForkOptions;
+import org.gradle.process.internal.WorkerProcessBuilder;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Executes tests in a worker taken from a {@link TestWorkerPool}. The jars of the test framework are loaded by the worker process, whereas
+ * the classes under test and their dependencies are loaded in a ClassLoader that is discarded once the tests have completed. This ClassLoader
+ * is given the complete classpath so that classes are looked up in classpath order.
+ */
+public class PooledTestClassProcessor implements TestClassProcessor {
+    private final TestWorkerPool workerPool;
+    private final Factory<WorkerProcessBuilder> workerFactory;
+    private final WorkerTestClassProcessorFactory processorFactory;
+    private final JavaForkOptions options;
+    private final Iterable<File> classPath;
+    private final Action<WorkerProcessBuilder> buildConfigAction;
+    private PooledTestWorker worker;
+    private TestResultProcessor resultProcessor;
+
+    public PooledTestClassProcessor(TestWorkerPool workerPool, Factory<WorkerProcessBuilder> workerFactory, WorkerTestClassProcessorFactory processorFactory,
+                                    JavaForkOptions options, Iterable<File> classPath, Action<WorkerProcessBuilder> buildConfigAction) {
+        this.workerPool = workerPool;
+        this.workerFactory = workerFactory;
+        this.processorFactory = processorFactory;
+        this.options = options;
+        this.classPath = classPath;
+        this.buildConfigAction = buildConfigAction;
+    }
+
+    public void startProcessing(TestResultProcessor resultProcessor) {
+        this.resultProcessor = resultProcessor;
+    }
+
+    public void processTestClass(TestClassRunInfo testClass) {
+        if (worker == null) {
+            List<File> sessionClasspath = new ArrayList<File>();
+            for (File file : classPath) {
+                sessionClasspath.add(file);
+            }
+            PooledTestWorker worker = workerPool.acquire(workerFactory, options, sessionClasspath, buildConfigAction);
+            boolean started = false;
+            try {
+                worker.startSession(processorFactory, sessionClasspath, resultProcessor);
+                started = true;
+            } finally {
+                if (!started) {
+                    workerPool.release(worker, false);
+                }
+            }
+            this.worker = worker;
+        }
+
+        worker.processTestClass(testClass);
+    }
+
+    public void stop() {
+        if (worker != null) {
+            boolean reusable = false;
+            try {
+                worker.stopSession();
+                reusable = true;
+            } finally {
+                workerPool.release(worker, reusable);
+                worker = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,198 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.worker;
+
+import org.gradle.api.internal.tasks.testing.*;
+import org.gradle.api.tasks.testing.TestOutputEvent;
+import org.gradle.internal.UncheckedException;
+import org.gradle.messaging.remote.ObjectConnection;
+import org.gradle.process.internal.ExecException;
+import org.gradle.process.internal.WorkerProcess;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A reusable test worker process, as seen from the build process. The results of the worker are forwarded to the result processor of
+ * the current session.
+ */
+class PooledTestWorker {
+    private final String key;
+    private final List<File> workerClasspath = new ArrayList<File>();
+    private final Map<File, FileState> classpath = new HashMap<File, FileState>();
+    private final Object lock = new Object();
+    private WorkerProcess workerProcess;
+    private RemoteTestWorker remoteWorker;
+    private TestResultProcessor resultProcessor;
+    private boolean sessionCompleted;
+    private boolean stopped;
+    private Throwable failure;
+
+    PooledTestWorker(String key, Iterable<File> classpath) {
+        this.key = key;
+        for (File file : classpath) {
+            workerClasspath.add(file);
+            this.classpath.put(file, new FileState(file));
+        }
+    }
+
+    String getKey() {
+        return key;
+    }
+
+    /**
+     * Connects to the given worker process, which must have been started.
+     */
+    void connect(WorkerProcess workerProcess) {
+        this.workerProcess = workerProcess;
+        ObjectConnection connection = workerProcess.getConnection();
+        connection.useParameterSerializer(new TestEventSerializer());
+        connection.addIncoming(TestWorkerResultProcessor.class, new SessionResultProcessor());
+        remoteWorker = connection.addOutgoing(RemoteTestWorker.class);
+        connection.connect();
+    }
+
+    /**
+     * Waits for the worker process to stop. Called from a thread dedicated to this worker.
+     */
+    void waitForStop() {
+        Throwable stopFailure = null;
+        try {
+            workerProcess.waitForStop();
+        } catch (Throwable t) {
+            stopFailure = t;
+        }
+        synchronized (lock) {
+            stopped = true;
+            failure = stopFailure;
+            lock.notifyAll();
+        }
+    }
+
+    /**
+     * Returns true when the worker process is still running and none of the files on its classpath has changed since it was started.
+     */
+    boolean isUpToDate() {
+        synchronized (lock) {
+            if (stopped) {
+                return false;
+            }
+        }
+        for (Map.Entry<File, FileState> entry : classpath.entrySet()) {
+            if (!entry.getValue().isUpToDate(entry.getKey())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    void startSession(WorkerTestClassProcessorFactory processorFactory, List<File> applicationClasspath, TestResultProcessor resultProcessor) {
+        synchronized (lock) {
+            this.resultProcessor = resultProcessor;
+            sessionCompleted = false;
+        }
+        remoteWorker.startSession(new TestWorkerSession(processorFactory, applicationClasspath, workerClasspath));
+        remoteWorker.startProcessing();
+    }
+
+    void processTestClass(TestClassRunInfo testClass) {
+        remoteWorker.processTestClass(testClass);
+    }
+
+    /**
+     * Ends the current session, and blocks until all of its results have been received.
+     */
+    void stopSession() {
+        remoteWorker.stop();
+        synchronized (lock) {
+            try {
+                while (!sessionCompleted && !stopped) {
+                    lock.wait();
+                }
+            } catch (InterruptedException e) {
+                throw UncheckedException.throwAsUncheckedException(e);
+            }
+            resultProcessor = null;
+            if (!sessionCompleted) {
+                if (failure != null) {
+                    throw UncheckedException.throwAsUncheckedException(failure);
+                }
+                throw new ExecException(String.format("Test worker %s stopped before the tests completed.", workerProcess));
+            }
+        }
+    }
+
+    /**
+     * Asks the worker process to stop. Does not block.
+     */
+    void shutdown() {
+        synchronized (lock) {
+            if (stopped) {
+                return;
+            }
+        }
+        remoteWorker.shutdown();
+    }
+
+    private TestResultProcessor getResultProcessor() {
+        synchronized (lock) {
+            return resultProcessor;
+        }
+    }
+
+    private class SessionResultProcessor implements TestWorkerResultProcessor {
+        public void started(TestDescriptorInternal test, TestStartEvent event) {
+            getResultProcessor().started(test, event);
+        }
+
+        public void completed(Object testId, TestCompleteEvent event) {
+            getResultProcessor().completed(testId, event);
+        }
+
+        public void output(Object testId, TestOutputEvent event) {
+            getResultProcessor().output(testId, event);
+        }
+
+        public void failure(Object testId, Throwable result) {
+            getResultProcessor().failure(testId, result);
+        }
+
+        public void sessionCompleted() {
+            synchronized (lock) {
+                sessionCompleted = true;
+                lock.notifyAll();
+            }
+        }
+    }
+
+    private static class FileState {
+        private final long length;
+        private final long lastModified;
+
+        FileState(File file) {
+            this.length = file.length();
+            this.lastModified = file.lastModified();
+        }
+
+        boolean isUpToDate(File file) {
+            return file.isFile() && file.length() == length && file.lastModified() == lastModified;
+        }
+    }
+}
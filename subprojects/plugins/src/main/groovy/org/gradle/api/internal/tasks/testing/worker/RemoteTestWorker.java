@@ -0,0 +1,33 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.worker;
+
+/**
+ * The protocol of a reusable test worker, which runs the tests of several test tasks, one session at a time. Each session is started with
+ * {@link #startSession(TestWorkerSession)} and ended with {@link #stop()}, after which the worker waits for the next session.
+ */
+public interface RemoteTestWorker extends RemoteTestClassProcessor {
+    /**
+     * Does not block.
+     */
+    void startSession(TestWorkerSession session);
+
+    /**
+     * Stops the worker process. Does not block.
+     */
+    void shutdown();
+}
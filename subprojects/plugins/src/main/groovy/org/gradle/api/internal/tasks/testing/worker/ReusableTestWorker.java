@@ -0,0 +1,129 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.worker;
+
+import org.gradle.api.Action;
+import org.gradle.api.internal.tasks.testing.TestClassProcessor;
+import org.gradle.api.internal.tasks.testing.TestClassRunInfo;
+import org.gradle.internal.TrueTimeProvider;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.concurrent.CompositeStoppable;
+import org.gradle.internal.id.IdGenerator;
+import org.gradle.internal.service.DefaultServiceRegistry;
+import org.gradle.listener.ContextClassLoaderProxy;
+import org.gradle.messaging.remote.ObjectConnection;
+import org.gradle.process.internal.WorkerProcessContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Serializable;
+import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * A test worker that stays alive after executing the tests of a test task, so that it can execute the tests of later test tasks with the
+ * same process configuration. The jars of the worker process classpath, which hold the test framework, are shared by all sessions, whereas
+ * the rest of the test runtime classpath of each session is loaded in a ClassLoader that is closed at the end of the session. This ClassLoader
+ * preserves the order of the test runtime classpath. The system properties and security manager are also reset at the end of each session.
+ */
+public class ReusableTestWorker implements Action<WorkerProcessContext>, RemoteTestWorker, Serializable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReusableTestWorker.class);
+    private CountDownLatch shutdown;
+    private WorkerProcessContext workerProcessContext;
+    private DefaultServiceRegistry testServices;
+    private TestWorkerResultProcessor resultProcessor;
+    private Properties initialSystemProperties;
+    private SessionClassLoader sessionClassLoader;
+    private TestClassProcessor processor;
+
+    public void execute(WorkerProcessContext workerProcessContext) {
+        LOGGER.info("{} started.", workerProcessContext.getDisplayName());
+
+        this.workerProcessContext = workerProcessContext;
+        shutdown = new CountDownLatch(1);
+
+        System.setProperty(TestWorker.WORKER_ID_SYS_PROPERTY, workerProcessContext.getWorkerId().toString());
+        initialSystemProperties = (Properties) System.getProperties().clone();
+
+        testServices = new TestWorker.TestFrameworkServiceRegistry(workerProcessContext);
+        ObjectConnection serverConnection = workerProcessContext.getServerConnection();
+        serverConnection.useParameterSerializer(new TestEventSerializer());
+        resultProcessor = serverConnection.addOutgoing(TestWorkerResultProcessor.class);
+        serverConnection.addIncoming(RemoteTestWorker.class, this);
+        serverConnection.connect();
+
+        try {
+            try {
+                shutdown.await();
+            } catch (InterruptedException e) {
+                throw new UncheckedException(e);
+            }
+        } finally {
+            LOGGER.info("{} stopped.", workerProcessContext.getDisplayName());
+            testServices.close();
+        }
+    }
+
+    public void startSession(TestWorkerSession session) {
+        Thread.currentThread().setName("Test worker");
+        sessionClassLoader = new SessionClassLoader(session.getApplicationClasspath(), session.getWorkerClasspath(), workerProcessContext.getApplicationClassLoader());
+
+        TestClassProcessor targetProcessor = session.getProcessorFactory().create(testServices);
+        IdGenerator<Object> idGenerator = testServices.get(IdGenerator.class);
+        targetProcessor = new WorkerTestClassProcessor(targetProcessor, idGenerator.generateId(),
+                workerProcessContext.getDisplayName(), new TrueTimeProvider());
+        ContextClassLoaderProxy<TestClassProcessor> proxy = new ContextClassLoaderProxy<TestClassProcessor>(
+                TestClassProcessor.class, targetProcessor, sessionClassLoader);
+        processor = proxy.getSource();
+    }
+
+    public void startProcessing() {
+        Thread.currentThread().setName("Test worker");
+        processor.startProcessing(resultProcessor);
+    }
+
+    public void processTestClass(TestClassRunInfo testClass) {
+        Thread.currentThread().setName("Test worker");
+        try {
+            processor.processTestClass(testClass);
+        } finally {
+            // Clean the interrupted status
+            Thread.interrupted();
+        }
+    }
+
+    public void stop() {
+        Thread.currentThread().setName("Test worker");
+        try {
+            processor.stop();
+        } finally {
+            // Drop the session and close its ClassLoader, so that the ClassLoader can be collected and its jars are released, and clean out
+            // any state the tests might have changed
+            processor = null;
+            CompositeStoppable.stoppable(sessionClassLoader).stop();
+            sessionClassLoader = null;
+            System.setSecurityManager(null);
+            System.setProperties((Properties) initialSystemProperties.clone());
+            // Sent after all results of the session, so the receiver knows that it has seen all of them
+            resultProcessor.sessionCompleted();
+        }
+    }
+
+    public void shutdown() {
+        shutdown.countDown();
+    }
+}
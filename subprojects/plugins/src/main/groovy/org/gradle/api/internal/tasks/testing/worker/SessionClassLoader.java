@@ -0,0 +1,138 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.worker;
+
+import org.gradle.internal.UncheckedException;
+
+import java.io.File;
+import java.net.MalformedURLException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.*;
+
+/**
+ * Loads the classes and resources of a test session in the order of the test runtime classpath. The entries of the classpath that are not
+ * on the worker classpath are loaded by this ClassLoader, whereas the jars of the worker classpath have already been loaded by the worker
+ * process, which is the parent of this ClassLoader. A class or resource is taken from the parent only when it comes from a worker jar that
+ * precedes every local entry containing the same class or resource, or when it does not come from the test runtime classpath at all, for
+ * example a JDK or Gradle class.
+ */
+class SessionClassLoader extends URLClassLoader {
+    private final Map<File, Integer> jarPositions = new HashMap<File, Integer>();
+    private final List<String> localUrls = new ArrayList<String>();
+    private final List<Integer> localPositions = new ArrayList<Integer>();
+
+    SessionClassLoader(List<File> classpath, Collection<File> workerClasspath, ClassLoader parent) {
+        super(new URL[0], parent);
+        Set<File> workerFiles = new HashSet<File>();
+        for (File file : workerClasspath) {
+            workerFiles.add(file.getAbsoluteFile());
+        }
+        for (int i = 0; i < classpath.size(); i++) {
+            File file = classpath.get(i).getAbsoluteFile();
+            if (workerFiles.contains(file)) {
+                jarPositions.put(file, i);
+            } else {
+                URL url = toURL(file);
+                // The resources of a jar are found at jar: URLs
+                localUrls.add(file.isFile() ? "jar:" + url + "!/" : url.toString());
+                localPositions.add(i);
+                addURL(url);
+            }
+        }
+    }
+
+    @Override
+    protected synchronized Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+        Class<?> type = findLoadedClass(name);
+        if (type == null) {
+            String resourceName = name.replace('.', '/') + ".class";
+            URL localResource = findResource(resourceName);
+            if (localResource != null && isLocalFirst(localResource, getParent().getResource(resourceName))) {
+                type = findClass(name);
+            } else {
+                type = getParent().loadClass(name);
+            }
+        }
+        if (resolve) {
+            resolveClass(type);
+        }
+        return type;
+    }
+
+    @Override
+    public URL getResource(String name) {
+        URL localResource = findResource(name);
+        URL parentResource = getParent().getResource(name);
+        if (localResource != null && isLocalFirst(localResource, parentResource)) {
+            return localResource;
+        }
+        return parentResource;
+    }
+
+    private boolean isLocalFirst(URL localResource, URL parentResource) {
+        if (parentResource == null) {
+            return true;
+        }
+        int parentPosition = jarPosition(parentResource);
+        return parentPosition >= 0 && localPosition(localResource) < parentPosition;
+    }
+
+    /**
+     * Returns the position of the worker jar that contains the given resource on the test runtime classpath, or -1 when it is not on the classpath.
+     */
+    private int jarPosition(URL resource) {
+        if (!resource.getProtocol().equals("jar")) {
+            return -1;
+        }
+        String path = resource.getPath();
+        int separator = path.indexOf("!/");
+        if (separator < 0) {
+            return -1;
+        }
+        try {
+            File jar = new File(new URL(path.substring(0, separator)).toURI()).getAbsoluteFile();
+            Integer position = jarPositions.get(jar);
+            return position == null ? -1 : position;
+        } catch (MalformedURLException e) {
+            return -1;
+        } catch (URISyntaxException e) {
+            return -1;
+        } catch (IllegalArgumentException e) {
+            return -1;
+        }
+    }
+
+    private int localPosition(URL resource) {
+        String url = resource.toString();
+        for (int i = 0; i < localUrls.size(); i++) {
+            if (url.startsWith(localUrls.get(i))) {
+                return localPositions.get(i);
+            }
+        }
+        return Integer.MAX_VALUE;
+    }
+
+    private static URL toURL(File file) {
+        try {
+            return file.toURI().toURL();
+        } catch (MalformedURLException e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+    }
+}
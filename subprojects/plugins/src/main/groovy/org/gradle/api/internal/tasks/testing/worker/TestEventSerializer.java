@@ -24,6 +24,10 @@ import org.gradle.messaging.remote.internal.Message;
 import org.gradle.messaging.serialize.*;
 import org.gradle.messaging.serialize.kryo.StatefulSerializer;
 
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
 public class TestEventSerializer implements StatefulSerializer<Object[]> {
     private final Serializer<Object> paramSerializer;
 
@@ -40,6 +44,7 @@ public class TestEventSerializer implements StatefulSerializer<Object[]> {
         registry.register(TestCompleteEvent.class, new TestCompleteEventSerializer());
         registry.register(DefaultTestOutputEvent.class, new DefaultTestOutputEventSerializer());
         registry.register(Throwable.class, new ThrowableSerializer());
+        registry.register(TestWorkerSession.class, new TestWorkerSessionSerializer());
         paramSerializer = registry.build();
     }
 
@@ -99,6 +104,37 @@ public class TestEventSerializer implements StatefulSerializer<Object[]> {
         }
     }
 
+    private static class TestWorkerSessionSerializer implements Serializer<TestWorkerSession> {
+        public TestWorkerSession read(Decoder decoder) throws Exception {
+            WorkerTestClassProcessorFactory processorFactory = (WorkerTestClassProcessorFactory) Message.receive(decoder.getInputStream(), getClass().getClassLoader());
+            List<File> applicationClasspath = readFiles(decoder);
+            List<File> workerClasspath = readFiles(decoder);
+            return new TestWorkerSession(processorFactory, applicationClasspath, workerClasspath);
+        }
+
+        public void write(Encoder encoder, TestWorkerSession value) throws Exception {
+            Message.send(value.getProcessorFactory(), encoder.getOutputStream());
+            writeFiles(encoder, value.getApplicationClasspath());
+            writeFiles(encoder, value.getWorkerClasspath());
+        }
+
+        private List<File> readFiles(Decoder decoder) throws Exception {
+            int count = decoder.readSmallInt();
+            List<File> files = new ArrayList<File>(count);
+            for (int i = 0; i < count; i++) {
+                files.add(new File(decoder.readString()));
+            }
+            return files;
+        }
+
+        private void writeFiles(Encoder encoder, List<File> files) throws Exception {
+            encoder.writeSmallInt(files.size());
+            for (File file : files) {
+                encoder.writeString(file.getPath());
+            }
+        }
+    }
+
     private static class IdSerializer implements Serializer<CompositeIdGenerator.CompositeId> {
         public CompositeIdGenerator.CompositeId read(Decoder decoder) throws Exception {
             return new CompositeIdGenerator.CompositeId(decoder.readLong(), decoder.readLong());
@@ -0,0 +1,217 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.worker;
+
+import org.apache.commons.io.IOUtils;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.Type;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.*;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Selects the jars of a test runtime classpath that a reusable test worker loads itself, and so shares between sessions. These are the jars
+ * that contain a package shared with the test framework support of the worker, for example JUnit, along with the jars that provide the
+ * packages that these jars refer to, for example Hamcrest. All other jars are loaded by the session, so that the classes of the project
+ * and its dependencies are never shared between test tasks.
+ *
+ * <p>The packages that a jar contains and refers to are cached until the jar changes.</p>
+ */
+class TestFrameworkJarSelector {
+    private static final Logger LOGGER = LoggerFactory.getLogger(TestFrameworkJarSelector.class);
+
+    private final Map<File, JarPackages> cache = new HashMap<File, JarPackages>();
+
+    /**
+     * Returns the jars of the given classpath that should be loaded by the worker process, in classpath order.
+     */
+    synchronized List<File> select(Iterable<File> classpath, Collection<String> sharedPackages) {
+        List<File> jars = new ArrayList<File>();
+        for (File file : classpath) {
+            if (file.isFile()) {
+                jars.add(file);
+            }
+        }
+
+        Set<File> selected = new HashSet<File>();
+        LinkedList<File> queue = new LinkedList<File>();
+        for (File jar : jars) {
+            if (packagesOf(jar).containsAny(sharedPackages) && selected.add(jar)) {
+                queue.add(jar);
+            }
+        }
+        while (!queue.isEmpty()) {
+            Set<String> referencedPackages = packagesOf(queue.removeFirst()).getReferencedPackages();
+            for (File jar : jars) {
+                if (!selected.contains(jar) && packagesOf(jar).containsAny(referencedPackages)) {
+                    selected.add(jar);
+                    queue.add(jar);
+                }
+            }
+        }
+
+        List<File> result = new ArrayList<File>();
+        for (File jar : jars) {
+            if (selected.contains(jar)) {
+                result.add(jar);
+            }
+        }
+        return result;
+    }
+
+    private JarPackages packagesOf(File jar) {
+        JarPackages packages = cache.get(jar);
+        if (packages == null || !packages.isUpToDate()) {
+            packages = new JarPackages(jar);
+            cache.put(jar, packages);
+        }
+        return packages;
+    }
+
+    private static String packageOf(String internalName) {
+        int separator = internalName.lastIndexOf('/');
+        return separator < 0 ? "" : internalName.substring(0, separator).replace('/', '.');
+    }
+
+    private static class JarPackages {
+        private final File jar;
+        private final long length;
+        private final long lastModified;
+        private final Set<String> packages = new HashSet<String>();
+        private Set<String> referencedPackages;
+
+        JarPackages(File jar) {
+            this.jar = jar;
+            this.length = jar.length();
+            this.lastModified = jar.lastModified();
+            try {
+                ZipFile zipFile = new ZipFile(jar);
+                try {
+                    Enumeration<? extends ZipEntry> entries = zipFile.entries();
+                    while (entries.hasMoreElements()) {
+                        String name = entries.nextElement().getName();
+                        if (name.endsWith(".class")) {
+                            packages.add(packageOf(name));
+                        }
+                    }
+                } finally {
+                    zipFile.close();
+                }
+            } catch (IOException e) {
+                LOGGER.debug(String.format("Could not list the packages of %s.", jar), e);
+            }
+        }
+
+        boolean isUpToDate() {
+            return jar.isFile() && jar.length() == length && jar.lastModified() == lastModified;
+        }
+
+        /**
+         * Returns true when this jar contains one of the given packages, or one of their sub-packages.
+         */
+        boolean containsAny(Collection<String> candidates) {
+            for (String candidate : candidates) {
+                if (packages.contains(candidate)) {
+                    return true;
+                }
+                String prefix = candidate + ".";
+                for (String name : packages) {
+                    if (name.startsWith(prefix)) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Returns the packages of the classes that the classes of this jar link against. Only read for the jars that are selected.
+         */
+        Set<String> getReferencedPackages() {
+            if (referencedPackages == null) {
+                referencedPackages = new HashSet<String>();
+                try {
+                    ZipFile zipFile = new ZipFile(jar);
+                    try {
+                        Enumeration<? extends ZipEntry> entries = zipFile.entries();
+                        while (entries.hasMoreElements()) {
+                            ZipEntry entry = entries.nextElement();
+                            if (entry.getName().endsWith(".class")) {
+                                InputStream input = zipFile.getInputStream(entry);
+                                try {
+                                    addReferencedPackages(new ClassReader(input));
+                                } finally {
+                                    IOUtils.closeQuietly(input);
+                                }
+                            }
+                        }
+                    } finally {
+                        zipFile.close();
+                    }
+                } catch (IOException e) {
+                    LOGGER.debug(String.format("Could not read the classes of %s.", jar), e);
+                } catch (RuntimeException e) {
+                    // A class file that ASM cannot parse
+                    LOGGER.debug(String.format("Could not read the classes of %s.", jar), e);
+                }
+                referencedPackages.removeAll(packages);
+            }
+            return referencedPackages;
+        }
+
+        private void addReferencedPackages(ClassReader reader) {
+            char[] charBuffer = new char[reader.getMaxStringLength()];
+            for (int i = 1; i < reader.getItemCount(); i++) {
+                int itemOffset = reader.getItem(i);
+                if (itemOffset <= 0) {
+                    continue;
+                }
+                int tag = reader.readByte(itemOffset - 1);
+                if (tag == 7) {
+                    // A CONSTANT_Class entry
+                    addReferencedType(Type.getObjectType(reader.readUTF8(itemOffset, charBuffer)));
+                } else if (tag == 12) {
+                    // A CONSTANT_NameAndType entry, which holds the descriptor of a field or method that is referred to
+                    String descriptor = reader.readUTF8(itemOffset + 2, charBuffer);
+                    if (descriptor.startsWith("(")) {
+                        for (Type type : Type.getArgumentTypes(descriptor)) {
+                            addReferencedType(type);
+                        }
+                        addReferencedType(Type.getReturnType(descriptor));
+                    } else {
+                        addReferencedType(Type.getType(descriptor));
+                    }
+                }
+            }
+        }
+
+        private void addReferencedType(Type type) {
+            while (type.getSort() == Type.ARRAY) {
+                type = type.getElementType();
+            }
+            if (type.getSort() == Type.OBJECT) {
+                referencedPackages.add(packageOf(type.getInternalName()));
+            }
+        }
+    }
+}
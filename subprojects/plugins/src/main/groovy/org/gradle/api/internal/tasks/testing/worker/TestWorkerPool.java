@@ -0,0 +1,153 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.worker;
+
+import org.gradle.api.Action;
+import org.gradle.internal.Factory;
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.concurrent.Stoppable;
+import org.gradle.internal.concurrent.StoppableExecutor;
+import org.gradle.process.JavaForkOptions;
+import org.gradle.process.internal.JavaExecHandleBuilder;
+import org.gradle.process.internal.WorkerProcess;
+import org.gradle.process.internal.WorkerProcessBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.util.*;
+
+/**
+ * Keeps test worker processes alive between test tasks, and between builds when running in the daemon, so that JVM start-up, the loading
+ * of the test framework and JIT warm-up are paid once per worker rather than once per test task. Each worker is used by one test task at
+ * a time.
+ *
+ * <p>A worker is reused by a test task that would start a worker with exactly the same process configuration: Java executable, working
+ * directory, environment, JVM arguments including system properties, and worker classpath. The worker classpath only contains the jars
+ * of the test framework and the jars they depend on, as selected by {@link TestFrameworkJarSelector}. The rest of the test runtime classpath
+ * is loaded by each session. A worker is discarded when one of the jars on its classpath has changed since the worker was started.</p>
+ */
+public class TestWorkerPool implements Stoppable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(TestWorkerPool.class);
+    private static final int MAX_IDLE_WORKERS = 4;
+
+    private final StoppableExecutor monitorExecutor;
+    private final Object lock = new Object();
+    private final LinkedList<PooledTestWorker> idle = new LinkedList<PooledTestWorker>();
+    private final TestFrameworkJarSelector frameworkJarSelector = new TestFrameworkJarSelector();
+
+    public TestWorkerPool(ExecutorFactory executorFactory) {
+        this.monitorExecutor = executorFactory.create("Test worker monitor");
+    }
+
+    /**
+     * Returns an idle worker with the given configuration, or starts a new worker when there is none.
+     */
+    PooledTestWorker acquire(Factory<WorkerProcessBuilder> workerFactory, JavaForkOptions options, Iterable<File> classpath, Action<WorkerProcessBuilder> buildConfigAction) {
+        WorkerProcessBuilder builder = workerFactory.create();
+        builder.setBaseName("Gradle Test Executor");
+        builder.setLoadApplicationInSystemClassLoader(true);
+        builder.worker(new ReusableTestWorker());
+        options.copyTo(builder.getJavaCommand());
+        buildConfigAction.execute(builder);
+        builder.applicationClasspath(frameworkJarSelector.select(classpath, builder.getSharedPackages()));
+        String key = keyFor(builder);
+
+        PooledTestWorker worker = null;
+        synchronized (lock) {
+            for (Iterator<PooledTestWorker> iterator = idle.iterator(); iterator.hasNext();) {
+                PooledTestWorker candidate = iterator.next();
+                if (candidate.getKey().equals(key)) {
+                    iterator.remove();
+                    worker = candidate;
+                    break;
+                }
+            }
+        }
+
+        if (worker != null && !worker.isUpToDate()) {
+            LOGGER.debug("Discarding test worker, as it has stopped or its classpath has changed.");
+            worker.shutdown();
+            worker = null;
+        }
+        if (worker == null) {
+            worker = start(key, builder);
+        }
+        return worker;
+    }
+
+    private PooledTestWorker start(String key, WorkerProcessBuilder builder) {
+        final PooledTestWorker worker = new PooledTestWorker(key, builder.getApplicationClasspath());
+        WorkerProcess workerProcess = builder.build();
+        workerProcess.start();
+        worker.connect(workerProcess);
+        monitorExecutor.execute(new Runnable() {
+            public void run() {
+                worker.waitForStop();
+            }
+        });
+        return worker;
+    }
+
+    /**
+     * Returns the given worker to the pool. A worker that is not reusable, for example because its last session failed, is stopped instead.
+     * When the pool is full, the worker that has been idle for the longest time is stopped.
+     */
+    void release(PooledTestWorker worker, boolean reusable) {
+        if (!reusable || !worker.isUpToDate()) {
+            worker.shutdown();
+            return;
+        }
+        PooledTestWorker evicted = null;
+        synchronized (lock) {
+            idle.addLast(worker);
+            if (idle.size() > MAX_IDLE_WORKERS) {
+                evicted = idle.removeFirst();
+            }
+        }
+        if (evicted != null) {
+            LOGGER.debug("Stopping the least recently used test worker, as there are too many idle test workers.");
+            evicted.shutdown();
+        }
+    }
+
+    public void stop() {
+        List<PooledTestWorker> workers;
+        synchronized (lock) {
+            workers = new ArrayList<PooledTestWorker>(idle);
+            idle.clear();
+        }
+        for (PooledTestWorker worker : workers) {
+            worker.shutdown();
+        }
+        // Waits for the worker processes to stop
+        monitorExecutor.stop();
+    }
+
+    private static String keyFor(WorkerProcessBuilder builder) {
+        JavaExecHandleBuilder javaCommand = builder.getJavaCommand();
+        StringBuilder key = new StringBuilder();
+        key.append(javaCommand.getExecutable()).append('\n');
+        key.append(javaCommand.getWorkingDir()).append('\n');
+        key.append(new TreeMap<String, String>(javaCommand.getActualEnvironment())).append('\n');
+        key.append(javaCommand.getAllJvmArgs()).append('\n');
+        key.append(new TreeSet<String>(builder.getSharedPackages())).append('\n');
+        key.append(builder.getLogLevel()).append('\n');
+        key.append(builder.getApplicationClasspath());
+        return key.toString();
+    }
+}
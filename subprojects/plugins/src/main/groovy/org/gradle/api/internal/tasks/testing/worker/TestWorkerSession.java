@@ -0,0 +1,56 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.worker;
+
+import org.gradle.api.internal.tasks.testing.WorkerTestClassProcessorFactory;
+
+import java.io.File;
+import java.util.List;
+
+/**
+ * The details of a test task that is executed by a reusable test worker.
+ */
+public class TestWorkerSession {
+    private final WorkerTestClassProcessorFactory processorFactory;
+    private final List<File> applicationClasspath;
+    private final List<File> workerClasspath;
+
+    public TestWorkerSession(WorkerTestClassProcessorFactory processorFactory, List<File> applicationClasspath, List<File> workerClasspath) {
+        this.processorFactory = processorFactory;
+        this.applicationClasspath = applicationClasspath;
+        this.workerClasspath = workerClasspath;
+    }
+
+    public WorkerTestClassProcessorFactory getProcessorFactory() {
+        return processorFactory;
+    }
+
+    /**
+     * The complete test runtime classpath, in order. The entries of this classpath that are not on the worker classpath are loaded in a
+     * ClassLoader that is discarded at the end of the session.
+     */
+    public List<File> getApplicationClasspath() {
+        return applicationClasspath;
+    }
+
+    /**
+     * The jars of the test runtime classpath that are loaded by the worker process itself.
+     */
+    public List<File> getWorkerClasspath() {
+        return workerClasspath;
+    }
+}
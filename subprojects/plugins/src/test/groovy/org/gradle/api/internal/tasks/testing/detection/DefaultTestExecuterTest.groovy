@@ -18,8 +18,11 @@ package org.gradle.api.internal.tasks.testing.detection
 
 import org.gradle.api.file.FileCollection
 import org.gradle.api.file.FileTree
+import org.gradle.api.internal.changedetection.state.FileSnapshotter
+import org.gradle.api.internal.changedetection.state.TaskArtifactStateCacheAccess
 import org.gradle.api.internal.tasks.testing.TestFramework
 import org.gradle.api.internal.tasks.testing.TestResultProcessor
+import org.gradle.api.internal.tasks.testing.worker.TestWorkerPool
 import org.gradle.api.tasks.testing.Test
 import org.gradle.messaging.actor.Actor
 import org.gradle.messaging.actor.ActorFactory
@@ -38,7 +41,11 @@ class DefaultTestExecuterTest extends Specification {
     File testClassesDir = Mock()
     FileCollection testClasspath = Mock()
 
-    DefaultTestExecuter executer = new DefaultTestExecuter(workerFactory, actorFactory)
+    TestClassDetectionCache detectionCache = Mock()
+    TaskArtifactStateCacheAccess cacheAccess = Mock()
+    FileSnapshotter fileSnapshotter = Mock()
+
+    DefaultTestExecuter executer = new DefaultTestExecuter(workerFactory, actorFactory, Mock(TestWorkerPool), detectionCache, cacheAccess, fileSnapshotter)
 
     def setup() {
         _ * testTask.testFramework >> testFramework
@@ -47,6 +54,7 @@ class DefaultTestExecuterTest extends Specification {
         _ * resultProcessorActor.getProxy(_) >> resultProcessor
         _ * testTask.isScanForTestClasses() >> true
         _ * testFramework.getDetector() >> testFrameworkTestDetector
+        _ * detectionCache.useCache(cacheAccess, fileSnapshotter, _) >> { args -> args[2].run() }
     }
 
     def "testClassDirectory for testclassdetector is configured before executing"() {
@@ -65,4 +73,12 @@ class DefaultTestExecuterTest extends Specification {
         1 * testTask.getClasspath() >> testClasspath
         1 * testFrameworkTestDetector.setTestClasspath(testClasspath)
     }
+
+    def "detection cache for testclassdetector is configured and locked while scanning"() {
+        when:
+        executer.execute(testTask, testResultProcessor);
+        then:
+        1 * testFrameworkTestDetector.setDetectionCache(detectionCache)
+        1 * detectionCache.useCache(cacheAccess, fileSnapshotter, _) >> { args -> args[2].run() }
+    }
 }
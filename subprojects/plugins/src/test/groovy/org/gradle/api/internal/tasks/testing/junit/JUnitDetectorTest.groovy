@@ -0,0 +1,163 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.junit
+
+import org.gradle.api.file.FileCollection
+import org.gradle.api.internal.tasks.testing.TestClassProcessor
+import org.gradle.api.internal.tasks.testing.detection.ClassFileExtractionManager
+import org.gradle.api.internal.tasks.testing.detection.DetectedClass
+import org.gradle.api.internal.tasks.testing.detection.TestClassDetectionCache
+import org.gradle.test.fixtures.file.TestFile
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+import java.util.jar.JarEntry
+import java.util.jar.JarOutputStream
+
+class JUnitDetectorTest extends Specification {
+    @Rule TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+    def testClassesDir = tmpDir.createDir("classes")
+    def testClassProcessor = Mock(TestClassProcessor)
+    def detector = new JUnitDetector(new ClassFileExtractionManager())
+
+    def setup() {
+        detector.testClassesDirectory = testClassesDir
+        detector.startDetection(testClassProcessor)
+    }
+
+    def "detects test classes and subclasses of test classes"() {
+        def baseClass = copyClassFile(DetectorFixtureBaseTest, testClassesDir)
+        def subClass = copyClassFile(DetectorFixtureSubTest, testClassesDir)
+        def otherClass = copyClassFile(DetectorFixtureNotATest, testClassesDir)
+
+        when:
+        detector.processTestClass(subClass)
+        detector.processTestClass(baseClass)
+        detector.processTestClass(otherClass)
+
+        then:
+        1 * testClassProcessor.processTestClass({ it.testClassName == DetectorFixtureSubTest.name })
+        1 * testClassProcessor.processTestClass({ it.testClassName == DetectorFixtureBaseTest.name })
+        0 * testClassProcessor._
+    }
+
+    def "reads superclass from jar on the test classpath"() {
+        def jar = tmpDir.file("lib.jar")
+        createJar(jar, DetectorFixtureBaseTest)
+        detector.testClasspath = Stub(FileCollection) {
+            iterator() >> { [jar].iterator() }
+        }
+        def subClass = copyClassFile(DetectorFixtureSubTest, testClassesDir)
+
+        when:
+        detector.processTestClass(subClass)
+
+        then:
+        1 * testClassProcessor.processTestClass({ it.testClassName == DetectorFixtureSubTest.name })
+        0 * testClassProcessor._
+    }
+
+    def "uses cached details of class file"() {
+        def detectionCache = Mock(TestClassDetectionCache)
+        def classFile = testClassesDir.file("org/gradle/CachedTest.class") << "not a class file"
+        detector.detectionCache = detectionCache
+
+        when:
+        detector.processTestClass(classFile)
+
+        then:
+        1 * detectionCache.get(JUnitDetector.name, classFile) >> new DetectedClass("org/gradle/CachedTest", "java/lang/Object", true, false)
+        0 * detectionCache.put(_, _, _)
+        1 * testClassProcessor.processTestClass({ it.testClassName == "org.gradle.CachedTest" })
+    }
+
+    def "adds details of scanned class file to the cache"() {
+        def detectionCache = Mock(TestClassDetectionCache)
+        def classFile = copyClassFile(DetectorFixtureBaseTest, testClassesDir)
+        detector.detectionCache = detectionCache
+
+        when:
+        detector.processTestClass(classFile)
+
+        then:
+        1 * detectionCache.get(JUnitDetector.name, classFile) >> null
+        1 * detectionCache.put(JUnitDetector.name, classFile, { it.className == DetectorFixtureBaseTest.name.replace('.', '/') && it.test })
+        1 * testClassProcessor.processTestClass({ it.testClassName == DetectorFixtureBaseTest.name })
+    }
+
+    def "looks up each superclass once"() {
+        def detectionCache = Mock(TestClassDetectionCache)
+        def baseClass = testClassesDir.file("org/gradle/Base.class") << "not a class file"
+        def subClass1 = testClassesDir.file("org/gradle/Sub1.class") << "not a class file"
+        def subClass2 = testClassesDir.file("org/gradle/Sub2.class") << "not a class file"
+        detector.detectionCache = detectionCache
+
+        when:
+        detector.processTestClass(subClass1)
+        detector.processTestClass(subClass2)
+
+        then:
+        1 * detectionCache.get(JUnitDetector.name, subClass1) >> new DetectedClass("org/gradle/Sub1", "org/gradle/Base", false, false)
+        1 * detectionCache.get(JUnitDetector.name, subClass2) >> new DetectedClass("org/gradle/Sub2", "org/gradle/Base", false, false)
+        1 * detectionCache.get(JUnitDetector.name, baseClass) >> new DetectedClass("org/gradle/Base", "java/lang/Object", true, true)
+        1 * testClassProcessor.processTestClass({ it.testClassName == "org.gradle.Sub1" })
+        1 * testClassProcessor.processTestClass({ it.testClassName == "org.gradle.Sub2" })
+        0 * testClassProcessor._
+    }
+
+    private static String classFileName(Class<?> type) {
+        return type.name.replace('.', '/') + ".class"
+    }
+
+    private static TestFile copyClassFile(Class<?> type, TestFile classesDir) {
+        def classFile = classesDir.file(classFileName(type))
+        classFile.parentFile.mkdirs()
+        classFile.bytes = type.classLoader.getResourceAsStream(classFileName(type)).bytes
+        return classFile
+    }
+
+    private static void createJar(File jar, Class<?> type) {
+        def outputStream = new JarOutputStream(new FileOutputStream(jar))
+        try {
+            def segments = classFileName(type).split("/")
+            for (int i = 1; i < segments.length; i++) {
+                outputStream.putNextEntry(new JarEntry(segments[0..<i].join("/") + "/"))
+                outputStream.closeEntry()
+            }
+            outputStream.putNextEntry(new JarEntry(classFileName(type)))
+            outputStream.write(type.classLoader.getResourceAsStream(classFileName(type)).bytes)
+            outputStream.closeEntry()
+        } finally {
+            outputStream.close()
+        }
+    }
+}
+
+class DetectorFixtureBaseTest {
+    @org.junit.Test
+    void test() {
+    }
+}
+
+class DetectorFixtureSubTest extends DetectorFixtureBaseTest {
+}
+
+class DetectorFixtureNotATest {
+    void notATest() {
+    }
+}
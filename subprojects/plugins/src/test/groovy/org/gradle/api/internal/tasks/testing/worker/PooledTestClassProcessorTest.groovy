@@ -0,0 +1,103 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.worker
+
+import org.gradle.api.Action
+import org.gradle.api.internal.tasks.testing.TestClassRunInfo
+import org.gradle.api.internal.tasks.testing.TestResultProcessor
+import org.gradle.api.internal.tasks.testing.WorkerTestClassProcessorFactory
+import org.gradle.internal.Factory
+import org.gradle.process.JavaForkOptions
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+class PooledTestClassProcessorTest extends Specification {
+    @Rule TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+    def workerPool = Mock(TestWorkerPool)
+    def workerFactory = Mock(Factory)
+    def processorFactory = Mock(WorkerTestClassProcessorFactory)
+    def options = Mock(JavaForkOptions)
+    def configAction = Mock(Action)
+    def resultProcessor = Mock(TestResultProcessor)
+    def worker = Mock(PooledTestWorker)
+    def jar = tmpDir.createFile("lib.jar")
+    def classesDir = tmpDir.createDir("classes")
+    def processor = new PooledTestClassProcessor(workerPool, workerFactory, processorFactory, options, [classesDir, jar], configAction)
+
+    def "acquires worker on first test and passes the complete classpath to the session"() {
+        def test1 = Mock(TestClassRunInfo)
+        def test2 = Mock(TestClassRunInfo)
+
+        when:
+        processor.startProcessing(resultProcessor)
+        processor.processTestClass(test1)
+        processor.processTestClass(test2)
+
+        then:
+        1 * workerPool.acquire(workerFactory, options, [classesDir, jar], configAction) >> worker
+        1 * worker.startSession(processorFactory, [classesDir, jar], resultProcessor)
+        1 * worker.processTestClass(test1)
+        1 * worker.processTestClass(test2)
+        0 * _._
+    }
+
+    def "returns worker to pool when tests complete"() {
+        given:
+        workerPool.acquire(_, _, _, _) >> worker
+        processor.startProcessing(resultProcessor)
+        processor.processTestClass(Mock(TestClassRunInfo))
+
+        when:
+        processor.stop()
+
+        then:
+        1 * worker.stopSession()
+
+        then:
+        1 * workerPool.release(worker, true)
+    }
+
+    def "does not return worker to pool when it fails"() {
+        def failure = new RuntimeException()
+
+        given:
+        workerPool.acquire(_, _, _, _) >> worker
+        processor.startProcessing(resultProcessor)
+        processor.processTestClass(Mock(TestClassRunInfo))
+
+        when:
+        processor.stop()
+
+        then:
+        1 * worker.stopSession() >> { throw failure }
+        1 * workerPool.release(worker, false)
+
+        and:
+        def e = thrown(RuntimeException)
+        e.is(failure)
+    }
+
+    def "does nothing on stop when no tests were executed"() {
+        when:
+        processor.startProcessing(resultProcessor)
+        processor.stop()
+
+        then:
+        0 * _._
+    }
+}
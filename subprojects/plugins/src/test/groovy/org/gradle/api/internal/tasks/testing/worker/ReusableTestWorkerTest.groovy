@@ -0,0 +1,113 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.worker
+
+import org.gradle.api.internal.tasks.testing.TestClassProcessor
+import org.gradle.api.internal.tasks.testing.TestClassRunInfo
+import org.gradle.api.internal.tasks.testing.WorkerTestClassProcessorFactory
+import org.gradle.messaging.remote.ObjectConnection
+import org.gradle.process.internal.WorkerProcessContext
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.gradle.util.SetSystemProperties
+import org.junit.Rule
+import spock.lang.Specification
+
+import java.util.concurrent.CountDownLatch
+
+class ReusableTestWorkerTest extends Specification {
+    @Rule SetSystemProperties properties = new SetSystemProperties()
+    @Rule TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+    def connection = Mock(ObjectConnection)
+    def resultProcessor = Mock(TestWorkerResultProcessor)
+    def connected = new CountDownLatch(1)
+    def workerContext = Stub(WorkerProcessContext) {
+        getWorkerId() >> "<worker-id>"
+        getDisplayName() >> "Test worker"
+        getServerConnection() >> connection
+        getApplicationClassLoader() >> getClass().classLoader
+    }
+    def worker = new ReusableTestWorker()
+
+    def "executes each session with its own class loader until shut down"() {
+        def factory = Mock(WorkerTestClassProcessorFactory)
+        def processor1 = Mock(TestClassProcessor)
+        def processor2 = Mock(TestClassProcessor)
+        def test = Mock(TestClassRunInfo)
+        def classesDir = tmpDir.createDir("classes")
+        def classLoaders = []
+
+        given:
+        connection.addOutgoing(TestWorkerResultProcessor) >> resultProcessor
+        connection.connect() >> { connected.countDown() }
+
+        when:
+        def thread = Thread.start { worker.execute(workerContext) }
+        connected.await()
+        runSession(new TestWorkerSession(factory, [classesDir], []), test)
+        runSession(new TestWorkerSession(factory, [classesDir], []), test)
+        worker.shutdown()
+        thread.join()
+
+        then:
+        2 * factory.create(_) >>> [processor1, processor2]
+        1 * processor1.startProcessing(_) >> { classLoaders << Thread.currentThread().contextClassLoader }
+        1 * processor1.processTestClass(test)
+        1 * processor1.stop()
+        1 * processor2.startProcessing(_) >> { classLoaders << Thread.currentThread().contextClassLoader }
+        1 * processor2.processTestClass(test)
+        1 * processor2.stop()
+        2 * resultProcessor.sessionCompleted()
+
+        and:
+        classLoaders.size() == 2
+        !classLoaders[0].is(classLoaders[1])
+        classLoaders.every { it instanceof URLClassLoader && it.URLs as List == [classesDir.toURI().toURL()] }
+        System.properties['org.gradle.test.worker'] == '<worker-id>'
+        System.properties['changed.by.test'] == null
+    }
+
+    def "notifies session completed after the processor has stopped"() {
+        def factory = Stub(WorkerTestClassProcessorFactory)
+        def processor = Mock(TestClassProcessor)
+        factory.create(_) >> processor
+
+        given:
+        connection.addOutgoing(TestWorkerResultProcessor) >> resultProcessor
+        connection.connect() >> { connected.countDown() }
+
+        when:
+        def thread = Thread.start { worker.execute(workerContext) }
+        connected.await()
+        runSession(new TestWorkerSession(factory, [], []), Stub(TestClassRunInfo))
+        worker.shutdown()
+        thread.join()
+
+        then:
+        1 * processor.stop()
+
+        then:
+        1 * resultProcessor.sessionCompleted()
+    }
+
+    private void runSession(TestWorkerSession session, TestClassRunInfo test) {
+        worker.startSession(session)
+        worker.startProcessing()
+        worker.processTestClass(test)
+        System.setProperty("changed.by.test", "value")
+        worker.stop()
+    }
+}
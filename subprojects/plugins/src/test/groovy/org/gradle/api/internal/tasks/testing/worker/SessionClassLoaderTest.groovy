@@ -0,0 +1,90 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.worker
+
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+class SessionClassLoaderTest extends Specification {
+    @Rule TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+    def classesDir = tmpDir.createDir("classes")
+    def resourcesDir = tmpDir.createDir("resources")
+    def jar = tmpDir.file("lib.jar")
+    def appJar = tmpDir.file("app.jar")
+    def parent
+
+    def setup() {
+        def jarContent = tmpDir.createDir("jar-content")
+        jarContent.file("shared.txt") << "jar"
+        jarContent.file("jar-only.txt") << "jar"
+        jarContent.zipTo(jar)
+        def appJarContent = tmpDir.createDir("app-jar-content")
+        appJarContent.file("shared.txt") << "app"
+        appJarContent.zipTo(appJar)
+        classesDir.file("shared.txt") << "classes"
+        resourcesDir.file("shared.txt") << "resources"
+        resourcesDir.file("dir-only.txt") << "resources"
+        parent = new URLClassLoader([jar.toURI().toURL()] as URL[], (ClassLoader) null)
+    }
+
+    def "uses resource from directory that precedes the jar"() {
+        def loader = new SessionClassLoader([classesDir, jar, resourcesDir], [jar], parent)
+
+        expect:
+        loader.getResource("shared.txt").text == "classes"
+        loader.getResource("jar-only.txt").text == "jar"
+        loader.getResource("dir-only.txt").text == "resources"
+    }
+
+    def "uses resource from jar that precedes the directories"() {
+        def loader = new SessionClassLoader([jar, classesDir, resourcesDir], [jar], parent)
+
+        expect:
+        loader.getResource("shared.txt").text == "jar"
+        loader.getResource("dir-only.txt").text == "resources"
+    }
+
+    def "uses resource from first directory"() {
+        def loader = new SessionClassLoader([resourcesDir, jar, classesDir], [jar], parent)
+
+        expect:
+        loader.getResource("shared.txt").text == "resources"
+    }
+
+    def "uses resource from jar that is not on the worker classpath and precedes the worker jar"() {
+        def loader = new SessionClassLoader([appJar, jar, classesDir], [jar], parent)
+
+        expect:
+        loader.getResource("shared.txt").text == "app"
+        loader.getResource("jar-only.txt").text == "jar"
+    }
+
+    def "uses resource from worker jar that precedes the jar that is not on the worker classpath"() {
+        def loader = new SessionClassLoader([jar, appJar, classesDir], [jar], parent)
+
+        expect:
+        loader.getResource("shared.txt").text == "jar"
+    }
+
+    def "loads the entries that are not on the worker classpath"() {
+        def loader = new SessionClassLoader([classesDir, appJar, jar, resourcesDir], [jar], parent)
+
+        expect:
+        loader.URLs as List == [classesDir.toURI().toURL(), appJar.toURI().toURL(), resourcesDir.toURI().toURL()]
+    }
+}
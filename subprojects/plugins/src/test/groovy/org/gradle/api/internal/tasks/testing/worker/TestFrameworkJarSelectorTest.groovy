@@ -0,0 +1,98 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.worker
+
+import org.gradle.test.fixtures.file.TestFile
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import org.objectweb.asm.ClassWriter
+import org.objectweb.asm.MethodVisitor
+import org.objectweb.asm.Opcodes
+import spock.lang.Specification
+
+class TestFrameworkJarSelectorTest extends Specification {
+    @Rule TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+    def selector = new TestFrameworkJarSelector()
+    def classesDir = tmpDir.createDir("classes")
+    def appJar = jar("app.jar", "com/example/App": [])
+    def hamcrestJar = jar("hamcrest.jar", "org/hamcrest/Matcher": [])
+    def junitJar = jar("junit.jar", "org/junit/Assert": ["org/hamcrest/Matcher"], "org/junit/runner/Runner": [])
+
+    def "selects the jars that contain a shared package and the jars they refer to, in classpath order"() {
+        expect:
+        selector.select([classesDir, appJar, hamcrestJar, junitJar], ["org.junit"]) == [hamcrestJar, junitJar]
+    }
+
+    def "selects the jars that contain a sub-package of a shared package"() {
+        def runnerJar = jar("runner.jar", "org/junit/runner/Runner": [])
+
+        expect:
+        selector.select([appJar, runnerJar], ["org.junit"]) == [runnerJar]
+    }
+
+    def "selects nothing when there are no shared packages"() {
+        expect:
+        selector.select([classesDir, appJar, junitJar], []) == []
+    }
+
+    def "ignores jars that cannot be read"() {
+        def brokenJar = tmpDir.file("broken.jar") << "not a jar"
+
+        expect:
+        selector.select([brokenJar, junitJar], ["org.junit"]) == [junitJar]
+    }
+
+    def "notices when a jar has changed"() {
+        expect:
+        selector.select([appJar, junitJar], ["org.junit"]) == [junitJar]
+
+        when:
+        jar("app.jar", "com/example/App": [], "org/hamcrest/Description": [])
+
+        then:
+        selector.select([appJar, junitJar], ["org.junit"]) == [appJar, junitJar]
+    }
+
+    private TestFile jar(Map<String, List<String>> classes, String name) {
+        def content = tmpDir.file("${name}-content")
+        content.deleteDir()
+        classes.each { className, referencedClasses ->
+            content.file("${className}.class").bytes = classFile(className, referencedClasses)
+        }
+        def jar = tmpDir.file(name)
+        jar.delete()
+        content.zipTo(jar)
+        return jar
+    }
+
+    private static byte[] classFile(String className, List<String> referencedClasses) {
+        def writer = new ClassWriter(ClassWriter.COMPUTE_MAXS)
+        writer.visit(Opcodes.V1_6, Opcodes.ACC_PUBLIC, className, null, "java/lang/Object", null)
+        MethodVisitor method = writer.visitMethod(Opcodes.ACC_PUBLIC | Opcodes.ACC_STATIC, "check", "(Ljava/lang/Object;)V", null, null)
+        method.visitCode()
+        referencedClasses.each { referencedClass ->
+            method.visitVarInsn(Opcodes.ALOAD, 0)
+            method.visitTypeInsn(Opcodes.CHECKCAST, referencedClass)
+            method.visitInsn(Opcodes.POP)
+        }
+        method.visitInsn(Opcodes.RETURN)
+        method.visitMaxs(0, 0)
+        method.visitEnd()
+        writer.visitEnd()
+        return writer.toByteArray()
+    }
+}
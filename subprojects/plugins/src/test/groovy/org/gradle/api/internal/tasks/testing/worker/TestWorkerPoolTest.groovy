@@ -0,0 +1,206 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.worker
+
+import org.gradle.api.Action
+import org.gradle.api.internal.file.TestFiles
+import org.gradle.internal.Factory
+import org.gradle.internal.concurrent.DefaultExecutorFactory
+import org.gradle.messaging.remote.ObjectConnection
+import org.gradle.process.JavaForkOptions
+import org.gradle.process.internal.WorkerProcess
+import org.gradle.process.internal.WorkerProcessBuilder
+import org.gradle.test.fixtures.file.TestFile
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+import java.util.concurrent.CountDownLatch
+
+class TestWorkerPoolTest extends Specification {
+    @Rule TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+    def executorFactory = new DefaultExecutorFactory()
+    def pool = new TestWorkerPool(executorFactory)
+    def options = Stub(JavaForkOptions)
+    def configAction = { it.sharedPackages("org.junit") } as Action
+    def remoteWorkers = []
+    def shutdownWorkers = []
+    def processes = []
+    def workerFactory = { new TestWorkerProcessBuilder(createWorkerProcess()) } as Factory<WorkerProcessBuilder>
+    def jar = frameworkJar("junit.jar", "org/junit/Test.class")
+
+    def cleanup() {
+        // Workers that are still in use are not stopped by the pool
+        processes*.countDown()
+        pool.stop()
+        executorFactory.stop()
+    }
+
+    def "reuses idle worker with the same configuration"() {
+        when:
+        def worker = pool.acquire(workerFactory, options, [jar], configAction)
+        pool.release(worker, true)
+        def reused = pool.acquire(workerFactory, options, [jar], configAction)
+
+        then:
+        reused.is(worker)
+        remoteWorkers.size() == 1
+    }
+
+    def "starts another worker while the idle worker is in use"() {
+        when:
+        def worker1 = pool.acquire(workerFactory, options, [jar], configAction)
+        def worker2 = pool.acquire(workerFactory, options, [jar], configAction)
+
+        then:
+        !worker1.is(worker2)
+        remoteWorkers.size() == 2
+    }
+
+    def "starts new worker when configuration is different"() {
+        def otherJar = frameworkJar("other-junit.jar", "org/junit/Test.class")
+        def otherConfigAction = { it.sharedPackages("org.junit"); it.javaCommand.systemProperty("prop", "value") } as Action
+
+        when:
+        pool.release(pool.acquire(workerFactory, options, [jar], configAction), true)
+        def withOtherClasspath = pool.acquire(workerFactory, options, [otherJar], configAction)
+        def withOtherJvmArgs = pool.acquire(workerFactory, options, [jar], otherConfigAction)
+
+        then:
+        remoteWorkers.size() == 3
+        !withOtherClasspath.is(withOtherJvmArgs)
+    }
+
+    def "discards idle worker when a jar on its classpath has changed"() {
+        when:
+        def worker = pool.acquire(workerFactory, options, [jar], configAction)
+        pool.release(worker, true)
+        frameworkJar("junit.jar", "org/junit/Test.class", "org/junit/Assert.class")
+        def replacement = pool.acquire(workerFactory, options, [jar], configAction)
+
+        then:
+        !replacement.is(worker)
+        shutdownWorkers == [remoteWorkers[0]]
+    }
+
+    def "stops worker that is not reusable"() {
+        when:
+        def worker = pool.acquire(workerFactory, options, [jar], configAction)
+        pool.release(worker, false)
+        def replacement = pool.acquire(workerFactory, options, [jar], configAction)
+
+        then:
+        !replacement.is(worker)
+        shutdownWorkers == [remoteWorkers[0]]
+    }
+
+    def "stops least recently used idle worker when pool is full"() {
+        when:
+        def workers = (1..5).collect { pool.acquire(workerFactory, options, [jar], configAction) }
+        workers.each { pool.release(it, true) }
+
+        then:
+        shutdownWorkers == [remoteWorkers[0]]
+
+        when:
+        def reused = pool.acquire(workerFactory, options, [jar], configAction)
+
+        then:
+        reused.is(workers[1])
+        remoteWorkers.size() == 5
+    }
+
+    def "loads only the test framework jars in the worker process"() {
+        def builders = []
+        def recordingFactory = { def builder = workerFactory.create(); builders << builder; builder } as Factory<WorkerProcessBuilder>
+        def classesDir = tmpDir.createDir("classes")
+        def appJar = frameworkJar("app.jar", "com/example/App.class")
+
+        when:
+        pool.acquire(recordingFactory, options, [classesDir, appJar, jar], configAction)
+
+        then:
+        builders[0].applicationClasspath as List == [jar]
+    }
+
+    def "reuses worker when only the jars that are not test framework jars have changed"() {
+        def appJar = frameworkJar("app.jar", "com/example/App.class")
+
+        when:
+        def worker = pool.acquire(workerFactory, options, [appJar, jar], configAction)
+        pool.release(worker, true)
+        frameworkJar("app.jar", "com/example/App.class", "com/example/Other.class")
+        def reused = pool.acquire(workerFactory, options, [appJar, jar], configAction)
+
+        then:
+        reused.is(worker)
+        remoteWorkers.size() == 1
+    }
+
+    def "stops idle workers when stopped"() {
+        when:
+        pool.release(pool.acquire(workerFactory, options, [jar], configAction), true)
+        pool.stop()
+
+        then:
+        shutdownWorkers == [remoteWorkers[0]]
+    }
+
+    private TestFile frameworkJar(String name, String... classFiles) {
+        def content = tmpDir.file("${name}-content")
+        content.deleteDir()
+        classFiles.each { content.file(it) << "content" }
+        def jar = tmpDir.file(name)
+        jar.delete()
+        content.zipTo(jar)
+        return jar
+    }
+
+    private WorkerProcess createWorkerProcess() {
+        def stopped = new CountDownLatch(1)
+        processes << stopped
+        def remoteWorker
+        remoteWorker = Stub(RemoteTestWorker) {
+            shutdown() >> {
+                shutdownWorkers << remoteWorker
+                stopped.countDown()
+            }
+        }
+        remoteWorkers << remoteWorker
+        def connection = Stub(ObjectConnection) {
+            addOutgoing(RemoteTestWorker) >> remoteWorker
+        }
+        return Stub(WorkerProcess) {
+            getConnection() >> connection
+            waitForStop() >> { stopped.await(); null }
+        }
+    }
+
+    private static class TestWorkerProcessBuilder extends WorkerProcessBuilder {
+        private final WorkerProcess workerProcess
+
+        TestWorkerProcessBuilder(WorkerProcess workerProcess) {
+            super(TestFiles.resolver())
+            this.workerProcess = workerProcess
+        }
+
+        @Override
+        WorkerProcess build() {
+            return workerProcess
+        }
+    }
+}
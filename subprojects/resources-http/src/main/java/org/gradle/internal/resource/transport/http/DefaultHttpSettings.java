@@ -19,11 +19,17 @@ package org.gradle.internal.resource.transport.http;
 import org.gradle.internal.resource.PasswordCredentials;
 
 public class DefaultHttpSettings implements HttpSettings {
+    public static final int DEFAULT_MAX_CONNECTIONS_PER_ROUTE = 20;
+    public static final int DEFAULT_MAX_CONNECTIONS = 100;
+
     private final PasswordCredentials passwordCredentials;
     private final HttpProxySettings proxySettings = new JavaSystemPropertiesHttpProxySettings();
+    private final int maxConnectionsPerRoute;
 
     public DefaultHttpSettings(PasswordCredentials passwordCredentials) {
         this.passwordCredentials = passwordCredentials;
+        // Honour the standard java system property, which was also used by the previous (non-pooled) client
+        this.maxConnectionsPerRoute = Integer.getInteger("http.maxConnections", DEFAULT_MAX_CONNECTIONS_PER_ROUTE);
     }
 
     public PasswordCredentials getCredentials() {
@@ -33,4 +39,12 @@ public class DefaultHttpSettings implements HttpSettings {
     public HttpProxySettings getProxySettings() {
         return proxySettings;
     }
+
+    public int getMaxConnectionsPerRoute() {
+        return maxConnectionsPerRoute;
+    }
+
+    public int getMaxConnections() {
+        return Math.max(DEFAULT_MAX_CONNECTIONS, maxConnectionsPerRoute);
+    }
 }
@@ -16,11 +16,14 @@
 
 package org.gradle.internal.resource.transport.http;
 
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpEntityEnclosingRequest;
 import org.apache.http.HttpResponse;
 import org.apache.http.client.HttpClient;
 import org.apache.http.client.methods.HttpGet;
 import org.apache.http.client.methods.HttpHead;
 import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.conn.ClientConnectionManager;
 import org.apache.http.impl.client.*;
 import org.apache.http.protocol.BasicHttpContext;
 import org.apache.http.util.EntityUtils;
@@ -37,12 +40,22 @@ public class HttpClientHelper {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(HttpClientHelper.class);
     private final HttpClient client;
+    private final HttpConnectionPool connectionPool;
     private final BasicHttpContext httpContext = new BasicHttpContext();
 
-    public HttpClientHelper(HttpSettings settings) {
+    /**
+     * Creates a client that leases its connections from the given pool, which may be shared with other clients.
+     */
+    public HttpClientHelper(HttpSettings settings, final HttpConnectionPool connectionPool) {
         alwaysUseKeepAliveConnections();
 
-        DefaultHttpClient client = new SystemDefaultHttpClient();
+        this.connectionPool = connectionPool;
+        DefaultHttpClient client = new SystemDefaultHttpClient() {
+            @Override
+            protected ClientConnectionManager createClientConnectionManager() {
+                return connectionPool.getConnectionManager();
+            }
+        };
         new HttpClientConfigurer(settings).configure(client);
         this.client = new DecompressingHttpClient(client);
     }
@@ -108,7 +121,18 @@ public class HttpClientHelper {
         httpContext.removeAttribute(DefaultRedirectStrategy.REDIRECT_LOCATIONS);
 
         LOGGER.debug("Performing HTTP {}: {}", request.getMethod(), request.getURI());
-        return client.execute(request, httpContext);
+        long start = System.currentTimeMillis();
+        HttpResponse response = client.execute(request, httpContext);
+        connectionPool.getStats().requestCompleted(System.currentTimeMillis() - start, contentLength(request), contentLength(response.getEntity()));
+        return response;
+    }
+
+    private static long contentLength(HttpRequestBase request) {
+        return request instanceof HttpEntityEnclosingRequest ? contentLength(((HttpEntityEnclosingRequest) request).getEntity()) : 0;
+    }
+
+    private static long contentLength(HttpEntity entity) {
+        return entity == null ? 0 : entity.getContentLength();
     }
 
     private HttpResponse processResponse(String source, String method, HttpResponse response) {
@@ -124,6 +148,4 @@ public class HttpClientHelper {
 
         return response;
     }
-
-
 }
@@ -0,0 +1,54 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.resource.transport.http;
+
+import org.apache.http.conn.ClientConnectionManager;
+import org.apache.http.impl.conn.PoolingClientConnectionManager;
+import org.apache.http.impl.conn.SchemeRegistryFactory;
+import org.gradle.internal.concurrent.Stoppable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A pool of keep-alive HTTP connections that can be shared by several {@link HttpClientHelper} instances, so that connections (and their TLS sessions)
+ * to a repository host are reused by every request made to that host, rather than only by the requests of a single client.
+ */
+public class HttpConnectionPool implements Stoppable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(HttpConnectionPool.class);
+
+    private final PoolingClientConnectionManager connectionManager;
+    private final HttpRequestStats stats = new HttpRequestStats();
+
+    public HttpConnectionPool(HttpSettings settings) {
+        connectionManager = new PoolingClientConnectionManager(SchemeRegistryFactory.createSystemDefault());
+        connectionManager.setDefaultMaxPerRoute(settings.getMaxConnectionsPerRoute());
+        connectionManager.setMaxTotal(settings.getMaxConnections());
+    }
+
+    ClientConnectionManager getConnectionManager() {
+        return connectionManager;
+    }
+
+    public HttpRequestStats getStats() {
+        return stats;
+    }
+
+    public void stop() {
+        connectionManager.shutdown();
+        LOGGER.debug("HTTP connection pool closed. {}", stats);
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.resource.transport.http;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counts the HTTP requests executed through a {@link HttpConnectionPool}: the number of requests, the bytes transferred, as declared by the request and response
+ * entities, and a histogram of the time taken to receive the response headers.
+ */
+public class HttpRequestStats {
+    private static final long[] LATENCY_BUCKET_LIMITS_MILLIS = {10, 50, 100, 500, 1000, 5000};
+
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong bytesSent = new AtomicLong();
+    private final AtomicLong bytesReceived = new AtomicLong();
+    private final AtomicLong totalLatencyMillis = new AtomicLong();
+    private final AtomicLongArray latencyHistogram = new AtomicLongArray(LATENCY_BUCKET_LIMITS_MILLIS.length + 1);
+
+    public void requestCompleted(long latencyMillis, long contentLengthSent, long contentLengthReceived) {
+        requests.incrementAndGet();
+        totalLatencyMillis.addAndGet(latencyMillis);
+        latencyHistogram.incrementAndGet(bucketFor(latencyMillis));
+        if (contentLengthSent > 0) {
+            bytesSent.addAndGet(contentLengthSent);
+        }
+        if (contentLengthReceived > 0) {
+            bytesReceived.addAndGet(contentLengthReceived);
+        }
+    }
+
+    private static int bucketFor(long latencyMillis) {
+        for (int i = 0; i < LATENCY_BUCKET_LIMITS_MILLIS.length; i++) {
+            if (latencyMillis < LATENCY_BUCKET_LIMITS_MILLIS[i]) {
+                return i;
+            }
+        }
+        return LATENCY_BUCKET_LIMITS_MILLIS.length;
+    }
+
+    public long getRequests() {
+        return requests.get();
+    }
+
+    public long getBytesSent() {
+        return bytesSent.get();
+    }
+
+    public long getBytesReceived() {
+        return bytesReceived.get();
+    }
+
+    public long getTotalLatencyMillis() {
+        return totalLatencyMillis.get();
+    }
+
+    /**
+     * Returns the number of requests per latency bucket. The buckets are bounded by 10ms, 50ms, 100ms, 500ms, 1s and 5s, with the last bucket holding the slower requests.
+     */
+    public long[] getLatencyHistogram() {
+        long[] histogram = new long[latencyHistogram.length()];
+        for (int i = 0; i < histogram.length; i++) {
+            histogram[i] = latencyHistogram.get(i);
+        }
+        return histogram;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder histogram = new StringBuilder();
+        long[] counts = getLatencyHistogram();
+        for (int i = 0; i < counts.length; i++) {
+            if (i > 0) {
+                histogram.append(", ");
+            }
+            histogram.append(i < LATENCY_BUCKET_LIMITS_MILLIS.length ? "<" + LATENCY_BUCKET_LIMITS_MILLIS[i] + "ms" : ">=" + LATENCY_BUCKET_LIMITS_MILLIS[i - 1] + "ms");
+            histogram.append(": ").append(counts[i]);
+        }
+        return String.format("Requests: %s, bytes sent: %s, bytes received: %s, total latency: %sms, latency histogram: [%s]",
+                getRequests(), getBytesSent(), getBytesReceived(), getTotalLatencyMillis(), histogram);
+    }
+}
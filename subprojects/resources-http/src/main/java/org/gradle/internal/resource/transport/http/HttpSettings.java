@@ -22,4 +22,14 @@ public interface HttpSettings {
     PasswordCredentials getCredentials();
 
     HttpProxySettings getProxySettings();
+
+    /**
+     * The maximum number of pooled connections to a single host.
+     */
+    int getMaxConnectionsPerRoute();
+
+    /**
+     * The maximum number of pooled connections across all hosts.
+     */
+    int getMaxConnections();
 }
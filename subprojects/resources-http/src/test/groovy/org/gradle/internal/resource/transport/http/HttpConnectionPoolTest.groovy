@@ -0,0 +1,88 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.resource.transport.http
+
+import org.gradle.internal.resource.PasswordCredentials
+import org.gradle.util.SetSystemProperties
+import org.junit.Rule
+import spock.lang.Specification
+
+class HttpConnectionPoolTest extends Specification {
+    @Rule SetSystemProperties sysProp = new SetSystemProperties()
+
+    def "sizes pool from http settings"() {
+        def settings = Stub(HttpSettings) {
+            getMaxConnectionsPerRoute() >> 7
+            getMaxConnections() >> 21
+        }
+
+        when:
+        def pool = new HttpConnectionPool(settings)
+
+        then:
+        pool.connectionManager.defaultMaxPerRoute == 7
+        pool.connectionManager.maxTotal == 21
+
+        cleanup:
+        pool?.stop()
+    }
+
+    def "uses default pool size when http.maxConnections is not set"() {
+        given:
+        System.clearProperty("http.maxConnections")
+
+        when:
+        def settings = new DefaultHttpSettings(new PasswordCredentials())
+
+        then:
+        settings.maxConnectionsPerRoute == DefaultHttpSettings.DEFAULT_MAX_CONNECTIONS_PER_ROUTE
+        settings.maxConnections == DefaultHttpSettings.DEFAULT_MAX_CONNECTIONS
+    }
+
+    def "uses http.maxConnections for connections per route"() {
+        given:
+        System.setProperty("http.maxConnections", "150")
+
+        when:
+        def settings = new DefaultHttpSettings(new PasswordCredentials())
+
+        then:
+        settings.maxConnectionsPerRoute == 150
+        settings.maxConnections == 150
+    }
+
+    def "clients share the connections of the pool"() {
+        def settings = Stub(HttpSettings) {
+            getCredentials() >> new PasswordCredentials()
+            getProxySettings() >> Stub(HttpProxySettings)
+            getMaxConnectionsPerRoute() >> 5
+            getMaxConnections() >> 10
+        }
+        def pool = new HttpConnectionPool(settings)
+
+        when:
+        def first = new HttpClientHelper(settings, pool)
+        def second = new HttpClientHelper(settings, pool)
+
+        then:
+        first.client.connectionManager.is(pool.connectionManager)
+        second.client.connectionManager.is(pool.connectionManager)
+
+        cleanup:
+        pool.stop()
+    }
+}
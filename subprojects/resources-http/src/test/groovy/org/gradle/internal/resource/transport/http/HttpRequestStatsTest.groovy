@@ -0,0 +1,45 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.resource.transport.http
+
+import spock.lang.Specification
+
+class HttpRequestStatsTest extends Specification {
+    def stats = new HttpRequestStats()
+
+    def "counts requests and transferred bytes"() {
+        when:
+        stats.requestCompleted(5, 0, 100)
+        stats.requestCompleted(20, 50, -1)
+
+        then:
+        stats.requests == 2
+        stats.bytesSent == 50
+        stats.bytesReceived == 100
+        stats.totalLatencyMillis == 25
+    }
+
+    def "records latency in histogram buckets"() {
+        when:
+        [0, 9, 10, 60, 120, 999, 4000, 10000].each { stats.requestCompleted(it, 0, 0) }
+
+        then:
+        stats.latencyHistogram == [2, 1, 1, 1, 1, 1, 1] as long[]
+        stats.toString().contains("<10ms: 2")
+        stats.toString().contains(">=5000ms: 1")
+    }
+}
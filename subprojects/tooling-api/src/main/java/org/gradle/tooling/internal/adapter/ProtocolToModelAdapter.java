@@ -26,14 +26,22 @@ import java.io.IOException;
 import java.io.Serializable;
 import java.lang.reflect.*;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 /**
  * Adapts some source object to some target view type.
+ *
+ * <p>The reflective lookups needed to adapt an object and to dispatch a method call on a view are made once per type and cached by this adapter, so
+ * that adapting large graphs of objects of a few types does not repeat them for every object and every call.</p>
  */
 public class ProtocolToModelAdapter implements Serializable {
     private static final MethodInvoker NO_OP_HANDLER = new NoOpMethodInvoker();
+    private static final Object NO_METHOD = new Object();
+    private static final Method EQUALS_METHOD;
+    private static final Method HASHCODE_METHOD;
     private static final Action<SourceObjectMapping> NO_OP_MAPPER = new NoOpMapping();
     private static final TargetTypeProvider IDENTITY_TYPE_PROVIDER = new TargetTypeProvider() {
         public <T> Class<? extends T> getTargetType(Class<T> initialTargetType, Object protocolObject) {
@@ -46,6 +54,16 @@ public class ProtocolToModelAdapter implements Serializable {
     private static final Pattern IS_METHOD = Pattern.compile("is(\\w+)");
     private final TargetTypeProvider targetTypeProvider;
     private final CollectionMapper collectionMapper = new CollectionMapper();
+    private transient volatile DispatchCache dispatchCache;
+
+    static {
+        try {
+            EQUALS_METHOD = Object.class.getMethod("equals", Object.class);
+            HASHCODE_METHOD = Object.class.getMethod("hashCode");
+        } catch (NoSuchMethodException e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+    }
 
     public ProtocolToModelAdapter() {
         this(IDENTITY_TYPE_PROVIDER);
@@ -100,13 +118,93 @@ public class ProtocolToModelAdapter implements Serializable {
             mixInMethodInvoker = new MixInMethodInvoker(mapping.mixInType, new AdaptingMethodInvoker(mapper, new ReflectionMethodInvoker()));
             overrideMethodInvoker = mixInMethodInvoker;
         }
-        Object proxy = Proxy.newProxyInstance(wrapperType.getClassLoader(), new Class<?>[]{wrapperType}, new InvocationHandlerImpl(sourceObject, overrideMethodInvoker, mapper));
+        Object proxy = newProxy(wrapperType, new InvocationHandlerImpl(sourceObject, overrideMethodInvoker, mapper));
         if (mixInMethodInvoker != null) {
             mixInMethodInvoker.setProxy(proxy);
         }
         return wrapperType.cast(proxy);
     }
 
+    private Object newProxy(Class<?> wrapperType, InvocationHandler handler) {
+        ConcurrentMap<Class<?>, Constructor<?>> proxyConstructors = getDispatchCache().proxyConstructors;
+        Constructor<?> constructor = proxyConstructors.get(wrapperType);
+        try {
+            if (constructor == null) {
+                constructor = Proxy.getProxyClass(wrapperType.getClassLoader(), wrapperType).getConstructor(InvocationHandler.class);
+                proxyConstructors.put(wrapperType, constructor);
+            }
+            return constructor.newInstance(handler);
+        } catch (InvocationTargetException e) {
+            throw UncheckedException.throwAsUncheckedException(e.getCause());
+        } catch (Exception e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+    }
+
+    private DispatchCache getDispatchCache() {
+        // Not serialized, so created on first use
+        DispatchCache cache = dispatchCache;
+        if (cache == null) {
+            cache = new DispatchCache();
+            dispatchCache = cache;
+        }
+        return cache;
+    }
+
+    /**
+     * The proxy constructor of each view type, the signature of each view method, and the method that implements each view method for each source type.
+     */
+    private static class DispatchCache {
+        private final ConcurrentMap<Class<?>, Constructor<?>> proxyConstructors = new ConcurrentHashMap<Class<?>, Constructor<?>>();
+        private final ConcurrentMap<Method, ViewMethod> viewMethods = new ConcurrentHashMap<Method, ViewMethod>();
+        private final ConcurrentMap<SourceMethodKey, Object> sourceMethods = new ConcurrentHashMap<SourceMethodKey, Object>();
+    }
+
+    private static class ViewMethod {
+        private final String name;
+        private final Class<?> returnType;
+        private final Type genericReturnType;
+        private final Class<?>[] parameterTypes;
+
+        private ViewMethod(Method method) {
+            this.name = method.getName();
+            this.returnType = method.getReturnType();
+            this.genericReturnType = method.getGenericReturnType();
+            this.parameterTypes = method.getParameterTypes();
+        }
+    }
+
+    private static class SourceMethodKey {
+        private final Class<?> sourceClass;
+        private final String name;
+        private final Class<?>[] parameterTypes;
+        private final int hashCode;
+
+        private SourceMethodKey(Class<?> sourceClass, String name, Class<?>[] parameterTypes) {
+            this.sourceClass = sourceClass;
+            this.name = name;
+            this.parameterTypes = parameterTypes;
+            this.hashCode = 31 * (31 * sourceClass.hashCode() + name.hashCode()) + Arrays.hashCode(parameterTypes);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj == this) {
+                return true;
+            }
+            if (!(obj instanceof SourceMethodKey)) {
+                return false;
+            }
+            SourceMethodKey other = (SourceMethodKey) obj;
+            return sourceClass.equals(other.sourceClass) && name.equals(other.name) && Arrays.equals(parameterTypes, other.parameterTypes);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+
     /**
      * Unpacks the source object from a given view object.
      */
@@ -170,8 +268,6 @@ public class ProtocolToModelAdapter implements Serializable {
         private final Object delegate;
         private final MethodInvoker overrideMethodInvoker;
         private final Action<? super SourceObjectMapping> mapper;
-        private transient Method equalsMethod;
-        private transient Method hashCodeMethod;
         private transient MethodInvoker invoker;
 
         public InvocationHandlerImpl(Object delegate, MethodInvoker overrideMethodInvoker, Action<? super SourceObjectMapping> mapper) {
@@ -195,12 +291,6 @@ public class ProtocolToModelAdapter implements Serializable {
                                             new ChainedMethodInvoker(
                                                     overrideMethodInvoker,
                                                     new ReflectionMethodInvoker())))));
-            try {
-                equalsMethod = Object.class.getMethod("equals", Object.class);
-                hashCodeMethod = Object.class.getMethod("hashCode");
-            } catch (NoSuchMethodException e) {
-                throw UncheckedException.throwAsUncheckedException(e);
-            }
         }
 
         @Override
@@ -222,18 +312,24 @@ public class ProtocolToModelAdapter implements Serializable {
         }
 
         public Object invoke(Object target, Method method, Object[] params) throws Throwable {
-            if (method.equals(equalsMethod)) {
+            if (method.equals(EQUALS_METHOD)) {
                 Object param = params[0];
                 if (param == null || !Proxy.isProxyClass(param.getClass())) {
                     return false;
                 }
                 InvocationHandler other = Proxy.getInvocationHandler(param);
                 return equals(other);
-            } else if (method.equals(hashCodeMethod)) {
+            } else if (method.equals(HASHCODE_METHOD)) {
                 return hashCode();
             }
 
-            MethodInvocation invocation = new MethodInvocation(method.getName(), method.getReturnType(), method.getGenericReturnType(), method.getParameterTypes(), delegate, params);
+            ConcurrentMap<Method, ViewMethod> viewMethods = getDispatchCache().viewMethods;
+            ViewMethod viewMethod = viewMethods.get(method);
+            if (viewMethod == null) {
+                viewMethod = new ViewMethod(method);
+                viewMethods.put(method, viewMethod);
+            }
+            MethodInvocation invocation = new MethodInvocation(viewMethod.name, viewMethod.returnType, viewMethod.genericReturnType, viewMethod.parameterTypes, delegate, params);
             invoker.invoke(invocation);
             if (!invocation.found()) {
                 String methodName = method.getDeclaringClass().getSimpleName() + "." + method.getName() + "()";
@@ -323,8 +419,7 @@ public class ProtocolToModelAdapter implements Serializable {
 
     private class ReflectionMethodInvoker implements MethodInvoker {
         public void invoke(MethodInvocation invocation) throws Throwable {
-            // TODO - cache method lookup
-            Method targetMethod = locateMethod(invocation);
+            Method targetMethod = lookupMethod(invocation);
             if (targetMethod == null) {
                 return;
             }
@@ -339,8 +434,19 @@ public class ProtocolToModelAdapter implements Serializable {
             invocation.setResult(returnValue);
         }
 
-        private Method locateMethod(MethodInvocation invocation) {
+        private Method lookupMethod(MethodInvocation invocation) {
             Class<?> sourceClass = invocation.getDelegate().getClass();
+            ConcurrentMap<SourceMethodKey, Object> sourceMethods = getDispatchCache().sourceMethods;
+            SourceMethodKey key = new SourceMethodKey(sourceClass, invocation.getName(), invocation.getParameterTypes());
+            Object method = sourceMethods.get(key);
+            if (method == null) {
+                method = locateMethod(sourceClass, invocation);
+                sourceMethods.put(key, method == null ? NO_METHOD : method);
+            }
+            return method == NO_METHOD ? null : (Method) method;
+        }
+
+        private Method locateMethod(Class<?> sourceClass, MethodInvocation invocation) {
             Method match;
             try {
                 match = sourceClass.getMethod(invocation.getName(), invocation.getParameterTypes());
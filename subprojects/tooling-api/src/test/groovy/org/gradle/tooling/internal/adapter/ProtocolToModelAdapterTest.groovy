@@ -406,6 +406,60 @@ class ProtocolToModelAdapterTest extends Specification {
         copiedModel.name == "name"
     }
 
+    def "view objects can be serialized after methods have been called on them"() {
+        def protocolModel = new TestProtocolProjectImpl()
+
+        given:
+        def model = adapter.adapt(TestProject.class, protocolModel)
+        model.name
+
+        expect:
+        def serialized = new ByteArrayOutputStream()
+        Message.send(model, serialized)
+        def copiedModel = Message.receive(new ByteArrayInputStream(serialized.toByteArray()), getClass().classLoader)
+        copiedModel.name == "name"
+        copiedModel.name == "name"
+    }
+
+    def "dispatches methods of the same view type to source objects of different types"() {
+        def project1 = new TestProtocolProjectImpl()
+        def project2 = new OtherTestProtocolProjectImpl()
+        def project3 = new TestProtocolProjectImpl(name: "other")
+
+        expect:
+        adapter.adapt(TestProject.class, project1).name == "name"
+        adapter.adapt(TestProject.class, project2).name == "other name"
+        adapter.adapt(TestProject.class, project3).name == "other"
+        adapter.adapt(TestProject.class, project1).name == "name"
+    }
+
+    def "reports missing method for each view when source type does not provide it"() {
+        def protocolModel = new TestProtocolProjectImpl()
+
+        when:
+        adapter.adapt(TestModel.class, protocolModel).project
+
+        then:
+        thrown(UnsupportedMethodException)
+
+        when:
+        adapter.adapt(TestModel.class, new TestProtocolProjectImpl()).project
+
+        then:
+        thrown(UnsupportedMethodException)
+    }
+
+    def "adapts large collections of source objects"() {
+        TestProtocolModel protocolModel = Mock()
+        def projects = (1..10000).collect { new TestProtocolProjectImpl(name: "project $it") }
+        _ * protocolModel.getChildList() >> projects
+
+        expect:
+        def model = adapter.adapt(TestModel.class, protocolModel)
+        model.childList.size() == 10000
+        model.childList.collect { it.name } == projects.collect { it.name }
+    }
+
     def "unpacks source object from view"() {
         def source = new Object()
 
@@ -480,6 +534,10 @@ class TestProtocolProjectImpl implements Serializable {
     String name = "name"
 }
 
+class OtherTestProtocolProjectImpl {
+    String name = "other name"
+}
+
 class ConfigMixin {
     TestModel model
 